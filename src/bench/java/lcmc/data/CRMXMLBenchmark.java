@@ -0,0 +1,137 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+
+package lcmc.data;
+
+import lcmc.gui.BenchmarkCluster;
+import lcmc.utilities.BenchmarkFixtures;
+import lcmc.utilities.StatusFrameDecoder;
+import lcmc.utilities.Tools;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing of the cluster status: the whole get-cluster-events
+ * frame and the crm_mon and cibadmin parts of it. The two recorded frames
+ * are parsed alternately, so that ClusterStatus never skips them as
+ * unchanged.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class CRMXMLBenchmark {
+    /** CRMXML with the meta data from the simulated cluster. */
+    private CRMXML crmXML;
+    /** Cluster status that parses the frames. */
+    private ClusterStatus clusterStatus;
+    /** Lines of the recorded cluster frames. */
+    private final List<List<String>> status = new ArrayList<List<String>>();
+    /** crm_mon output from the recorded frames. */
+    private final List<String> resStatus = new ArrayList<String>();
+    /** cibadmin output from the recorded frames. */
+    private final List<String> cib = new ArrayList<String>();
+    /** Index of the next frame. */
+    private int next = 0;
+
+    /** Loads the fixtures and the meta data. */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final BenchmarkCluster cluster = new BenchmarkCluster();
+        crmXML = new CRMXML(cluster.getFirstHost(),
+                            cluster.getBrowser().getServicesInfo());
+        clusterStatus = new ClusterStatus(cluster.getFirstHost(), crmXML);
+        for (final StatusFrameDecoder.Frame frame
+                  : BenchmarkFixtures.frames(BenchmarkFixtures.CLUSTER_EVENTS,
+                                             StatusFrameDecoder.CLUSTER)) {
+            status.add(frame.getLines());
+            resStatus.add(getCommandOutput(frame.getLines(), "res_status"));
+            cib.add(getCommandOutput(frame.getLines(), "cibadmin"));
+        }
+    }
+
+    /**
+     * Returns output of the command from the status, the same part that
+     * ClusterStatus passes to CRMXML.
+     */
+    private static String getCommandOutput(final List<String> lines,
+                                           final String command) {
+        final List<String> data = new ArrayList<String>();
+        boolean in = false;
+        for (final String l : lines) {
+            final String line = l.trim();
+            if (command.equals(line)) {
+                in = true;
+            } else if (!in) {
+                continue;
+            } else if ((">>>" + command).equals(line)) {
+                break;
+            } else if (!"ok".equals(line) || !data.isEmpty()) {
+                data.add(line);
+            }
+        }
+        return Tools.join("\n", data.toArray(new String[data.size()]));
+    }
+
+    /** Returns index of the next frame. */
+    private int next() {
+        next = (next + 1) % status.size();
+        return next;
+    }
+
+    /** Parses the whole cluster frame. */
+    @Benchmark
+    public boolean parseStatus() {
+        return clusterStatus.parseStatus(status.get(next()));
+    }
+
+    /** Parses the cibadmin output. */
+    @Benchmark
+    public Object parseCibQuery() {
+        return crmXML.parseCibQuery(cib.get(next()));
+    }
+
+    /** Parses the crm_mon output. */
+    @Benchmark
+    public Object parseResStatus() {
+        return crmXML.parseResStatus(resStatus.get(next()));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+
+package lcmc.data;
+
+import lcmc.gui.BenchmarkCluster;
+import lcmc.gui.DrbdGraph;
+import lcmc.utilities.BenchmarkFixtures;
+import lcmc.utilities.StatusFrameDecoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing of the drbd config and of the drbd events, the way
+ * ClusterBrowser does it for the frames from get-drbd-events.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class DrbdXMLBenchmark {
+    /** Hosts of the cluster. */
+    private Host[] hosts;
+    /** Empty drbd parameters, so that the constructor doesn't run commands. */
+    private final Map<Host, String> drbdParameters =
+                                                  new HashMap<Host, String>();
+    /** Name of the host, that the events are from. */
+    private String hostName;
+    /** Drbd graph of the cluster. */
+    private DrbdGraph drbdGraph;
+    /** Drbd xml, that parses the events. */
+    private DrbdXML drbdXML;
+    /** Recorded drbd config. */
+    private String drbdConfig;
+    /** Recorded drbd events. */
+    private final List<String> events = new ArrayList<String>();
+    /** Index of the next event. */
+    private int next = 0;
+
+    /** Loads the fixtures. */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final BenchmarkCluster cluster = new BenchmarkCluster();
+        hosts = cluster.getHosts();
+        for (final Host host : hosts) {
+            drbdParameters.put(host, "");
+        }
+        hostName = cluster.getFirstHost().getName();
+        drbdGraph = cluster.getBrowser().getDrbdGraph();
+        drbdConfig = BenchmarkFixtures.frames(BenchmarkFixtures.DRBD_EVENTS,
+                                              "drbd").get(0).getContent();
+        for (final StatusFrameDecoder.Frame frame
+                    : BenchmarkFixtures.frames(BenchmarkFixtures.DRBD_EVENTS,
+                                               "event")) {
+            events.add(frame.getContent());
+        }
+        drbdXML = update();
+    }
+
+    /** Parses the drbd config. */
+    @Benchmark
+    public DrbdXML update() {
+        final DrbdXML newDrbdXML = new DrbdXML(hosts, drbdParameters);
+        newDrbdXML.update(drbdConfig);
+        return newDrbdXML;
+    }
+
+    /** Parses one drbd event. */
+    @Benchmark
+    public boolean parseDrbdEvent() {
+        next = (next + 1) % events.size();
+        return drbdXML.parseDrbdEvent(hostName, drbdGraph, events.get(next));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+
+package lcmc.data;
+
+import lcmc.gui.BenchmarkCluster;
+import lcmc.utilities.BenchmarkFixtures;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing of the hw and vm frames from hw-info-daemon.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class HostInfoBenchmark {
+    /** Host, that the info is from. */
+    private Host host;
+    /** Recorded hw info. */
+    private String hwInfo;
+    /** Recorded vm info. */
+    private String vmInfo;
+
+    /** Loads the fixtures. */
+    @Setup(Level.Trial)
+    public void setUp() {
+        host = new BenchmarkCluster().getFirstHost();
+        hwInfo = BenchmarkFixtures.frames(BenchmarkFixtures.HW_INFO,
+                                          "hw").get(0).getContent();
+        vmInfo = BenchmarkFixtures.frames(BenchmarkFixtures.HW_INFO,
+                                          "vm").get(0).getContent();
+    }
+
+    /** Parses the hw info. */
+    @Benchmark
+    public Host parseHostInfo() {
+        host.parseHostInfo(hwInfo);
+        return host;
+    }
+
+    /** Parses the vm info, the way Host does it for every vm frame. */
+    @Benchmark
+    public VMSXML updateVMSXML() {
+        final VMSXML vmsXML = new VMSXML(host);
+        vmsXML.update(vmInfo);
+        return vmsXML;
+    }
+}
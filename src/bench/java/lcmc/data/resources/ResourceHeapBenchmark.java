@@ -0,0 +1,108 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+
+package lcmc.data.resources;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creates the services with their saved and default values, like the CIB
+ * parser does it for every primitive. Run it with "-prof gc", the
+ * gc.alloc.rate.norm shows the bytes, that all the services take.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class ResourceHeapBenchmark {
+    /** Parameters of the services, like IPaddr2 has them. */
+    private static final String[] PARAMS = {"ip",
+                                            "nic",
+                                            "cidr_netmask",
+                                            "broadcast",
+                                            "iflabel",
+                                            "lvs_support",
+                                            "mac",
+                                            "clusterip_hash",
+                                            "unique_clone_address",
+                                            "arp_interval",
+                                            "arp_count",
+                                            "arp_bg",
+                                            "arp_mac",
+                                            "arp_sender",
+                                            "flush_routes",
+                                            "target-role",
+                                            "is-managed",
+                                            "allow-migrate",
+                                            "priority",
+                                            "resource-stickiness",
+                                            "migration-threshold",
+                                            "failure-timeout",
+                                            "multiple-active"};
+    /** Choices for the first parameters. */
+    private static final Object[] CHOICES = {"", "true", "false"};
+    /** Number of the services. */
+    @Param({"5000"})
+    private int services;
+    /** Schema of the agent, that all the services share. */
+    private final ParamSchema schema = new ParamSchema();
+
+    /** Creates the services. */
+    @Benchmark
+    public List<Service> createServices() {
+        final List<Service> list = new ArrayList<Service>(services);
+        for (int s = 0; s < services; s++) {
+            final Service service = new Service("res_IPaddr2_" + s);
+            service.setParamSchema(schema);
+            for (int i = 0; i < PARAMS.length; i++) {
+                /* the names are new strings, like from the parsed CIB */
+                final String param = new String(PARAMS[i]);
+                service.setValue(param, i == 0 ? "10.0.0." + s : "");
+                service.setDefaultValue(param, "");
+                if (i < 5) {
+                    service.setPossibleChoices(param, CHOICES);
+                }
+            }
+            list.add(service);
+        }
+        return list;
+    }
+}
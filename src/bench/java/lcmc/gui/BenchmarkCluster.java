@@ -0,0 +1,102 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+
+package lcmc.gui;
+
+import lcmc.data.Cluster;
+import lcmc.data.Host;
+import lcmc.utilities.BenchmarkFixtures;
+import lcmc.utilities.ClusterSimulator;
+import lcmc.utilities.SSH;
+import lcmc.utilities.Tools;
+import javax.swing.JPanel;
+
+/**
+ * Cluster for the benchmarks. It has the same nodes as the cluster, that
+ * the fixtures were recorded from and its commands are answered by the
+ * ClusterSimulator, so that the objects that run commands in their
+ * constructors can be created without real hosts. The simulator doesn't
+ * generate events, the measured input comes only from the fixtures.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class BenchmarkCluster {
+    /** Helper, how it is called from the gui. */
+    private static final String HELPER =
+                                "@DMCSUDO@/usr/local/bin/lcmc-gui-helper ";
+    /** The cluster. */
+    private final Cluster cluster = new Cluster("benchmark");
+    /** Hosts of the cluster. */
+    private final Host[] hosts;
+
+    /** Prepares a new <code>BenchmarkCluster</code> object. */
+    public BenchmarkCluster() {
+        if (Tools.getConfigData() == null) {
+            Tools.init();
+        }
+        if (Tools.getGUIData().getMainFrame() == null) {
+            Tools.getGUIData().setMainFrame(new JPanel());
+        }
+        if (Tools.getGUIData().getMainMenu() == null) {
+            Tools.getGUIData().setMainMenu(new MainMenu());
+        }
+        if (Tools.getGUIData().getMainGlassPane() == null) {
+            Tools.getGUIData().setMainGlassPane(new ProgressIndicatorPanel());
+        }
+        final ClusterSimulator simulator = BenchmarkFixtures.newSimulator();
+        SSH.setSimulator(simulator);
+        final String[] names = simulator.getNodeNames();
+        hosts = new Host[names.length];
+        for (int i = 0; i < names.length; i++) {
+            final Host host = new Host();
+            host.setHostnameEntered(names[i]);
+            host.setHostname(names[i]);
+            host.setIp(simulator.getIp(names[i]));
+            new TerminalPanel(host);
+            host.setCluster(cluster);
+            cluster.addHost(host);
+            host.connect(null, null);
+            host.parseHostInfo(
+                     simulator.exec(i, HELPER + "hw-info", null).getOutput());
+            hosts[i] = host;
+        }
+        new ClusterViewPanel(cluster);
+    }
+
+    /** Returns hosts of the cluster. */
+    public Host[] getHosts() {
+        return hosts;
+    }
+
+    /** Returns the first host, that runs the cluster commands. */
+    public Host getFirstHost() {
+        return hosts[0];
+    }
+
+    /** Returns the cluster browser. */
+    public ClusterBrowser getBrowser() {
+        return cluster.getBrowser();
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.gui;
+
+import lcmc.data.Subtext;
+import lcmc.gui.resources.Info;
+import lcmc.utilities.Tools;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.swing.ImageIcon;
+import javax.swing.JPanel;
+import javax.swing.JPopupMenu;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.visualization.Layer;
+import edu.uci.ics.jung.visualization.VisualizationViewer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures paint time of the graph for synthetic clusters with 200, 500 and
+ * 1000 vertices, at the normal zoom and zoomed out, where the boxes are
+ * drawn without texts.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class ResourceGraphPaintBenchmark {
+    /** Size of the visible area. */
+    private static final int WIDTH = 1024;
+    /** Size of the visible area. */
+    private static final int HEIGHT = 768;
+    /** Scale of the zoomed out graph. */
+    private static final double ZOOMED_OUT = 0.3;
+    /** Number of vertices. */
+    @Param({"200", "500", "1000"})
+    private int vertices;
+    /** Whether the graph is zoomed out. */
+    @Param({"false", "true"})
+    private boolean zoomedOut;
+    /** The visualization viewer of the synthetic graph. */
+    private VisualizationViewer<ResourceGraph.Vertex, ResourceGraph.Edge> vv;
+    /** Image, that the graph is painted to. */
+    private BufferedImage image;
+    /** Graphics of the image. */
+    private Graphics2D g2d;
+
+    /** Creates the graph and paints it once, to compute the render models.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (Tools.getConfigData() == null) {
+            Tools.init();
+        }
+        if (Tools.getGUIData().getMainFrame() == null) {
+            Tools.getGUIData().setMainFrame(new JPanel());
+        }
+        vv = new SyntheticGraph(vertices).getVisualizationViewer();
+        vv.setSize(WIDTH, HEIGHT);
+        if (zoomedOut) {
+            vv.getRenderContext().getMultiLayerTransformer()
+                                 .getTransformer(Layer.VIEW)
+                                 .setScale(ZOOMED_OUT,
+                                           ZOOMED_OUT,
+                                           new Point2D.Double(0, 0));
+        }
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        g2d = image.createGraphics();
+        vv.paint(g2d);
+    }
+
+    /** Disposes the graphics. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g2d.dispose();
+    }
+
+    /** Paints the whole graph. */
+    @Benchmark
+    public BufferedImage paint() {
+        vv.paint(g2d);
+        return image;
+    }
+
+    /**
+     * Graph with n vertices in a grid, every vertex has constraints to the
+     * next vertex and to the vertex under it.
+     */
+    private static final class SyntheticGraph extends ResourceGraph {
+        /** Number of vertices in a row. */
+        private static final int COLUMNS = 20;
+        /** Subtexts that are shown in every vertex. */
+        private static final Subtext[] SUBTEXTS = new Subtext[]{
+                            new Subtext("running on: node1", null, Color.BLACK),
+                            new Subtext("ocf::heartbeat:IPaddr2",
+                                        null,
+                                        Color.BLACK)};
+
+        /** Creates the graph with n vertices. */
+        SyntheticGraph(final int n) {
+            super(null);
+            final List<Vertex> vertices = new ArrayList<Vertex>();
+            for (int i = 0; i < n; i++) {
+                final Vertex v = new Vertex();
+                getVertexLocations().put(
+                            v,
+                            new Point2D.Double(100 + (i % COLUMNS) * 200,
+                                               50 + (i / COLUMNS) * 100));
+                putVertexLocations();
+                getGraph().addVertex(v);
+                vertices.add(v);
+            }
+            for (int i = 0; i < n; i++) {
+                if (i % COLUMNS != COLUMNS - 1 && i + 1 < n) {
+                    getGraph().addEdge(new Edge(vertices.get(i),
+                                                vertices.get(i + 1)),
+                                       vertices.get(i),
+                                       vertices.get(i + 1));
+                }
+                if (i + COLUMNS < n) {
+                    getGraph().addEdge(new Edge(vertices.get(i),
+                                                vertices.get(i + COLUMNS)),
+                                       vertices.get(i),
+                                       vertices.get(i + COLUMNS));
+                }
+            }
+            scale();
+        }
+
+        @Override
+        protected void initGraph() {
+            super.initGraph(new DirectedSparseGraph<Vertex, Edge>());
+        }
+
+        @Override
+        protected String getMainText(final Vertex v, final boolean testOnly) {
+            return "res_IPaddr2_" + v.hashCode();
+        }
+
+        @Override
+        protected String getLabelForEdgeStringer(final Edge e) {
+            return "order";
+        }
+
+        @Override
+        String getVertexToolTip(final Vertex v) {
+            return null;
+        }
+
+        @Override
+        String getEdgeToolTip(final Edge edge) {
+            return null;
+        }
+
+        @Override
+        protected JPopupMenu handlePopupVertex(final Vertex vertex,
+                                               final List<Vertex> pickedV,
+                                               final Point2D p) {
+            return null;
+        }
+
+        @Override
+        protected JPopupMenu handlePopupEdge(final Edge edge) {
+            return null;
+        }
+
+        @Override
+        protected void vertexReleased(final Vertex v, final Point2D pos) {
+        }
+
+        @Override
+        protected void oneVertexPressed(final Vertex v) {
+        }
+
+        @Override
+        protected void oneEdgePressed(final Edge e) {
+        }
+
+        @Override
+        protected void backgroundClicked() {
+        }
+
+        @Override
+        protected boolean showEdgeArrow(final Edge e) {
+            return true;
+        }
+
+        @Override
+        protected List<ImageIcon> getIconsForVertex(final Vertex v,
+                                                    final boolean testOnly) {
+            return null;
+        }
+
+        @Override
+        protected void drawInside(final Vertex v,
+                                  final Graphics2D g2d,
+                                  final double x,
+                                  final double y,
+                                  final Shape shape) {
+        }
+
+        @Override
+        protected String getIconText(final Vertex v, final boolean testOnly) {
+            return "running";
+        }
+
+        @Override
+        protected Subtext getRightCornerText(final Vertex v,
+                                             final boolean testOnly) {
+            return null;
+        }
+
+        @Override
+        protected Subtext[] getSubtexts(final Vertex v,
+                                        final boolean testOnly) {
+            return SUBTEXTS;
+        }
+
+        @Override
+        protected String getId(final Info i) {
+            return null;
+        }
+
+        @Override
+        protected void multiSelection() {
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+
+package lcmc.utilities;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recorded helper output, that the benchmarks parse. The fixtures are the
+ * raw streams, how they come from the ssh channel, recorded from the
+ * ClusterSimulator with the fixed cluster shape. They are checked in, so
+ * that every commit is measured with exactly the same input. To record
+ * them again, e.g. after the helper output format changed, run:
+ *
+ *   java -cp ... lcmc.utilities.BenchmarkFixtures \
+ *                                  src/bench/resources/lcmc/utilities/fixtures
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class BenchmarkFixtures {
+    /** Number of the nodes in the recorded cluster. */
+    public static final int NODES = 4;
+    /** Number of the resources in the recorded cluster. */
+    public static final int RESOURCES = 300;
+    /** Number of the drbd volumes in the recorded cluster. */
+    public static final int DRBD_VOLUMES = 20;
+    /** Number of the vms in the recorded cluster. */
+    public static final int VMS = 40;
+    /** hw-info-daemon output of the first node: hw, vm and drbd frames. */
+    public static final String HW_INFO = "hw-info-daemon.out";
+    /** get-cluster-events output with two different cluster frames. */
+    public static final String CLUSTER_EVENTS = "cluster-events.out";
+    /** get-drbd-events output of the first node: drbd and event frames. */
+    public static final String DRBD_EVENTS = "drbd-events.out";
+    /** How many cluster frames are recorded. */
+    private static final int CLUSTER_FRAMES = 2;
+    /** How many drbd event frames are recorded. */
+    private static final int DRBD_EVENT_FRAMES = 20;
+    /** Helper, how it is called from the gui. */
+    private static final String HELPER =
+                                "@DMCSUDO@/usr/local/bin/lcmc-gui-helper ";
+    /** How long to wait for the recorded frames in milliseconds. */
+    private static final int RECORD_TIMEOUT = 60000;
+
+    /** Private constructor, cannot be instantiated. */
+    private BenchmarkFixtures() {
+        /* Cannot be instantiated. */
+    }
+
+    /** Returns the simulator with the shape of the recorded cluster. */
+    public static ClusterSimulator newSimulator() {
+        return new ClusterSimulator(NODES, RESOURCES, DRBD_VOLUMES, VMS, 0);
+    }
+
+    /** Returns the recorded output. */
+    public static String load(final String name) {
+        final InputStream in =
+                   BenchmarkFixtures.class.getResourceAsStream("fixtures/"
+                                                               + name);
+        if (in == null) {
+            throw new IllegalArgumentException("no fixture: " + name);
+        }
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read(buf)) >= 0) {
+                out.write(buf, 0, n);
+            }
+            return out.toString("UTF-8");
+        } catch (final IOException e) {
+            throw new IllegalStateException("cannot read fixture: " + name, e);
+        } finally {
+            try {
+                in.close();
+            } catch (final IOException e) {
+                /* ignore */
+            }
+        }
+    }
+
+    /** Returns the frames of the recorded output. */
+    public static List<StatusFrameDecoder.Frame> frames(final String name) {
+        return new StatusFrameDecoder().decodeAll(load(name));
+    }
+
+    /** Returns the frames of the recorded output with this type. */
+    public static List<StatusFrameDecoder.Frame> frames(final String name,
+                                                        final String type) {
+        final List<StatusFrameDecoder.Frame> frames =
+                                     new ArrayList<StatusFrameDecoder.Frame>();
+        for (final StatusFrameDecoder.Frame frame : frames(name)) {
+            if (type.equals(frame.getType())) {
+                frames.add(frame);
+            }
+        }
+        if (frames.isEmpty()) {
+            throw new IllegalStateException("no " + type + " frame in "
+                                            + name);
+        }
+        return frames;
+    }
+
+    /** Records the fixtures to the directory. */
+    public static void main(final String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("usage: BenchmarkFixtures <dir>");
+            System.exit(1);
+        }
+        final File dir = new File(args[0]);
+        final ClusterSimulator sim = newSimulator();
+        sim.setInterval(50);
+        write(dir, HW_INFO, record(sim, "hw-info-daemon", 3));
+        write(dir,
+              CLUSTER_EVENTS,
+              record(sim, "get-cluster-events", CLUSTER_FRAMES));
+        write(dir,
+              DRBD_EVENTS,
+              record(sim, "get-drbd-events", DRBD_EVENT_FRAMES + 1));
+    }
+
+    /**
+     * Records the stream of the first node, till it has n frames. The
+     * simulator generates events in the meantime.
+     */
+    private static String record(final ClusterSimulator sim,
+                                 final String option,
+                                 final int n) throws InterruptedException {
+        final StringBuffer output = new StringBuffer();
+        final List<StatusFrameDecoder.Frame> frames =
+                                     new ArrayList<StatusFrameDecoder.Frame>();
+        final StatusFrameDecoder decoder = new StatusFrameDecoder();
+        final Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sim.exec(0, HELPER + option, new NewOutputCallback() {
+                    @Override
+                    public void output(final String chunk) {
+                        synchronized (frames) {
+                            if (frames.size() < n) {
+                                output.append(chunk);
+                                frames.addAll(decoder.decode(chunk));
+                            }
+                        }
+                    }
+                });
+            }
+        });
+        t.start();
+        final long start = System.currentTimeMillis();
+        while (true) {
+            synchronized (frames) {
+                if (frames.size() >= n) {
+                    break;
+                }
+            }
+            if (System.currentTimeMillis() - start > RECORD_TIMEOUT) {
+                t.interrupt();
+                throw new IllegalStateException("timeout: " + option);
+            }
+            sim.event();
+            Tools.sleep(10);
+        }
+        t.interrupt();
+        t.join();
+        return output.toString();
+    }
+
+    /** Writes the fixture. */
+    private static void write(final File dir,
+                              final String name,
+                              final String output) throws IOException {
+        final OutputStream out = new FileOutputStream(new File(dir, name));
+        try {
+            out.write(output.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        System.out.println(name + ": " + output.length() + " chars");
+    }
+}
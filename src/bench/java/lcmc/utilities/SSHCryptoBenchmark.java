@@ -0,0 +1,143 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+
+package lcmc.utilities;
+
+import ch.ethz.ssh2.crypto.cipher.BlockCipher;
+import ch.ethz.ssh2.crypto.cipher.BlockCipherFactory;
+import ch.ethz.ssh2.crypto.digest.MAC;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures throughput of the ssh2 ciphers and macs with packets of the
+ * maximal size, that the ssh channel sends. One operation is one packet,
+ * so ops/s times PACKET_SIZE is the throughput in bytes.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class SSHCryptoBenchmark {
+    /** Size of the packet. */
+    public static final int PACKET_SIZE = 32768;
+
+    /** Returns the packet with the fixed content. */
+    private static byte[] getPacket(final Random random) {
+        final byte[] packet = new byte[PACKET_SIZE];
+        random.nextBytes(packet);
+        return packet;
+    }
+
+    /** Encrypts one packet. */
+    @Benchmark
+    public byte[] encrypt(final CipherState s) {
+        final int blockSize = s.cipher.getBlockSize();
+        for (int i = 0; i < PACKET_SIZE; i += blockSize) {
+            s.cipher.transformBlock(s.packet, i, s.encrypted, i);
+        }
+        return s.encrypted;
+    }
+
+    /** Computes mac of one packet. */
+    @Benchmark
+    public byte[] mac(final MacState s) {
+        s.mac.initMac(s.seq++);
+        s.mac.update(s.packet, 0, PACKET_SIZE);
+        s.mac.getMac(s.macOut, 0);
+        return s.macOut;
+    }
+
+    /** Cipher with the fixed key. */
+    @State(Scope.Thread)
+    public static class CipherState {
+        /** Cipher. */
+        @Param({"aes128-ctr", "aes256-ctr", "aes128-cbc", "blowfish-cbc",
+                "3des-cbc"})
+        private String cipherType;
+        /** Data of the packet. */
+        private byte[] packet;
+        /** Encrypted packet. */
+        private final byte[] encrypted = new byte[PACKET_SIZE];
+        /** Cipher, that encrypts the packets. */
+        private BlockCipher cipher;
+
+        /** Creates the cipher. */
+        @Setup(Level.Trial)
+        public void setUp() {
+            final Random random = new Random(1);
+            packet = getPacket(random);
+            final byte[] key =
+                         new byte[BlockCipherFactory.getKeySize(cipherType)];
+            random.nextBytes(key);
+            final byte[] iv =
+                       new byte[BlockCipherFactory.getBlockSize(cipherType)];
+            random.nextBytes(iv);
+            cipher = BlockCipherFactory.createCipher(cipherType, true, key, iv);
+        }
+    }
+
+    /** Mac with the fixed key. */
+    @State(Scope.Thread)
+    public static class MacState {
+        /** Mac. */
+        @Param({"hmac-sha1", "hmac-sha1-96", "hmac-md5"})
+        private String macType;
+        /** Data of the packet. */
+        private byte[] packet;
+        /** Mac of the packet. */
+        private byte[] macOut;
+        /** Mac, that signs the packets. */
+        private MAC mac;
+        /** Sequence number of the packet. */
+        private int seq = 0;
+
+        /** Creates the mac. */
+        @Setup(Level.Trial)
+        public void setUp() {
+            final Random random = new Random(1);
+            packet = getPacket(random);
+            final byte[] key = new byte[MAC.getKeyLen(macType)];
+            random.nextBytes(key);
+            mac = new MAC(macType, key);
+            macOut = new byte[mac.size()];
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+
+package lcmc.utilities;
+
+import lcmc.Exceptions;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the lookups of the distribution specific commands and the
+ * version comparisons, that are done for every command and every version
+ * dependent parameter.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class ToolsBenchmark {
+    /** Commands that are looked up. */
+    private static final String[] COMMANDS = {
+                                         "Heartbeat.getClusterMetadata",
+                                         "Heartbeat.getOCFParametersQuick",
+                                         "Drbd.getParameters",
+                                         "Corosync.startCorosync",
+                                         "Corosync.startCorosync;;;"
+                                         + "Corosync.startCorosync"};
+    /** Pairs of versions that are compared. */
+    private static final String[][] VERSIONS = {{"1.1.7", "1.0.9"},
+                                                {"1.1.7", "1.1.7"},
+                                                {"8.4.2", "8.3.13"},
+                                                {"2.1.4", "2.99.0"},
+                                                {"1.4", "1.4.2"}};
+    /** Distribution and its version. */
+    @Param({"debian:squeeze", "redhat:6", "suse:SLES11", "ubuntu:lucid"})
+    private String distVersion;
+    /** Distribution. */
+    private String dist;
+    /** Version of the distribution. */
+    private String version;
+
+    /** Initializes the resources. */
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (Tools.getConfigData() == null) {
+            Tools.init();
+        }
+        final String[] dv = distVersion.split(":");
+        dist = dv[0];
+        version = dv[1];
+    }
+
+    /** Looks up all the commands. */
+    @Benchmark
+    public void getDistCommand(final Blackhole bh) {
+        for (final String command : COMMANDS) {
+            bh.consume(Tools.getDistCommand(command,
+                                            dist,
+                                            version,
+                                            "x86_64",
+                                            null,
+                                            false));
+        }
+    }
+
+    /** Compares all the versions. */
+    @Benchmark
+    public void compareVersions(final Blackhole bh)
+                                   throws Exceptions.IllegalVersionException {
+        for (final String[] v : VERSIONS) {
+            bh.consume(Tools.compareVersions(v[0], v[1]));
+        }
+    }
+}
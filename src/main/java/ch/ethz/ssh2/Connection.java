@@ -98,6 +98,10 @@ import ch.ethz.ssh2.util.TimeoutService.TimeoutToken;
 
 	private boolean tcpNoDelay = false;
 
+	private int keepAliveInterval = 0;
+
+	private int keepAliveMaxMissed = 0;
+
 	private ProxyData proxyData = null;
 
 	private Vector connectionMonitors = new Vector();
@@ -708,6 +712,8 @@ import ch.ethz.ssh2.util.TimeoutService.TimeoutToken;
 
 			ConnectionInfo ci = tm.getConnectionInfo(1);
 
+			tm.setKeepAlive(keepAliveInterval, keepAliveMaxMissed);
+
 			/* Now try to cancel the timeout, if needed */
 
 			if (token != null)
@@ -1227,6 +1233,35 @@ import ch.ethz.ssh2.util.TimeoutService.TimeoutToken;
 		cryptoWishList.serverHostKeyAlgorithms = algos;
 	}
 
+	/**
+	 * Enable/disable sending of "keepalive@openssh.com" global requests.
+	 * <p>
+	 * Can be called at any time. If the connection has not yet been established
+	 * then the passed values will be stored and used after the first key exchange.
+	 * If <code>maxMissed</code> requests in a row are not answered, the connection
+	 * is closed and the connection monitors are informed. The round trip times of
+	 * the answered requests are reported to every {@link KeepAliveMonitor}.
+	 * By default no keepalive requests are sent.
+	 * 
+	 * @param interval time between the requests in milliseconds, 0 disables them.
+	 * @param maxMissed number of unanswered requests after which the connection
+	 *        is considered to be dead, 0 means never.
+	 */
+	public synchronized void setKeepAlive(int interval, int maxMissed)
+	{
+		if (interval < 0)
+			throw new IllegalArgumentException("interval must be non-negative!");
+
+		if (maxMissed < 0)
+			throw new IllegalArgumentException("maxMissed must be non-negative!");
+
+		keepAliveInterval = interval;
+		keepAliveMaxMissed = maxMissed;
+
+		if (tm != null)
+			tm.setKeepAlive(interval, maxMissed);
+	}
+
 	/**
 	 * Enable/disable TCP_NODELAY (disable/enable Nagle's algorithm) on the underlying socket.
 	 * <p>
@@ -0,0 +1,28 @@
+package ch.ethz.ssh2;
+
+/**
+ * A <code>KeepAliveMonitor</code> is a {@link ConnectionMonitor} that
+ * is also notified about the replies to the keepalive requests, that are
+ * sent if they were enabled with {@link Connection#setKeepAlive(int, int)}.
+ * If too many keepalive requests stay unanswered, the connection is closed
+ * and {@link ConnectionMonitor#connectionLost(Throwable)} is called.
+ * <p>
+ * You MUST NOT make any assumption about the thread that invokes these
+ * methods and you MUST NOT block in them, since they may be called by
+ * the receiver thread.
+ * 
+ * @see Connection#addConnectionMonitor(ConnectionMonitor)
+ * 
+ * @version $Id$
+ */
+
+public interface KeepAliveMonitor extends ConnectionMonitor
+{
+	/**
+	 * This method is called after a reply to a keepalive request arrived.
+	 * 
+	 * @param rttMillis Time between sending the request and receiving the
+	 *        reply in milliseconds.
+	 */
+	public void keepAliveReply(long rttMillis);
+}
@@ -10,10 +10,18 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 
 import ch.ethz.ssh2.crypto.Base64;
 import ch.ethz.ssh2.crypto.digest.Digest;
@@ -36,7 +44,10 @@ import ch.ethz.ssh2.util.StringEncoder;
  * <code>known_hosts<code> files).
  * <p>
  * It is a thread safe implementation, therefore, you need only to instantiate one
- * <code>KnownHosts</code> for your whole application.
+ * <code>KnownHosts</code> for your whole application. Lookups can run
+ * concurrently. Entries with plain hostnames are indexed by the hostname, the
+ * other entries (hashed hostnames and wildcards) are checked once per
+ * hostname and the matches are cached.
  * 
  * @author Christian Plattner
  * @version 2.50, 03/15/10
@@ -52,15 +63,96 @@ import ch.ethz.ssh2.util.StringEncoder;
 	{
 		String[] patterns;
 		Object key;
+		/* decoded salts and hashes of the hashed patterns, null for the others */
+		byte[][] salts;
+		byte[][] hashes;
 
 		KnownHostsEntry(String[] patterns, Object key)
 		{
 			this.patterns = patterns;
 			this.key = key;
+			salts = new byte[patterns.length][];
+			hashes = new byte[patterns.length][];
+
+			for (int k = 0; k < patterns.length; k++)
+			{
+				if (patterns[k] == null)
+					continue;
+
+				String pattern = patterns[k];
+
+				if ((pattern.length() > 0) && (pattern.charAt(0) == '!'))
+					pattern = pattern.substring(1);
+
+				decodeHashed(pattern, k);
+			}
+		}
+
+		private void decodeHashed(String pattern, int k)
+		{
+			if (pattern.startsWith("|1|") == false)
+				return;
+
+			int delim_idx = pattern.indexOf('|', 3);
+
+			if (delim_idx == -1)
+				return;
+
+			try
+			{
+				byte[] salt = Base64.decode(pattern.substring(3, delim_idx).toCharArray());
+				byte[] hash = Base64.decode(pattern.substring(delim_idx + 1).toCharArray());
+
+				if ((salt.length != SHA1_LENGTH) || (hash.length != SHA1_LENGTH))
+					return;
+
+				salts[k] = salt;
+				hashes[k] = hash;
+			}
+			catch (IOException ignore)
+			{
+			}
+		}
+
+		/* Whether it can be found by the hostname in plainEntries */
+		boolean isPlain()
+		{
+			for (int k = 0; k < patterns.length; k++)
+			{
+				String pattern = patterns[k];
+
+				if ((pattern == null) || (pattern.length() == 0))
+					return false;
+
+				char c = pattern.charAt(0);
+
+				if ((c == '!') || (c == '|') || (pattern.indexOf('?') != -1) || (pattern.indexOf('*') != -1))
+					return false;
+			}
+			return true;
 		}
 	}
 
-	private LinkedList publicKeys = new LinkedList();
+	private static final int SHA1_LENGTH = 20;
+
+	/* Matches of entries with patterns are cached for this many hostnames */
+	private static final int MAX_CACHED_HOSTNAMES = 1000;
+
+	/* Entries with plain hostnames only, by lower case hostname */
+	private final HashMap plainEntries = new HashMap();
+
+	/* Entries with hashed hostnames, wildcards or negations */
+	private final LinkedList patternEntries = new LinkedList();
+
+	/* Entries from patternEntries that match the lower case hostname */
+	private final HashMap matchCache = new HashMap();
+
+	/* Incremented when patternEntries change, so that stale matches are not cached */
+	private int patternEntriesVersion = 0;
+
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private volatile boolean resolveHostnames = true;
 
 	public KnownHosts()
 	{
@@ -96,24 +188,66 @@ import ch.ethz.ssh2.util.StringEncoder;
 		{
 			RSAPublicKey rpk = RSASHA1Verify.decodeSSHRSAPublicKey(serverHostKey);
 
-			synchronized (publicKeys)
-			{
-				publicKeys.add(new KnownHostsEntry(hostnames, rpk));
-			}
+			addEntry(new KnownHostsEntry(hostnames, rpk));
 		}
 		else if ("ssh-dss".equals(serverHostKeyAlgorithm))
 		{
 			DSAPublicKey dpk = DSASHA1Verify.decodeSSHDSAPublicKey(serverHostKey);
 
-			synchronized (publicKeys)
-			{
-				publicKeys.add(new KnownHostsEntry(hostnames, dpk));
-			}
+			addEntry(new KnownHostsEntry(hostnames, dpk));
 		}
 		else
 			throw new IOException("Unknwon host key type (" + serverHostKeyAlgorithm + ")");
 	}
 
+	private void addEntry(KnownHostsEntry ke)
+	{
+		lock.writeLock().lock();
+		try
+		{
+			if (ke.isPlain())
+			{
+				for (int k = 0; k < ke.patterns.length; k++)
+				{
+					String hostname = ke.patterns[k].toLowerCase();
+					List entries = (List) plainEntries.get(hostname);
+
+					if (entries == null)
+					{
+						entries = new ArrayList(1);
+						plainEntries.put(hostname, entries);
+					}
+
+					if (entries.contains(ke) == false)
+						entries.add(ke);
+				}
+			}
+			else
+			{
+				patternEntries.add(ke);
+				patternEntriesVersion++;
+				matchCache.clear();
+			}
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Enable/disable resolving of the hostname, if no key was found for it.
+	 * The keys are then searched by the IP addresses of the host, like it was
+	 * always done. Disable it, if the hostnames are known to be in the
+	 * known_hosts file and the DNS lookups slow down the verification.
+	 * 
+	 * @param resolve default is <code>true</code>.
+	 */
+	public void setResolveHostnames(boolean resolve)
+	{
+		resolveHostnames = resolve;
+	}
+
 	/**
 	 * Parses the given known_hosts data and adds entries to the database.
 	 * 
@@ -159,13 +293,33 @@ import ch.ethz.ssh2.util.StringEncoder;
 		return new String("|1|" + base64_salt + "|" + base64_hash);
 	}
 
+	/* Mac instances are not thread safe and expensive to get */
+	private static final ThreadLocal hmacSha1 = new ThreadLocal();
+
 	private static final byte[] hmacSha1Hash(byte[] salt, String hostname)
 	{
-		SHA1 sha1 = new SHA1();
-
-		if (salt.length != sha1.getDigestLength())
+		if (salt.length != SHA1_LENGTH)
 			throw new IllegalArgumentException("Salt has wrong length (" + salt.length + ")");
 
+		/* The JCE implementation is much faster, the own one is a fallback. */
+
+		try
+		{
+			Mac mac = (Mac) hmacSha1.get();
+			if (mac == null)
+			{
+				mac = Mac.getInstance("HmacSHA1");
+				hmacSha1.set(mac);
+			}
+			mac.init(new SecretKeySpec(salt, "HmacSHA1"));
+			return mac.doFinal(StringEncoder.GetBytes(hostname));
+		}
+		catch (GeneralSecurityException ignore)
+		{
+		}
+
+		SHA1 sha1 = new SHA1();
+
 		HMAC hmac = new HMAC(sha1, salt, salt.length);
 
 		hmac.update(StringEncoder.GetBytes(hostname));
@@ -177,68 +331,103 @@ import ch.ethz.ssh2.util.StringEncoder;
 		return dig;
 	}
 
-	private final boolean checkHashed(String entry, String hostname)
+	private final boolean checkHashed(byte[] salt, byte[] hash, String hostname)
 	{
-		if (entry.startsWith("|1|") == false)
+		if (salt == null)
 			return false;
 
-		int delim_idx = entry.indexOf('|', 3);
+		byte[] dig = hmacSha1Hash(salt, hostname);
 
-		if (delim_idx == -1)
-			return false;
+		for (int i = 0; i < dig.length; i++)
+			if (dig[i] != hash[i])
+				return false;
+
+		return true;
+	}
 
-		String salt_base64 = entry.substring(3, delim_idx);
-		String hash_base64 = entry.substring(delim_idx + 1);
+	/**
+	 * Returns entries that match the hostname. The entries with patterns
+	 * are checked only the first time for every hostname.
+	 */
+	private List getMatchingEntries(String hostname)
+	{
+		hostname = hostname.toLowerCase();
 
-		byte[] salt = null;
-		byte[] hash = null;
+		List result = new ArrayList();
+		Object[] candidates;
+		int version;
 
+		lock.readLock().lock();
 		try
 		{
-			salt = Base64.decode(salt_base64.toCharArray());
-			hash = Base64.decode(hash_base64.toCharArray());
+			List plain = (List) plainEntries.get(hostname);
+
+			if (plain != null)
+				result.addAll(plain);
+
+			List cached = (List) matchCache.get(hostname);
+
+			if (cached != null)
+			{
+				result.addAll(cached);
+				return result;
+			}
+
+			candidates = patternEntries.toArray();
+			version = patternEntriesVersion;
 		}
-		catch (IOException e)
+		finally
 		{
-			return false;
+			lock.readLock().unlock();
 		}
 
-		SHA1 sha1 = new SHA1();
+		/* The expensive part runs without the lock */
 
-		if (salt.length != sha1.getDigestLength())
-			return false;
+		List matches = new ArrayList();
 
-		byte[] dig = hmacSha1Hash(salt, hostname);
+		for (int i = 0; i < candidates.length; i++)
+		{
+			KnownHostsEntry ke = (KnownHostsEntry) candidates[i];
 
-		for (int i = 0; i < dig.length; i++)
-			if (dig[i] != hash[i])
-				return false;
+			if (hostnameMatches(ke, hostname))
+				matches.add(ke);
+		}
 
-		return true;
+		lock.writeLock().lock();
+		try
+		{
+			if (version == patternEntriesVersion)
+			{
+				if (matchCache.size() >= MAX_CACHED_HOSTNAMES)
+					matchCache.clear();
+				matchCache.put(hostname, matches);
+			}
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+
+		result.addAll(matches);
+		return result;
 	}
 
 	private int checkKey(String remoteHostname, Object remoteKey)
 	{
 		int result = HOSTKEY_IS_NEW;
 
-		synchronized (publicKeys)
-		{
-			Iterator i = publicKeys.iterator();
-			
-			while (i.hasNext())
-			{
-				KnownHostsEntry ke = (KnownHostsEntry) i.next();
+		Iterator i = getMatchingEntries(remoteHostname).iterator();
 
-				if (hostnameMatches(ke.patterns, remoteHostname) == false)
-					continue;
+		while (i.hasNext())
+		{
+			KnownHostsEntry ke = (KnownHostsEntry) i.next();
 
-				boolean res = matchKeys(ke.key, remoteKey);
+			boolean res = matchKeys(ke.key, remoteKey);
 
-				if (res == true)
-					return HOSTKEY_IS_OK;
+			if (res == true)
+				return HOSTKEY_IS_OK;
 
-				result = HOSTKEY_HAS_CHANGED;
-			}
+			result = HOSTKEY_HAS_CHANGED;
 		}
 		return result;
 	}
@@ -247,19 +436,13 @@ import ch.ethz.ssh2.util.StringEncoder;
 	{
 		Vector keys = new Vector();
 
-		synchronized (publicKeys)
-		{
-			Iterator i = publicKeys.iterator();
-
-			while (i.hasNext())
-			{
-				KnownHostsEntry ke = (KnownHostsEntry) i.next();
+		Iterator i = getMatchingEntries(hostname).iterator();
 
-				if (hostnameMatches(ke.patterns, hostname) == false)
-					continue;
+		while (i.hasNext())
+		{
+			KnownHostsEntry ke = (KnownHostsEntry) i.next();
 
-				keys.addElement(ke.key);
-			}
+			keys.addElement(ke.key);
 		}
 
 		return keys;
@@ -281,7 +464,7 @@ import ch.ethz.ssh2.util.StringEncoder;
 	{
 		String[] algos = recommendHostkeyAlgorithms(hostname);
 
-		if (algos != null)
+		if ((algos != null) || (resolveHostnames == false))
 			return algos;
 
 		InetAddress[] ipAdresses = null;
@@ -306,8 +489,9 @@ import ch.ethz.ssh2.util.StringEncoder;
 		return null;
 	}
 
-	private final boolean hostnameMatches(String[] hostpatterns, String hostname)
+	private final boolean hostnameMatches(KnownHostsEntry ke, String hostname)
 	{
+		String[] hostpatterns = ke.patterns;
 		boolean isMatch = false;
 		boolean negate = false;
 
@@ -344,7 +528,7 @@ import ch.ethz.ssh2.util.StringEncoder;
 
 			if (pattern.charAt(0) == '|')
 			{
-				if (checkHashed(pattern, hostname))
+				if (checkHashed(ke.salts[k], ke.hashes[k], hostname))
 				{
 					if (negate)
 						return false;
@@ -549,6 +733,8 @@ import ch.ethz.ssh2.util.StringEncoder;
 
 				continue;
 			}
+
+			preferredAlgo = thisAlgo;
 		}
 
 		/* If we did not find anything that we know of, return null */
@@ -577,7 +763,8 @@ import ch.ethz.ssh2.util.StringEncoder;
 	/**
 	 * Checks the internal hostkey database for the given hostkey.
 	 * If no matching key can be found, then the hostname is resolved to an IP address
-	 * and the search is repeated using that IP address.
+	 * and the search is repeated using that IP address, unless it was disabled with
+	 * {@link #setResolveHostnames(boolean)}.
 	 * 
 	 * @param hostname the server's hostname, will be matched with all hostname patterns
 	 * @param serverHostKeyAlgorithm type of hostkey, either <code>ssh-rsa</code> or <code>ssh-dss</code>
@@ -607,7 +794,7 @@ import ch.ethz.ssh2.util.StringEncoder;
 
 		int result = checkKey(hostname, remoteKey);
 
-		if (result == HOSTKEY_IS_OK)
+		if ((result == HOSTKEY_IS_OK) || (resolveHostnames == false))
 			return result;
 
 		InetAddress[] ipAdresses = null;
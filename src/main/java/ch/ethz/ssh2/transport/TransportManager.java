@@ -16,6 +16,7 @@ import ch.ethz.ssh2.ConnectionMonitor;
 import ch.ethz.ssh2.DHGexParameters;
 import ch.ethz.ssh2.HTTPProxyData;
 import ch.ethz.ssh2.HTTPProxyException;
+import ch.ethz.ssh2.KeepAliveMonitor;
 import ch.ethz.ssh2.ProxyData;
 import ch.ethz.ssh2.ServerHostKeyVerifier;
 import ch.ethz.ssh2.crypto.Base64;
@@ -26,6 +27,7 @@ import ch.ethz.ssh2.log.Logger;
 import ch.ethz.ssh2.packets.PacketDisconnect;
 import ch.ethz.ssh2.packets.Packets;
 import ch.ethz.ssh2.packets.TypesReader;
+import ch.ethz.ssh2.packets.TypesWriter;
 import ch.ethz.ssh2.util.StringEncoder;
 import ch.ethz.ssh2.util.Tokenizer;
 
@@ -123,6 +125,77 @@ import ch.ethz.ssh2.util.Tokenizer;
 		}
 	}
 
+	class KeepAliveWorker extends Thread
+	{
+		public void run()
+		{
+			TypesWriter tw = new TypesWriter();
+			tw.writeByte(Packets.SSH_MSG_GLOBAL_REQUEST);
+			tw.writeString(KEEPALIVE_REQUEST);
+			tw.writeBoolean(true);
+			byte[] msg = tw.getBytes();
+
+			while (true)
+			{
+				int missed = -1;
+
+				if (isConnectionClosed() == false)
+				{
+					synchronized (pendingGlobalRequests)
+					{
+						if (keepAliveInterval > 0)
+						{
+							try
+							{
+								pendingGlobalRequests.wait(keepAliveInterval);
+							}
+							catch (InterruptedException e)
+							{
+								Thread.currentThread().interrupt();
+							}
+						}
+
+						if (keepAliveInterval > 0)
+						{
+							missed = keepAlivesMissed;
+							if ((keepAliveMaxMissed == 0) || (missed < keepAliveMaxMissed))
+								keepAlivesMissed++;
+						}
+					}
+				}
+
+				if ((missed < 0) || isConnectionClosed())
+				{
+					synchronized (pendingGlobalRequests)
+					{
+						keepAliveThread = null;
+					}
+					return;
+				}
+
+				if ((keepAliveMaxMissed > 0) && (missed >= keepAliveMaxMissed))
+				{
+					close(new IOException("The peer did not answer " + missed + " keepalive requests."), false);
+					continue;
+				}
+
+				/* The asynchronous queue is used, so that a stuck connection
+				 * cannot block this thread and the missed replies are still
+				 * counted.
+				 */
+
+				try
+				{
+					sendAsynchronousMessage(msg);
+				}
+				catch (IOException e)
+				{
+					close(e, false);
+				}
+			}
+		}
+	}
+
 	String hostname;
 	int port;
 	final Socket sock = new Socket();
@@ -144,6 +217,21 @@ import ch.ethz.ssh2.util.Tokenizer;
 	Vector connectionMonitors = new Vector();
 	boolean monitorsWereInformed = false;
 
+	static final String KEEPALIVE_REQUEST = "keepalive@openssh.com";
+
+	/* The following fields are protected by "pendingGlobalRequests" */
+
+	int keepAliveInterval = 0;
+	int keepAliveMaxMissed = 0;
+	int keepAlivesMissed = 0;
+	Thread keepAliveThread = null;
+
+	/* One entry for every sent global request that wants a reply, in the
+	 * order they were sent, since the replies come in the same order.
+	 * It is the send time for the keepalive requests and null for the others.
+	 */
+	final Vector pendingGlobalRequests = new Vector();
+
 	/**
 	 * There were reports that there are JDKs which use
 	 * the resolver even though one supplies a dotted IP
@@ -298,6 +386,11 @@ import ch.ethz.ssh2.util.Tokenizer;
 			connectionSemaphore.notifyAll();
 		}
 
+		synchronized (pendingGlobalRequests)
+		{
+			pendingGlobalRequests.notifyAll();
+		}
+
 		/* No check if we need to inform the monitors */
 
 		Vector monitors = null;
@@ -553,6 +646,9 @@ import ch.ethz.ssh2.util.Tokenizer;
 
 			try
 			{
+				if ((msg[0] & 0xff) == Packets.SSH_MSG_GLOBAL_REQUEST)
+					registerGlobalRequest(msg);
+
 				tc.sendMessage(msg);
 			}
 			catch (IOException e)
@@ -593,6 +689,11 @@ import ch.ethz.ssh2.util.Tokenizer;
 		{
 			asynchronousQueue.addElement(msg);
 
+			/* Wake up the idle worker, otherwise the message (e.g. a
+			 * keepalive request) waits for the end of its 2 second nap. */
+
+			asynchronousQueue.notifyAll();
+
 			/* This limit should be flexible enough. We need this, otherwise the peer
 			 * can flood us with global requests (and other stuff where we have to reply
 			 * with an asynchronous message) and (if the server just sends data and does not
@@ -623,6 +724,106 @@ import ch.ethz.ssh2.util.Tokenizer;
 		}
 	}
 
+	/**
+	 * Sends keepalive requests every interval milliseconds and closes the
+	 * connection if maxMissed of them stay unanswered.
+	 * 
+	 * @param interval in milliseconds, 0 disables the keepalive requests.
+	 * @param maxMissed 0 means that the connection is never closed.
+	 */
+	public void setKeepAlive(int interval, int maxMissed)
+	{
+		synchronized (pendingGlobalRequests)
+		{
+			keepAliveInterval = interval;
+			keepAliveMaxMissed = maxMissed;
+			pendingGlobalRequests.notifyAll();
+
+			if ((interval > 0) && (keepAliveThread == null))
+			{
+				keepAliveThread = new KeepAliveWorker();
+				keepAliveThread.setDaemon(true);
+				keepAliveThread.start();
+			}
+		}
+	}
+
+	private boolean isConnectionClosed()
+	{
+		synchronized (connectionSemaphore)
+		{
+			return connectionClosed;
+		}
+	}
+
+	private void registerGlobalRequest(byte[] msg) throws IOException
+	{
+		TypesReader tr = new TypesReader(msg);
+		tr.readByte();
+		String name = tr.readString();
+		boolean wantReply = tr.readBoolean();
+
+		if (wantReply == false)
+			return;
+
+		synchronized (pendingGlobalRequests)
+		{
+			if (KEEPALIVE_REQUEST.equals(name))
+				pendingGlobalRequests.addElement(new Long(System.nanoTime()));
+			else
+				pendingGlobalRequests.addElement(null);
+		}
+	}
+
+	/**
+	 * Handles SSH_MSG_REQUEST_SUCCESS and SSH_MSG_REQUEST_FAILURE.
+	 * 
+	 * @return true if it was a reply to a keepalive request, the others
+	 *         must be handled by the channel manager.
+	 */
+	private boolean handleGlobalRequestReply()
+	{
+		long rtt;
+
+		synchronized (pendingGlobalRequests)
+		{
+			if (pendingGlobalRequests.size() == 0)
+				return false;
+
+			Long sent = (Long) pendingGlobalRequests.remove(0);
+
+			if (sent == null)
+				return false;
+
+			rtt = (System.nanoTime() - sent.longValue()) / 1000000;
+			keepAlivesMissed = 0;
+		}
+
+		Vector monitors;
+
+		synchronized (this)
+		{
+			monitors = (Vector) connectionMonitors.clone();
+		}
+
+		for (int i = 0; i < monitors.size(); i++)
+		{
+			Object cmon = monitors.elementAt(i);
+
+			if (cmon instanceof KeepAliveMonitor)
+			{
+				try
+				{
+					((KeepAliveMonitor) cmon).keepAliveReply(rtt);
+				}
+				catch (Exception ignore)
+				{
+				}
+			}
+		}
+		return true;
+	}
+
 	public void sendMessage(byte[] msg) throws IOException
 	{
 		if (Thread.currentThread() == receiveThread)
@@ -653,6 +854,14 @@ import ch.ethz.ssh2.util.Tokenizer;
 
 			try
 			{
+				/* Registered under the same lock that orders the packets,
+				 * so that the replies are matched in the sending order.
+				 * The keepalive requests come here through the
+				 * asynchronous queue. */
+
+				if ((msg[0] & 0xff) == Packets.SSH_MSG_GLOBAL_REQUEST)
+					registerGlobalRequest(msg);
+
 				tc.sendMessage(msg);
 			}
 			catch (IOException e)
@@ -757,6 +966,12 @@ import ch.ethz.ssh2.util.Tokenizer;
 				continue;
 			}
 
+			if ((type == Packets.SSH_MSG_REQUEST_SUCCESS) || (type == Packets.SSH_MSG_REQUEST_FAILURE))
+			{
+				if (handleGlobalRequestReply())
+					continue;
+			}
+
 			MessageHandler mh = null;
 
 			for (int i = 0; i < messageHandlers.size(); i++)
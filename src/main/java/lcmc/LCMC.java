@@ -30,8 +30,13 @@ import lcmc.gui.MainPanel;
 import lcmc.gui.MainMenu;
 import lcmc.gui.ClusterBrowser;
 import lcmc.gui.ProgressIndicatorPanel;
+import lcmc.data.Cluster;
+import lcmc.data.ClusterMonitor;
 import lcmc.data.ConfigData;
 import lcmc.data.HostOptions;
+import lcmc.utilities.ClusterSimulator;
+import lcmc.utilities.MetricsServer;
+import lcmc.utilities.SSH;
 import lcmc.utilities.Tools;
 import lcmc.utilities.RoboTest;
 import lcmc.configs.AppDefaults;
@@ -52,6 +57,7 @@ import java.util.Map;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.io.FileOutputStream;
 import java.io.FileNotFoundException;
@@ -124,6 +130,8 @@ public final class LCMC extends JPanel {
     private static final String ID_RSA_OP = "id-rsa";
     /** The --known-hosts option. */
     private static final String KNOWN_HOSTS_OP = "known-hosts";
+    /** The --no-known-hosts-dns option. */
+    private static final String NO_KNOWN_HOSTS_DNS_OP = "no-known-hosts-dns";
     /** The --out option. */
     private static final String OUT_OP = "out";
     /** The --debug option. */
@@ -142,6 +150,18 @@ public final class LCMC extends JPanel {
     private static final String ADVANCED_OP = "advanced";
     /** The --one-host-cluster option. */
     private static final String ONE_HOST_CLUSTER_OP = "one-host-cluster";
+    /** The --simulate option. */
+    private static final String SIMULATE_OP = "simulate";
+    /** The --headless option. */
+    private static final String HEADLESS_OP = "headless";
+    /** The --metrics-address option. */
+    private static final String METRICS_ADDRESS_OP = "metrics-address";
+    /** Default address of the metrics server, only the local host. */
+    private static final String DEFAULT_METRICS_ADDRESS = "127.0.0.1";
+    /** Port of the metrics server in the headless mode. */
+    private static int metricsPort = -1;
+    /** Address of the metrics server in the headless mode. */
+    private static String metricsAddress = DEFAULT_METRICS_ADDRESS;
 
     /**
      * Private constructor.
@@ -393,6 +413,11 @@ public final class LCMC extends JPanel {
                      KNOWN_HOSTS_OP,
                      true,
                      "location of known_hosts file ($HOME/.ssh/known_hosts)");
+        options.addOption(
+                 null,
+                 NO_KNOWN_HOSTS_DNS_OP,
+                 false,
+                 "don't resolve host names, that are not in the known_hosts");
         options.addOption(
                      null,
                      OUT_OP,
@@ -434,6 +459,24 @@ public final class LCMC extends JPanel {
                           ONE_HOST_CLUSTER_OP,
                           false,
                           "allow one host cluster");
+        options.addOption(null,
+                          SIMULATE_OP,
+                          true,
+                          "simulate a cluster for load testing. <arg> is"
+                          + " nodes:resources:drbd-volumes:vms:events-per-s,"
+                          + " the nodes are sim-node-1, sim-node-2...");
+        options.addOption(null,
+                          HEADLESS_OP,
+                          true,
+                          "run without GUI and serve the cluster states as"
+                          + " metrics on http://localhost:<arg>/metrics,"
+                          + " used with --cluster option");
+        options.addOption(null,
+                          METRICS_ADDRESS_OP,
+                          true,
+                          "address, that the metrics server listens on,"
+                          + " used with --headless option ("
+                          + DEFAULT_METRICS_ADDRESS + ")");
         final CommandLineParser parser = new PosixParser();
         String autoArgs = null;
         try {
@@ -509,6 +552,8 @@ public final class LCMC extends JPanel {
             Tools.getConfigData().setIdDSAPath(idDsaPath);
             Tools.getConfigData().setIdRSAPath(idRsaPath);
             Tools.getConfigData().setKnownHostPath(knownHostsPath);
+            Tools.getConfigData().setKnownHostsDNS(
+                                    !cmd.hasOption(NO_KNOWN_HOSTS_DNS_OP));
 
 
             final String opMode = cmd.getOptionValue(OP_MODE_OP);
@@ -556,6 +601,20 @@ public final class LCMC extends JPanel {
                                         Integer.parseInt(vncPortOffsetString));
             }
             Tools.getConfigData().setAnimFPS(fps);
+            if (cmd.hasOption(HEADLESS_OP)) {
+                final String port = cmd.getOptionValue(HEADLESS_OP);
+                if (port == null || !Tools.isNumber(port)) {
+                    throw new ParseException(
+                                "could not parse " + HEADLESS_OP + " option");
+                }
+                metricsPort = Integer.parseInt(port);
+                metricsAddress = cmd.getOptionValue(METRICS_ADDRESS_OP,
+                                                    DEFAULT_METRICS_ADDRESS);
+                Tools.getConfigData().setHeadless(true);
+            }
+            if (cmd.hasOption(SIMULATE_OP)) {
+                parseSimulateOption(cmd);
+            }
             if (cmd.hasOption(CLUSTER_OP) || cmd.hasOption(HOST_OP)) {
                 parseClusterOptions(cmd);
             }
@@ -569,6 +628,33 @@ public final class LCMC extends JPanel {
         return autoArgs;
     }
 
+    /**
+     * Starts the simulated cluster. If no cluster is defined, all the
+     * simulated nodes are added as a cluster.
+     */
+    private static void parseSimulateOption(final CommandLine cmd)
+    throws ParseException {
+        final ClusterSimulator simulator =
+                      ClusterSimulator.parse(cmd.getOptionValue(SIMULATE_OP));
+        if (simulator == null) {
+            throw new ParseException("could not parse " + SIMULATE_OP
+                                     + " option");
+        }
+        SSH.setSimulator(simulator);
+        simulator.start();
+        if (cmd.hasOption(CLUSTER_OP) || cmd.hasOption(HOST_OP)) {
+            return;
+        }
+        final List<HostOptions> hostsOptions = new ArrayList<HostOptions>();
+        for (final String nodeName : simulator.getNodeNames()) {
+            hostsOptions.add(new HostOptions(nodeName));
+        }
+        final Map<String, List<HostOptions>> clusters =
+                            new LinkedHashMap<String, List<HostOptions>>();
+        clusters.put("simulated", hostsOptions);
+        Tools.setUserConfigFromOptions(clusters);
+    }
+
     /** Parse cluster options and create cluster button. */
     private static void parseClusterOptions(final CommandLine cmd)
     throws ParseException {
@@ -671,8 +757,66 @@ public final class LCMC extends JPanel {
         }
     }
 
+    /**
+     * Starts the monitors of all defined clusters and the metrics server.
+     * No GUI is created.
+     */
+    private static void startHeadless() {
+        final List<ClusterMonitor> monitors = new ArrayList<ClusterMonitor>();
+        for (final Cluster cluster
+                    : Tools.getConfigData().getClusters().getClusterSet()) {
+            if (!cluster.getHosts().isEmpty()) {
+                monitors.add(new ClusterMonitor(cluster));
+            }
+        }
+        if (monitors.isEmpty()) {
+            Tools.error("no cluster defined, use the --" + CLUSTER_OP
+                        + " option");
+            System.exit(1);
+        }
+        final MetricsServer server;
+        try {
+            server = new MetricsServer(metricsAddress, metricsPort, monitors);
+        } catch (final IOException e) {
+            Tools.error("cannot listen on " + metricsAddress + ":"
+                        + metricsPort + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        server.start();
+        for (final ClusterMonitor monitor : monitors) {
+            monitor.start();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                server.stop();
+                for (final ClusterMonitor monitor : monitors) {
+                    monitor.stop();
+                }
+            }
+        }));
+    }
+
     /** The main function for starting the application. */
     public static void main(final String[] args) {
+        boolean headless = false;
+        for (final String arg : args) {
+            if (arg.startsWith("--" + HEADLESS_OP)) {
+                headless = true;
+            }
+        }
+        if (headless) {
+            /* before anything touches the AWT */
+            System.setProperty("java.awt.headless", "true");
+            Tools.init();
+            final String autoArgs = initApp(args);
+            if (autoArgs != null) {
+                Tools.parseAutoArgs(autoArgs);
+            }
+            startHeadless();
+            return;
+        }
         Tools.init();
         final JFrame mainFrame = new JFrame(
                Tools.getString("DrbdMC.Title") + " " + Tools.getRelease());
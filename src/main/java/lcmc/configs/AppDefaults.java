@@ -170,6 +170,8 @@ public final class AppDefaults extends java.util.ListResourceBundle {
         {"ResourceGraph.FillPaint",          Color.GREEN },
         {"ResourceGraph.FillPaintPicked",    Color.WHITE },
         {"ResourceGraph.PickedPaint",        Color.RED },
+        {"ResourceGraph.SearchMatch",        new Color(255, 140, 0) },
+        {"ResourceGraph.SearchNoMatch",      new Color(238, 238, 238) },
 
         {"ResourceGraph.EdgeDrawPaint", new Color(1, 1, 1) }, /* almost black */
         {"ResourceGraph.EdgeDrawPaintNew",        new Color(200, 200, 200) },
@@ -209,6 +211,8 @@ public final class AppDefaults extends java.util.ListResourceBundle {
         {"ClusterBrowser.Background",             new Color(255, 255, 255) },
         {"ClusterBrowser.Test.Tooltip.Background", new Color(255, 255, 0, 160)},
         {"Browser.Background",                    new Color(255, 255, 255) },
+        {"Browser.SearchMatch",                   new Color(255, 220, 120) },
+        {"Browser.SearchNoMatch",                 new Color(150, 150, 150) },
 
         {"EmptyBrowser.StartPanelTitleBorder",    BACKGROUND_DARK },
 
@@ -410,6 +414,8 @@ public final class AppDefaults extends java.util.ListResourceBundle {
         {"SSH.Port",                 "22"},
         {"SSH.ConnectTimeout",       30000}, /* milliseconds, 0 no timeout */
         {"SSH.KexTimeout",           0}, /* milliseconds, 0 no timeout */
+        {"SSH.KeepAlive.Interval",   10000}, /* milliseconds */
+        {"SSH.KeepAlive.MaxMissed",  3}, /* then the connection is lost */
         {"SSH.Command.Timeout.Long", 0},     /* milliseconds, 0 no timeout */
         {"SSH.Command.Timeout",      180000}, /* milliseconds */
         {"ProgressBar.Sleep",        100},   /* milliseconds */
@@ -164,12 +164,12 @@ public final class DistResource extends java.util.ListResourceBundle {
         {"installGuiHelper", "installGuiHelper"}, // is treated specially by ssh class.
 
         {"GetHostAllInfo", SUDO + "@GUI-HELPER@ all"},
-        {"HostHWInfoDaemon", SUDO + "@GUI-HELPER@ hw-info-daemon"},
+        {"HostHWInfoDaemon", SUDO + "@GUI-HELPER@ hw-info-daemon"
+                             + " @HW-HASH@ @VM-HASH@ @DRBD-HASH@"},
         {"GetHostHWInfo", SUDO + "@GUI-HELPER@ hw-info"},
         {"GetHostHWInfoLazy", "nice -n 19 " + SUDO + "@GUI-HELPER@ hw-info-lazy"},
         {"GetNetInfo",  SUDO + "@GUI-HELPER@ get-net-info"},
 
-        {"PingCommand", "while true; do echo; sleep 5; done"},
 
         /* heartbeat crm commands */
         {"CRM.cleanupResource", SUDO + "/usr/sbin/crm_resource -C -r @ID@ -H @HOST@"},
@@ -222,7 +222,7 @@ public final class DistResource extends java.util.ListResourceBundle {
          SUDO + "@GUI-HELPER@ get-cluster-metadata"},
 
         {"Heartbeat.getClStatus",
-         SUDO + "@GUI-HELPER@ get-cluster-events"},
+         SUDO + "@GUI-HELPER@ get-cluster-events @CLUSTER-HASH@"},
 
         {"Heartbeat.startHeartbeat",
          SUDO + "/etc/init.d/heartbeat start"},
@@ -351,7 +351,7 @@ public final class DistResource extends java.util.ListResourceBundle {
          "echo|" + SUDO + "/sbin/drbdadm @DRYRUN@ verify @RES-VOL@"},
 
         {"DRBD.getDrbdStatus",
-         SUDO + "@GUI-HELPER@ get-drbd-events"},
+         SUDO + "@GUI-HELPER@ get-drbd-events @DRBD-HASH@"},
 
         {"DRBD.adjust",
          "if [ -e /proc/drbd ]; then echo|" + SUDO + "/sbin/drbdadm @DRYRUN@ adjust @RES-VOL@; fi"},
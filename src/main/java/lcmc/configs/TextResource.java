@@ -59,6 +59,9 @@ public final class TextResource extends java.util.ListResourceBundle {
         {"MainMenu.Host",
          "Host"},
 
+        {"MainMenu.Hosts",
+         "Many Hosts"},
+
         {"MainMenu.Cluster",
          "Cluster"},
 
@@ -150,6 +153,9 @@ public final class TextResource extends java.util.ListResourceBundle {
         {"Tools.Saving",
          "Saving \"@FILENAME@\"..."},
 
+        {"ConfigDeployer.Failed",
+         "Deploying of the config files failed"},
+
         {"Tools.Warning.Title",
          "Warning: "},
 
@@ -179,6 +185,12 @@ public final class TextResource extends java.util.ListResourceBundle {
         {"ClusterViewPanel.OperatingMode",
          "Operating Mode"},
 
+        {"ClusterViewPanel.Search",
+         "Search"},
+
+        {"ClusterViewPanel.Search.ToolTip",
+         "Resource, agent, parameter, node, constraint, DRBD device or VM"},
+
         /* Progress bar */
         {"ProgressBar.Cancel",
          "Cancel"},
@@ -237,6 +249,31 @@ public final class TextResource extends java.util.ListResourceBundle {
         {"Dialog.Host.NewHost.EnterPassword",
          "Password:"},
 
+        {"Dialog.Host.AddHosts.Title",
+         "Add Hosts"},
+
+        {"Dialog.Host.AddHosts.Description",
+         "Enter the <b>hostnames/IPs</b> of the servers, one per line. "
+         + "They are all connected with the same <b>username</b> and "
+         + "password or key, that is entered only once, and added, if the "
+         + "connection and the detection succeed. Missing software can "
+         + "be installed with the Host Wizard later."},
+
+        {"Dialog.Host.AddHosts.EnterHosts",
+         "Hosts:"},
+
+        {"Dialog.Host.AddHosts.AddButton",
+         "Add"},
+
+        {"Dialog.Host.AddHosts.Adding",
+         "adding..."},
+
+        {"Dialog.Host.AddHosts.Failed",
+         ": could not be added"},
+
+        {"Dialog.Host.AddHosts.Canceled",
+         "canceled"},
+
         {"Dialog.Host.Configuration.Title",
          "Host configuration"},
 
@@ -796,6 +833,9 @@ public final class TextResource extends java.util.ListResourceBundle {
         {"Dialog.Cluster.Init.LoadDrbdButton",
          "Load"},
 
+        {"Dialog.Cluster.Init.RefreshButton",
+         "Refresh now"},
+
         {"Dialog.Cluster.Init.CheckingPm",
          "checking..."},
 
@@ -1549,6 +1589,9 @@ public final class TextResource extends java.util.ListResourceBundle {
         {"ClusterBrowser.HbUpdateResources",
          "updating resource agents..."},
 
+        {"ClusterBrowser.StaleClusterState",
+         "showing the last known state from @TIME@..."},
+
         {"ClusterBrowser.HbUpdateStatus",
          "updating Pacemaker status..."},
 
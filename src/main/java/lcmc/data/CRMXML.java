@@ -186,6 +186,12 @@ public final class CRMXML extends XML {
     private boolean drbddiskPresent;
     /** Whether linbit::drbd ra is present. */
     private boolean linbitDrbdPresent;
+    /** Resource agents without meta data, as they were loaded. */
+    private volatile String raQuickOutput = null;
+    /** Meta data of the configured resource agents, as they were loaded. */
+    private volatile String raConfiguredOutput = null;
+    /** Meta data of pengine and crmd, as they were loaded. */
+    private volatile String clusterMetaData = null;
     /** Choices for combo box in stonith hostlists. */
     private final List<String> hostlistChoices = new ArrayList<String>();
     /** Parameters of some RAs that are not advanced. */
@@ -556,6 +562,17 @@ public final class CRMXML extends XML {
 
     /** Prepares a new <code>CRMXML</code> object. */
     public CRMXML(final Host host, final ServicesInfo ssi) {
+        this(host, ssi, null);
+    }
+
+    /**
+     * Prepares a new <code>CRMXML</code> object. If the cached state is not
+     * null, the resource agents are loaded from it, without connecting to
+     * the host.
+     */
+    public CRMXML(final Host host,
+                  final ServicesInfo ssi,
+                  final ClusterState cached) {
         super();
         this.host = host;
         final String[] booleanValues = PCMK_BOOLEAN_VALUES;
@@ -895,9 +912,14 @@ public final class CRMXML extends XML {
         paramColPreferredMap.put("sequential", hbBooleanFalse);
         hbGroup.setMetaDataLoaded(true);
        
-        initOCFMetaDataQuick();
-        initOCFMetaDataConfigured();
+        initOCFMetaDataQuick(cached);
+        initOCFMetaDataConfigured(cached);
         Tools.debug(this, "cluster loaded", 0);
+        if (ssi == null || cached != null) {
+            /* headless or cached, the meta data of not configured resource
+               agents are not needed. */
+            return;
+        }
         final Thread t = new Thread(new Runnable() {
             public void run() {
                 initOCFMetaDataAll();
@@ -915,12 +937,23 @@ public final class CRMXML extends XML {
         t.start();
     }
 
+    /** Saves the loaded meta data in the cluster state. */
+    public void saveState(final ClusterState state) {
+        state.setRAQuick(raQuickOutput);
+        state.setRAConfigured(raConfiguredOutput);
+        state.setClusterMetaData(clusterMetaData);
+    }
+
     /** Initialize resource agents WITHOUT their meta data. */
-    private void initOCFMetaDataQuick() {
-        final String command =
+    private void initOCFMetaDataQuick(final ClusterState cached) {
+        boolean linbitDrbdPresent0 = false;
+        boolean drbddiskPresent0 = false;
+        String output = null;
+        if (cached == null) {
+            final String command =
                     host.getDistCommand("Heartbeat.getOCFParametersQuick",
                                         (ConvertCmdCallback) null);
-        final SSH.SSHOutput ret =
+            final SSH.SSHOutput ret =
                     Tools.execCommandProgressIndicator(
                             host,
                             command,
@@ -928,14 +961,13 @@ public final class CRMXML extends XML {
                             false, /* outputVisible */
                             Tools.getString("CRMXML.GetRAMetaData"),
                             60000);
-        boolean linbitDrbdPresent0 = false;
-        boolean drbddiskPresent0 = false;
-        if (ret.getExitCode() != 0) {
-            drbddiskPresent = drbddiskPresent0;
-            linbitDrbdPresent = linbitDrbdPresent0;
-            return;
+            if (ret.getExitCode() == 0) {
+                output = ret.getOutput();
+            }
+        } else {
+            output = cached.getRAQuick();
         }
-        final String output = ret.getOutput();
+        raQuickOutput = output;
         if (output == null) {
             drbddiskPresent = drbddiskPresent0;
             linbitDrbdPresent = linbitDrbdPresent0;
@@ -1022,29 +1054,41 @@ public final class CRMXML extends XML {
      * Initialize resource agents with their meta data, the configured ones.
      * For faster start up.
      */
-    private void initOCFMetaDataConfigured() {
-        initOCFMetaData(
+    private void initOCFMetaDataConfigured(final ClusterState cached) {
+        String output;
+        if (cached == null) {
+            output = getOCFMetaData(
                     host.getDistCommand("Heartbeat.getOCFParametersConfigured",
                                         (ConvertCmdCallback) null));
+        } else {
+            output = cached.getRAConfigured();
+        }
+        raConfiguredOutput = output;
+        parseOCFMetaData(output);
     }
 
     /** Initialize resource agents with their meta data. */
     private void initOCFMetaDataAll() {
-        initOCFMetaData(host.getDistCommand("Heartbeat.getOCFParameters",
-                                            (ConvertCmdCallback) null));
+        parseOCFMetaData(
+                getOCFMetaData(host.getDistCommand("Heartbeat.getOCFParameters",
+                                                   (ConvertCmdCallback) null)));
     }
 
-    /** Initialize resource agents with their meta data. */
-    private void initOCFMetaData(final String command) {
+    /** Returns output of the meta data command or null. */
+    private String getOCFMetaData(final String command) {
         final SSH.SSHOutput ret = Tools.execCommand(host,
                                                     command,
                                                     null,  /* ExecCallback */
                                                     false, /* outputVisible */
                                                     300000);
         if (ret.getExitCode() != 0) {
-            return;
+            return null;
         }
-        final String output = ret.getOutput();
+        return ret.getOutput();
+    }
+
+    /** Initialize resource agents with their meta data. */
+    private void parseOCFMetaData(final String output) {
         if (output == null) {
             return;
         }
@@ -1665,7 +1709,7 @@ public final class CRMXML extends XML {
             return metaAttrParams;
         }
         metaAttrParams = new LinkedHashMap<String, String>();
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             metaAttrParams.put("target_role", TARGET_ROLE_META_ATTR);
             metaAttrParams.put("is_managed", IS_MANAGED_META_ATTR);
         } else {
@@ -1676,15 +1720,9 @@ public final class CRMXML extends XML {
         metaAttrParams.put(PRIORITY_META_ATTR, null);
         metaAttrParams.put(MULTIPLE_ACTIVE_META_ATTR, null);
         metaAttrParams.put(ALLOW_MIGRATE_META_ATTR, null);
-        final String hbV = host.getHeartbeatVersion();
-        final String pcmkV = host.getPacemakerVersion();
-        try {
-            if (pcmkV != null || Tools.compareVersions(hbV, "2.1.4") >= 0) {
-                metaAttrParams.put(RESOURCE_STICKINESS_META_ATTR, null);
-                metaAttrParams.put(FAILURE_TIMEOUT_META_ATTR, null);
-            }
-        } catch (Exceptions.IllegalVersionException e) {
-            Tools.appWarning(e.getMessage(), e);
+        if (host.getCapabilities().hasStickinessMetaAttrs()) {
+            metaAttrParams.put(RESOURCE_STICKINESS_META_ATTR, null);
+            metaAttrParams.put(FAILURE_TIMEOUT_META_ATTR, null);
         }
         return metaAttrParams;
     }
@@ -1698,7 +1736,7 @@ public final class CRMXML extends XML {
             return rscDefaultsMetaAttrs;
         }
         rscDefaultsMetaAttrs = new LinkedHashMap<String, String>();
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             /* no rsc defaults in older versions. */
             return rscDefaultsMetaAttrs;
         }
@@ -2024,6 +2062,7 @@ public final class CRMXML extends XML {
      * which can be pengine or crmd
      */
     void parseClusterMetaData(final String xml) {
+        clusterMetaData = xml;
         final Document document = getXMLDocument(xml);
         if (document == null) {
             return;
@@ -2178,7 +2217,7 @@ public final class CRMXML extends XML {
         if (metaAttrsNode != null) {
             rscDefaultsId = getAttribute(metaAttrsNode, "id");
             NodeList nvpairsMA;
-            if (Tools.versionBeforePacemaker(host)) {
+            if (host.getCapabilities().isBeforePacemaker()) {
                 /* <attributtes> only til 2.1.4 */
                 final Node attrsNode =
                                   getChildNode(metaAttrsNode, "attributes");
@@ -2217,7 +2256,7 @@ public final class CRMXML extends XML {
         if (metaAttrsNode != null) {
             /* <attributtes> only til 2.1.4 */
             NodeList nvpairsMA;
-            if (Tools.versionBeforePacemaker(host)) {
+            if (host.getCapabilities().isBeforePacemaker()) {
                 final Node attrsNode =
                                   getChildNode(metaAttrsNode, "attributes");
                 nvpairsMA = attrsNode.getChildNodes();
@@ -2264,7 +2303,7 @@ public final class CRMXML extends XML {
             final String iAId = getAttribute(instanceAttrNode, "id");
             resourceInstanceAttrIdMap.put(crmId, iAId);
             NodeList nvpairsRes;
-            if (Tools.versionBeforePacemaker(host)) {
+            if (host.getCapabilities().isBeforePacemaker()) {
                 /* <attributtes> only til 2.1.4 */
                 final Node attrNode = getChildNode(instanceAttrNode,
                                                    "attributes");
@@ -2336,7 +2375,7 @@ public final class CRMXML extends XML {
                 metaAttrsIdToCRMId.put(metaAttrsId, crmId);
                 /* <attributtes> only til 2.1.4 */
                 NodeList nvpairsMA;
-                if (Tools.versionBeforePacemaker(host)) {
+                if (host.getCapabilities().isBeforePacemaker()) {
                     final Node attrsNode =
                                  getChildNode(metaAttrsNode, "attributes");
                     nvpairsMA = attrsNode.getChildNodes();
@@ -2429,7 +2468,7 @@ public final class CRMXML extends XML {
                 metaAttrsIdToCRMId.put(metaAttrsId, groupId);
                 /* <attributtes> only til 2.1.4 */
                 NodeList nvpairsMA;
-                if (Tools.versionBeforePacemaker(host)) {
+                if (host.getCapabilities().isBeforePacemaker()) {
                     final Node attrsNode =
                                  getChildNode(metaAttrsNode, "attributes");
                     nvpairsMA = attrsNode.getChildNodes();
@@ -2655,7 +2694,7 @@ public final class CRMXML extends XML {
         /* <nvpair...> */
         if (instanceAttrNode != null) {
             NodeList nvpairsRes;
-            if (Tools.versionBeforePacemaker(host)) {
+            if (host.getCapabilities().isBeforePacemaker()) {
                 /* <attributtes> only til 2.1.4 */
                 final Node attrNode = getChildNode(instanceAttrNode,
                                                    "attributes");
@@ -2710,7 +2749,7 @@ public final class CRMXML extends XML {
         /* <nvpair...> */
         if (instanceAttrNode != null) {
             NodeList nvpairsRes;
-            if (Tools.versionBeforePacemaker(host)) {
+            if (host.getCapabilities().isBeforePacemaker()) {
                 /* <attributtes> only til 2.1.4 */
                 final Node attrNode = getChildNode(instanceAttrNode,
                                                    "attributes");
@@ -2866,6 +2905,7 @@ public final class CRMXML extends XML {
             Tools.appWarning("there is no configuration node");
             return cibQueryData;
         }
+        cibQueryData.setConfigurationNode(confNode);
 
         /* <rsc_defaults> */
         final Node rscDefaultsNode = getChildNode(confNode, "rsc_defaults");
@@ -2902,7 +2942,7 @@ public final class CRMXML extends XML {
             Tools.appWarning("there is no cluster_property_set node");
         } else {
             NodeList nvpairs;
-            if (Tools.versionBeforePacemaker(host)) {
+            if (host.getCapabilities().isBeforePacemaker()) {
                 /* <attributtes> only til 2.1.4 */
                 final Node attrNode = getChildNode(cpsNode, "attributes");
                 nvpairs = attrNode.getChildNodes();
@@ -3163,7 +3203,7 @@ public final class CRMXML extends XML {
             String thenString        = "then";
             String firstActionString = "first-action";
             String thenActionString  = "then-action";
-            if (Tools.versionBeforePacemaker(host)) {
+            if (host.getCapabilities().isBeforePacemaker()) {
                 rscString         = "from";
                 rscRoleString     = "from_role";
                 withRscString     = "to";
@@ -30,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Set;
 import java.util.HashSet;
 import org.apache.commons.collections15.map.MultiKeyMap;
+import org.w3c.dom.Node;
 
 /**
  * This class holds data that were parsed from cib xml. This is not used in old
@@ -146,6 +147,8 @@ final class CibQuery {
     /** op_defaults parameters with values. */
     private Map<String, String> opDefaultsParams =
                                                  new HashMap<String, String>();
+    /** Configuration node, that is rendered in the crm shell syntax. */
+    private Node confNode = null;
 
     /** Sets crm config map. */
     void setCrmConfig(final Map<String, String> crmConfig) {
@@ -598,4 +601,21 @@ final class CibQuery {
     Map<String, String> getOpDefaultsParams() {
         return opDefaultsParams;
     }
+
+    /** Sets configuration node, that is rendered in the crm shell syntax. */
+    void setConfigurationNode(final Node confNode) {
+        this.confNode = confNode;
+    }
+
+    /**
+     * Returns configuration in the crm shell syntax, it is rendered only
+     * when it is shown. Returns null if the configuration has elements, that
+     * are not rendered.
+     */
+    String getCrmConfigureShow() {
+        if (confNode == null) {
+            return null;
+        }
+        return new CrmShellRenderer().render(confNode);
+    }
 }
@@ -25,6 +25,7 @@ package lcmc.data;
 import lcmc.gui.ClusterTab;
 import lcmc.gui.ClusterBrowser;
 import lcmc.gui.SSHGui;
+import lcmc.gui.resources.InfoPanelCache;
 import lcmc.data.resources.BlockDevice;
 import lcmc.data.resources.Network;
 import lcmc.utilities.Tools;
@@ -102,6 +103,10 @@ public final class Cluster {
             clusterBrowser.stopServerStatus();
             clusterBrowser.stopDrbdStatus();
             clusterBrowser.stopClStatus();
+            InfoPanelCache.removeBrowser(cb);
+        }
+        for (final Host host : hosts) {
+            InfoPanelCache.removeBrowser(host.getBrowser());
         }
     }
 
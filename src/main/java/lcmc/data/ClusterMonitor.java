@@ -0,0 +1,736 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+package lcmc.data;
+
+import lcmc.utilities.ExecCallback;
+import lcmc.utilities.NewOutputCallback;
+import lcmc.utilities.PrometheusMetrics;
+import lcmc.utilities.StatusFrameDecoder;
+import lcmc.utilities.Tools;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the status of one cluster up to date without any GUI. It runs the
+ * same cluster status, drbd events and hw info pipelines as the cluster
+ * browser, but keeps only the ClusterStatus, DrbdXML and VMSXML objects and
+ * the drbd states from the events. It is used in the headless mode, where
+ * the states are served as metrics.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class ClusterMonitor {
+    /** Cluster status pipeline. */
+    public static final String CLUSTER_PIPELINE = "cluster";
+    /** Drbd config and events pipeline. */
+    public static final String DRBD_PIPELINE = "drbd";
+    /** Hw and vm info pipeline. */
+    public static final String HW_PIPELINE = "hw";
+    /** Delay before a status command is started again. */
+    private static final int RESTART_DELAY = 5000;
+    /** Cluster status error string. */
+    private static final String CLUSTER_STATUS_ERROR = "error";
+    /** Output of the drbd events, if drbd is not loaded. */
+    private static final String DRBD_NOT_LOADED = "--nm--";
+    /** Connection, role and disk state index in the drbd state array. */
+    private static final int CS = 2;
+    /** Role index in the drbd state array. */
+    private static final int RO = 3;
+    /** Disk state index in the drbd state array. */
+    private static final int DS = 4;
+
+    /** Monitored cluster. */
+    private final Cluster cluster;
+    /** Cluster status, null till the cluster meta data are loaded. */
+    private volatile ClusterStatus clusterStatus = null;
+    /** Cluster status lock. */
+    private final Lock mClStatusLock = new ReentrantLock();
+    /** Drbd config from the last drbd info. */
+    private volatile DrbdXML drbdXML = null;
+    /**
+     * Drbd parameters per host, they are set to empty strings, so that the
+     * drbd parameter meta data are not loaded from the hosts.
+     */
+    private final Map<Host, String> drbdParameters =
+                                                new HashMap<Host, String>();
+    /** VMs from the last vm info per host. */
+    private final Map<Host, VMSXML> vmsXMLs = new HashMap<Host, VMSXML>();
+    /** VMs lock. */
+    private final Lock mVMSLock = new ReentrantLock();
+    /**
+     * Drbd states from the events per host and minor: resource, volume,
+     * connection state, role and disk state.
+     */
+    private final Map<Host, Map<String, String[]>> drbdStates =
+                                    new HashMap<Host, Map<String, String[]>>();
+    /** Drbd states lock. */
+    private final Lock mDrbdStatesLock = new ReentrantLock();
+    /** Count, sum of nanoseconds and time of the last update per pipeline. */
+    private final Map<String, long[]> timings =
+                                          new LinkedHashMap<String, long[]>();
+    /** Timings lock. */
+    private final Lock mTimingsLock = new ReentrantLock();
+    /** Reconnect lock, so that only one thread reconnects a host. */
+    private final Lock mReconnectLock = new ReentrantLock();
+    /** Whether the monitor was stopped. */
+    private volatile boolean canceled = false;
+
+    /** Prepares a new <code>ClusterMonitor</code> object. */
+    public ClusterMonitor(final Cluster cluster) {
+        this.cluster = cluster;
+        for (final Host host : cluster.getHosts()) {
+            drbdParameters.put(host, "");
+        }
+        for (final String pipeline : new String[]{CLUSTER_PIPELINE,
+                                                  DRBD_PIPELINE,
+                                                  HW_PIPELINE}) {
+            timings.put(pipeline, new long[3]);
+        }
+    }
+
+    /** Returns the monitored cluster. */
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    /** Returns the cluster status or null if it is not loaded yet. */
+    public ClusterStatus getClusterStatus() {
+        return clusterStatus;
+    }
+
+    /** Returns drbd config or null if it is not known yet. */
+    public DrbdXML getDrbdXML() {
+        return drbdXML;
+    }
+
+    /** Returns VMs of the host or null if they are not known yet. */
+    public VMSXML getVMSXML(final Host host) {
+        mVMSLock.lock();
+        try {
+            return vmsXMLs.get(host);
+        } finally {
+            mVMSLock.unlock();
+        }
+    }
+
+    /**
+     * Connects the hosts and starts the status pipelines in the background.
+     */
+    public void start() {
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                cluster.connect(null, false, 1);
+                for (final Host host : cluster.getHosts()) {
+                    host.waitOnLoading();
+                }
+                while (!canceled && !loadClusterStatus()) {
+                    Tools.sleep(RESTART_DELAY);
+                }
+                for (final Host host : cluster.getHosts()) {
+                    startDrbdStatus(host);
+                    startServerStatus(host);
+                }
+                startClStatus();
+            }
+        });
+        thread.start();
+    }
+
+    /** Stops the pipelines and disconnects the hosts. */
+    public void stop() {
+        canceled = true;
+        for (final Host host : cluster.getHosts()) {
+            host.stopClStatus();
+            host.stopDrbdStatus();
+            host.stopServerStatus();
+            host.disconnect();
+        }
+    }
+
+    /**
+     * Loads the cluster meta data on the first connected host. Returns
+     * false, if no host is connected.
+     */
+    private boolean loadClusterStatus() {
+        for (final Host host : cluster.getHosts()) {
+            if (host.isConnected()) {
+                final CRMXML crmXML = new CRMXML(host, null);
+                clusterStatus = new ClusterStatus(host, crmXML);
+                return true;
+            }
+        }
+        for (final Host host : cluster.getHosts()) {
+            reconnect(host);
+        }
+        return false;
+    }
+
+    /**
+     * Connects the host again, if the connection was lost. The connection is
+     * made only once, if more pipelines find out, that it was lost.
+     */
+    private void reconnect(final Host host) {
+        mReconnectLock.lock();
+        try {
+            if (canceled || host.isConnected()) {
+                return;
+            }
+            Tools.debug(this, "reconnecting: " + host.getName(), 1);
+            host.setIsLoading();
+            host.connect(null, false, 1);
+            host.getSSH().waitForConnection();
+            host.waitOnLoading();
+        } finally {
+            mReconnectLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the host on which the cluster status runs. It is the DC if it
+     * is known, or the first connected host with a running cluster stack.
+     */
+    private Host getStatusHost() {
+        final ClusterStatus clStatus = clusterStatus;
+        final String dc = clStatus.getDC();
+        Host connected = null;
+        Host running = null;
+        for (final Host host : cluster.getHosts()) {
+            if (!host.isConnected()) {
+                continue;
+            }
+            if (host.getName().equals(dc) && host.isClStatus()) {
+                return host;
+            }
+            if (running == null
+                && (host.isHeartbeatRunning()
+                    || host.isCsRunning()
+                    || host.isAisRunning())) {
+                running = host;
+            }
+            if (connected == null) {
+                connected = host;
+            }
+        }
+        if (running != null) {
+            return running;
+        }
+        return connected;
+    }
+
+    /** Runs the cluster status command till the monitor is stopped. */
+    private void startClStatus() {
+        while (!canceled) {
+            final Host host = getStatusHost();
+            if (host == null) {
+                for (final Host h : cluster.getHosts()) {
+                    reconnect(h);
+                }
+                Tools.sleep(RESTART_DELAY);
+                continue;
+            }
+            host.execClStatusCommand(
+                 new ExecCallback() {
+                     @Override
+                     public void done(final String ans) {
+                         /* cluster status command ended */
+                     }
+
+                     @Override
+                     public void doneError(final String ans,
+                                           final int exitCode) {
+                         Tools.debug(this, "cluster status failed: "
+                                           + host.getName()
+                                           + ", ec: "
+                                           + exitCode, 2);
+                         mClStatusLock.lock();
+                         clusterStatus.setOnlineNode(host.getName(), "no");
+                         host.setClStatus(false);
+                         clusterStatus.setDC(null);
+                         mClStatusLock.unlock();
+                     }
+                 },
+                 new NewOutputCallback() {
+                     private final StatusFrameDecoder decoder =
+                                                    new StatusFrameDecoder();
+                     @Override
+                     public void output(final String output) {
+                         processClusterOutput(output, decoder, host);
+                     }
+                 });
+            host.waitOnClStatus();
+            if (canceled) {
+                break;
+            }
+            if (!host.isConnected()) {
+                reconnect(host);
+            }
+            Tools.sleep(RESTART_DELAY);
+        }
+    }
+
+    /** Processes the output from the cluster status command. */
+    private void processClusterOutput(final String output,
+                                      final StatusFrameDecoder decoder,
+                                      final Host host) {
+        final ClusterStatus clStatus = clusterStatus;
+        mClStatusLock.lock();
+        try {
+            if (output == null || "".equals(output)) {
+                clStatus.setOnlineNode(host.getName(), "no");
+                host.setClStatus(false);
+                return;
+            }
+            for (final StatusFrameDecoder.Frame frame
+                                                : decoder.decode(output)) {
+                if (StatusFrameDecoder.UNCHANGED.equals(frame.getType())) {
+                    final List<String> lastStatus =
+                                                 host.getLastClusterStatus();
+                    if (lastStatus != null) {
+                        processClusterStatus(lastStatus, clStatus, host);
+                    }
+                    continue;
+                }
+                if (!StatusFrameDecoder.CLUSTER.equals(frame.getType())) {
+                    continue;
+                }
+                final List<String> status = frame.getLines();
+                if (isClusterStatusStopped(status)) {
+                    host.setClStatus(false);
+                } else if (CLUSTER_STATUS_ERROR.equals(
+                                                    status.get(0).trim())) {
+                    clStatus.setOnlineNode(host.getName(), "no");
+                    host.setClStatus(false);
+                    host.setLastClusterStatus(null, null);
+                } else {
+                    processClusterStatus(status, clStatus, host);
+                    host.setLastClusterStatus(frame.getHash(), status);
+                }
+            }
+        } finally {
+            mClStatusLock.unlock();
+        }
+    }
+
+    /** Returns whether the cluster status says, that the cluster's stopped. */
+    private boolean isClusterStatusStopped(final List<String> status) {
+        for (final String line : status) {
+            if (line.indexOf("is stopped") >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Parses one complete cluster status. */
+    private void processClusterStatus(final List<String> status,
+                                      final ClusterStatus clStatus,
+                                      final Host host) {
+        final long start = System.nanoTime();
+        if (clStatus.parseStatus(status)) {
+            Tools.debug(this, "update cluster status: " + host.getName(), 2);
+        }
+        addTiming(CLUSTER_PIPELINE, System.nanoTime() - start);
+        host.setClStatus("yes".equals(clStatus.isOnlineNode(host.getName())));
+    }
+
+    /** Starts the drbd events on the host in the background. */
+    private void startDrbdStatus(final Host host) {
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!canceled) {
+                    if (!host.isConnected()) {
+                        reconnect(host);
+                        Tools.sleep(RESTART_DELAY);
+                        continue;
+                    }
+                    host.execDrbdStatusCommand(
+                        new ExecCallback() {
+                            @Override
+                            public void done(final String ans) {
+                                /* drbd events ended */
+                            }
+
+                            @Override
+                            public void doneError(final String ans,
+                                                  final int exitCode) {
+                                Tools.debug(this, "drbd status failed: "
+                                                  + host.getName()
+                                                  + " exit code: "
+                                                  + exitCode, 2);
+                            }
+                        },
+                        new NewOutputCallback() {
+                            private final StatusFrameDecoder decoder =
+                                                    new StatusFrameDecoder();
+                            @Override
+                            public void output(final String output) {
+                                processDrbdOutput(output, decoder, host);
+                            }
+                        });
+                    host.waitOnDrbdStatus();
+                    Tools.sleep(RESTART_DELAY);
+                }
+            }
+        });
+        thread.start();
+    }
+
+    /** Processes the drbd config and the drbd events. */
+    private void processDrbdOutput(final String output,
+                                   final StatusFrameDecoder decoder,
+                                   final Host host) {
+        if (DRBD_NOT_LOADED.equals(output.trim())) {
+            mDrbdStatesLock.lock();
+            drbdStates.remove(host);
+            mDrbdStatesLock.unlock();
+            return;
+        }
+        for (final StatusFrameDecoder.Frame frame : decoder.decode(output)) {
+            if ("drbd".equals(frame.getType())) {
+                host.drbdStatusLock();
+                final String drbdConfig = host.getFrameContent(frame);
+                if (drbdConfig != null) {
+                    updateDrbdConfig(drbdConfig);
+                }
+                host.drbdStatusUnlock();
+            } else if ("event".equals(frame.getType())) {
+                final String event = host.getFrameContent(frame);
+                if (event != null) {
+                    final long start = System.nanoTime();
+                    parseDrbdEvent(host, event);
+                    addTiming(DRBD_PIPELINE, System.nanoTime() - start);
+                }
+            }
+        }
+    }
+
+    /** Parses the drbd config from the drbd info. */
+    private void updateDrbdConfig(final String drbdConfig) {
+        final long start = System.nanoTime();
+        final DrbdXML newDrbdXML = new DrbdXML(cluster.getHostsArray(),
+                                               drbdParameters);
+        newDrbdXML.update(drbdConfig);
+        drbdXML = newDrbdXML;
+        addTiming(DRBD_PIPELINE, System.nanoTime() - start);
+    }
+
+    /** Stores the state from the drbd state events. */
+    void parseDrbdEvent(final Host host, final String event) {
+        for (final String line : event.split("\\r?\\n")) {
+            final Matcher m =
+                     DrbdXML.DRBD_EVENT_STATE_PATTERN.matcher(line.trim());
+            if (!m.matches()) {
+                continue;
+            }
+            String minor = m.group(2);
+            String res = null;
+            String volumeNr = null;
+            final Matcher mDev =
+                          DrbdXML.DRBD_EVENT_DEVICE_PATTERN.matcher(minor);
+            if (mDev.matches()) { /* since 8.4 */
+                minor = mDev.group(1);
+                res = mDev.group(2);
+                volumeNr = mDev.group(3);
+            }
+            mDrbdStatesLock.lock();
+            try {
+                Map<String, String[]> states = drbdStates.get(host);
+                if (states == null) {
+                    states = new LinkedHashMap<String, String[]>();
+                    drbdStates.put(host, states);
+                }
+                states.put(minor, new String[]{res,
+                                               volumeNr,
+                                               m.group(3),
+                                               m.group(4),
+                                               m.group(6)});
+            } finally {
+                mDrbdStatesLock.unlock();
+            }
+        }
+    }
+
+    /** Starts the hw info daemon on the host in the background. */
+    private void startServerStatus(final Host host) {
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (!canceled) {
+                    if (!host.isConnected()) {
+                        reconnect(host);
+                        Tools.sleep(RESTART_DELAY);
+                        continue;
+                    }
+                    host.execServerStatusCommand(
+                        new ExecCallback() {
+                            @Override
+                            public void done(final String ans) {
+                                /* hw info daemon ended */
+                            }
+
+                            @Override
+                            public void doneError(final String ans,
+                                                  final int exitCode) {
+                                Tools.debug(this, "hw info failed: "
+                                                  + host.getName()
+                                                  + " exit code: "
+                                                  + exitCode, 2);
+                            }
+                        },
+                        new NewOutputCallback() {
+                            private final StatusFrameDecoder decoder =
+                                                    new StatusFrameDecoder();
+                            @Override
+                            public void output(final String output) {
+                                processServerOutput(output, decoder, host);
+                            }
+                        });
+                    host.waitOnServerStatus();
+                    Tools.sleep(RESTART_DELAY);
+                }
+            }
+        });
+        thread.start();
+    }
+
+    /** Processes the hw, vm and drbd info from the hw info daemon. */
+    private void processServerOutput(final String output,
+                                     final StatusFrameDecoder decoder,
+                                     final Host host) {
+        for (final StatusFrameDecoder.Frame frame : decoder.decode(output)) {
+            final String type = frame.getType();
+            if ("hw".equals(type)) {
+                final String hw = host.getFrameContent(frame);
+                if (hw != null) {
+                    final long start = System.nanoTime();
+                    host.parseHostInfo(hw);
+                    addTiming(HW_PIPELINE, System.nanoTime() - start);
+                }
+            } else if ("vm".equals(type)) {
+                host.vmStatusLock();
+                final String vm = host.getFrameContent(frame);
+                host.vmStatusUnlock();
+                if (vm != null) {
+                    final long start = System.nanoTime();
+                    final VMSXML newVMSXML = new VMSXML(host);
+                    if (newVMSXML.update(vm)) {
+                        mVMSLock.lock();
+                        vmsXMLs.put(host, newVMSXML);
+                        mVMSLock.unlock();
+                    }
+                    addTiming(HW_PIPELINE, System.nanoTime() - start);
+                }
+            } else if ("drbd".equals(type)) {
+                host.drbdStatusLock();
+                final String drbdConfig = host.getFrameContent(frame);
+                if (drbdConfig != null) {
+                    updateDrbdConfig(drbdConfig);
+                }
+                host.drbdStatusUnlock();
+            }
+        }
+    }
+
+    /** Adds time that was needed to process an update in the pipeline. */
+    private void addTiming(final String pipeline, final long nanos) {
+        mTimingsLock.lock();
+        final long[] timing = timings.get(pipeline);
+        timing[0]++;
+        timing[1] += nanos;
+        timing[2] = System.currentTimeMillis();
+        mTimingsLock.unlock();
+    }
+
+    /** Adds the states of the cluster to the metrics. */
+    public void collect(final PrometheusMetrics metrics) {
+        final String cn = cluster.getName();
+        final ClusterStatus clStatus = clusterStatus;
+        boolean up = false;
+        for (final Host host : cluster.getHosts()) {
+            final String hn = host.getName();
+            if (host.isClStatus()) {
+                up = true;
+            }
+            metrics.gauge("lcmc_host_connected",
+                          "Whether the ssh connection to the host is up.",
+                          host.isConnected() ? 1 : 0,
+                          "cluster", cn, "host", hn);
+            if (host.getLatency() >= 0) {
+                metrics.gauge("lcmc_host_latency_seconds",
+                              "Round trip time of the last ssh keepalive.",
+                              host.getLatency() / 1000.0,
+                              "cluster", cn, "host", hn);
+            }
+        }
+        metrics.gauge("lcmc_cluster_up",
+                      "Whether the cluster status is available.",
+                      up ? 1 : 0,
+                      "cluster", cn);
+        if (clStatus != null) {
+            collectClusterStatus(metrics, cn, clStatus);
+        }
+        collectDrbd(metrics, cn);
+        collectVMs(metrics, cn);
+        mTimingsLock.lock();
+        try {
+            for (final Map.Entry<String, long[]> e : timings.entrySet()) {
+                final long[] timing = e.getValue();
+                metrics.add("lcmc_status_update_seconds",
+                            PrometheusMetrics.SUMMARY,
+                            "Time spent parsing the status updates.",
+                            "_sum",
+                            timing[1] / 1000000000.0,
+                            "cluster", cn, "pipeline", e.getKey());
+                metrics.add("lcmc_status_update_seconds",
+                            PrometheusMetrics.SUMMARY,
+                            "Time spent parsing the status updates.",
+                            "_count",
+                            timing[0],
+                            "cluster", cn, "pipeline", e.getKey());
+                if (timing[2] > 0) {
+                    metrics.gauge(
+                            "lcmc_status_last_update_timestamp_seconds",
+                            "Time of the last status update.",
+                            timing[2] / 1000.0,
+                            "cluster", cn, "pipeline", e.getKey());
+                }
+            }
+        } finally {
+            mTimingsLock.unlock();
+        }
+    }
+
+    /** Adds node and resource states. */
+    private void collectClusterStatus(final PrometheusMetrics metrics,
+                                      final String cn,
+                                      final ClusterStatus clStatus) {
+        final List<String> nodes = new ArrayList<String>();
+        mClStatusLock.lock();
+        try {
+            for (final Host host : cluster.getHosts()) {
+                final String online = clStatus.isOnlineNode(host.getName());
+                if (online == null) {
+                    continue;
+                }
+                nodes.add(host.getName());
+                metrics.gauge("lcmc_node_online",
+                              "Whether the node is online in the cluster.",
+                              "yes".equals(online) ? 1 : 0,
+                              "cluster", cn, "node", host.getName());
+            }
+            for (final String res : clStatus.getAllResources()) {
+                metrics.gauge("lcmc_resource_managed",
+                              "Whether the resource is managed.",
+                              clStatus.isManaged(res, false) ? 1 : 0,
+                              "cluster", cn, "resource", res);
+                final List<String> running =
+                                        clStatus.getRunningOnNodes(res, false);
+                for (final String node : nodes) {
+                    metrics.gauge("lcmc_resource_running",
+                                  "Whether the resource runs on the node.",
+                                  running != null && running.contains(node)
+                                  ? 1 : 0,
+                                  "cluster", cn,
+                                  "resource", res,
+                                  "node", node);
+                }
+            }
+        } finally {
+            mClStatusLock.unlock();
+        }
+    }
+
+    /** Adds drbd states. */
+    private void collectDrbd(final PrometheusMetrics metrics,
+                             final String cn) {
+        final DrbdXML dxml = drbdXML;
+        if (dxml != null) {
+            metrics.gauge("lcmc_drbd_resources",
+                          "Number of the configured drbd resources.",
+                          dxml.getResources().length,
+                          "cluster", cn);
+        }
+        mDrbdStatesLock.lock();
+        try {
+            for (final Map.Entry<Host, Map<String, String[]>> e
+                                                    : drbdStates.entrySet()) {
+                for (final Map.Entry<String, String[]> s
+                                                : e.getValue().entrySet()) {
+                    final String minor = s.getKey();
+                    final String[] state = s.getValue();
+                    String res = state[0];
+                    String volumeNr = state[1];
+                    if (res == null && dxml != null) {
+                        res = dxml.getDeviceResource("/dev/drbd" + minor);
+                        volumeNr = dxml.getDeviceVolume("/dev/drbd" + minor);
+                    }
+                    metrics.gauge("lcmc_drbd_volume_state",
+                                  "Drbd volume state from the last event.",
+                                  1,
+                                  "cluster", cn,
+                                  "host", e.getKey().getName(),
+                                  "resource", res == null ? "" : res,
+                                  "volume", volumeNr == null ? "0" : volumeNr,
+                                  "minor", minor,
+                                  "connection", state[CS],
+                                  "role", state[RO],
+                                  "disk", state[DS]);
+                }
+            }
+        } finally {
+            mDrbdStatesLock.unlock();
+        }
+    }
+
+    /** Adds vm states. */
+    private void collectVMs(final PrometheusMetrics metrics,
+                            final String cn) {
+        mVMSLock.lock();
+        try {
+            for (final Map.Entry<Host, VMSXML> e : vmsXMLs.entrySet()) {
+                final VMSXML vmsXML = e.getValue();
+                for (final String name : vmsXML.getDomainNames()) {
+                    metrics.gauge("lcmc_vm_running",
+                                  "Whether the vm runs on the host.",
+                                  vmsXML.isRunning(name) ? 1 : 0,
+                                  "cluster", cn,
+                                  "host", e.getKey().getName(),
+                                  "vm", name);
+                }
+            }
+        } finally {
+            mVMSLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+package lcmc.data;
+
+import lcmc.utilities.Tools;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The last known state of a cluster: the cib, the drbd config, the vms and
+ * the meta-data, that are needed to show it. It is saved next to the
+ * config file on exit and shown at the start up, before the hosts are
+ * connected, until the live data replace it. Passwords and secrets are not
+ * saved and only the owner can read the file.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class ClusterState {
+    /** Resource agents without meta-data. */
+    private static final String RA_QUICK = "ra-quick";
+    /** Meta-data of the configured resource agents. */
+    private static final String RA_CONFIGURED = "ra-configured";
+    /** Meta-data of pengine and crmd. */
+    private static final String CLUSTER_META_DATA = "cluster-meta-data";
+    /** Cluster status, the cib. */
+    private static final String CLUSTER_STATUS = "cluster-status";
+    /** Drbd config. */
+    private static final String DRBD_CONFIG = "drbd-config";
+    /** Time, when the state was saved. */
+    private static final String SAVED = "saved";
+    /** Drbd parameters of the host. */
+    private static final String HOST_DRBD_PARAMETERS = "drbd-parameters";
+    /** Vms of the host. */
+    private static final String HOST_VMS = "vms";
+    /** Heartbeat version of the host. */
+    private static final String HOST_HB_VERSION = "hb-version";
+    /** Pacemaker version of the host. */
+    private static final String HOST_PCMK_VERSION = "pcmk-version";
+    /** Drbd version of the host. */
+    private static final String HOST_DRBD_VERSION = "drbd-version";
+    /** Nvpair in the cib or option in the drbdadm dump-xml output. */
+    private static final Pattern NVPAIR_PATTERN =
+                              Pattern.compile("<(nvpair|option)\\b[^>]*>");
+    /** Name of the nvpair or option, that has a secret value. */
+    private static final Pattern SECRET_NAME_PATTERN =
+           Pattern.compile("\\bname=\"[^\"]*(passw|secret)[^\"]*\"",
+                           Pattern.CASE_INSENSITIVE);
+    /** Value of the nvpair or option. */
+    private static final Pattern VALUE_PATTERN =
+                                      Pattern.compile("\\bvalue=\"[^\"]*\"");
+    /** Saved values. */
+    private final Properties properties = new Properties();
+
+    /** Returns the file with the state of the cluster. */
+    public static File getFile(final String saveFile,
+                               final String clusterName) {
+        return new File(saveFile + ".state."
+                        + clusterName.replaceAll("[^\\w.-]", "_") + ".xml");
+    }
+
+    /** Loads the state from the file, returns null if there is none. */
+    public static ClusterState load(final File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        final ClusterState state = new ClusterState();
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            state.properties.loadFromXML(in);
+        } catch (IOException e) {
+            Tools.appWarning("could not load: " + file, e);
+            return null;
+        } finally {
+            close(in);
+        }
+        if (state.getClusterStatus() == null) {
+            return null;
+        }
+        return state;
+    }
+
+    /**
+     * Saves the state into the file. It is written into a temporary file,
+     * that only the owner can read, and then renamed over the old one, so
+     * that a crash doesn't leave a half written state.
+     */
+    public void save(final File file) {
+        properties.setProperty(SAVED,
+                               Long.toString(System.currentTimeMillis()));
+        final File dir = file.getAbsoluteFile().getParentFile();
+        File tmp = null;
+        OutputStream out = null;
+        try {
+            tmp = File.createTempFile(file.getName(), ".tmp", dir);
+            tmp.setReadable(false, false);
+            tmp.setWritable(false, false);
+            tmp.setReadable(true, true);
+            tmp.setWritable(true, true);
+            out = new FileOutputStream(tmp);
+            properties.storeToXML(out, "last known cluster state");
+            out.close();
+            out = null;
+            if (!tmp.renameTo(file)) {
+                /* it doesn't rename over the existing file on windows */
+                if (!file.delete() || !tmp.renameTo(file)) {
+                    throw new IOException("could not rename: " + tmp);
+                }
+            }
+            tmp = null;
+        } catch (IOException e) {
+            Tools.appWarning("could not save: " + file, e);
+        } finally {
+            close(out);
+            if (tmp != null && !tmp.delete()) {
+                Tools.appWarning("could not delete: " + tmp);
+            }
+        }
+    }
+
+    /** Closes the stream. */
+    private static void close(final java.io.Closeable c) {
+        if (c != null) {
+            try {
+                c.close();
+            } catch (IOException e) {
+                Tools.appWarning("could not close: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Sets the value, null values are not saved. */
+    private void set(final String key, final String value) {
+        if (value == null) {
+            properties.remove(key);
+        } else {
+            properties.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Returns the text without the values of the secret nvpairs in the cib
+     * and of the secret options in the drbd config.
+     */
+    static String stripSecrets(final String text) {
+        final Matcher m = NVPAIR_PATTERN.matcher(text);
+        final StringBuffer sb = new StringBuffer();
+        while (m.find()) {
+            String element = m.group();
+            if (SECRET_NAME_PATTERN.matcher(element).find()) {
+                element = VALUE_PATTERN.matcher(element).replaceAll(
+                                                                "value=\"\"");
+            }
+            m.appendReplacement(sb, Matcher.quoteReplacement(element));
+        }
+        m.appendTail(sb);
+        return sb.toString();
+    }
+
+    /** Returns the key for the host. */
+    private static String hostKey(final Host host, final String key) {
+        return "host." + host.getName() + "." + key;
+    }
+
+    /** Returns time in milliseconds, when the state was saved. */
+    public long getSavedTime() {
+        final String saved = properties.getProperty(SAVED);
+        if (saved == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(saved);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /** Sets resource agents without meta-data. */
+    public void setRAQuick(final String output) {
+        set(RA_QUICK, output);
+    }
+
+    /** Returns resource agents without meta-data. */
+    public String getRAQuick() {
+        return properties.getProperty(RA_QUICK);
+    }
+
+    /** Sets meta-data of the configured resource agents. */
+    public void setRAConfigured(final String output) {
+        set(RA_CONFIGURED, output);
+    }
+
+    /** Returns meta-data of the configured resource agents. */
+    public String getRAConfigured() {
+        return properties.getProperty(RA_CONFIGURED);
+    }
+
+    /** Sets meta-data of pengine and crmd. */
+    public void setClusterMetaData(final String output) {
+        set(CLUSTER_META_DATA, output);
+    }
+
+    /** Returns meta-data of pengine and crmd. */
+    public String getClusterMetaData() {
+        return properties.getProperty(CLUSTER_META_DATA);
+    }
+
+    /** Sets the lines of the cluster status without the secret values. */
+    public void setClusterStatus(final List<String> status) {
+        if (status == null) {
+            set(CLUSTER_STATUS, null);
+        } else {
+            set(CLUSTER_STATUS, stripSecrets(Tools.join("\n", status)));
+        }
+    }
+
+    /** Returns the lines of the cluster status. */
+    public List<String> getClusterStatus() {
+        final String status = properties.getProperty(CLUSTER_STATUS);
+        if (status == null) {
+            return null;
+        }
+        return Arrays.asList(status.split("\n"));
+    }
+
+    /**
+     * Sets drbd config, the output of drbdadm dump-xml, without the shared
+     * secrets.
+     */
+    public void setDrbdConfig(final String config) {
+        if (config == null) {
+            set(DRBD_CONFIG, null);
+        } else {
+            set(DRBD_CONFIG, stripSecrets(config));
+        }
+    }
+
+    /** Returns drbd config. */
+    public String getDrbdConfig() {
+        return properties.getProperty(DRBD_CONFIG);
+    }
+
+    /** Sets drbd parameters of the host. */
+    public void setDrbdParameters(final Host host, final String parameters) {
+        set(hostKey(host, HOST_DRBD_PARAMETERS), parameters);
+    }
+
+    /** Returns drbd parameters of the host. */
+    public String getDrbdParameters(final Host host) {
+        return properties.getProperty(hostKey(host, HOST_DRBD_PARAMETERS));
+    }
+
+    /** Sets vms of the host. */
+    public void setVMS(final Host host, final String vms) {
+        set(hostKey(host, HOST_VMS), vms);
+    }
+
+    /** Returns vms of the host. */
+    public String getVMS(final Host host) {
+        return properties.getProperty(hostKey(host, HOST_VMS));
+    }
+
+    /** Saves the versions of the host. */
+    public void setVersions(final Host host) {
+        set(hostKey(host, HOST_HB_VERSION), host.getHeartbeatVersion());
+        set(hostKey(host, HOST_PCMK_VERSION), host.getPacemakerVersion());
+        set(hostKey(host, HOST_DRBD_VERSION), host.getDrbdVersion());
+    }
+
+    /**
+     * Sets the saved versions to the host, if it doesn't know them yet,
+     * they are needed to parse the cib.
+     */
+    public void restoreVersions(final Host host) {
+        if (host.getHeartbeatVersion() == null
+            && host.getPacemakerVersion() == null) {
+            host.setHeartbeatVersion(
+                     properties.getProperty(hostKey(host, HOST_HB_VERSION)));
+            host.setPacemakerVersion(
+                     properties.getProperty(hostKey(host, HOST_PCMK_VERSION)));
+        }
+        if (host.getDrbdVersion() == null) {
+            host.setDrbdVersion(
+                     properties.getProperty(hostKey(host, HOST_DRBD_VERSION)));
+        }
+    }
+}
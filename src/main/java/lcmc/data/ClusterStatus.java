@@ -30,11 +30,13 @@ import lcmc.data.CRMXML.ResStatus;
 
 import java.util.Map;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Locale;
+import java.util.Arrays;
 import org.apache.commons.collections15.map.MultiKeyMap;
 
 /**
@@ -91,6 +93,21 @@ public final class ClusterStatus {
         }
     }
 
+    /**
+     * Prepares a new <code>ClusterStatus</code> object with the metadata from
+     * the cached cluster state, without connecting to the host.
+     */
+    public ClusterStatus(final Host host,
+                         final CRMXML crmXML,
+                         final ClusterState cached) {
+        this.host = host;
+        this.crmXML = crmXML;
+        final String output = cached.getClusterMetaData();
+        if (output != null) {
+            crmXML.parseClusterMetaData(output);
+        }
+    }
+
     /** Returns value of global config parameter. */
     public String getGlobalParam(final String param) {
         return cibQueryMap.getCrmConfig().get(param);
@@ -149,6 +166,15 @@ public final class ClusterStatus {
         return cibQueryMap.getParametersNvpairsIds().get(hbId);
     }
 
+    /**
+     * Returns the configuration in the crm shell syntax, like
+     * "crm configure show", or null if the cib was not parsed yet or if it
+     * has elements, that only the crm shell can show.
+     */
+    public String getCrmConfigureShow() {
+        return cibQueryMap.getCrmConfigureShow();
+    }
+
     /** Returns the dc host. */
     public String getDC() {
         return cibQueryMap.getDC();
@@ -628,7 +654,11 @@ public final class ClusterStatus {
 
     /** Parses status. */
     public boolean parseStatus(final String status) {
-        final String[] lines = status.split("\n");
+        return parseStatus(Arrays.asList(status.split("\n")));
+    }
+
+    /** Parses status, that is already split in lines. */
+    public boolean parseStatus(final List<String> lines) {
         String command    = null;
         List<String> data = null;
 
@@ -674,7 +704,7 @@ public final class ClusterStatus {
                 Tools.appWarning("Error parsing heartbeat status, line not ok: "
                                  + line
                                  + "\n"
-                                 + status);
+                                 + Tools.join("\n", lines));
             }
         }
         return updated;
@@ -700,4 +730,83 @@ public final class ClusterStatus {
                 "<pcmk>" + ptestData.getShadowCib() + "</pcmk>");
         }
     }
+
+    /**
+     * Indexes the resources from the last cib query with their agents,
+     * parameter values, nodes, groups, clones and constraint ids.
+     */
+    public void updateSearchIndex(final SearchIndex index) {
+        final CibQuery cq = cibQueryMap;
+        final Map<String, Set<String>> docs =
+                                        new HashMap<String, Set<String>>();
+        for (final Map.Entry<String, ResourceAgent> e
+                                        : cq.getResourceType().entrySet()) {
+            final String id = e.getKey();
+            final Set<String> terms = getSearchTerms(docs, id);
+            final ResourceAgent ra = e.getValue();
+            if (ra != null) {
+                terms.add(ra.getName());
+                terms.add(ra.getProvider());
+                terms.add(ra.getResourceClass());
+            }
+            final Map<String, String> params = cq.getParameters().get(id);
+            if (params != null) {
+                terms.addAll(params.values());
+            }
+            final Map<String, HostLocation> locs = cq.getLocation().get(id);
+            if (locs != null) {
+                terms.addAll(locs.keySet());
+            }
+            final List<String> ron = getRunningOnNodes(id, false);
+            if (ron != null) {
+                terms.addAll(ron);
+            }
+        }
+        for (final Map.Entry<String, List<String>> e
+                                    : cq.getGroupsToResources().entrySet()) {
+            final String group = e.getKey();
+            if ("none".equals(group)) {
+                continue;
+            }
+            getSearchTerms(docs, group).addAll(e.getValue());
+            for (final String rsc : e.getValue()) {
+                getSearchTerms(docs, rsc).add(group);
+            }
+        }
+        for (final Map.Entry<String, String> e
+                                    : cq.getCloneToResource().entrySet()) {
+            getSearchTerms(docs, e.getKey()).add(e.getValue());
+            getSearchTerms(docs, e.getValue()).add(e.getKey());
+        }
+        for (final CRMXML.ColocationData cd : cq.getColocationId().values()) {
+            addSearchTerm(docs, cd.getRsc(), cd.getId());
+            addSearchTerm(docs, cd.getWithRsc(), cd.getId());
+        }
+        for (final CRMXML.OrderData od : cq.getOrderId().values()) {
+            addSearchTerm(docs, od.getRscFirst(), od.getId());
+            addSearchTerm(docs, od.getRscThen(), od.getId());
+        }
+        index.update(SearchIndex.RESOURCE, docs);
+    }
+
+    /** Returns the terms of the resource, creating them if necessary. */
+    private static Set<String> getSearchTerms(
+                                        final Map<String, Set<String>> docs,
+                                        final String id) {
+        Set<String> terms = docs.get(id);
+        if (terms == null) {
+            terms = new HashSet<String>();
+            docs.put(id, terms);
+        }
+        return terms;
+    }
+
+    /** Adds the term to the resource, if the resource is set. */
+    private static void addSearchTerm(final Map<String, Set<String>> docs,
+                                      final String id,
+                                      final String term) {
+        if (id != null) {
+            getSearchTerms(docs, id).add(term);
+        }
+    }
 }
@@ -163,6 +163,8 @@ public final class ConfigData {
     private boolean bigDRBDConf = false;
     /** Allow one host cluster. */
     private boolean oneHostCluster = false;
+    /** Whether lcmc runs without GUI as a status collector. */
+    private boolean headless = false;
     /** Scale for fonts and GUI elements. 100 is the same size. */
     private int scale = 100;
 
@@ -318,6 +320,14 @@ public final class ConfigData {
         }
     }
 
+    /**
+     * Sets whether the host names, that were not found in the known hosts,
+     * are resolved and searched by their IP addresses.
+     */
+    public void setKnownHostsDNS(final boolean knownHostsDNS) {
+        knownHosts.setResolveHostnames(knownHostsDNS);
+    }
+
     /** Returns Id DSA path. */
     public String getIdDSAPath() {
         return idDSAPath;
@@ -648,6 +658,16 @@ public final class ConfigData {
         this.oneHostCluster = oneHostCluster;
     }
 
+    /** Return whether lcmc runs without GUI. */
+    public final boolean isHeadless() {
+        return headless;
+    }
+
+    /** Set whether lcmc runs without GUI. */
+    public final void setHeadless(final boolean headless) {
+        this.headless = headless;
+    }
+
     /** Return scaled size. */
     public final int scaled(final int size) {
         return size * scale / 100;
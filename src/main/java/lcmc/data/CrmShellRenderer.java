@@ -0,0 +1,678 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * This class renders the cib configuration in the crm shell syntax, the same
+ * way as "crm configure show" does, so that the crm shell doesn't have to be
+ * started on the host every time it is shown. Only the elements, that LCMC
+ * creates, are rendered. If the configuration has other elements, it is not
+ * rendered at all, because the text is committed with "crm configure edit"
+ * and the elements, that are missing in it, would be deleted.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+final class CrmShellRenderer extends XML {
+    /** Continuation of the statement on the next line. */
+    private static final String CONTINUE = " \\\n\t";
+    /** Operation attributes in the order, in which they are shown. */
+    private static final List<String> OP_ATTRS =
+                       Arrays.asList("interval", "timeout", "start-delay");
+
+    /** Elements, that are rendered, with their child elements. */
+    private static final Map<String, List<String>> CHILDREN =
+                                        new HashMap<String, List<String>>();
+    /** Attributes of the elements, that are not rendered. */
+    private static final Map<String, List<String>> SKIPPED_ATTRS =
+                                        new HashMap<String, List<String>>();
+    /** Sets, that are rendered only once per element. */
+    private static final List<String> SETS =
+        Arrays.asList("instance_attributes", "meta_attributes", "utilization");
+    static {
+        CHILDREN.put("configuration",
+                     Arrays.asList("crm_config", "nodes", "resources",
+                                   "constraints", "rsc_defaults",
+                                   "op_defaults"));
+        CHILDREN.put("crm_config", Arrays.asList("cluster_property_set"));
+        CHILDREN.put("cluster_property_set",
+                     Arrays.asList("nvpair", "attributes"));
+        CHILDREN.put("nodes", Arrays.asList("node"));
+        CHILDREN.put("node",
+                     Arrays.asList("instance_attributes", "utilization"));
+        CHILDREN.put("resources",
+                     Arrays.asList("primitive", "group", "clone", "master"));
+        CHILDREN.put("primitive",
+                     Arrays.asList("instance_attributes", "utilization",
+                                   "operations", "meta_attributes"));
+        CHILDREN.put("operations", Arrays.asList("op"));
+        CHILDREN.put("op", Arrays.asList("instance_attributes"));
+        CHILDREN.put("group",
+                     Arrays.asList("primitive", "instance_attributes",
+                                   "meta_attributes"));
+        final List<String> cloneChildren =
+                Arrays.asList("primitive", "group", "instance_attributes",
+                              "meta_attributes");
+        CHILDREN.put("clone", cloneChildren);
+        CHILDREN.put("master", cloneChildren);
+        CHILDREN.put("constraints",
+                     Arrays.asList("rsc_location", "rsc_colocation",
+                                   "rsc_order"));
+        CHILDREN.put("rsc_location", Arrays.asList("rule"));
+        CHILDREN.put("rule", Arrays.asList("expression"));
+        CHILDREN.put("expression", new ArrayList<String>());
+        CHILDREN.put("rsc_colocation", Arrays.asList("resource_set"));
+        CHILDREN.put("rsc_order", Arrays.asList("resource_set"));
+        CHILDREN.put("resource_set", Arrays.asList("resource_ref"));
+        CHILDREN.put("resource_ref", new ArrayList<String>());
+        final List<String> defaultsChildren =
+                                        Arrays.asList("meta_attributes");
+        CHILDREN.put("rsc_defaults", defaultsChildren);
+        CHILDREN.put("op_defaults", defaultsChildren);
+        final List<String> setChildren = Arrays.asList("nvpair",
+                                                       "attributes");
+        CHILDREN.put("instance_attributes", setChildren);
+        CHILDREN.put("meta_attributes", setChildren);
+        CHILDREN.put("utilization", setChildren);
+        CHILDREN.put("attributes", Arrays.asList("nvpair"));
+        CHILDREN.put("nvpair", new ArrayList<String>());
+
+        SKIPPED_ATTRS.put("primitive", Arrays.asList("template"));
+        SKIPPED_ATTRS.put("rsc_location",
+                          Arrays.asList("rsc-pattern", "resource-discovery"));
+        SKIPPED_ATTRS.put("rsc_colocation",
+                          Arrays.asList("node-attribute", "rsc-instance",
+                                        "with-rsc-instance"));
+        SKIPPED_ATTRS.put("rsc_order",
+                          Arrays.asList("first-instance", "then-instance"));
+        SKIPPED_ATTRS.put("resource_set",
+                          Arrays.asList("id-ref", "score", "ordering",
+                                        "kind"));
+    }
+
+    /**
+     * Returns the configuration node rendered in the crm shell syntax, or
+     * null if it has elements, that are not rendered.
+     */
+    String render(final Node confNode) {
+        if (!isRendered(confNode)) {
+            return null;
+        }
+        final StringBuilder out = new StringBuilder();
+        final Node nodesNode = getChildNode(confNode, "nodes");
+        if (nodesNode != null) {
+            for (final Node node : getChildren(nodesNode, "node")) {
+                renderNode(out, node);
+            }
+        }
+        final Node resourcesNode = getChildNode(confNode, "resources");
+        if (resourcesNode != null) {
+            final List<Node> primitives = new ArrayList<Node>();
+            final List<Node> groups = new ArrayList<Node>();
+            final List<Node> clones = new ArrayList<Node>();
+            collectResources(resourcesNode, primitives, groups, clones);
+            for (final Node primitive : primitives) {
+                renderPrimitive(out, primitive);
+            }
+            for (final Node group : groups) {
+                renderContainer(out, "group", group);
+            }
+            for (final Node clone : clones) {
+                if ("master".equals(clone.getNodeName())) {
+                    renderContainer(out, "ms", clone);
+                } else {
+                    renderContainer(out, "clone", clone);
+                }
+            }
+        }
+        final Node constraintsNode = getChildNode(confNode, "constraints");
+        if (constraintsNode != null) {
+            for (final Node loc : getChildren(constraintsNode,
+                                              "rsc_location")) {
+                renderLocation(out, loc);
+            }
+            for (final Node col : getChildren(constraintsNode,
+                                              "rsc_colocation")) {
+                renderColocation(out, col);
+            }
+            for (final Node ord : getChildren(constraintsNode, "rsc_order")) {
+                renderOrder(out, ord);
+            }
+        }
+        final Node crmConfNode = getChildNode(confNode, "crm_config");
+        if (crmConfNode != null) {
+            for (final Node cps : getChildren(crmConfNode,
+                                              "cluster_property_set")) {
+                renderPropertySet(out, "property", cps);
+            }
+        }
+        renderDefaults(out, "rsc_defaults", getChildNode(confNode,
+                                                         "rsc_defaults"));
+        renderDefaults(out, "op_defaults", getChildNode(confNode,
+                                                        "op_defaults"));
+        return out.toString();
+    }
+
+    /** Returns whether the node and all its children are rendered. */
+    private boolean isRendered(final Node node) {
+        final String name = node.getNodeName();
+        final List<String> allowed = CHILDREN.get(name);
+        if (allowed == null) {
+            return false;
+        }
+        final List<String> skipped = SKIPPED_ATTRS.get(name);
+        if (skipped != null) {
+            for (final String attr : skipped) {
+                if (getAttribute(node, attr) != null) {
+                    return false;
+                }
+            }
+        }
+        if ("rsc_location".equals(name) && getAttribute(node, "rsc") == null) {
+            return false;
+        }
+        if ("node".equals(name)) {
+            final String type = getAttribute(node, "type");
+            if (type != null && !"normal".equals(type)
+                && !"member".equals(type)) {
+                return false;
+            }
+        }
+        final List<String> sets = new ArrayList<String>();
+        final NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            final Node child = children.item(i);
+            if (child.getNodeType() == Node.TEXT_NODE) {
+                continue;
+            }
+            final String childName = child.getNodeName();
+            if (child.getNodeType() != Node.ELEMENT_NODE
+                || !allowed.contains(childName)) {
+                return false;
+            }
+            if (SETS.contains(childName)
+                && !"rsc_defaults".equals(name)
+                && !"op_defaults".equals(name)) {
+                if (sets.contains(childName)) {
+                    /* only the first set is rendered */
+                    return false;
+                }
+                sets.add(childName);
+            }
+            if (!isRendered(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects primitives, groups and clones in the order in which the crm
+     * shell shows them.
+     */
+    private void collectResources(final Node parent,
+                                  final List<Node> primitives,
+                                  final List<Node> groups,
+                                  final List<Node> clones) {
+        final NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            final Node child = children.item(i);
+            final String name = child.getNodeName();
+            if ("primitive".equals(name)) {
+                primitives.add(child);
+            } else if ("group".equals(name)) {
+                collectResources(child, primitives, groups, clones);
+                groups.add(child);
+            } else if ("clone".equals(name) || "master".equals(name)) {
+                collectResources(child, primitives, groups, clones);
+                clones.add(child);
+            }
+        }
+    }
+
+    /** Renders "node" statement. */
+    private void renderNode(final StringBuilder out, final Node node) {
+        final String id = getAttribute(node, "id");
+        final String uname = getAttribute(node, "uname");
+        final List<String> parts = new ArrayList<String>();
+        if (id == null || id.equals(uname)) {
+            parts.add("node " + uname);
+        } else {
+            parts.add("node $id=" + quote(id) + " " + uname);
+        }
+        addNvpairs(parts, "attributes",
+                   getChildNode(node, "instance_attributes"));
+        addNvpairs(parts, "utilization", getChildNode(node, "utilization"));
+        statement(out, parts);
+    }
+
+    /** Renders "primitive" statement. */
+    private void renderPrimitive(final StringBuilder out,
+                                 final Node primitive) {
+        final String provider = getAttribute(primitive, "provider");
+        final StringBuilder ra = new StringBuilder();
+        ra.append(getAttribute(primitive, "class"));
+        ra.append(':');
+        if (provider != null) {
+            ra.append(provider);
+            ra.append(':');
+        }
+        ra.append(getAttribute(primitive, "type"));
+        final List<String> parts = new ArrayList<String>();
+        parts.add("primitive " + getAttribute(primitive, "id") + " " + ra);
+        addNvpairs(parts, "params",
+                   getChildNode(primitive, "instance_attributes"));
+        addNvpairs(parts, "utilization",
+                   getChildNode(primitive, "utilization"));
+        final Node operationsNode = getChildNode(primitive, "operations");
+        if (operationsNode != null) {
+            final String idRef = getAttribute(operationsNode, "id-ref");
+            if (idRef != null) {
+                parts.add("operations $id-ref=" + quote(idRef));
+            } else {
+                final String id = getAttribute(operationsNode, "id");
+                if (id != null) {
+                    parts.add("operations $id=" + quote(id));
+                }
+                for (final Node op : getChildren(operationsNode, "op")) {
+                    parts.add(op(op));
+                }
+            }
+        }
+        addNvpairs(parts, "meta",
+                   getChildNode(primitive, "meta_attributes"));
+        statement(out, parts);
+    }
+
+    /** Returns the "op" part of the primitive. */
+    private String op(final Node op) {
+        final StringBuilder s = new StringBuilder("op ");
+        s.append(getAttribute(op, "name"));
+        for (final String name : OP_ATTRS) {
+            final String value = getAttribute(op, name);
+            if (value != null) {
+                s.append(' ');
+                s.append(name);
+                s.append('=');
+                s.append(quote(value));
+            }
+        }
+        /* the dom doesn't keep the order of the attributes */
+        final NamedNodeMap attrs = op.getAttributes();
+        for (int i = 0; i < attrs.getLength(); i++) {
+            final Node attr = attrs.item(i);
+            final String name = attr.getNodeName();
+            if (!"id".equals(name)
+                && !"name".equals(name)
+                && !OP_ATTRS.contains(name)) {
+                s.append(' ');
+                s.append(name);
+                s.append('=');
+                s.append(quote(attr.getNodeValue()));
+            }
+        }
+        final Node instanceAttrs = getChildNode(op, "instance_attributes");
+        if (instanceAttrs != null) {
+            for (final Node nvpair : getNvpairs(instanceAttrs)) {
+                s.append(' ');
+                s.append(nvpair(nvpair));
+            }
+        }
+        return s.toString();
+    }
+
+    /** Renders "group", "clone" or "ms" statement. */
+    private void renderContainer(final StringBuilder out,
+                                 final String type,
+                                 final Node container) {
+        final StringBuilder s = new StringBuilder(type);
+        s.append(' ');
+        s.append(getAttribute(container, "id"));
+        final NodeList children = container.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            final Node child = children.item(i);
+            final String name = child.getNodeName();
+            if ("primitive".equals(name)
+                || "group".equals(name)) {
+                s.append(' ');
+                s.append(getAttribute(child, "id"));
+            }
+        }
+        final List<String> parts = new ArrayList<String>();
+        parts.add(s.toString());
+        addNvpairs(parts, "params",
+                   getChildNode(container, "instance_attributes"));
+        addNvpairs(parts, "meta",
+                   getChildNode(container, "meta_attributes"));
+        statement(out, parts);
+    }
+
+    /** Renders "location" statement. */
+    private void renderLocation(final StringBuilder out, final Node loc) {
+        final String head = "location " + getAttribute(loc, "id") + " "
+                            + getAttribute(loc, "rsc");
+        final List<Node> rules = getChildren(loc, "rule");
+        final String node = getAttribute(loc, "node");
+        final String role = getAttribute(loc, "role");
+        if (rules.isEmpty() && role == null) {
+            out.append(head);
+            out.append(' ');
+            out.append(score(getAttribute(loc, "score")));
+            out.append(": ");
+            out.append(node);
+            out.append('\n');
+            return;
+        }
+        final List<String> parts = new ArrayList<String>();
+        parts.add(head);
+        if (rules.isEmpty()) {
+            parts.add("rule $role=" + quote(role) + " "
+                      + score(getAttribute(loc, "score")) + ": #uname eq "
+                      + node);
+        }
+        for (final Node rule : rules) {
+            parts.add(rule(rule));
+        }
+        statement(out, parts);
+    }
+
+    /** Returns the rule of the location. */
+    private String rule(final Node rule) {
+        final StringBuilder s = new StringBuilder("rule");
+        final String idRef = getAttribute(rule, "id-ref");
+        if (idRef != null) {
+            return s.append(" $id-ref=").append(quote(idRef)).toString();
+        }
+        final String id = getAttribute(rule, "id");
+        if (id != null) {
+            s.append(" $id=");
+            s.append(quote(id));
+        }
+        final String role = getAttribute(rule, "role");
+        if (role != null) {
+            s.append(" $role=");
+            s.append(quote(role));
+        }
+        s.append(' ');
+        final String scoreAttribute = getAttribute(rule, "score-attribute");
+        if (scoreAttribute == null) {
+            s.append(score(getAttribute(rule, "score")));
+        } else {
+            s.append(scoreAttribute);
+        }
+        s.append(':');
+        String booleanOp = getAttribute(rule, "boolean-op");
+        if (booleanOp == null) {
+            booleanOp = "and";
+        }
+        boolean first = true;
+        for (final Node expr : getChildren(rule, "expression")) {
+            if (!first) {
+                s.append(' ');
+                s.append(booleanOp);
+            }
+            first = false;
+            s.append(' ');
+            final String attribute = getAttribute(expr, "attribute");
+            final String operation = getAttribute(expr, "operation");
+            if ("defined".equals(operation)
+                || "not_defined".equals(operation)) {
+                s.append(operation);
+                s.append(' ');
+                s.append(attribute);
+            } else {
+                final String type = getAttribute(expr, "type");
+                s.append(attribute);
+                s.append(' ');
+                if (type != null && !"string".equals(type)) {
+                    /* string is the default */
+                    s.append(type);
+                    s.append(':');
+                }
+                s.append(operation);
+                s.append(' ');
+                s.append(getAttribute(expr, "value"));
+            }
+        }
+        return s.toString();
+    }
+
+    /** Renders "colocation" statement. */
+    private void renderColocation(final StringBuilder out, final Node col) {
+        out.append("colocation ");
+        out.append(getAttribute(col, "id"));
+        out.append(' ');
+        out.append(score(getAttribute(col, "score")));
+        out.append(':');
+        final List<Node> sets = getChildren(col, "resource_set");
+        if (sets.isEmpty()) {
+            out.append(' ');
+            out.append(withSuffix(getAttribute(col, "rsc"),
+                                  getAttribute(col, "rsc-role")));
+            out.append(' ');
+            out.append(withSuffix(getAttribute(col, "with-rsc"),
+                                  getAttribute(col, "with-rsc-role")));
+        } else {
+            for (final Node set : sets) {
+                out.append(resourceSet(set, getAttribute(set, "role")));
+            }
+        }
+        out.append('\n');
+    }
+
+    /** Renders "order" statement. */
+    private void renderOrder(final StringBuilder out, final Node ord) {
+        out.append("order ");
+        out.append(getAttribute(ord, "id"));
+        final String score = getAttribute(ord, "score");
+        final String kind = getAttribute(ord, "kind");
+        if (score != null) {
+            out.append(' ');
+            out.append(score(score));
+            out.append(':');
+        } else if (kind != null) {
+            out.append(' ');
+            out.append(kind);
+            out.append(':');
+        }
+        final List<Node> sets = getChildren(ord, "resource_set");
+        if (sets.isEmpty()) {
+            out.append(' ');
+            out.append(withSuffix(getAttribute(ord, "first"),
+                                  getAttribute(ord, "first-action")));
+            out.append(' ');
+            out.append(withSuffix(getAttribute(ord, "then"),
+                                  getAttribute(ord, "then-action")));
+        } else {
+            for (final Node set : sets) {
+                out.append(resourceSet(set, getAttribute(set, "action")));
+            }
+        }
+        final String symmetrical = getAttribute(ord, "symmetrical");
+        if (symmetrical != null) {
+            out.append(" symmetrical=");
+            out.append(symmetrical);
+        }
+        out.append('\n');
+    }
+
+    /** Returns the resource set with the leading space. */
+    private String resourceSet(final Node set, final String suffix) {
+        final StringBuilder s = new StringBuilder();
+        final boolean sequential =
+                              !"false".equals(getAttribute(set, "sequential"));
+        final boolean requireAll =
+                             !"false".equals(getAttribute(set, "require-all"));
+        if (!requireAll) {
+            s.append(" [");
+        } else if (!sequential) {
+            s.append(" (");
+        }
+        for (final Node ref : getChildren(set, "resource_ref")) {
+            s.append(' ');
+            s.append(withSuffix(getAttribute(ref, "id"), suffix));
+        }
+        if (!requireAll) {
+            s.append(" ]");
+        } else if (!sequential) {
+            s.append(" )");
+        }
+        return s.toString();
+    }
+
+    /** Renders "property" like statement, one attribute per line. */
+    private void renderPropertySet(final StringBuilder out,
+                                   final String type,
+                                   final Node set) {
+        final List<String> parts = new ArrayList<String>();
+        final String id = getAttribute(set, "id");
+        if (id == null) {
+            parts.add(type);
+        } else {
+            parts.add(type + " $id=" + quote(id));
+        }
+        for (final Node nvpair : getNvpairs(set)) {
+            parts.add(nvpair(nvpair));
+        }
+        statement(out, parts);
+    }
+
+    /** Renders "rsc_defaults" or "op_defaults" statement. */
+    private void renderDefaults(final StringBuilder out,
+                                final String type,
+                                final Node defaultsNode) {
+        if (defaultsNode == null) {
+            return;
+        }
+        for (final Node set : getChildren(defaultsNode, "meta_attributes")) {
+            renderPropertySet(out, type, set);
+        }
+    }
+
+    /** Adds the name="value" pairs of the set as one part. */
+    private void addNvpairs(final List<String> parts,
+                            final String keyword,
+                            final Node set) {
+        if (set == null) {
+            return;
+        }
+        final String idRef = getAttribute(set, "id-ref");
+        if (idRef != null) {
+            parts.add(keyword + " $id-ref=" + quote(idRef));
+            return;
+        }
+        final List<Node> nvpairs = getNvpairs(set);
+        if (nvpairs.isEmpty()) {
+            return;
+        }
+        final StringBuilder s = new StringBuilder(keyword);
+        for (final Node nvpair : nvpairs) {
+            s.append(' ');
+            s.append(nvpair(nvpair));
+        }
+        parts.add(s.toString());
+    }
+
+    /** Appends the parts as one statement. */
+    private static void statement(final StringBuilder out,
+                                  final List<String> parts) {
+        boolean first = true;
+        for (final String part : parts) {
+            if (!first) {
+                out.append(CONTINUE);
+            }
+            first = false;
+            out.append(part);
+        }
+        out.append('\n');
+    }
+
+    /** Returns nvpairs of the set, <attributes> are used till 2.1.4. */
+    private List<Node> getNvpairs(final Node set) {
+        final Node attrsNode = getChildNode(set, "attributes");
+        if (attrsNode == null) {
+            return getChildren(set, "nvpair");
+        }
+        return getChildren(attrsNode, "nvpair");
+    }
+
+    /** Returns child nodes with the specified tag. */
+    private static List<Node> getChildren(final Node parent,
+                                          final String tag) {
+        final List<Node> nodes = new ArrayList<Node>();
+        final NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            final Node child = children.item(i);
+            if (tag.equals(child.getNodeName())) {
+                nodes.add(child);
+            }
+        }
+        return nodes;
+    }
+
+    /** Returns name="value". */
+    private String nvpair(final Node nvpair) {
+        return getAttribute(nvpair, "name") + "="
+               + quote(getAttribute(nvpair, "value"));
+    }
+
+    /** Returns the resource with role or action. */
+    private static String withSuffix(final String rsc, final String suffix) {
+        if (suffix == null) {
+            return rsc;
+        }
+        return rsc + ":" + suffix;
+    }
+
+    /** Returns the score, the way crm shell shows it. */
+    private static String score(final String score) {
+        if (score == null) {
+            return "0";
+        }
+        if ("INFINITY".equals(score) || "+INFINITY".equals(score)) {
+            return "inf";
+        } else if ("-INFINITY".equals(score)) {
+            return "-inf";
+        }
+        return score;
+    }
+
+    /** Returns the value in the quotes. */
+    private static String quote(final String value) {
+        if (value == null) {
+            return "\"\"";
+        }
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"")
+               + "\"";
+    }
+}
@@ -28,6 +28,7 @@ import lcmc.gui.resources.BlockDevInfo;
 import lcmc.utilities.Tools;
 import lcmc.utilities.ConvertCmdCallback;
 import lcmc.utilities.SSH;
+import lcmc.utilities.StatusFrameDecoder;
 import lcmc.gui.resources.StringInfo;
 
 import org.w3c.dom.Document;
@@ -36,10 +37,12 @@ import org.w3c.dom.Node;
 
 import java.util.Map;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
@@ -157,6 +160,23 @@ public final class DrbdXML extends XML {
         {new StringInfo("A / Asynchronous",     "A", null),
          new StringInfo("B / Semi-Synchronous", "B", null),
          new StringInfo(PROTOCOL_C,             "C", null)};
+    /**
+     * Drbd state event, e.g. "1 ST 0 { cs:Connected ro:Primary/Secondary
+     * ds:UpToDate/UpToDate r---- }". Since drbd 8.3 there is ro: instead of
+     * st:.
+     */
+    static final Pattern DRBD_EVENT_STATE_PATTERN = Pattern.compile(
+                "^(\\d+)\\s+ST\\s+(\\S+)\\s+\\{\\s+cs:(\\S+)\\s+"
+                + "(?:st|ro):(\\S+)/(\\S+)\\s+ds:(\\S+)/(\\S+)\\s+(\\S+).*?");
+    /** Device in the drbd event since 8.4: minor,resource[volume]. */
+    static final Pattern DRBD_EVENT_DEVICE_PATTERN =
+                        Pattern.compile("^(\\d+),(\\S+)\\[(\\d+)\\]$");
+    /** Drbd sync progress event, e.g. "19 SP 0 16.9". */
+    private static final Pattern DRBD_EVENT_SYNC_PATTERN =
+                Pattern.compile("^(\\d+)\\s+SP\\s+(\\S+)\\s(\\d+\\.\\d+).*");
+    /** Drbd helper event, e.g. "19 UH 1 split-brain". */
+    private static final Pattern DRBD_EVENT_HELPER_PATTERN =
+                Pattern.compile("^(\\d+)\\s+UH\\s+(\\S+)\\s([a-z-]+).*");
     /** Some non advanced parameters. */
     static final List<String> NOT_ADVANCED_PARAMS = new ArrayList<String>();
     static {
@@ -285,9 +305,12 @@ public final class DrbdXML extends XML {
                                                 false,  /* outputVisible */
                                                 SSH.DEFAULT_COMMAND_TIMEOUT);
         if (ret.getExitCode() == 0) {
-            final StringBuffer confSB = new StringBuffer(ret.getOutput());
-            final String conf = host.getOutput("drbd", confSB);
-            return conf;
+            for (final StatusFrameDecoder.Frame frame
+                        : new StatusFrameDecoder().decodeAll(ret.getOutput())) {
+                if ("drbd".equals(frame.getType())) {
+                    return host.getFrameContent(frame);
+                }
+            }
         }
         return null;
     }
@@ -1128,6 +1151,16 @@ public final class DrbdXML extends XML {
         return resourceDeviceMap;
     }
 
+    /** Returns resource of the drbd device or null. */
+    String getDeviceResource(final String device) {
+        return deviceResourceMap.get(device);
+    }
+
+    /** Returns volume number of the drbd device or null. */
+    String getDeviceVolume(final String device) {
+        return deviceVolumeMap.get(device);
+    }
+
     /** Gets block device object from device number. Can return null. */
     private BlockDevInfo getBlockDevInfo(final String devNr,
                                          final String hostName,
@@ -1180,6 +1213,7 @@ public final class DrbdXML extends XML {
                 output)) {
             if (hostDrbdLoadedMap.get(hostName)) {
                 hostDrbdLoadedMap.put(hostName, false);
+                drbdGraph.markAllDirty();
                 return true;
             } else {
                 return false;
@@ -1187,14 +1221,8 @@ public final class DrbdXML extends XML {
         } else {
             hostDrbdLoadedMap.put(hostName, true);
         }
-        /* since drbd 8.3 there is ro: instead of st: */
-        /* since drbd 8.4 there is ro: instead of st: */
-        Pattern p =
-            Pattern.compile(
-                "^(\\d+)\\s+ST\\s+(\\S+)\\s+\\{\\s+cs:(\\S+)\\s+"
-                + "(?:st|ro):(\\S+)/(\\S+)\\s+ds:(\\S+)/(\\S+)\\s+(\\S+).*?");
-        Matcher m = p.matcher(output);
-        final Pattern pDev = Pattern.compile("^(\\d+),(\\S+)\\[(\\d+)\\]$");
+        Matcher m = DRBD_EVENT_STATE_PATTERN.matcher(output);
+        final Pattern pDev = DRBD_EVENT_DEVICE_PATTERN;
         if (m.matches()) {
             /* String counter      = m.group(1); // not used */
             final String devNrString  = m.group(2);
@@ -1224,6 +1252,7 @@ public final class DrbdXML extends XML {
                     bdi.getBlockDevice().setDiskState(ds1);
                     bdi.getBlockDevice().setDrbdFlags(flags);
                     bdi.updateInfo();
+                    drbdGraph.markDirty(bdi);
                     return true;
                 } else {
                     return false;
@@ -1232,8 +1261,7 @@ public final class DrbdXML extends XML {
             return false;
         }
         /* 19 SP 0 16.9 */
-        p = Pattern.compile("^(\\d+)\\s+SP\\s+(\\S+)\\s(\\d+\\.\\d+).*");
-        m = p.matcher(output);
+        m = DRBD_EVENT_SYNC_PATTERN.matcher(output);
         if (m.matches()) {
             /* String counter      = m.group(1); // not used */
             final String devNrString = m.group(2);
@@ -1257,14 +1285,14 @@ public final class DrbdXML extends XML {
                 } else {
                     bdi.getBlockDevice().setSyncedProgress(synced);
                     bdi.updateInfo();
+                    drbdGraph.markDirty(bdi);
                     return true;
                 }
             }
             return false;
         }
         /* 19 UH 1 split-brain */
-        p = Pattern.compile("^(\\d+)\\s+UH\\s+(\\S+)\\s([a-z-]+).*");
-        m = p.matcher(output);
+        m = DRBD_EVENT_HELPER_PATTERN.matcher(output);
         if (m.matches()) {
             /* String counter      = m.group(1); // not used */
             final String devNrString = m.group(2);
@@ -1290,6 +1318,7 @@ public final class DrbdXML extends XML {
                     } else {
                         bdi.getBlockDevice().setSplitBrain(true);
                         bdi.updateInfo();
+                        drbdGraph.markDirty(bdi);
                         return true;
                     }
                 }
@@ -1321,4 +1350,38 @@ public final class DrbdXML extends XML {
         return (unknownSections || proxyDetected)
                && !Tools.getConfigData().isAdvancedMode();
     }
+
+    /**
+     * Indexes the drbd resources with their devices, block devices, hosts
+     * and ips.
+     */
+    public void updateSearchIndex(final SearchIndex index) {
+        final Map<String, Set<String>> docs =
+                                        new HashMap<String, Set<String>>();
+        for (final String res : resourceList) {
+            final Set<String> terms = new HashSet<String>();
+            final Map<String, String> hostIpMap = getHostIpMap(res);
+            if (hostIpMap != null) {
+                terms.addAll(hostIpMap.keySet());
+                terms.addAll(hostIpMap.values());
+            }
+            docs.put(res, terms);
+        }
+        for (final Object k : resourceDeviceMap.keySet()) {
+            final String resName = (String) ((MultiKey) k).getKey(0);
+            final String volumeNr = (String) ((MultiKey) k).getKey(1);
+            final Set<String> terms = docs.get(resName);
+            if (terms == null) {
+                continue;
+            }
+            terms.add(resourceDeviceMap.get(resName, volumeNr));
+            final Map<String, String> hostDiskMap =
+                                        getHostDiskMap(resName, volumeNr);
+            if (hostDiskMap != null) {
+                terms.addAll(hostDiskMap.keySet());
+                terms.addAll(hostDiskMap.values());
+            }
+        }
+        index.update(SearchIndex.DRBD, docs);
+    }
 }
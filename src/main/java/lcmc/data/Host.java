@@ -24,12 +24,15 @@ package lcmc.data;
 
 import lcmc.utilities.Tools;
 import lcmc.utilities.SSH;
+import lcmc.utilities.ClusterSimulator;
 import lcmc.utilities.SSH.ExecCommandThread;
 import lcmc.utilities.ExecCallback;
 import lcmc.utilities.ConvertCmdCallback;
 import lcmc.utilities.ConnectionCallback;
 import lcmc.utilities.NewOutputCallback;
+import lcmc.utilities.StreamingOutputCallback;
 import lcmc.utilities.RoboTest;
+import lcmc.utilities.StatusFrameDecoder;
 import lcmc.gui.ProgressBar;
 import lcmc.gui.TerminalPanel;
 import lcmc.gui.SSHGui;
@@ -42,6 +45,8 @@ import lcmc.data.resources.BlockDevice;
 import lcmc.configs.DistResource;
 import lcmc.Exceptions;
 import java.awt.geom.Point2D;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
 
 import java.awt.Color;
 
@@ -56,6 +61,7 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedHashMap;
 import java.util.Arrays;
+import java.util.Locale;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 import java.util.concurrent.CountDownLatch;
@@ -127,6 +133,12 @@ public final class Host {
     private String drbdVersion = null;
     /** Drbd version of drbd module. */
     private String drbdModuleVersion = null;
+    /** What the installed versions can do. */
+    private volatile HostCapabilities capabilities =
+                                        new HostCapabilities(null, null, null);
+    /** Installation state, that notifies the wizards about changes. */
+    private final InstallationState installationState =
+                                                new InstallationState(this);
     /** Map of network interfaces of this host. */
     private Map<String, NetInterface> netInterfaces =
                                      new LinkedHashMap<String, NetInterface>();
@@ -162,7 +174,7 @@ public final class Host {
     /** Thread where hb status command is running. */
     private ExecCommandThread clStatusThread = null;
     /** Thread where server status command is running. */
-    private ExecCommandThread serverStatusThread = null;
+    private volatile ExecCommandThread serverStatusThread = null;
     /** List of positions of the services.
      *  Question is this: the saved positions can be different on different
      *  hosts, but only one can be used in the hb graph.
@@ -278,8 +290,10 @@ public final class Host {
                                             new HashMap<String, Set<String>>();
     /** Whether this cluster should be saved. */
     private boolean savable = true;
-    /** Ping is set every 10s. */
+    /** Ping is set on every ssh keepalive reply. */
     private volatile AtomicBoolean ping = new AtomicBoolean(true);
+    /** Round trip time of the last ssh keepalive request. */
+    private volatile long latency = -1;
     /** Global drbd status lock. */
     private final Lock mDRBDStatusLock = new ReentrantLock();
     /** Update VMS lock. */
@@ -289,6 +303,19 @@ public final class Host {
     /** Time stamp hash. */
     private final Map<String, Double> infoTimestamp =
                                                 new HashMap<String, Double>();
+    /**
+     * Hashes of the last info blocks from the helper. They are passed to the
+     * status commands, so that after reconnect the helper doesn't send again
+     * what didn't change.
+     */
+    private final Map<String, String> infoHash = new HashMap<String, String>();
+    /** Last cluster status, that is used if the helper says it's unchanged. */
+    private List<String> lastClusterStatus = null;
+    /** Info types that have hashes. */
+    private static final String[] INFO_HASH_TYPES =
+                                     new String[]{"hw", "vm", "drbd", "cluster"};
+    /** Hash that is passed for unknown info. */
+    private static final String UNKNOWN_INFO_HASH = "-";
     /** Timeout after which the connection is considered to be dead. */
     private final int PING_TIMEOUT           = 40000;
     private final int DRBD_EVENTS_TIMEOUT    = 40000;
@@ -499,6 +526,61 @@ public final class Host {
         ips.put(hop, ipsForHop);
     }
 
+    /**
+     * Looks up the addresses of the hop, that was entered, and sets them as
+     * the ips of the hop. Returns the hostname and the ip of the hop, or
+     * null if the lookup failed. The simulated nodes get the simulated ips.
+     */
+    public String[] lookupHop(final int hop, final String hostnameEntered) {
+        InetAddress[] addresses = null;
+        try {
+            addresses = InetAddress.getAllByName(hostnameEntered);
+        } catch (UnknownHostException e) {
+            final ClusterSimulator simulator = SSH.getSimulator();
+            if (simulator != null) {
+                final String simulatedIp = simulator.getIp(hostnameEntered);
+                if (simulatedIp != null) {
+                    setIps(hop, new String[]{simulatedIp});
+                    return new String[]{hostnameEntered, simulatedIp};
+                }
+            }
+            return null;
+        }
+        if (addresses.length == 0) {
+            Tools.debug(this, "lookup failed");
+            return null;
+        }
+        String hostname;
+        String hopIp;
+        if (addresses.length == 1) {
+            hopIp = addresses[0].getHostAddress();
+            /* if user entered ip, reverse lookup is needed.
+             * Making reverse lookup even if user entered a some of the
+             * hostnames since it can be different than canonical name.
+             */
+            try {
+                hostname = InetAddress.getByName(hopIp).getHostName();
+            } catch (UnknownHostException e) {
+                Tools.appError("Host.Configuration.Unknown.Host", "", e);
+                return null;
+            }
+        } else {
+            /* user entered hostname that has many addresses */
+            hostname = hostnameEntered;
+            hopIp = getIp(hop);
+            if (hopIp == null) {
+                hopIp = addresses[0].getHostAddress();
+            }
+        }
+        final String[] items = new String[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            items[i] = addresses[i].getHostAddress();
+        }
+        setIps(hop, items);
+        Tools.debug(this, "got " + hostname + " (" + hopIp + ")", 1);
+        return new String[]{hostname, hopIp};
+    }
+
     /** Returns net interfaces. */
     public NetInterface[] getNetInterfaces() {
         return netInterfaces.values().toArray(
@@ -687,6 +769,31 @@ public final class Host {
         return drbdVersion;
     }
 
+    /** Sets the drbd version of drbdadm tool. */
+    public void setDrbdVersion(final String drbdVersion) {
+        if (!Tools.areEqual(this.drbdVersion, drbdVersion)) {
+            this.drbdVersion = drbdVersion;
+            updateCapabilities();
+        }
+    }
+
+    /** Returns what the installed cluster software can do. */
+    public HostCapabilities getCapabilities() {
+        return capabilities;
+    }
+
+    /** Returns the installation state. */
+    public InstallationState getInstallationState() {
+        return installationState;
+    }
+
+    /** Computes the capabilities after a version change. */
+    private void updateCapabilities() {
+        capabilities = new HostCapabilities(heartbeatVersion,
+                                            pacemakerVersion,
+                                            drbdVersion);
+    }
+
     /** Returns installed drbd module version. */
     public String getDrbdModuleVersion() {
         return drbdModuleVersion;
@@ -1057,6 +1164,28 @@ public final class Host {
                                commandTimeout);
     }
 
+    /**
+     * Executes command, its output is handed over to the output callback as
+     * it is read and only the end of it is passed to the exec callback.
+     */
+    public ExecCommandThread execCommandStreaming(
+                               final String command,
+                               final ExecCallback callback,
+                               final StreamingOutputCallback outputCallback,
+                               final boolean outputVisible,
+                               final boolean commandVisible,
+                               final int commandTimeout) {
+        if (outputVisible) {
+            Tools.getGUIData().setTerminalPanel(getTerminalPanel());
+        }
+        return ssh.execCommandStreaming(command,
+                                        callback,
+                                        outputCallback,
+                                        outputVisible,
+                                        commandVisible,
+                                        commandTimeout);
+    }
+
     /**
      * Executes command. Command is executed in a new thread, after command
      * is finished callback.done function will be called. In case of error,
@@ -1150,7 +1279,7 @@ public final class Host {
                                                 dist,
                                                 distVersionString,
                                                 arch,
-                                                null, /* ConvertCmdCallback */
+                                                getInfoHashCallback(),
                                                 false), /* in bash */
                                     execCallback,
                                     outputCallback,
@@ -1162,6 +1291,11 @@ public final class Host {
         }
     }
 
+    /** Returns whether the server (hw) status background process runs. */
+    public boolean isServerStatusRunning() {
+        return serverStatusThread != null;
+    }
+
     /** Stops server (hw) status background process. */
     public void stopServerStatus() {
         if (serverStatusThread == null) {
@@ -1205,7 +1339,7 @@ public final class Host {
                                                  dist,
                                                  distVersionString,
                                                  arch,
-                                                 null, /* ConvertCmdCallback */
+                                                 getInfoHashCallback(),
                                                  false), /* in bash */
                                 execCallback,
                                 outputCallback,
@@ -1635,84 +1769,120 @@ public final class Host {
         }
     }
 
-    public String getOutput(final String type, final StringBuffer buffer) {
-        final String infoStart = "--" + type + "-info-start--";
-        final String infoEnd = "--" + type + "-info-end--";
-        final int infoStartLength = infoStart.length();
-        final int infoEndLength = infoEnd.length();
-        final int s = buffer.indexOf(infoStart);
-        final int s2 = buffer.indexOf("\r\n", s);
-        final int e = buffer.indexOf(infoEnd, s);
-        String out = null;
-        if (s > -1 && s < s2 && s2 <= e) {
-            Double timestamp = null;
-            final String ts = buffer.substring(s + infoStartLength, s2);
-            try {
-                timestamp = Double.parseDouble(ts);
-            }  catch (final NumberFormatException nfe) {
-                Tools.debug(this, "could not parse: " + ts + " " + nfe);
-            }
-            mInfoTimestampLock.lock();
-            if (!infoTimestamp.containsKey(type)
-                || (timestamp != null && timestamp >= infoTimestamp.get(type))) {
-                infoTimestamp.put(type, timestamp);
-                mInfoTimestampLock.unlock();
-                out = buffer.substring(s2 + 2, e);
-            } else {
-                mInfoTimestampLock.unlock();
+    /**
+     * Returns content of the info frame from the helper or null, if a newer
+     * frame of the same type was already processed.
+     */
+    public String getFrameContent(final StatusFrameDecoder.Frame frame) {
+        final String type = frame.getType();
+        final Double timestamp = frame.getTimestamp();
+        mInfoTimestampLock.lock();
+        final Double lastTimestamp = infoTimestamp.get(type);
+        if (!infoTimestamp.containsKey(type)
+            || (timestamp != null
+                && (lastTimestamp == null || timestamp >= lastTimestamp))) {
+            infoTimestamp.put(type, timestamp);
+            if (frame.getHash() != null) {
+                infoHash.put(type, frame.getHash());
             }
-            buffer.delete(0, e + infoEndLength + 2);
+            mInfoTimestampLock.unlock();
+            return frame.getContent();
         }
-        return out;
+        mInfoTimestampLock.unlock();
+        return null;
     }
 
-    public void startPing() {
-        final Thread t = ssh.execCommand(
-                                Tools.getDistCommand(
-                                                "PingCommand",
-                                                dist,
-                                                distVersionString,
-                                                arch,
-                                                null, /* ConvertCmdCallback */
-                                                true), /* in bash */
-                         new ExecCallback() {
-                             @Override
-                             public void done(final String ans) {
-                             }
+    /** Returns hash of the last info of this type or "-". */
+    private String getInfoHash(final String type) {
+        mInfoTimestampLock.lock();
+        final String hash = infoHash.get(type);
+        mInfoTimestampLock.unlock();
+        if (hash == null) {
+            return UNKNOWN_INFO_HASH;
+        }
+        return hash;
+    }
 
-                             @Override
-                             public void doneError(final String ans,
-                                                   final int exitCode) {
-                             }
-                         },
-                         new NewOutputCallback() {
-                             @Override
-                             public void output(final String output) {
-                                 ping.set(true);
-                             }
-                         },
-                         false,
-                         false,
-                         PING_TIMEOUT);
-        try {
-            t.join();
-        } catch (java.lang.InterruptedException e) {
-            Thread.currentThread().interrupt();
+    /**
+     * Forgets the hashes of the info blocks, so that the helper will send
+     * everything again. This must be called, when the info is parsed from
+     * scratch, e.g. in new cluster browser.
+     */
+    public void resetInfoHashes() {
+        mInfoTimestampLock.lock();
+        infoHash.clear();
+        lastClusterStatus = null;
+        mInfoTimestampLock.unlock();
+    }
+
+    /** Sets last processed cluster status and its hash. */
+    public void setLastClusterStatus(final String hash,
+                                     final List<String> status) {
+        mInfoTimestampLock.lock();
+        if (hash == null || "".equals(hash)) {
+            infoHash.remove("cluster");
+            lastClusterStatus = null;
+        } else {
+            infoHash.put("cluster", hash);
+            lastClusterStatus = status;
         }
+        mInfoTimestampLock.unlock();
+    }
+
+    /** Returns last processed cluster status. */
+    public List<String> getLastClusterStatus() {
+        mInfoTimestampLock.lock();
+        final List<String> status = lastClusterStatus;
+        mInfoTimestampLock.unlock();
+        return status;
+    }
+
+    /** Puts the hashes of the last info blocks in the status command. */
+    private ConvertCmdCallback getInfoHashCallback() {
+        return new ConvertCmdCallback() {
+            @Override
+            public String convert(final String command) {
+                String c = command;
+                for (final String type : INFO_HASH_TYPES) {
+                    c = c.replaceAll("@" + type.toUpperCase(Locale.US)
+                                     + "-HASH@",
+                                     getInfoHash(type));
+                }
+                return c;
+            }
+        };
+    }
+
+    /**
+     * Is called on every reply to the ssh keepalive request, that replaces
+     * the ping command on the host.
+     */
+    public void setKeepAliveReply(final long rttMillis) {
+        latency = rttMillis;
+        ping.set(true);
+    }
+
+    /**
+     * Is called when the ssh connection was lost, the latency is not known
+     * until the next keepalive reply.
+     */
+    public void setKeepAliveLost() {
+        latency = -1;
+    }
+
+    /**
+     * Returns round trip time of the last ssh keepalive request in
+     * milliseconds or -1 if it is not known.
+     */
+    public long getLatency() {
+        return latency;
     }
 
     /** Gets and stores hardware info about the host. */
     public void startHWInfoDaemon(final CategoryInfo[] infosToUpdate,
                                   final ResourceGraph[] graphs) {
         final Host host = this;
-        serverStatusThread = ssh.execCommand(
-                                Tools.getDistCommand(
-                                                "HostHWInfoDaemon",
-                                                dist,
-                                                distVersionString,
-                                                arch,
-                                                null, /* ConvertCmdCallback */
-                                                false), /* in bash */
+        execServerStatusCommand(
                          new ExecCallback() {
                              @Override
                              public void done(final String ans) {
@@ -1746,42 +1916,42 @@ public final class Host {
                              }
                          },
                          new NewOutputCallback() {
-                             private StringBuffer outputBuffer =
-                                                        new StringBuffer(300);
+                             private final StatusFrameDecoder decoder =
+                                                  new StatusFrameDecoder();
                              @Override
                              public void output(final String output) {
-                                 outputBuffer.append(output);
                                  final ClusterBrowser cb =
                                               getBrowser().getClusterBrowser();
-                                 int i = 0;
-                                 String hw, vm, drbdConfig;
                                  String hwUpdate = null;
                                  String vmUpdate = null;
                                  String drbdUpdate = null;
-                                 do {
-                                     i++;
-                                     hw = getOutput("hw", outputBuffer); 
-                                     if (hw != null) {
-                                         hwUpdate = hw;
-                                     }
-                                     vmStatusLock();
-                                     vm = getOutput("vm", outputBuffer); 
-                                     if (vm != null) {
-                                         vmUpdate = vm;
-                                     }
-                                     vmStatusUnlock();
-                                     drbdStatusLock();
-                                     drbdConfig = getOutput("drbd",
-                                                            outputBuffer); 
-                                     if (drbdConfig != null) {
-                                         drbdUpdate = drbdConfig;
+                                 for (final StatusFrameDecoder.Frame frame
+                                                : decoder.decode(output)) {
+                                     final String type = frame.getType();
+                                     if ("hw".equals(type)) {
+                                         final String hw =
+                                                    getFrameContent(frame);
+                                         if (hw != null) {
+                                             hwUpdate = hw;
+                                         }
+                                     } else if ("vm".equals(type)) {
+                                         vmStatusLock();
+                                         final String vm =
+                                                    getFrameContent(frame);
+                                         if (vm != null) {
+                                             vmUpdate = vm;
+                                         }
+                                         vmStatusUnlock();
+                                     } else if ("drbd".equals(type)) {
+                                         drbdStatusLock();
+                                         final String drbdConfig =
+                                                    getFrameContent(frame);
+                                         if (drbdConfig != null) {
+                                             drbdUpdate = drbdConfig;
+                                         }
+                                         drbdStatusUnlock();
                                      }
-                                     drbdStatusUnlock();
-                                 } while (hw != null
-                                          || vm != null
-                                          || drbdConfig != null);
-
-                                 Tools.chomp(outputBuffer);
+                                 }
                                  if (hwUpdate != null) {
                                      parseHostInfo(hwUpdate);
                                      for (final ResourceGraph g : graphs) {
@@ -1819,18 +1989,49 @@ public final class Host {
                                  }
                                  setLoadingDone();
                              }
-                         },
-                         false,
-                         false,
-                         HW_INFO_TIMEOUT);
+                         });
+        waitOnServerStatus();
+    }
+
+    /**
+     * Executes the hw info daemon, that sends hw, vm and drbd config info
+     * frames, whenever they change.
+     */
+    public void execServerStatusCommand(
+                                    final ExecCallback execCallback,
+                                    final NewOutputCallback outputCallback) {
+        serverStatusThread = ssh.execCommand(
+                                Tools.getDistCommand(
+                                                "HostHWInfoDaemon",
+                                                dist,
+                                                distVersionString,
+                                                arch,
+                                                getInfoHashCallback(),
+                                                false), /* in bash */
+                                execCallback,
+                                outputCallback,
+                                false,
+                                false,
+                                HW_INFO_TIMEOUT);
+    }
+
+    /** Waits while the server status thread finishes. */
+    public void waitOnServerStatus() {
+        final ExecCommandThread t = serverStatusThread;
+        if (t == null) {
+            return;
+        }
         try {
-            serverStatusThread.join();
+            t.join();
         } catch (java.lang.InterruptedException e) {
             Thread.currentThread().interrupt();
         }
     }
 
-    /** Starts connection status. */
+    /**
+     * Starts connection status, the host is reconnected if there was no
+     * keepalive reply in PING_TIMEOUT.
+     */
     public void startConnectionStatus() {
         final Thread thread = new Thread(new Runnable() {
             @Override
@@ -1975,6 +2176,7 @@ public final class Host {
         final String[] lines = ans.split("\\r?\\n");
         String type = "";
         final List<String> versionLines = new ArrayList<String>();
+        final List<String> installationLines = new ArrayList<String>();
         final Map<String, BlockDevice> newBlockDevices =
                                      new LinkedHashMap<String, BlockDevice>();
         final Map<String, BlockDevice> newDrbdBlockDevices =
@@ -2119,7 +2321,7 @@ public final class Host {
                 parseGuiInfo(line);
                 guiInfo = true;
             } else if ("installation-info".equals(type)) {
-                parseInstallationInfo(line);
+                installationLines.add(line);
                 installationInfo = true;
             } else if ("gui-options-info".equals(type)) {
                 guiOptionName = parseGuiOptionsInfo(line,
@@ -2179,9 +2381,15 @@ public final class Host {
             guiOptions = newGuiOptions;
         }
 
-        getBrowser().updateHWResources(getNetInterfaces(),
-                                       getBlockDevices(),
-                                       getFileSystems());
+        if (installationInfo) {
+            installationState.update(installationLines);
+        }
+
+        if (!Tools.getConfigData().isHeadless()) {
+            getBrowser().updateHWResources(getNetInterfaces(),
+                                           getBlockDevices(),
+                                           getFileSystems());
+        }
     }
 
     /** Parses the gui info, with drbd and heartbeat graph positions. */
@@ -2235,9 +2443,9 @@ public final class Host {
         }
         if ("pm".equals(tokens[0])) {
             if (tokens.length == 2) {
-                pacemakerVersion = tokens[1].trim();
+                setPacemakerVersion(tokens[1].trim());
             } else {
-                pacemakerVersion = null;
+                setPacemakerVersion(null);
             }
         } else if ("cs".equals(tokens[0])) {
             if (tokens.length == 2) {
@@ -2297,9 +2505,9 @@ public final class Host {
             }
         } else if ("hb".equals(tokens[0])) {
             if (tokens.length == 2) {
-                heartbeatVersion = tokens[1].trim();
+                setHeartbeatVersion(tokens[1].trim());
             } else {
-                heartbeatVersion = null;
+                setHeartbeatVersion(null);
             }
         } else if ("hb-init".equals(tokens[0])) {
             if (tokens.length == 2) {
@@ -2372,9 +2580,9 @@ public final class Host {
             setName(hostname);
         } else if ("drbd".equals(tokens[0])) {
             if (tokens.length == 2) {
-                drbdVersion = tokens[1].trim();
+                setDrbdVersion(tokens[1].trim());
             } else {
-                drbdVersion = null;
+                setDrbdVersion(null);
             }
         } else if ("drbd-mod".equals(tokens[0])) {
             if (tokens.length == 2) {
@@ -2435,7 +2643,10 @@ public final class Host {
 
     /** Sets the heartbeat version. */
     public void setHeartbeatVersion(final String heartbeatVersion) {
-        this.heartbeatVersion = heartbeatVersion;
+        if (!Tools.areEqual(this.heartbeatVersion, heartbeatVersion)) {
+            this.heartbeatVersion = heartbeatVersion;
+            updateCapabilities();
+        }
     }
 
     /** Sets the corosync version. */
@@ -2445,7 +2656,10 @@ public final class Host {
 
     /** Sets the pacemaker version. */
     public void setPacemakerVersion(final String pacemakerVersion) {
-        this.pacemakerVersion = pacemakerVersion;
+        if (!Tools.areEqual(this.pacemakerVersion, pacemakerVersion)) {
+            this.pacemakerVersion = pacemakerVersion;
+            updateCapabilities();
+        }
     }
 
     /** Sets the openais version. */
@@ -2915,12 +3129,7 @@ public final class Host {
 
     /** Returns whether DRBD has volume feature. */
     public boolean hasVolumes() {
-        try {
-            return Tools.compareVersions(getDrbdVersion(), "8.4") >= 0;
-        } catch (Exceptions.IllegalVersionException e) {
-            Tools.appWarning(e.getMessage(), e);
-        }
-        return true;
+        return capabilities.hasDrbdVolumes();
     }
 
     /** Returns physical volumes. */
@@ -0,0 +1,166 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+package lcmc.data;
+
+import lcmc.Exceptions;
+import lcmc.utilities.Tools;
+import lcmc.utilities.Version;
+
+/**
+ * What the cluster software on the host can do. It is computed once from
+ * the heartbeat, pacemaker and drbd versions, whenever one of them changes,
+ * so that the parsers and the GUI can check plain booleans instead of
+ * comparing the version strings every time.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class HostCapabilities {
+    /** Last heartbeat version without pacemaker. */
+    private static final Version HB_PACEMAKER = version("2.99.0");
+    /** Heartbeat with the new crm config options. */
+    private static final Version HB_2_1_3 = version("2.1.3");
+    /** Heartbeat with the resource-stickiness meta attribute. */
+    private static final Version HB_2_1_4 = version("2.1.4");
+    /** Last pacemaker without require-all in the resource sets. */
+    private static final Version PCMK_1_1_7 = version("1.1.7");
+    /** Drbd with volumes. */
+    private static final Version DRBD_8_4 = version("8.4");
+
+    /** Heartbeat version or null. */
+    private final Version heartbeatVersion;
+    /** Pacemaker version or null. */
+    private final Version pacemakerVersion;
+    /** Drbd version or null. */
+    private final Version drbdVersion;
+    /** Heartbeat 2.1.x without pacemaker. */
+    private final boolean beforePacemaker;
+    /** Whether the crm config has the options from heartbeat 2.1.3 on. */
+    private final boolean crmConfigOptions;
+    /** Whether resource-stickiness and failure-timeout meta attrs exist. */
+    private final boolean stickinessMetaAttrs;
+    /** Whether resource sets can have require-all attribute. */
+    private final boolean requireAll;
+    /** Whether drbd has volumes. */
+    private final boolean drbdVolumes;
+
+    /** Prepares a new <code>HostCapabilities</code> object. */
+    public HostCapabilities(final String hbV,
+                            final String pcmkV,
+                            final String drbdV) {
+        heartbeatVersion = parse(hbV);
+        pacemakerVersion = parse(pcmkV);
+        drbdVersion = parse(drbdV);
+        beforePacemaker = pcmkV == null
+                          && heartbeatVersion != null
+                          && heartbeatVersion.isBefore(HB_PACEMAKER);
+        crmConfigOptions = pcmkV != null
+                           || (heartbeatVersion != null
+                               && heartbeatVersion.isAtLeast(HB_2_1_3));
+        stickinessMetaAttrs = pcmkV != null
+                              || (heartbeatVersion != null
+                                  && heartbeatVersion.isAtLeast(HB_2_1_4));
+        /* enable it, if version check doesn't work */
+        requireAll = pcmkV != null
+                     && (pacemakerVersion == null
+                         || pacemakerVersion.compareLoosely(PCMK_1_1_7) > 0);
+        drbdVolumes = drbdVersion == null
+                      || drbdVersion.isAtLeast(DRBD_8_4);
+    }
+
+    /** Parses the version, returns null if it is not known or invalid. */
+    private static Version parse(final String v) {
+        if (v == null) {
+            return null;
+        }
+        try {
+            return Version.parse(v);
+        } catch (Exceptions.IllegalVersionException e) {
+            Tools.appWarning(e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /** Parses a version constant. */
+    private static Version version(final String v) {
+        try {
+            return Version.parse(v);
+        } catch (Exceptions.IllegalVersionException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /** Returns heartbeat version or null if it is unknown. */
+    public Version getHeartbeatVersion() {
+        return heartbeatVersion;
+    }
+
+    /** Returns pacemaker version or null if it is unknown. */
+    public Version getPacemakerVersion() {
+        return pacemakerVersion;
+    }
+
+    /** Returns drbd version or null if it is unknown. */
+    public Version getDrbdVersion() {
+        return drbdVersion;
+    }
+
+    /**
+     * Returns true if the hb version on the host is smaller than 2.99.0 and
+     * there is no pacemaker.
+     */
+    public boolean isBeforePacemaker() {
+        return beforePacemaker;
+    }
+
+    /**
+     * Returns whether the crm config has the options like dc-deadtime,
+     * that are there since heartbeat 2.1.3.
+     */
+    public boolean hasCrmConfigOptions() {
+        return crmConfigOptions;
+    }
+
+    /**
+     * Returns whether there are resource-stickiness and failure-timeout meta
+     * attributes, since heartbeat 2.1.4.
+     */
+    public boolean hasStickinessMetaAttrs() {
+        return stickinessMetaAttrs;
+    }
+
+    /**
+     * Returns whether resource sets can have the require-all attribute,
+     * that is needed for the "or" constraint placeholder. Pacemaker after
+     * 1.1.7.
+     */
+    public boolean hasRequireAll() {
+        return requireAll;
+    }
+
+    /** Returns whether drbd has volumes, since 8.4, or if it is unknown. */
+    public boolean hasDrbdVolumes() {
+        return drbdVolumes;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.data;
+
+import lcmc.gui.SSHGui;
+import lcmc.utilities.Tools;
+
+import java.awt.Window;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds many new hosts at once. The hostnames and ips of all the hosts are
+ * looked up in parallel, like in the add host wizard. Every host is then
+ * connected and all the info, that the wizard collects step by step, is
+ * gathered with one exec of the gui helper. The first host is connected
+ * alone, so that the password or the key can be entered, all the others
+ * are then onboarded in parallel with the same password or key. Hosts,
+ * whose lookup failed, are not connected.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class HostOnboarding {
+    /** Hosts that are onboarded. */
+    private final List<Host> hosts;
+
+    /** Prepares a new <code>HostOnboarding</code> object. */
+    public HostOnboarding(final List<Host> hosts) {
+        this.hosts = new ArrayList<Host>(hosts);
+    }
+
+    /**
+     * Onboards all the hosts and waits till they are done. Returns false,
+     * if the connection to the first host was canceled.
+     */
+    public boolean onboard(final Window rootPane) {
+        final List<Host> resolved = lookupAll();
+        if (resolved.isEmpty()) {
+            return true;
+        }
+        final Host first = resolved.get(0);
+        onboard(first, rootPane);
+        if (first.getSSH().isConnectionCanceled()) {
+            return false;
+        }
+        String dsaKey = null;
+        String rsaKey = null;
+        String pwd = null;
+        if (first.isConnected()) {
+            dsaKey = first.getSSH().getLastDSAKey();
+            rsaKey = first.getSSH().getLastRSAKey();
+            pwd = first.getSSH().getLastPassword();
+        }
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (final Host host : resolved.subList(1, resolved.size())) {
+            host.getSSH().setPasswords(dsaKey, rsaKey, pwd);
+            final Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    onboard(host, rootPane);
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        join(threads);
+        return true;
+    }
+
+    /**
+     * Looks up all the hosts in parallel and returns the hosts, whose lookup
+     * succeeded.
+     */
+    private List<Host> lookupAll() {
+        final boolean[] found = new boolean[hosts.size()];
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < hosts.size(); i++) {
+            final int index = i;
+            final Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    found[index] = lookup(hosts.get(index));
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        join(threads);
+        final List<Host> resolved = new ArrayList<Host>();
+        for (int i = 0; i < hosts.size(); i++) {
+            if (found[i]) {
+                resolved.add(hosts.get(i));
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Sets the hostname and the ip of every hop of the host, that was
+     * entered, like the Configuration dialog of the add host wizard does.
+     * Returns false if the lookup failed.
+     */
+    static boolean lookup(final Host host) {
+        if (host.getIp() != null && !"".equals(host.getIp())) {
+            return true;
+        }
+        final String[] entered = host.getHostnameEntered().split(",");
+        final String[] hostnames = new String[entered.length];
+        final String[] ips = new String[entered.length];
+        for (int hop = 0; hop < entered.length; hop++) {
+            final String[] hostnameIp = host.lookupHop(hop, entered[hop]);
+            if (hostnameIp == null) {
+                return false;
+            }
+            hostnames[hop] = hostnameIp[0];
+            ips[hop] = hostnameIp[1];
+        }
+        host.setHostname(Tools.join(",", hostnames));
+        host.setIp(Tools.join(",", ips));
+        return true;
+    }
+
+    /** Waits for the threads to finish. */
+    private static void join(final List<Thread> threads) {
+        for (final Thread t : threads) {
+            try {
+                t.join();
+            } catch (java.lang.InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Connects the host and gets all the info about it. */
+    private static void onboard(final Host host, final Window rootPane) {
+        host.setIsLoading();
+        if (host.isConnected()) {
+            host.getAllInfo();
+            return;
+        }
+        if (rootPane == null) {
+            host.connect(null, false, 1);
+        } else {
+            host.connect(new SSHGui(rootPane, host, null), false, 1);
+        }
+        host.getSSH().waitForConnection();
+        if (host.isConnected()) {
+            host.waitOnLoading();
+        }
+    }
+
+    /**
+     * Returns whether the host is connected and its distribution was
+     * detected.
+     */
+    public static boolean isOnboarded(final Host host) {
+        return host.isConnected() && host.getDist() != null;
+    }
+}
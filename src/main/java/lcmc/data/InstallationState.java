@@ -0,0 +1,256 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.data;
+
+import lcmc.gui.ProgressBar;
+import lcmc.utilities.ExecCallback;
+import lcmc.utilities.SSH;
+import lcmc.utilities.SSH.ExecCommandThread;
+import lcmc.utilities.Tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Installation state of one host: which cluster software is installed,
+ * configured and running. It is updated from the installation info in the
+ * hw info daemon frames, or by a probe with the gui helper, and notifies
+ * the listeners, if something has changed. While the hw info daemon is not
+ * running, the probe is repeated, as long as there are listeners, so that
+ * the wizards don't have to poll the hosts themselves. If the host doesn't
+ * answer, the interval is doubled up to a maximum and the failure is
+ * reported only once, till the host answers again.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class InstallationState {
+    /** Interval between probes, while the hw info daemon is not running. */
+    static final int PROBE_INTERVAL = 1000;
+    /** Maximum interval between probes of the host, that doesn't answer. */
+    static final int MAX_PROBE_INTERVAL = 60000;
+    /** Host of this installation state. */
+    private final Host host;
+    /** Last installation info values, null till the first update. */
+    private Map<String, String> values = null;
+    /** Values lock. */
+    private final Lock mValuesLock = new ReentrantLock();
+    /** Listeners that are notified about changes. */
+    private final List<Listener> listeners =
+                                    new CopyOnWriteArrayList<Listener>();
+    /** Thread that probes the host, while there are listeners. */
+    private Thread probeThread = null;
+    /** Probe thread lock. */
+    private final Lock mProbeThreadLock = new ReentrantLock();
+    /** Whether the last probe failed. */
+    private volatile boolean probeFailed = false;
+    /** Probes the host once and waits for the result. */
+    private volatile Runnable probe = new Runnable() {
+        @Override
+        public void run() {
+            join(refresh(null));
+        }
+    };
+
+    /** Listener of the installation state changes. */
+    public interface Listener {
+        /** Is called after the installation state of the host changed. */
+        void installationChanged(Host host);
+    }
+
+    /** Prepares a new <code>InstallationState</code> object. */
+    InstallationState(final Host host) {
+        this.host = host;
+    }
+
+    /**
+     * Parses the installation info lines into the host and notifies the
+     * listeners, if a value has changed.
+     */
+    public void update(final List<String> lines) {
+        boolean changed = false;
+        mValuesLock.lock();
+        try {
+            final boolean first = values == null;
+            if (first) {
+                values = new HashMap<String, String>();
+            }
+            for (final String line : lines) {
+                host.parseInstallationInfo(line);
+                final int i = line.indexOf(':');
+                if (i < 0) {
+                    continue;
+                }
+                final String key = line.substring(0, i).trim();
+                final String value = line.substring(i + 1).trim();
+                if (!value.equals(values.put(key, value))) {
+                    changed = true;
+                }
+            }
+            changed = changed || first;
+        } finally {
+            mValuesLock.unlock();
+        }
+        if (changed) {
+            for (final Listener l : listeners) {
+                l.installationChanged(host);
+            }
+        }
+    }
+
+    /**
+     * Adds a listener. The host is probed periodically, till the listener
+     * is removed, unless the hw info daemon sends the installation info.
+     */
+    public void addListener(final Listener listener) {
+        listeners.add(listener);
+        mProbeThreadLock.lock();
+        try {
+            if (probeThread == null) {
+                probeThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        probeWhileListened();
+                    }
+                });
+                probeThread.start();
+            }
+        } finally {
+            mProbeThreadLock.unlock();
+        }
+    }
+
+    /** Removes the listener. */
+    public void removeListener(final Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the probe, that is used instead of the gui helper. It must be
+     * set before the first listener is added. It is used in the tests.
+     */
+    void setProbe(final Runnable probe) {
+        this.probe = probe;
+    }
+
+    /** Probes the host periodically, till all the listeners are removed. */
+    private void probeWhileListened() {
+        int interval = PROBE_INTERVAL;
+        while (true) {
+            Tools.sleep(interval);
+            mProbeThreadLock.lock();
+            try {
+                if (listeners.isEmpty()) {
+                    probeThread = null;
+                    return;
+                }
+            } finally {
+                mProbeThreadLock.unlock();
+            }
+            if (!host.isServerStatusRunning()) {
+                probe.run();
+            }
+            interval = nextProbeInterval(interval, probeFailed);
+        }
+    }
+
+    /**
+     * Returns the interval till the next probe, it is doubled after every
+     * failed probe.
+     */
+    static int nextProbeInterval(final int interval, final boolean failed) {
+        if (!failed) {
+            return PROBE_INTERVAL;
+        }
+        return Math.min(interval * 2, MAX_PROBE_INTERVAL);
+    }
+
+    /** Reports the failed probe, only if the previous one didn't fail. */
+    void probeFailed() {
+        if (!probeFailed) {
+            probeFailed = true;
+            Tools.appWarning(host.getName() + ": could not get install info");
+        }
+    }
+
+    /** Returns whether the last probe failed. */
+    boolean isProbeFailed() {
+        return probeFailed;
+    }
+
+    /**
+     * Probes the host with the gui helper now. The listeners are notified,
+     * if something has changed. Returns the thread of the command.
+     */
+    public ExecCommandThread refresh(final ProgressBar progressBar) {
+        return host.execCommand("Cluster.Init.getInstallationInfo",
+                                progressBar,
+                                new ExecCallback() {
+                                    @Override
+                                    public void done(final String ans) {
+                                        probeFailed = false;
+                                        update(Arrays.asList(
+                                                    ans.split("\\r?\\n")));
+                                    }
+                                    @Override
+                                    public void doneError(final String ans,
+                                                          final int exitCode) {
+                                        probeFailed();
+                                    }
+                                },
+                                null,   /* ConvertCmdCallback */
+                                false,  /* outputVisible */
+                                SSH.DEFAULT_COMMAND_TIMEOUT);
+    }
+
+    /** Probes all the hosts in parallel and waits for the results. */
+    public static void refresh(final Host[] hosts,
+                               final ProgressBar progressBar) {
+        final List<ExecCommandThread> threads =
+                                          new ArrayList<ExecCommandThread>();
+        for (final Host h : hosts) {
+            threads.add(h.getInstallationState().refresh(progressBar));
+        }
+        for (final ExecCommandThread t : threads) {
+            join(t);
+        }
+    }
+
+    /** Waits for the command to finish. */
+    private static void join(final ExecCommandThread t) {
+        if (t == null) {
+            return;
+        }
+        try {
+            t.join();
+        } catch (java.lang.InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -26,6 +26,7 @@ import lcmc.utilities.Tools;
 import lcmc.gui.widget.Widget;
 import lcmc.gui.ClusterBrowser;
 import lcmc.gui.resources.ServiceInfo;
+import lcmc.data.resources.ParamSchema;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
@@ -108,6 +109,8 @@ public final class ResourceAgent {
     /** Map to field types for some parameters. */
     private final Map<String, Widget.Type> fieldType =
                                        new HashMap<String, Widget.Type>();
+    /** Indexes of the parameters in the services of this agent. */
+    private final ParamSchema paramSchema = new ParamSchema();
     /** Whether this resource agent is ping or pingd. */
     private final boolean pingService;
     /** Whether to ignore defaults, show them, but don't assume they are
@@ -278,12 +281,22 @@ public final class ResourceAgent {
     /** Adds parameter of this service. */
     void addMasterParameter(final String param) {
         masterParameters.add(param);
+        paramSchema.add(param);
     }
 
     /** Adds parameter of this service. */
     void addParameter(final String param) {
         masterParameters.add(param);
         parameters.add(param);
+        paramSchema.add(param);
+    }
+
+    /**
+     * Returns the parameter indexes, that are shared by all services of this
+     * resource agent.
+     */
+    public ParamSchema getParamSchema() {
+        return paramSchema;
     }
 
     /** Returns an array of all service parameters. */
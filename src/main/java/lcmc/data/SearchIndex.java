@@ -0,0 +1,375 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.data;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of the cluster objects, that are searched by their ids,
+ * resource agents, parameters, nodes, drbd devices and so on. Every object
+ * is a document of some kind with a set of terms. The documents are
+ * replaced one kind at a time with the new snapshot of the cluster, but
+ * only the documents whose terms have changed are reindexed, so that the
+ * periodic status updates cost nearly nothing.
+ *
+ * The terms are kept sorted for the prefix queries and every term is
+ * indexed by its n-grams up to trigrams for the substring queries, so that
+ * the short queries don't have to scan all the terms.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class SearchIndex {
+    /** Pacemaker resources, groups and clones. */
+    public static final String RESOURCE = "resource";
+    /** Drbd resources. */
+    public static final String DRBD = "drbd";
+    /** Virtual domains. */
+    public static final String VM = "vm";
+    /** Maximum length of the n-grams in the substring index. */
+    private static final int GRAM = 3;
+    /** Map from kind and id to the terms of the document. */
+    private final Map<String, Map<String, Set<String>>> documents =
+                            new HashMap<String, Map<String, Set<String>>>();
+    /** Map from the term to the documents that contain it. */
+    private final NavigableMap<String, Set<Document>> postings =
+                                        new TreeMap<String, Set<Document>>();
+    /** Map from the n-gram to the terms that contain it. */
+    private final Map<String, Set<String>> grams =
+                                        new HashMap<String, Set<String>>();
+    /** Index lock. */
+    private final Lock mIndexLock = new ReentrantLock();
+
+    /**
+     * Replaces all documents of the specified kind. Documents that are not
+     * in the map are removed, the unchanged documents are left alone.
+     */
+    public void update(final String kind,
+                       final Map<String, ? extends Collection<String>> docs) {
+        mIndexLock.lock();
+        try {
+            final Map<String, Set<String>> old = getDocuments(kind);
+            for (final String id : new HashSet<String>(old.keySet())) {
+                if (!docs.containsKey(id)) {
+                    removeDocument(kind, id);
+                }
+            }
+            for (final Map.Entry<String, ? extends Collection<String>> e
+                                                        : docs.entrySet()) {
+                putDocument(kind, e.getKey(), e.getValue());
+            }
+        } finally {
+            mIndexLock.unlock();
+        }
+    }
+
+    /** Adds or replaces one document. */
+    public void put(final String kind,
+                    final String id,
+                    final Collection<String> terms) {
+        mIndexLock.lock();
+        try {
+            putDocument(kind, id, terms);
+        } finally {
+            mIndexLock.unlock();
+        }
+    }
+
+    /** Removes one document. */
+    public void remove(final String kind, final String id) {
+        mIndexLock.lock();
+        try {
+            removeDocument(kind, id);
+        } finally {
+            mIndexLock.unlock();
+        }
+    }
+
+    /**
+     * Returns documents with a term, that starts with the query, as a map
+     * from kind to the ids.
+     */
+    public Map<String, Set<String>> searchPrefix(final String query) {
+        final String q = normalize(query);
+        final Map<String, Set<String>> result =
+                                        new HashMap<String, Set<String>>();
+        if (q == null) {
+            return result;
+        }
+        mIndexLock.lock();
+        try {
+            for (final Set<Document> docs
+                : postings.subMap(q, true, q + Character.MAX_VALUE, false)
+                          .values()) {
+                addResults(result, docs);
+            }
+        } finally {
+            mIndexLock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Returns documents with a term, that contains the query, as a map from
+     * kind to the ids.
+     */
+    public Map<String, Set<String>> search(final String query) {
+        final String q = normalize(query);
+        final Map<String, Set<String>> result =
+                                        new HashMap<String, Set<String>>();
+        if (q == null) {
+            return result;
+        }
+        mIndexLock.lock();
+        try {
+            for (final String term : getCandidateTerms(q)) {
+                if (term.contains(q)) {
+                    addResults(result, postings.get(term));
+                }
+            }
+        } finally {
+            mIndexLock.unlock();
+        }
+        return result;
+    }
+
+    /** Returns number of the terms, that are checked for the query. */
+    int getCandidateCount(final String query) {
+        mIndexLock.lock();
+        try {
+            return getCandidateTerms(normalize(query)).size();
+        } finally {
+            mIndexLock.unlock();
+        }
+    }
+
+    /** Returns number of the indexed terms. */
+    int getTermCount() {
+        mIndexLock.lock();
+        try {
+            return postings.size();
+        } finally {
+            mIndexLock.unlock();
+        }
+    }
+
+    /**
+     * Returns terms that may contain the query: terms with the query itself
+     * as an n-gram, if it is short, or terms with its rarest trigram.
+     */
+    private Collection<String> getCandidateTerms(final String q) {
+        if (q.length() <= GRAM) {
+            final Set<String> terms = grams.get(q);
+            if (terms == null) {
+                return Collections.emptySet();
+            }
+            return terms;
+        }
+        Set<String> smallest = null;
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            final Set<String> terms = grams.get(q.substring(i, i + GRAM));
+            if (terms == null) {
+                return Collections.emptySet();
+            }
+            if (smallest == null || terms.size() < smallest.size()) {
+                smallest = terms;
+            }
+        }
+        return smallest;
+    }
+
+    /** Adds the documents to the result map. */
+    private static void addResults(final Map<String, Set<String>> result,
+                                   final Set<Document> docs) {
+        for (final Document d : docs) {
+            Set<String> ids = result.get(d.kind);
+            if (ids == null) {
+                ids = new HashSet<String>();
+                result.put(d.kind, ids);
+            }
+            ids.add(d.id);
+        }
+    }
+
+    /** Returns the documents of the kind. Must be called with the lock. */
+    private Map<String, Set<String>> getDocuments(final String kind) {
+        Map<String, Set<String>> docs = documents.get(kind);
+        if (docs == null) {
+            docs = new HashMap<String, Set<String>>();
+            documents.put(kind, docs);
+        }
+        return docs;
+    }
+
+    /**
+     * Indexes the document, if its terms have changed. The id itself is
+     * always one of the terms. Must be called with the lock.
+     */
+    private void putDocument(final String kind,
+                             final String id,
+                             final Collection<String> terms) {
+        final Set<String> newTerms = new HashSet<String>();
+        newTerms.add(normalize(id));
+        if (terms != null) {
+            for (final String t : terms) {
+                final String term = normalize(t);
+                if (term != null) {
+                    newTerms.add(term);
+                }
+            }
+        }
+        newTerms.remove(null);
+        final Map<String, Set<String>> docs = getDocuments(kind);
+        final Set<String> oldTerms = docs.get(id);
+        if (newTerms.equals(oldTerms)) {
+            return;
+        }
+        final Document doc = new Document(kind, id);
+        if (oldTerms != null) {
+            for (final String term : oldTerms) {
+                if (!newTerms.contains(term)) {
+                    removePosting(term, doc);
+                }
+            }
+        }
+        for (final String term : newTerms) {
+            if (oldTerms == null || !oldTerms.contains(term)) {
+                addPosting(term, doc);
+            }
+        }
+        docs.put(id, newTerms);
+    }
+
+    /** Removes the document from the index. Must be called with the lock. */
+    private void removeDocument(final String kind, final String id) {
+        final Set<String> oldTerms = getDocuments(kind).remove(id);
+        if (oldTerms == null) {
+            return;
+        }
+        final Document doc = new Document(kind, id);
+        for (final String term : oldTerms) {
+            removePosting(term, doc);
+        }
+    }
+
+    /** Adds the document to the term. */
+    private void addPosting(final String term, final Document doc) {
+        Set<Document> docs = postings.get(term);
+        if (docs == null) {
+            docs = new HashSet<Document>();
+            postings.put(term, docs);
+            for (final String gram : getGrams(term)) {
+                Set<String> terms = grams.get(gram);
+                if (terms == null) {
+                    terms = new HashSet<String>();
+                    grams.put(gram, terms);
+                }
+                terms.add(term);
+            }
+        }
+        docs.add(doc);
+    }
+
+    /** Removes the document from the term and the term if it is unused. */
+    private void removePosting(final String term, final Document doc) {
+        final Set<Document> docs = postings.get(term);
+        if (docs == null) {
+            return;
+        }
+        docs.remove(doc);
+        if (!docs.isEmpty()) {
+            return;
+        }
+        postings.remove(term);
+        for (final String gram : getGrams(term)) {
+            final Set<String> terms = grams.get(gram);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    /** Returns all n-grams of the term, that are not longer than GRAM. */
+    private static Set<String> getGrams(final String term) {
+        final Set<String> termGrams = new HashSet<String>();
+        for (int n = 1; n <= GRAM; n++) {
+            for (int i = 0; i + n <= term.length(); i++) {
+                termGrams.add(term.substring(i, i + n));
+            }
+        }
+        return termGrams;
+    }
+
+    /** Returns the term in lower case or null if it is empty. */
+    private static String normalize(final String term) {
+        if (term == null) {
+            return null;
+        }
+        final String t = term.trim().toLowerCase(Locale.ENGLISH);
+        if (t.isEmpty()) {
+            return null;
+        }
+        return t;
+    }
+
+    /** Document of some kind and id. */
+    private static final class Document {
+        /** Kind of the document. */
+        private final String kind;
+        /** Id of the document. */
+        private final String id;
+
+        /** Prepares a new <code>Document</code> object. */
+        Document(final String kind, final String id) {
+            this.kind = kind;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Document)) {
+                return false;
+            }
+            final Document other = (Document) o;
+            return kind.equals(other.kind) && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return kind.hashCode() * 31 + id.hashCode();
+        }
+    }
+}
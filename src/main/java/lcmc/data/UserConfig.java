@@ -337,7 +337,9 @@ public final class UserConfig extends XML {
         Tools.getConfigData().setLastEnteredUseSudo(sudo);
         Tools.getConfigData().addHostToHosts(host);
 
-        new TerminalPanel(host);
+        if (!Tools.getConfigData().isHeadless()) {
+            new TerminalPanel(host);
+        }
         host.setIp(ip);
         if (username == null && sudo) {
             username = System.getProperty("user.name");
@@ -390,6 +390,8 @@ public final class VMSXML extends XML {
     private final Lock mXMLDocumentWriteLock = mXMLDocumentLock.writeLock();
     /** XML document. */
     private Document xmlDocument = null;
+    /** The output, that the xml document was parsed from. */
+    private volatile String output = null;
 
     /** Prepares a new <code>VMSXML</code> object. */
     public VMSXML(final Host host) {
@@ -1192,6 +1194,11 @@ public final class VMSXML extends XML {
                   virshOptions);
     }
 
+    /** Returns the output, that the vms were parsed from. */
+    public String getOutput() {
+        return output;
+    }
+
     /** Updates data. */
     public boolean update() {
         final String command = host.getDistCommand("VMSXML.GetData",
@@ -1220,6 +1227,7 @@ public final class VMSXML extends XML {
         if (document == null) {
             return false;
         }
+        this.output = output;
         final Node vmsNode = getChildNode(document, "vms");
         final String md5 = getAttribute(vmsNode, "md5");
         if (md5 == null || md5.equals(host.getVMInfoMD5())) {
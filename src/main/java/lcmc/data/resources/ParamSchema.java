@@ -0,0 +1,123 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+package lcmc.data.resources;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Names of the parameters of one kind of resources with their indexes.
+ * It is shared by all resources of the same resource agent or of the same
+ * class, so that the resources can keep their values in arrays, instead of
+ * every resource having its own maps with the same parameter names. The
+ * parameters can be only added, the indexes never change. The lookups are
+ * done without locking.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class ParamSchema {
+    /** Schemas for the resources, that are not created for an agent. */
+    private static final Map<Class<?>, ParamSchema> TYPE_SCHEMAS =
+                                    new HashMap<Class<?>, ParamSchema>();
+    /** Type schemas lock. */
+    private static final Lock M_TYPE_SCHEMAS_LOCK = new ReentrantLock();
+    /** Map from parameter name to its index, it is replaced on add. */
+    private volatile Map<String, Integer> indexes =
+                                              new HashMap<String, Integer>();
+    /** Parameter names in the order of the indexes. */
+    private volatile String[] params = new String[0];
+    /** Add lock. */
+    private final Lock mAddLock = new ReentrantLock();
+
+    /** Returns the shared schema for the resource class. */
+    public static ParamSchema forType(final Class<?> type) {
+        M_TYPE_SCHEMAS_LOCK.lock();
+        try {
+            ParamSchema schema = TYPE_SCHEMAS.get(type);
+            if (schema == null) {
+                schema = new ParamSchema();
+                TYPE_SCHEMAS.put(type, schema);
+            }
+            return schema;
+        } finally {
+            M_TYPE_SCHEMAS_LOCK.unlock();
+        }
+    }
+
+    /** Returns index of the parameter or -1 if it is not in the schema. */
+    public int indexOf(final String param) {
+        final Integer index = indexes.get(param);
+        if (index == null) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * Returns index of the parameter and adds the parameter, if it is not
+     * in the schema yet.
+     */
+    public int add(final String param) {
+        final int index = indexOf(param);
+        if (index >= 0) {
+            return index;
+        }
+        mAddLock.lock();
+        try {
+            final Integer i = indexes.get(param);
+            if (i != null) {
+                return i;
+            }
+            String name = param;
+            if (name != null) {
+                name = name.intern();
+            }
+            final int newIndex = params.length;
+            final Map<String, Integer> newIndexes =
+                                         new HashMap<String, Integer>(indexes);
+            newIndexes.put(name, newIndex);
+            final String[] newParams = new String[newIndex + 1];
+            System.arraycopy(params, 0, newParams, 0, newIndex);
+            newParams[newIndex] = name;
+            params = newParams;
+            indexes = newIndexes;
+            return newIndex;
+        } finally {
+            mAddLock.unlock();
+        }
+    }
+
+    /** Returns the parameter with the index. */
+    public String getParam(final int index) {
+        return params[index];
+    }
+
+    /** Returns number of the parameters. */
+    public int size() {
+        return params.length;
+    }
+}
@@ -24,8 +24,8 @@
 package lcmc.data.resources;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class holds resource data.
@@ -39,18 +39,23 @@ public class Resource {
     private static final long serialVersionUID = 1L;
     /** Name of the resource. */
     private String name = null;
-    /** Map from parameter name to the saved value. */
-    private final Map<String, String> savedValue =
-                                                new HashMap<String, String>();
-    /** Map from parameter to its possible choices for pulldown menus. */
-    private final Map<String, Object[]> possibleChoicesMap =
-                                                new HashMap<String, Object[]>();
-    /** Map from parameter name to its default value. */
-    private final Map<String, String> defaultValueMap =
-                                                new HashMap<String, String>();
-    /** Map from parameter name to its preferred value. */
-    private final Map<String, String> preferredValueMap =
-                                                new HashMap<String, String>();
+    /** Empty values. */
+    private static final String[] NO_VALUES = new String[0];
+    /** Empty choices. */
+    private static final Object[][] NO_CHOICES = new Object[0][];
+    /** Parameter names with indexes to the value arrays. */
+    private volatile ParamSchema paramSchema =
+                                            ParamSchema.forType(getClass());
+    /** Saved values in the order of the schema parameters. */
+    private volatile String[] savedValue = NO_VALUES;
+    /** Possible choices for pulldown menus. */
+    private volatile Object[][] possibleChoices = NO_CHOICES;
+    /** Default values. */
+    private volatile String[] defaultValue = NO_VALUES;
+    /** Preferred values. */
+    private volatile String[] preferredValue = NO_VALUES;
+    /** Lock for the changes of the arrays. */
+    private final Lock mValuesLock = new ReentrantLock();
 
     /** Whether the resource is newly allocated. */
     private boolean newResource = false;
@@ -74,14 +79,94 @@ public class Resource {
         this.name = name;
     }
 
+    /**
+     * Sets the schema, that is shared with other resources of the same kind,
+     * and moves the values that were already set. It should be set, before
+     * the resource is used by other threads.
+     */
+    public final void setParamSchema(final ParamSchema paramSchema) {
+        mValuesLock.lock();
+        try {
+            if (paramSchema == this.paramSchema) {
+                return;
+            }
+            final ParamSchema oldSchema = this.paramSchema;
+            this.paramSchema = paramSchema;
+            savedValue = moveValues(oldSchema, savedValue);
+            defaultValue = moveValues(oldSchema, defaultValue);
+            preferredValue = moveValues(oldSchema, preferredValue);
+            final Object[][] oldChoices = possibleChoices;
+            possibleChoices = NO_CHOICES;
+            for (int i = 0; i < oldChoices.length; i++) {
+                if (oldChoices[i] != null) {
+                    final int index = paramSchema.add(oldSchema.getParam(i));
+                    possibleChoices = grow(possibleChoices, index);
+                    possibleChoices[index] = oldChoices[i];
+                }
+            }
+        } finally {
+            mValuesLock.unlock();
+        }
+    }
+
+    /** Returns values from the old schema at the indexes of the new one. */
+    private String[] moveValues(final ParamSchema oldSchema,
+                                final String[] oldValues) {
+        String[] values = NO_VALUES;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                final int index = paramSchema.add(oldSchema.getParam(i));
+                values = grow(values, index);
+                values[index] = oldValues[i];
+            }
+        }
+        return values;
+    }
+
+    /** Returns the array, that is big enough for the index. */
+    private String[] grow(final String[] values, final int index) {
+        if (index < values.length) {
+            return values;
+        }
+        final String[] newValues = new String[paramSchema.size()];
+        System.arraycopy(values, 0, newValues, 0, values.length);
+        return newValues;
+    }
+
+    /** Returns the array, that is big enough for the index. */
+    private Object[][] grow(final Object[][] values, final int index) {
+        if (index < values.length) {
+            return values;
+        }
+        final Object[][] newValues = new Object[paramSchema.size()][];
+        System.arraycopy(values, 0, newValues, 0, values.length);
+        return newValues;
+    }
+
+    /** Returns the value at the index of the parameter. */
+    private String get(final String[] values, final String param) {
+        final int index = paramSchema.indexOf(param);
+        if (index < 0 || index >= values.length) {
+            return null;
+        }
+        return values[index];
+    }
+
     /** Sets value for paramter. */
     public final void setValue(final String param, final String value) {
-        savedValue.put(param, value);
+        mValuesLock.lock();
+        try {
+            final int index = paramSchema.add(param);
+            savedValue = grow(savedValue, index);
+            savedValue[index] = value;
+        } finally {
+            mValuesLock.unlock();
+        }
     }
 
     /** Returns value for a parameter. */
     public String getValue(final String param) {
-        return savedValue.get(param);
+        return get(savedValue, param);
     }
 
     /** Gets name of this resource. */
@@ -137,38 +222,62 @@ public class Resource {
     /** Sets possible choices for parameter combo box. */
     public final void setPossibleChoices(final String param,
                                          final Object[] possibleChoices) {
-        possibleChoicesMap.remove(param);
-        possibleChoicesMap.put(param, possibleChoices);
+        mValuesLock.lock();
+        try {
+            final int index = paramSchema.add(param);
+            this.possibleChoices = grow(this.possibleChoices, index);
+            this.possibleChoices[index] = possibleChoices;
+        } finally {
+            mValuesLock.unlock();
+        }
     }
 
     /** Returns possible choices for parameter combo box. */
     public Object[] getPossibleChoices(final String param) {
-        final List<Object> possibleChoices =
-                             getPossibleChoices(param,
-                                                possibleChoicesMap.get(param));
-        return possibleChoices.toArray(new Object[possibleChoices.size()]);
+        final Object[][] choices = possibleChoices;
+        final int index = paramSchema.indexOf(param);
+        Object[] values = null;
+        if (index >= 0 && index < choices.length) {
+            values = choices[index];
+        }
+        final List<Object> pc = getPossibleChoices(param, values);
+        return pc.toArray(new Object[pc.size()]);
     }
 
     /** Sets default value for the parameter. */
     public final void setDefaultValue(final String param,
                                final String defaultValue) {
-        defaultValueMap.put(param, defaultValue);
+        mValuesLock.lock();
+        try {
+            final int index = paramSchema.add(param);
+            this.defaultValue = grow(this.defaultValue, index);
+            this.defaultValue[index] = defaultValue;
+        } finally {
+            mValuesLock.unlock();
+        }
     }
 
     /** Returns default value for the parameter. */
     public final String getDefaultValue(final String param) {
-        return defaultValueMap.get(param);
+        return get(defaultValue, param);
     }
 
     /** Sets preferred value for the parameter. */
     final void setPreferredValue(final String param,
                                         final String preferredValue) {
-        preferredValueMap.put(param, preferredValue);
+        mValuesLock.lock();
+        try {
+            final int index = paramSchema.add(param);
+            this.preferredValue = grow(this.preferredValue, index);
+            this.preferredValue[index] = preferredValue;
+        } finally {
+            mValuesLock.unlock();
+        }
     }
 
     /** Returns the preferred value for the parameter. */
     public final String getPreferredValue(final String param) {
-        return preferredValueMap.get(param);
+        return get(preferredValue, param);
     }
 
     /** Sets whether the service is newly allocated. */
@@ -0,0 +1,104 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.gui;
+
+import lcmc.utilities.Tools;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.swing.Timer;
+
+/**
+ * Application-wide clock that drives all graph animations. It is one swing
+ * timer, that runs only while at least one animation is registered, so that
+ * the graphs don't need an animation thread each. The ticks are delivered
+ * in the swing thread.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+final class AnimationClock {
+    /** Animation that is driven by the clock. */
+    interface Animation {
+        /**
+         * Is called on every tick in the swing thread. The animation
+         * unregisters itself, when it is finished.
+         */
+        void tick();
+    }
+
+    /** Registered animations. */
+    private static final Set<Animation> ANIMATIONS =
+                                              new LinkedHashSet<Animation>();
+    /** The timer, it is created with the first animation. */
+    private static Timer timer = null;
+
+    /** Private constructor, cannot be instantiated. */
+    private AnimationClock() {
+        /* Cannot be instantiated. */
+    }
+
+    /** Registers the animation and starts the clock if it was stopped. */
+    static void register(final Animation animation) {
+        synchronized (ANIMATIONS) {
+            ANIMATIONS.add(animation);
+            if (timer == null) {
+                final int interval =
+                             (int) (1000 / Tools.getConfigData().getAnimFPS());
+                timer = new Timer(interval, new ActionListener() {
+                    @Override
+                    public void actionPerformed(final ActionEvent e) {
+                        tickAll();
+                    }
+                });
+                timer.setCoalesce(true);
+            }
+            if (!timer.isRunning()) {
+                timer.start();
+            }
+        }
+    }
+
+    /** Removes the animation, the clock stops with the last one. */
+    static void unregister(final Animation animation) {
+        synchronized (ANIMATIONS) {
+            ANIMATIONS.remove(animation);
+            if (ANIMATIONS.isEmpty() && timer != null) {
+                timer.stop();
+            }
+        }
+    }
+
+    /** Calls all registered animations. */
+    private static void tickAll() {
+        final Animation[] animations;
+        synchronized (ANIMATIONS) {
+            animations = ANIMATIONS.toArray(new Animation[ANIMATIONS.size()]);
+        }
+        for (final Animation animation : animations) {
+            animation.tick();
+        }
+    }
+}
@@ -24,10 +24,12 @@ package lcmc.gui;
 
 import lcmc.utilities.Tools;
 import lcmc.gui.resources.Info;
+import lcmc.gui.resources.InfoPanelCache;
 import lcmc.gui.resources.CategoryInfo;
 
-import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.TreeNode;
+import javax.swing.tree.TreePath;
 
 import javax.swing.SwingUtilities;
 import javax.swing.JSplitPane;
@@ -42,6 +44,12 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
 
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -57,7 +65,7 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class Browser {
     /** Tree model of the menu tree. */
-    private DefaultTreeModel treeModel;
+    private DiffTreeModel treeModel;
     /** Top of the menu tree. */
     private DefaultMutableTreeNode treeTop;
     /** Tree. */
@@ -89,21 +97,45 @@ public class Browser {
     /** Color of the extra panel with advanced options. */
     static final Color EXTRA_PANEL_BACKGROUND =
                     Tools.getDefaultColor("ViewPanel.Status.Background");
+    /** Background of the menu items that match the search. */
+    private static final Color SEARCH_MATCH_BACKGROUND =
+                                Tools.getDefaultColor("Browser.SearchMatch");
+    /** Color of the menu items that don't match the search. */
+    private static final Color SEARCH_NO_MATCH_FOREGROUND =
+                                Tools.getDefaultColor("Browser.SearchNoMatch");
+    /**
+     * The matches are made visible in the tree, only if there are not more
+     * of them than this.
+     */
+    private static final int MAX_EXPANDED_MATCHES = 100;
     /** DRBD test lock. */
     private final Lock mDRBDtestLock = new ReentrantLock();
+    /** Nodes that wait for the next tree update. */
+    private final Set<DefaultMutableTreeNode> pendingNodes =
+                                new LinkedHashSet<DefaultMutableTreeNode>();
+    /** Node that should be selected after the next tree update. */
+    private DefaultMutableTreeNode pendingSelection = null;
+    /** Whether the tree update is already scheduled. */
+    private boolean treeUpdateScheduled = false;
+    /** Pending nodes lock. */
+    private final Lock mPendingNodesLock = new ReentrantLock();
+    /** View panel, that shows the tree. */
+    private volatile ViewPanel viewPanel = null;
+    /** Infos that match the search, null if nothing is searched. */
+    private volatile Set<Info> searchMatches = null;
 
     /** Sets the top of the menu tree. */
     protected final void setTreeTop() {
         treeTop = new DefaultMutableTreeNode(new CategoryInfo(
                                         Tools.getString("Browser.Resources"),
                                         this));
-        treeModel = new DefaultTreeModel(treeTop);
+        treeModel = new DiffTreeModel(treeTop);
     }
 
     /** Sets the top of the menu tree. */
     protected final void setTreeTop(final Info info) {
         treeTop = new DefaultMutableTreeNode(info);
-        treeModel = new DefaultTreeModel(treeTop);
+        treeModel = new DiffTreeModel(treeTop);
     }
 
     /** Sets the tree instance variable. */
@@ -111,6 +143,11 @@ public class Browser {
         this.tree = tree;
     }
 
+    /** Sets the view panel, that shows the tree. */
+    final void setViewPanel(final ViewPanel viewPanel) {
+        this.viewPanel = viewPanel;
+    }
+
     /** Returns the tree object. */
     public final JTree getTree() {
         return tree;
@@ -129,60 +166,131 @@ public class Browser {
         return treeTop;
     }
 
-    /** Reloads the node. */
+    /**
+     * Updates the subtree of the node in the tree and waits till it's done.
+     * Only the changed nodes are updated, so the expanded nodes stay. If
+     * select is true, the node is expanded and selected afterwards.
+     */
     public final void reloadAndWait(final DefaultMutableTreeNode node,
                                     final boolean select) {
-        final JTree t = tree;
-        DefaultMutableTreeNode oldN = null;
-        if (t != null) {
-            oldN = (DefaultMutableTreeNode) t.getLastSelectedPathComponent();
-        }
-        final DefaultMutableTreeNode oldNode = oldN;
-        if (node != null) {
-            treeModel.reload(node);
+        if (node == null) {
+            return;
         }
-        if (!select && t != null && oldNode != null) {
-            /* if don't want to select, we reselect the old path. */
-            //t.setSelectionPath(path);
-            treeModel.reload(oldNode);
+        addPendingNode(node, select);
+        if (SwingUtilities.isEventDispatchThread()) {
+            updateTree();
+        } else {
+            Tools.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    updateTree();
+                }
+            });
         }
     }
 
-    /** Reloads the node. */
+    /**
+     * Updates the subtree of the node in the tree. The updates are
+     * collected and done in one swing event, only the changed nodes are
+     * updated, so the expanded nodes stay. If select is true, the node is
+     * expanded and selected afterwards.
+     */
     public final void reload(final DefaultMutableTreeNode node,
                              final boolean select) {
-        final JTree t = tree;
-        DefaultMutableTreeNode oldN = null;
-        if (t != null) {
-            oldN = (DefaultMutableTreeNode) t.getLastSelectedPathComponent();
+        if (node == null) {
+            return;
+        }
+        if (!addPendingNode(node, select)) {
+            return;
         }
-        final DefaultMutableTreeNode oldNode = oldN;
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
-                if (node != null) {
-                    treeModel.reload(node);
-                }
+                updateTree();
             }
         });
-        if (!select && t != null && oldNode != null) {
-            SwingUtilities.invokeLater(new Runnable() {
-                @Override
-                public void run() {
-                    /* if don't want to select, we reselect the old path. */
-                    //t.setSelectionPath(path);
-                    treeModel.reload(oldNode);
+    }
+
+    /**
+     * Adds the node to the next tree update. The last node that should be
+     * selected wins. Returns whether the tree update has to be scheduled.
+     */
+    private boolean addPendingNode(final DefaultMutableTreeNode node,
+                                   final boolean select) {
+        mPendingNodesLock.lock();
+        try {
+            pendingNodes.add(node);
+            if (select) {
+                pendingSelection = node;
+            }
+            if (treeUpdateScheduled) {
+                return false;
+            }
+            treeUpdateScheduled = true;
+            return true;
+        } finally {
+            mPendingNodesLock.unlock();
+        }
+    }
+
+    /**
+     * Fires the tree model events for the pending nodes. Nodes whose
+     * ancestor is pending as well are covered by the ancestor. The node
+     * that should be selected is expanded and selected after that.
+     */
+    private void updateTree() {
+        final List<DefaultMutableTreeNode> nodes;
+        final DefaultMutableTreeNode selection;
+        mPendingNodesLock.lock();
+        try {
+            nodes = new ArrayList<DefaultMutableTreeNode>(pendingNodes);
+            pendingNodes.clear();
+            selection = pendingSelection;
+            pendingSelection = null;
+            treeUpdateScheduled = false;
+        } finally {
+            mPendingNodesLock.unlock();
+        }
+        final Set<DefaultMutableTreeNode> nodeSet =
+                                 new HashSet<DefaultMutableTreeNode>(nodes);
+        for (final DefaultMutableTreeNode node : nodes) {
+            boolean covered = false;
+            TreeNode p = node.getParent();
+            while (p != null) {
+                if (nodeSet.contains(p)) {
+                    covered = true;
+                    break;
                 }
-            });
+                p = p.getParent();
+            }
+            if (!covered) {
+                treeModel.update(node);
+            }
+        }
+        final ViewPanel vp = viewPanel;
+        final JTree t = tree;
+        if (selection != null
+            && vp != null
+            && t != null
+            && selection.getRoot() == treeModel.getRoot()) {
+            vp.selectPath(t, new TreePath(selection.getPath()));
         }
     }
 
-    /** Sets the node change for the node. */
+    /**
+     * Sets the node change for the node and shows its info panel. The
+     * label changes found by the tree updates don't change the info panel.
+     */
     public final void nodeChanged(final DefaultMutableTreeNode node) {
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
                 treeModel.nodeChanged(node);
+                final ViewPanel vp = viewPanel;
+                if (vp != null && node.getUserObject() instanceof Info) {
+                    vp.setRightComponentInView(Browser.this,
+                                               (Info) node.getUserObject());
+                }
             }
         });
     }
@@ -205,7 +313,7 @@ public class Browser {
     }
 
     /** Gets tree model object. */
-    final DefaultTreeModel getTreeModel() {
+    final DiffTreeModel getTreeModel() {
         return treeModel;
     }
 
@@ -222,6 +330,7 @@ public class Browser {
         }
         final JPanel gView = ((Info) nodeInfo).getGraphicalView();
         final JComponent iPanel = ((Info) nodeInfo).getInfoPanel();
+        InfoPanelCache.viewed((Info) nodeInfo);
         if (gView == null) {
             return iPanel;
         } else {
@@ -255,17 +364,65 @@ public class Browser {
 
     /** Returns cell rendererer for tree. */
     final CellRenderer getCellRenderer() {
-        return new CellRenderer();
+        return new CellRenderer(this);
+    }
+
+    /**
+     * Sets the infos that match the search, null if nothing is searched.
+     * The matches are highlighted in the tree and their parents are
+     * expanded. Must be called from the swing thread.
+     */
+    protected final void setSearchMatches(final Set<Info> matches) {
+        searchMatches = matches;
+        final JTree t = tree;
+        if (t == null) {
+            return;
+        }
+        if (matches != null && matches.size() <= MAX_EXPANDED_MATCHES) {
+            TreePath first = null;
+            @SuppressWarnings("unchecked")
+            final Enumeration<DefaultMutableTreeNode> e =
+                                            treeTop.depthFirstEnumeration();
+            while (e.hasMoreElements()) {
+                final DefaultMutableTreeNode node = e.nextElement();
+                if (matches.contains(node.getUserObject())) {
+                    final TreePath tp = new TreePath(node.getPath());
+                    t.makeVisible(tp);
+                    if (first == null) {
+                        first = tp;
+                    }
+                }
+            }
+            if (first != null) {
+                t.scrollPathToVisible(first);
+            }
+        }
+        t.repaint();
+    }
+
+    /**
+     * Returns whether the info matches the search or null if nothing is
+     * searched.
+     */
+    final Boolean isSearchMatch(final Info i) {
+        final Set<Info> matches = searchMatches;
+        if (matches == null) {
+            return null;
+        }
+        return matches.contains(i);
     }
 
     /** Renders the cells for the menu. */
     static class CellRenderer extends DefaultTreeCellRenderer {
         /** Serial version UUID. */
         private static final long serialVersionUID = 1L;
+        /** Browser, whose search matches are highlighted. */
+        private final Browser browser;
 
         /** Creates new CellRenderer object. */
-        CellRenderer() {
+        CellRenderer(final Browser browser) {
             super();
+            this.browser = browser;
             setBackgroundNonSelectionColor(PANEL_BACKGROUND);
             setBackgroundSelectionColor(
                         Tools.getDefaultColor("ViewPanel.Status.Background"));
@@ -293,9 +450,18 @@ public class Browser {
                             hasFocus);
             final Info i =
                     (Info) ((DefaultMutableTreeNode) value).getUserObject();
+            setBackgroundNonSelectionColor(PANEL_BACKGROUND);
             if (i == null) {
                 return this;
             }
+            final Boolean match = browser.isSearchMatch(i);
+            if (match != null && !sel) {
+                if (match) {
+                    setBackgroundNonSelectionColor(SEARCH_MATCH_BACKGROUND);
+                } else if (leaf) {
+                    setForeground(SEARCH_NO_MATCH_FOREGROUND);
+                }
+            }
             if (leaf) {
                 final ImageIcon icon = i.getMenuIcon(false);
                 if (icon != null) {
@@ -57,6 +57,7 @@ import java.util.ArrayList;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.TreeSet;
+import java.util.Arrays;
 
 import javax.swing.JPopupMenu;
 import javax.swing.JMenu;
@@ -383,6 +384,7 @@ public final class CRMGraph extends ResourceGraph {
         Vertex v = getVertex(serviceInfo);
         if (v == null) {
             v = new Vertex();
+            boolean autoLayout = false;
             if (pos == null) {
                 final Point2D newPos = getSavedPosition(serviceInfo);
                 if (newPos == null) {
@@ -392,6 +394,7 @@ public final class CRMGraph extends ResourceGraph {
                                              new Point2D.Float(BD_X_POS,
                                                                maxYPos + 40));
                     putVertexLocations();
+                    autoLayout = true;
                 } else {
                     getVertexLocations().put(v, newPos);
                     putVertexLocations();
@@ -411,6 +414,9 @@ public final class CRMGraph extends ResourceGraph {
             somethingChanged();
             putInfoToVertex(serviceInfo, v);
             putVertexToInfo(v, (Info) serviceInfo);
+            if (autoLayout) {
+                setAutoLayout(v);
+            }
             vertexExists = false;
         } else if (testOnly) {
             addTestEdge(getVertex(parent), getVertex(serviceInfo));
@@ -504,6 +510,7 @@ public final class CRMGraph extends ResourceGraph {
                     lockGraph();
                     getGraph().addEdge(edge, vP0, v0);
                     unlockGraph();
+                    requestLayout(Arrays.asList(vP0, v0));
                     edgeToHbconnectionMap.put(edge, hbci);
                     hbconnectionToEdgeMap.put(hbci, edge);
                 } else {
@@ -636,6 +643,7 @@ public final class CRMGraph extends ResourceGraph {
                     lockGraph();
                     getGraph().addEdge(edge, vWithRsc0, vRsc0);
                     unlockGraph();
+                    requestLayout(Arrays.asList(vWithRsc0, vRsc0));
                     edgeToHbconnectionMap.put(edge, hbci);
                     hbconnectionToEdgeMap.put(hbci, edge);
                 } else {
@@ -868,6 +876,7 @@ public final class CRMGraph extends ResourceGraph {
         y = y < MIN_Y_POS ? MIN_Y_POS : y;
         y = y > MAX_Y_POS ? MAX_Y_POS : y;
         pos.setLocation(x, y);
+        setManualLayout(v);
         getVertexLocations().put(v, pos);
         putVertexLocations();
         getLayout().setLocation(v, pos);
@@ -1327,7 +1336,6 @@ public final class CRMGraph extends ResourceGraph {
                         removeVertex(cphi);
                         unlockGraph();
                         cphi.removeInfo();
-                        getVertexToMenus().remove(v);
                         vertexToConstraintPHMap.remove(v);
                         constraintPHToVertexMap.remove(cphi);
                         somethingChanged();
@@ -1353,7 +1361,6 @@ public final class CRMGraph extends ResourceGraph {
                         unlockGraph();
                         si.removeInfo();
                         //TODO: unregister removePopup(v);
-                        getVertexToMenus().remove(v);
                         vertexToAddServiceMap.remove(v);
                         vertexToAddExistingServiceMap.remove(v);
                         //TODO: positions are still there
@@ -1919,6 +1926,7 @@ public final class CRMGraph extends ResourceGraph {
             return;
         }
         final Vertex v = new Vertex();
+        boolean autoLayout = false;
         if (pos == null) {
             final Point2D newPos = getSavedPosition(rsoi);
             if (newPos == null) {
@@ -1929,6 +1937,7 @@ public final class CRMGraph extends ResourceGraph {
                                         new Point2D.Float(BD_X_POS,
                                                           maxYPos + 40));
                 putVertexLocations();
+                autoLayout = true;
             } else {
                 getVertexLocations().put(v, newPos);
                 putVertexLocations();
@@ -1945,6 +1954,9 @@ public final class CRMGraph extends ResourceGraph {
         putVertexToInfo(v, (Info) rsoi);
         constraintPHToVertexMap.put(rsoi, v);
         vertexToConstraintPHMap.put(v, rsoi);
+        if (autoLayout) {
+            setAutoLayout(v);
+        }
         somethingChanged();
     }
 
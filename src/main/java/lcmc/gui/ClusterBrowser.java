@@ -29,11 +29,14 @@ import lcmc.data.DRBDtestData;
 import lcmc.data.Host;
 import lcmc.data.Cluster;
 import lcmc.data.ClusterStatus;
+import lcmc.data.ClusterState;
 import lcmc.data.CRMXML;
 import lcmc.data.DrbdXML;
+import lcmc.data.SearchIndex;
 import lcmc.data.VMSXML;
 import lcmc.data.ConfigData;
 import lcmc.utilities.NewOutputCallback;
+import lcmc.utilities.StatusFrameDecoder;
 
 import lcmc.utilities.ExecCallback;
 import lcmc.utilities.Heartbeat;
@@ -87,8 +90,11 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.regex.Pattern;
+import java.util.Date;
 import java.util.regex.Matcher;
 import java.util.concurrent.CountDownLatch;
 import java.util.Locale;
@@ -159,6 +165,10 @@ public final class ClusterBrowser extends Browser {
     /** Heartbeat id to service info hash. */
     private final Map<String, ServiceInfo> heartbeatIdToServiceInfo =
                                           new HashMap<String, ServiceInfo>();
+    /** Index of the resources, drbd resources and vms for the search. */
+    private final SearchIndex searchIndex = new SearchIndex();
+    /** Last search query, null if nothing is searched. */
+    private volatile String searchQuery = null;
     /** Heartbeat graph. */
     private final CRMGraph crmGraph;
     /** Drbd graph. */
@@ -185,6 +195,13 @@ public final class ClusterBrowser extends Browser {
     private boolean drbdStatusCanceled = false;
     /** Whether hb status was canceled by user. */
     private boolean clStatusCanceled = false;
+    /** Drbd config, as it was parsed last time. */
+    private volatile String lastDrbdConfig = null;
+    /**
+     * Text of the progress indicator, while the last known state from the
+     * previous session is shown, otherwise null.
+     */
+    private volatile String staleStateText = null;
     /** Ptest lock. */
     private final Lock mPtestLock = new ReentrantLock();
     /** DRBD test data lock. */
@@ -333,9 +350,8 @@ public final class ClusterBrowser extends Browser {
     /** Starting ptest tooltip. */
     public static final String STARTING_PTEST_TOOLTIP =
                                 Tools.getString("ClusterBrowser.StartingPtest");
-    /** Cluster status error string. */
-    private static final String CLUSTER_STATUS_ERROR =
-                                  "---start---\r\nerror\r\n\r\n---done---\r\n";
+    /** First line of the cluster status, if there was an error. */
+    private static final String CLUSTER_STATUS_ERROR = "error";
     /** Small cluster icon. */
     static final ImageIcon CLUSTER_ICON_SMALL = Tools.createImageIcon(
                           Tools.getDefault("ClusterBrowser.ClusterIconSmall"));
@@ -347,8 +363,6 @@ public final class ClusterBrowser extends Browser {
                                        new ArrayList<String>(
                                                Arrays.asList(HB_PAR_TIMEOUT,
                                                              HB_PAR_INTERVAL));
-    private static final String RESET_STRING = "---reset---\r\n";
-    private static int RESET_STRING_LEN = RESET_STRING.length();
     /** Match ...by-res/r0 or by-res/r0/0 from DRBD 8.4 */
     private final static Pattern BY_RES_PATTERN =
                     Pattern.compile("^/dev/drbd/by-res/([^/]+)(?:/(\\d+))?$");
@@ -394,7 +408,7 @@ public final class ClusterBrowser extends Browser {
         // TODO: need two monitors for role='Slave' and 'Master' in
         // master/slave resources
         final Host dcHost = getDCHost();
-        if (Tools.versionBeforePacemaker(dcHost)) {
+        if (dcHost.getCapabilities().isBeforePacemaker()) {
             crmOperationParams.put(HB_OP_MONITOR,
                                 new ArrayList<String>(
                                             Arrays.asList(HB_PAR_TIMEOUT,
@@ -484,6 +498,117 @@ public final class ClusterBrowser extends Browser {
         }
     }
 
+    /**
+     * Saves the last known state of the cluster next to the save file, so
+     * that it can be shown at the next start, before the hosts are
+     * connected.
+     */
+    public void saveClusterState(final String saveFile) {
+        final CRMXML crmXML0 = crmXML;
+        if (crmXML0 == null || staleStateText != null) {
+            return;
+        }
+        final ClusterState state = new ClusterState();
+        crmXML0.saveState(state);
+        for (final Host host : cluster.getHostsArray()) {
+            if (state.getClusterStatus() == null) {
+                state.setClusterStatus(host.getLastClusterStatus());
+            }
+            state.setVersions(host);
+            state.setDrbdParameters(host, drbdParameters.get(host));
+            final VMSXML vxml = getVMSXML(host);
+            if (vxml != null) {
+                state.setVMS(host, vxml.getOutput());
+            }
+        }
+        if (state.getClusterStatus() == null) {
+            return;
+        }
+        state.setDrbdConfig(lastDrbdConfig);
+        state.save(ClusterState.getFile(saveFile, cluster.getName()));
+    }
+
+    /**
+     * Shows the last known state of the cluster from the previous session,
+     * until the hosts are connected and the live status replaces it.
+     */
+    private void loadClusterState() {
+        final ClusterState state = ClusterState.load(
+                       ClusterState.getFile(
+                                    Tools.getConfigData().getSaveFile(),
+                                    cluster.getName()));
+        if (state == null) {
+            return;
+        }
+        final Host[] hosts = cluster.getHostsArray();
+        if (hosts.length == 0) {
+            return;
+        }
+        for (final Host host : hosts) {
+            state.restoreVersions(host);
+        }
+        final String text = Tools.getString(
+                            "ClusterBrowser.StaleClusterState").replaceAll(
+                                "@TIME@",
+                                Matcher.quoteReplacement(
+                                    new Date(state.getSavedTime()).toString()));
+        staleStateText = text;
+        Tools.startProgressIndicator(cluster.getName(), text);
+        final CRMXML cachedCRMXML =
+                              new CRMXML(hosts[0], getServicesInfo(), state);
+        final ClusterStatus cachedStatus =
+                              new ClusterStatus(hosts[0], cachedCRMXML, state);
+        crmXML = cachedCRMXML;
+        initOperations();
+
+        boolean allDrbdParameters = true;
+        for (final Host host : hosts) {
+            final String params = state.getDrbdParameters(host);
+            if (params == null) {
+                allDrbdParameters = false;
+            } else if (drbdParameters.get(host) == null) {
+                drbdParameters.put(host, params);
+            }
+        }
+        final String drbdConfig = state.getDrbdConfig();
+        if (allDrbdParameters && drbdConfig != null) {
+            final DrbdXML cachedDrbdXML = new DrbdXML(hosts, drbdParameters);
+            cachedDrbdXML.update(drbdConfig);
+            drbdXML = cachedDrbdXML;
+            getDrbdGraph().getDrbdInfo().setParameters();
+            updateDrbdResources();
+        }
+
+        boolean vmsUpdated = false;
+        for (final Host host : hosts) {
+            final String vms = state.getVMS(host);
+            if (vms != null && getVMSXML(host) == null) {
+                final VMSXML cachedVMSXML = new VMSXML(host);
+                if (cachedVMSXML.update(vms)) {
+                    vmsXMLPut(host, cachedVMSXML);
+                    vmsUpdated = true;
+                }
+            }
+        }
+        if (vmsUpdated) {
+            updateVMS();
+        }
+
+        clStatusLock();
+        if (clusterStatus == null
+            && cachedStatus.parseStatus(state.getClusterStatus())) {
+            clusterStatus = cachedStatus;
+            updateClusterStatusInfos(cachedStatus, true, false);
+        }
+        clStatusUnlock();
+    }
+
+    /** Returns whether the last known state from the previous session is
+     * shown, until the live status arrives. */
+    public boolean isClusterStateStale() {
+        return staleStateText != null;
+    }
+
     /** Returns heartbeat graph for this cluster. */
     public CRMGraph getCRMGraph() {
         return crmGraph;
@@ -696,6 +821,7 @@ public final class ClusterBrowser extends Browser {
                         }
                     }
                 });
+                loadClusterState();
                 int notConnectedCount = 0;
                 do { /* wait here until a host is connected. */
                     boolean notConnected = true;
@@ -733,6 +859,10 @@ public final class ClusterBrowser extends Browser {
 
                 crmXML = new CRMXML(firstHost, getServicesInfo());
                 clusterStatus = new ClusterStatus(firstHost, crmXML);
+                for (final Host host : hosts) {
+                    /* everything is parsed from scratch */
+                    host.resetInfoHashes();
+                }
                 initOperations();
                 final DrbdXML newDrbdXML = new DrbdXML(cluster.getHostsArray(),
                                                        drbdParameters);
@@ -777,16 +907,6 @@ public final class ClusterBrowser extends Browser {
         }
     }
 
-    private void startPing(final Host host) {
-        while (true) {
-            host.startPing();
-            Tools.sleep(10000);
-            if (serverStatusCanceled) {
-                break;
-            }
-        }
-    }
-
     /** Start polling of the server status on one host. */
     void startServerStatus(final Host host) {
         final String hostName = host.getName();
@@ -833,7 +953,6 @@ public final class ClusterBrowser extends Browser {
         for (final ResourceGraph g : new ResourceGraph[]{drbdGraph, crmGraph}) {
             if (g != null) {
                 g.repaint();
-                g.updatePopupMenus();
             }
         }
     }
@@ -886,13 +1005,6 @@ public final class ClusterBrowser extends Browser {
     void startConnectionStatus() {
         final Host[] hosts = cluster.getHostsArray();
         for (final Host host : hosts) {
-            final Thread pingThread = new Thread(new Runnable() {
-                @Override
-                public void run() {
-                    startPing(host);
-                }
-            });
-            pingThread.start();
             final Thread thread = new Thread(new Runnable() {
                 @Override
                 public void run() {
@@ -1010,8 +1122,8 @@ public final class ClusterBrowser extends Browser {
                    },
 
                    new NewOutputCallback() {
-                       private StringBuffer outputBuffer =
-                                                        new StringBuffer(300);
+                       private final StatusFrameDecoder decoder =
+                                                    new StatusFrameDecoder();
                        @Override
                        public void output(final String output) {
                            if ("--nm--".equals(output.trim())) {
@@ -1035,41 +1147,44 @@ public final class ClusterBrowser extends Browser {
                                clusterHostsInfo.updateTable(
                                                   ClusterHostsInfo.MAIN_TABLE);
                            }
-                           outputBuffer.append(output);
-                           String drbdConfig, event;
                            boolean drbdUpdate = false;
                            boolean eventUpdate = false;
-                           do {
-                               host.drbdStatusLock();
-                               drbdConfig =
-                                        host.getOutput("drbd", outputBuffer); 
-                               if (drbdConfig != null) {
-                                   final DrbdXML newDrbdXML =
+                           for (final StatusFrameDecoder.Frame frame
+                                                : decoder.decode(output)) {
+                               if ("drbd".equals(frame.getType())) {
+                                   host.drbdStatusLock();
+                                   final String drbdConfig =
+                                                 host.getFrameContent(frame);
+                                   if (drbdConfig != null) {
+                                       final DrbdXML newDrbdXML =
                                             new DrbdXML(cluster.getHostsArray(),
                                                         drbdParameters);
-                                   newDrbdXML.update(drbdConfig);
-                                   drbdXML = newDrbdXML;
-                                   drbdUpdate = true;
-                                   firstTime.countDown();
-                               }
-                               host.drbdStatusUnlock();
-                               event = host.getOutput("event", outputBuffer); 
-                               if (event != null) {
-                                   if (drbdXML.parseDrbdEvent(host.getName(),
+                                       newDrbdXML.update(drbdConfig);
+                                       drbdXML = newDrbdXML;
+                                       lastDrbdConfig = drbdConfig;
+                                       drbdUpdate = true;
+                                       firstTime.countDown();
+                                   }
+                                   host.drbdStatusUnlock();
+                               } else if ("event".equals(frame.getType())) {
+                                   final String event =
+                                                 host.getFrameContent(frame);
+                                   if (event != null
+                                       && drbdXML.parseDrbdEvent(
+                                                              host.getName(),
                                                               drbdGraph,
                                                               event)) {
                                        host.setDrbdStatus(true);
                                        eventUpdate = true;
                                    }
                                }
-                           } while (event != null || drbdConfig != null);
-                           Tools.chomp(outputBuffer);
+                           }
                            if (drbdUpdate) {
                                getDrbdGraph().getDrbdInfo().setParameters();
                                updateDrbdResources();
                            }
                            if (eventUpdate) {
-                               drbdGraph.repaint();
+                               drbdGraph.repaintDirty();
                                Tools.debug(this, "drbd status update: "
                                              + host.getName(), 1);
                                clusterHostsInfo.updateTable(
@@ -1080,7 +1195,6 @@ public final class ClusterBrowser extends Browser {
                                        @Override
                                        public void run() {
                                            repaintSplitPane();
-                                           drbdGraph.updatePopupMenus();
                                            SwingUtilities.invokeLater(
                                                new Runnable() {
                                                    @Override
@@ -1172,13 +1286,14 @@ public final class ClusterBrowser extends Browser {
         final boolean oldStatus = host.isClStatus();
         host.setClStatus(status);
         if (oldStatus != status) {
+            crmGraph.markChangedDirty();
             nodeChanged(servicesNode);
         }
     }
 
     /** Process output from cluster. */
     void processClusterOutput(final String output,
-                              final StringBuffer clusterStatusOutput,
+                              final StatusFrameDecoder decoder,
                               final Host host,
                               final CountDownLatch firstTime,
                               final boolean testOnly) {
@@ -1195,73 +1310,106 @@ public final class ClusterBrowser extends Browser {
             firstTime.countDown();
         } else {
             // TODO: if we get ERROR:... show it somewhere
-            clusterStatusOutput.append(output);
-            /* removes the string from the output. */
-            int s = clusterStatusOutput.indexOf(RESET_STRING);
-            while (s >= 0) {
-                clusterStatusOutput.delete(s, s + RESET_STRING_LEN);
-                s = clusterStatusOutput.indexOf(RESET_STRING);
-            }
-            if (clusterStatusOutput.length() > 12) {
-                final String e = clusterStatusOutput.substring(
-                                           clusterStatusOutput.length() - 12);
-                if (e.trim().equals("---done---")) {
-                    final int i =
-                                clusterStatusOutput.lastIndexOf("---start---");
-                    if (i >= 0) {
-                        if (clusterStatusOutput.indexOf("is stopped") >= 0) {
-                            /* TODO: heartbeat's not running. */
-                        } else {
-                            final String status =
-                                              clusterStatusOutput.substring(i);
-                            clusterStatusOutput.delete(
-                                                 0,
-                                                 clusterStatusOutput.length());
-                            if (CLUSTER_STATUS_ERROR.equals(status)) {
-                                final boolean oldStatus = host.isClStatus();
-                                clStatus.setOnlineNode(host.getName(),
-                                                            "no");
-                                setClStatus(host, false);
-                                if (oldStatus) {
-                                   crmGraph.repaint();
-                                }
-                            } else {
-                                if (clStatus.parseStatus(status)) {
-                                    Tools.debug(this,
-                                                "update cluster status: "
-                                                + host.getName(), 1);
-                                    final ServicesInfo ssi = servicesInfo;
-                                    rscDefaultsInfo.setParameters(
-                                      clStatus.getRscDefaultsValuePairs());
-                                    ssi.setGlobalConfig(clStatus);
-                                    ssi.setAllResources(clStatus, testOnly);
-                                    if (firstTime.getCount() == 1) {
-                                        /* one more time so that id-refs work.*/
-                                        ssi.setAllResources(clStatus, testOnly);
-                                    }
-                                    repaintTree();
-                                    clusterHostsInfo.updateTable(
-                                                ClusterHostsInfo.MAIN_TABLE);
-                                }
-                                final String online =
-                                    clStatus.isOnlineNode(host.getName());
-                                if ("yes".equals(online)) {
-                                    setClStatus(host, true);
-                                    setClStatus();
-                                } else {
-                                    setClStatus(host, false);
-                                }
-                            }
-                        }
-                        firstTime.countDown();
+            for (final StatusFrameDecoder.Frame frame
+                                                : decoder.decode(output)) {
+                if (StatusFrameDecoder.UNCHANGED.equals(frame.getType())) {
+                    /* helper has the same status that we processed last
+                       time */
+                    final List<String> lastStatus =
+                                                 host.getLastClusterStatus();
+                    if (lastStatus != null) {
+                        processClusterStatus(lastStatus,
+                                             clStatus,
+                                             host,
+                                             firstTime,
+                                             testOnly);
                     }
+                    firstTime.countDown();
+                    continue;
+                }
+                if (!StatusFrameDecoder.CLUSTER.equals(frame.getType())) {
+                    continue;
                 }
+                final List<String> status = frame.getLines();
+                if (isClusterStatusStopped(status)) {
+                    /* TODO: heartbeat's not running. */
+                } else if (CLUSTER_STATUS_ERROR.equals(status.get(0).trim())) {
+                    final boolean oldStatus = host.isClStatus();
+                    clStatus.setOnlineNode(host.getName(), "no");
+                    setClStatus(host, false);
+                    host.setLastClusterStatus(null, null);
+                    if (oldStatus) {
+                       crmGraph.repaintDirty();
+                    }
+                } else {
+                    processClusterStatus(status,
+                                         clStatus,
+                                         host,
+                                         firstTime,
+                                         testOnly);
+                    host.setLastClusterStatus(frame.getHash(), status);
+                }
+                firstTime.countDown();
             }
-            Tools.chomp(clusterStatusOutput);
         }
         clStatusUnlock();
     }
 
+    /** Returns whether the cluster status says, that the cluster's stopped. */
+    private boolean isClusterStatusStopped(final List<String> status) {
+        for (final String line : status) {
+            if (line.indexOf("is stopped") >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Parses one complete cluster status and updates the gui. */
+    private void processClusterStatus(final List<String> status,
+                                      final ClusterStatus clStatus,
+                                      final Host host,
+                                      final CountDownLatch firstTime,
+                                      final boolean testOnly) {
+        if (clStatus.parseStatus(status)) {
+            Tools.debug(this, "update cluster status: " + host.getName(), 1);
+            updateClusterStatusInfos(clStatus,
+                                     firstTime.getCount() == 1,
+                                     testOnly);
+            final String text = staleStateText;
+            if (text != null) {
+                /* the live status replaced the last known state */
+                staleStateText = null;
+                Tools.stopProgressIndicator(getCluster().getName(), text);
+            }
+        }
+        final String online = clStatus.isOnlineNode(host.getName());
+        if ("yes".equals(online)) {
+            setClStatus(host, true);
+            setClStatus();
+        } else {
+            setClStatus(host, false);
+        }
+    }
+
+    /** Updates the services and the tables from the parsed status. */
+    private void updateClusterStatusInfos(final ClusterStatus clStatus,
+                                          final boolean firstTime,
+                                          final boolean testOnly) {
+        final ServicesInfo ssi = servicesInfo;
+        rscDefaultsInfo.setParameters(clStatus.getRscDefaultsValuePairs());
+        ssi.setGlobalConfig(clStatus);
+        ssi.setAllResources(clStatus, testOnly);
+        if (firstTime) {
+            /* one more time so that id-refs work.*/
+            ssi.setAllResources(clStatus, testOnly);
+        }
+        clStatus.updateSearchIndex(searchIndex);
+        updateSearch();
+        repaintTree();
+        clusterHostsInfo.updateTable(ClusterHostsInfo.MAIN_TABLE);
+    }
+
     /** Starts hb status. */
     void startClStatus() {
         final CountDownLatch firstTime = new CountDownLatch(1);
@@ -1340,13 +1488,12 @@ public final class ClusterBrowser extends Browser {
                  },
 
                  new NewOutputCallback() {
-                     //TODO: check this buffer's size
-                     private StringBuffer clusterStatusOutput =
-                                                        new StringBuffer(300);
+                     private final StatusFrameDecoder decoder =
+                                                    new StatusFrameDecoder();
                      @Override
                      public void output(final String output) {
                          processClusterOutput(output,
-                                              clusterStatusOutput,
+                                              decoder,
                                               host,
                                               firstTime,
                                               testOnly);
@@ -1451,12 +1598,23 @@ public final class ClusterBrowser extends Browser {
     public void updateVMS() {
         Tools.debug(this, "VM status update", 1);
         final Set<String> domainNames = new TreeSet<String>();
+        final Map<String, Set<String>> vmTerms =
+                                        new HashMap<String, Set<String>>();
         for (final Host host : getClusterHosts()) {
             final VMSXML vxml = getVMSXML(host);
             if (vxml != null) {
-                domainNames.addAll(vxml.getDomainNames());
+                for (final String name : vxml.getDomainNames()) {
+                    domainNames.add(name);
+                    Set<String> terms = vmTerms.get(name);
+                    if (terms == null) {
+                        terms = new HashSet<String>();
+                        vmTerms.put(name, terms);
+                    }
+                    terms.add(host.getName());
+                }
             }
         }
+        searchIndex.update(SearchIndex.VM, vmTerms);
         final List<DefaultMutableTreeNode> nodesToRemove =
                                     new ArrayList<DefaultMutableTreeNode>();
         boolean nodeChanged = false;
@@ -1550,6 +1708,7 @@ public final class ClusterBrowser extends Browser {
         if (vmsi != null) {
             vmsi.updateTable(VMSInfo.MAIN_TABLE);
         }
+        updateSearch();
     }
 
     /** Returns vmsinfo object. */
@@ -1568,6 +1727,7 @@ public final class ClusterBrowser extends Browser {
             drbdStatusUnlock();
             return;
         }
+        dxml.updateSearchIndex(searchIndex);
         for (final Object k : dxml.getResourceDeviceMap().keySet()) {
             final String resName = (String) ((MultiKey) k).getKey(0);
             final String volumeNr = (String) ((MultiKey) k).getKey(1);
@@ -1638,6 +1798,7 @@ public final class ClusterBrowser extends Browser {
         //TODO: it would remove it during drbd wizards
         //killRemovedVolumes(dxml.getResourceDeviceMap());
         drbdStatusUnlock();
+        updateSearch();
         if (atLeastOneAdded) {
             drbdInfo.getInfoPanel();
             Tools.invokeAndWait(new Runnable() {
@@ -2121,7 +2282,7 @@ public final class ClusterBrowser extends Browser {
 
     /** Returns whether drbddisk RA is preferred. */
     public boolean isDrbddiskPreferred() {
-        return Tools.versionBeforePacemaker(getDCHost());
+        return getDCHost().getCapabilities().isBeforePacemaker();
     }
 
     /**
@@ -2177,7 +2338,7 @@ public final class ClusterBrowser extends Browser {
             } else {
                 h = menuHost;
             }
-            if (Tools.versionBeforePacemaker(h)) {
+            if (h.getCapabilities().isBeforePacemaker()) {
                 return false;
             }
             return true;
@@ -2522,6 +2683,86 @@ public final class ClusterBrowser extends Browser {
         return null;
     }
 
+    /**
+     * Searches the resources, constraints, drbd resources and vms and
+     * highlights the matches in the tree and in the graphs. Empty query
+     * clears the search. Must be called from the swing thread.
+     */
+    public void search(final String query) {
+        if (query == null || query.trim().isEmpty()) {
+            searchQuery = null;
+            setSearchMatches(null);
+            crmGraph.setSearchMatches(null);
+            drbdGraph.setSearchMatches(null);
+            return;
+        }
+        searchQuery = query;
+        final Map<String, Set<String>> result = searchIndex.search(query);
+        final Set<Info> matches = new LinkedHashSet<Info>();
+        final Set<String> rscIds = result.get(SearchIndex.RESOURCE);
+        if (rscIds != null) {
+            mHeartbeatIdToServiceLock();
+            for (final String id : new TreeSet<String>(rscIds)) {
+                final ServiceInfo si = heartbeatIdToServiceInfo.get(id);
+                if (si != null) {
+                    matches.add(si);
+                }
+            }
+            mHeartbeatIdToServiceUnlock();
+        }
+        final Set<String> drbdRes = result.get(SearchIndex.DRBD);
+        if (drbdRes != null) {
+            final List<DrbdResourceInfo> dris =
+                                            new ArrayList<DrbdResourceInfo>();
+            final Map<String, DrbdResourceInfo> drh = getDrbdResHash();
+            for (final String res : new TreeSet<String>(drbdRes)) {
+                final DrbdResourceInfo dri = drh.get(res);
+                if (dri != null) {
+                    dris.add(dri);
+                }
+            }
+            putDrbdResHash();
+            for (final DrbdResourceInfo dri : dris) {
+                matches.add(dri);
+                for (final DrbdVolumeInfo dvi : dri.getDrbdVolumes()) {
+                    matches.add(dvi);
+                    matches.add(dvi.getFirstBlockDevInfo());
+                    matches.add(dvi.getSecondBlockDevInfo());
+                }
+            }
+        }
+        final Set<String> vms = result.get(SearchIndex.VM);
+        if (vms != null) {
+            for (final String name : new TreeSet<String>(vms)) {
+                final VMSVirtualDomainInfo vmsvdi =
+                                              findVMSVirtualDomainInfo(name);
+                if (vmsvdi != null) {
+                    matches.add(vmsvdi);
+                }
+            }
+        }
+        matches.remove(null);
+        setSearchMatches(matches);
+        crmGraph.setSearchMatches(matches);
+        drbdGraph.setSearchMatches(matches);
+    }
+
+    /** Repeats the last search after the index was updated. */
+    private void updateSearch() {
+        if (searchQuery == null) {
+            return;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                final String query = searchQuery;
+                if (query != null) {
+                    search(query);
+                }
+            }
+        });
+    }
+
     /** Returns map to ResourceAgentClassInfo. */
     public ResourceAgentClassInfo getClassInfoMap(final String cl) {
         return classInfoMap.get(cl);
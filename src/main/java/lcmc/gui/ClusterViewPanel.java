@@ -32,6 +32,9 @@ import lcmc.EditClusterDialog;
 import javax.swing.JPanel;
 import javax.swing.JComboBox;
 import javax.swing.JCheckBox;
+import javax.swing.JTextField;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
@@ -132,6 +135,33 @@ public final class ClusterViewPanel extends ViewPanel implements AllHostsUpdatab
         clusterButtonsPanel.add(disconnectButton);
         buttonPanel.add(clusterButtonsPanel);
 
+        /* search field */
+        final JPanel searchPanel = new JPanel();
+        searchPanel.setBackground(STATUS_BACKGROUND);
+        searchPanel.setBorder(Tools.getBorder(
+                                Tools.getString("ClusterViewPanel.Search")));
+        final JTextField searchField = new JTextField(15);
+        searchField.setToolTipText(
+                        Tools.getString("ClusterViewPanel.Search.ToolTip"));
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(final DocumentEvent e) {
+                cluster.getBrowser().search(searchField.getText());
+            }
+
+            @Override
+            public void removeUpdate(final DocumentEvent e) {
+                cluster.getBrowser().search(searchField.getText());
+            }
+
+            @Override
+            public void changedUpdate(final DocumentEvent e) {
+                /* attributes only */
+            }
+        });
+        searchPanel.add(searchField);
+        buttonPanel.add(searchPanel);
+
         /* advanced mode button */
         advancedModeCB = createAdvancedModeButton();
         /* Operating mode */
@@ -0,0 +1,264 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+package lcmc.gui;
+
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeNode;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tree model that remembers the children and labels of every node, that
+ * was shown in the tree, and on update fires only the nodesWereRemoved,
+ * nodesWereInserted and nodesChanged events for the nodes that are
+ * different from this snapshot, instead of the whole structure changed
+ * event, that collapses the tree. It must be used in the swing thread.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class DiffTreeModel extends DefaultTreeModel {
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+    /** Children of the nodes, as the tree knows them. */
+    private final Map<TreeNode, TreeNode[]> children =
+                                     new IdentityHashMap<TreeNode, TreeNode[]>();
+    /** Labels of the nodes, as the tree knows them. */
+    private final Map<TreeNode, String> labels =
+                                       new IdentityHashMap<TreeNode, String>();
+
+    /** Prepares a new <code>DiffTreeModel</code> object. */
+    public DiffTreeModel(final TreeNode root) {
+        super(root);
+        snapshot((TreeNode) getRoot());
+    }
+
+    /**
+     * Fires events for the differences in the subtree of the node, since
+     * the last update.
+     */
+    public void update(final TreeNode node) {
+        if (!children.containsKey(node)) {
+            /* the tree does not know about this node yet */
+            final TreeNode parent = node.getParent();
+            if (parent == null || node == getRoot()) {
+                nodeStructureChanged(node);
+            } else {
+                update(parent);
+            }
+            return;
+        }
+        updateLabel(node);
+        updateChildren(node);
+    }
+
+    /** Fires nodeChanged if the label of the node has changed. */
+    private void updateLabel(final TreeNode node) {
+        final String label = String.valueOf(node);
+        if (!label.equals(labels.get(node))) {
+            labels.put(node, label);
+            if (node.getParent() != null || node == getRoot()) {
+                nodeChanged(node);
+            }
+        }
+    }
+
+    /** Fires events for the changed children, and recurses into them. */
+    private void updateChildren(final TreeNode parent) {
+        final TreeNode[] old = children.get(parent);
+        final TreeNode[] now = getChildren(parent);
+        final Map<TreeNode, Integer> oldIndex =
+                                     new IdentityHashMap<TreeNode, Integer>();
+        for (int i = 0; i < old.length; i++) {
+            oldIndex.put(old[i], i);
+        }
+        /* children that are in both arrays and keep their relative order */
+        final Map<TreeNode, Boolean> kept = keptInOrder(now, oldIndex);
+
+        final List<Integer> removedIndices = new ArrayList<Integer>();
+        final List<TreeNode> removed = new ArrayList<TreeNode>();
+        final Map<TreeNode, Boolean> nowSet =
+                                     new IdentityHashMap<TreeNode, Boolean>();
+        for (final TreeNode n : now) {
+            nowSet.put(n, Boolean.TRUE);
+        }
+        for (int i = 0; i < old.length; i++) {
+            if (!kept.containsKey(old[i])) {
+                removedIndices.add(i);
+                removed.add(old[i]);
+                if (!nowSet.containsKey(old[i])) {
+                    forget(old[i]);
+                }
+            }
+        }
+        final List<Integer> insertedIndices = new ArrayList<Integer>();
+        for (int i = 0; i < now.length; i++) {
+            if (!kept.containsKey(now[i])) {
+                insertedIndices.add(i);
+                /* moved nodes are new for the tree, with their subtree */
+                snapshot(now[i]);
+            }
+        }
+        children.put(parent, now);
+        if (!removed.isEmpty()) {
+            nodesWereRemoved(parent,
+                             toArray(removedIndices),
+                             removed.toArray(new Object[removed.size()]));
+        }
+        if (!insertedIndices.isEmpty()) {
+            nodesWereInserted(parent, toArray(insertedIndices));
+        }
+        for (final TreeNode n : now) {
+            if (kept.containsKey(n)) {
+                updateLabel(n);
+                if (children.containsKey(n)) {
+                    updateChildren(n);
+                } else {
+                    /* moved here from other parent */
+                    nodeStructureChanged(n);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the longest sequence of the nodes, that are in the old and
+     * the new children and are in the same order.
+     */
+    private static Map<TreeNode, Boolean> keptInOrder(
+                                    final TreeNode[] now,
+                                    final Map<TreeNode, Integer> oldIndex) {
+        final List<Integer> positions = new ArrayList<Integer>();
+        final List<TreeNode> common = new ArrayList<TreeNode>();
+        for (final TreeNode n : now) {
+            final Integer i = oldIndex.get(n);
+            if (i != null) {
+                positions.add(i);
+                common.add(n);
+            }
+        }
+        /* longest increasing subsequence of the old positions */
+        final int size = positions.size();
+        final int[] tails = new int[size];
+        final int[] previous = new int[size];
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            final int p = positions.get(i);
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                final int mid = (lo + hi) >>> 1;
+                if (positions.get(tails[mid]) < p) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            previous[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == length) {
+                length++;
+            }
+        }
+        final Map<TreeNode, Boolean> kept =
+                                     new IdentityHashMap<TreeNode, Boolean>();
+        int i = length > 0 ? tails[length - 1] : -1;
+        while (i >= 0) {
+            kept.put(common.get(i), Boolean.TRUE);
+            i = previous[i];
+        }
+        return kept;
+    }
+
+    /** Remembers the subtree of the node as the tree knows it. */
+    private void snapshot(final TreeNode node) {
+        final TreeNode[] now = getChildren(node);
+        children.put(node, now);
+        labels.put(node, String.valueOf(node));
+        for (final TreeNode n : now) {
+            snapshot(n);
+        }
+    }
+
+    /** Forgets the subtree of the removed node. */
+    private void forget(final TreeNode node) {
+        final TreeNode[] old = children.remove(node);
+        labels.remove(node);
+        if (old != null) {
+            for (final TreeNode n : old) {
+                forget(n);
+            }
+        }
+    }
+
+    /** Returns the current children of the node. */
+    private static TreeNode[] getChildren(final TreeNode node) {
+        final TreeNode[] now = new TreeNode[node.getChildCount()];
+        for (int i = 0; i < now.length; i++) {
+            now[i] = node.getChildAt(i);
+        }
+        return now;
+    }
+
+    /** Converts list of indices to the int array. */
+    private static int[] toArray(final List<Integer> list) {
+        final int[] a = new int[list.size()];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = list.get(i);
+        }
+        return a;
+    }
+
+    /**
+     * The structure of the whole subtree has changed, the snapshot starts
+     * from scratch.
+     */
+    @Override
+    public void nodeStructureChanged(final TreeNode node) {
+        if (node != null) {
+            final TreeNode[] old = children.get(node);
+            if (old != null) {
+                for (final TreeNode n : old) {
+                    forget(n);
+                }
+            }
+            snapshot(node);
+        }
+        super.nodeStructureChanged(node);
+    }
+
+    /** Sets the new root and starts the snapshot from scratch. */
+    @Override
+    public void setRoot(final TreeNode root) {
+        children.clear();
+        labels.clear();
+        if (root != null) {
+            snapshot(root);
+        }
+        super.setRoot(root);
+    }
+}
@@ -218,7 +218,6 @@ public final class DrbdGraph extends ResourceGraph {
                     });
                     removeInfo(bdv);
                     removeVertex(bdi);
-                    getVertexToMenus().remove(bdv);
                     bdiToVertexMap.remove(bdi);
                     blockDeviceToVertexMap.remove(bdi.getBlockDevice());
                     vertexToHostMap.remove(bdv);
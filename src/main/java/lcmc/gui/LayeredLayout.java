@@ -0,0 +1,432 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.gui;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Layered (Sugiyama style) layout of a directed graph. The vertices are
+ * assigned to layers by the longest path from the sources, the vertices in
+ * every layer are ordered by the barycenter of their neighbours, to reduce
+ * the edge crossings, and then they get the coordinates.
+ *
+ * The layout can be incremental. Only the weakly connected components that
+ * contain one of the affected vertices are laid out again, the other vertices
+ * keep their positions. This object does not access any Swing objects and
+ * can be used outside of the swing thread. It is not thread safe.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+final class LayeredLayout<V> {
+    /** Number of the barycenter sweeps, down and up. */
+    private static final int SWEEPS = 4;
+    /** Vertical distance between two layers. */
+    private final int layerStep;
+    /** Horizontal gap between two vertices in the same layer. */
+    private final int gapX;
+    /** Map from vertex to its insertion index. */
+    private final Map<V, Integer> vertices = new HashMap<V, Integer>();
+    /** Map from vertex to its successors. */
+    private final Map<V, List<V>> successors = new HashMap<V, List<V>>();
+    /** Map from vertex to its predecessors. */
+    private final Map<V, List<V>> predecessors = new HashMap<V, List<V>>();
+    /** Map from vertex to its width. */
+    private final Map<V, Integer> widths = new HashMap<V, Integer>();
+    /** Map from vertex to its current position, if it has one. */
+    private final Map<V, Point2D> positions = new HashMap<V, Point2D>();
+
+    /** Prepares a new <code>LayeredLayout</code> object. */
+    LayeredLayout(final int layerStep, final int gapX) {
+        this.layerStep = layerStep;
+        this.gapX = gapX;
+    }
+
+    /**
+     * Adds a vertex with its width and current position. The position is
+     * null for vertices that were not placed yet.
+     */
+    void addVertex(final V v, final int width, final Point2D pos) {
+        if (!vertices.containsKey(v)) {
+            vertices.put(v, vertices.size());
+        }
+        widths.put(v, width);
+        if (pos != null) {
+            positions.put(v, pos);
+        }
+    }
+
+    /**
+     * Adds a vertex, that is not moved by the layout, but other vertices
+     * should not overlap with it.
+     */
+    void addFixedVertex(final V v, final int width, final Point2D pos) {
+        widths.put(v, width);
+        positions.put(v, pos);
+    }
+
+    /** Adds a directed edge. Both vertices must be added already. */
+    void addEdge(final V from, final V to) {
+        if (from == to
+            || !vertices.containsKey(from)
+            || !vertices.containsKey(to)) {
+            return;
+        }
+        getList(successors, from).add(to);
+        getList(predecessors, to).add(from);
+    }
+
+    /**
+     * Lays out the components that contain affected vertices and returns new
+     * positions (center of the vertex) of the vertices, that have moved.
+     * Components that were not placed at all are placed under the lowest
+     * vertex, but not higher than minY.
+     */
+    Map<V, Point2D> layout(final Collection<V> affected,
+                           final double minX,
+                           final double minY) {
+        final Map<V, Point2D> result = new LinkedHashMap<V, Point2D>();
+        final Set<V> done = new HashSet<V>();
+        double bottom = minY;
+        for (final Point2D p : positions.values()) {
+            if (p.getY() + layerStep > bottom) {
+                bottom = p.getY() + layerStep;
+            }
+        }
+        for (final V a : affected) {
+            if (!vertices.containsKey(a) || done.contains(a)) {
+                continue;
+            }
+            final List<V> component = getComponent(a);
+            done.addAll(component);
+            /* anchor the component, where it was before */
+            double anchorX = Double.MAX_VALUE;
+            double anchorY = Double.MAX_VALUE;
+            for (final V v : component) {
+                final Point2D p = positions.get(v);
+                if (p != null) {
+                    final double left = p.getX() - widths.get(v) / 2;
+                    if (left < anchorX) {
+                        anchorX = left;
+                    }
+                    if (p.getY() < anchorY) {
+                        anchorY = p.getY();
+                    }
+                }
+            }
+            if (anchorY == Double.MAX_VALUE) {
+                anchorX = minX;
+                anchorY = bottom;
+            }
+            final List<List<V>> layers = orderLayers(component);
+            Map<V, Point2D> placed = place(layers, anchorX, anchorY);
+            if (overlaps(placed, new HashSet<V>(component))) {
+                /* it grew into other vertices, move it under them */
+                placed = place(layers, minX, bottom);
+            }
+            for (final Map.Entry<V, Point2D> entry : placed.entrySet()) {
+                final V v = entry.getKey();
+                final Point2D newPos = entry.getValue();
+                final Point2D oldPos = positions.get(v);
+                if (oldPos == null || !oldPos.equals(newPos)) {
+                    result.put(v, newPos);
+                    positions.put(v, newPos);
+                }
+                if (newPos.getY() + layerStep > bottom) {
+                    bottom = newPos.getY() + layerStep;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Returns positions of the vertices in the layers. */
+    private Map<V, Point2D> place(final List<List<V>> layers,
+                                  final double anchorX,
+                                  final double anchorY) {
+        final Map<V, Point2D> placed = new LinkedHashMap<V, Point2D>();
+        double y = anchorY;
+        for (final List<V> layer : layers) {
+            double x = anchorX;
+            for (final V v : layer) {
+                final int w = widths.get(v);
+                placed.put(v, new Point2D.Double(x + w / 2, y));
+                x += w + gapX;
+            }
+            y += layerStep;
+        }
+        return placed;
+    }
+
+    /**
+     * Returns whether the placed vertices overlap with the vertices that
+     * are not in the specified set.
+     */
+    private boolean overlaps(final Map<V, Point2D> placed,
+                             final Set<V> own) {
+        for (final Map.Entry<V, Point2D> entry : placed.entrySet()) {
+            final Point2D p = entry.getValue();
+            final int w = widths.get(entry.getKey());
+            for (final Map.Entry<V, Point2D> other : positions.entrySet()) {
+                if (own.contains(other.getKey())) {
+                    continue;
+                }
+                final Point2D o = other.getValue();
+                final int ow = widths.get(other.getKey());
+                if (Math.abs(p.getY() - o.getY()) < layerStep
+                    && Math.abs(p.getX() - o.getX()) < (w + ow) / 2 + gapX) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Returns weakly connected component of the vertex. */
+    private List<V> getComponent(final V start) {
+        final List<V> component = new ArrayList<V>();
+        final Set<V> seen = new HashSet<V>();
+        final List<V> stack = new ArrayList<V>();
+        stack.add(start);
+        seen.add(start);
+        while (!stack.isEmpty()) {
+            final V v = stack.remove(stack.size() - 1);
+            component.add(v);
+            addUnseen(successors.get(v), seen, stack);
+            addUnseen(predecessors.get(v), seen, stack);
+        }
+        /* keep the insertion order */
+        Collections.sort(component, new Comparator<V>() {
+            @Override
+            public int compare(final V v1, final V v2) {
+                return vertices.get(v1) - vertices.get(v2);
+            }
+        });
+        return component;
+    }
+
+    /** Adds the vertices, that were not seen yet, to the stack. */
+    private void addUnseen(final List<V> ns,
+                           final Set<V> seen,
+                           final List<V> stack) {
+        if (ns == null) {
+            return;
+        }
+        for (final V n : ns) {
+            if (seen.add(n)) {
+                stack.add(n);
+            }
+        }
+    }
+
+    /**
+     * Assigns the vertices of the component to the layers and orders every
+     * layer.
+     */
+    private List<List<V>> orderLayers(final List<V> component) {
+        final Map<V, Integer> layerOf = assignLayers(component);
+        final List<List<V>> layers = new ArrayList<List<V>>();
+        for (final V v : component) {
+            final int l = layerOf.get(v);
+            while (layers.size() <= l) {
+                layers.add(new ArrayList<V>());
+            }
+            layers.get(l).add(v);
+        }
+        /* initial order from the current positions, new vertices last */
+        for (final List<V> layer : layers) {
+            Collections.sort(layer, new Comparator<V>() {
+                @Override
+                public int compare(final V v1, final V v2) {
+                    final Point2D p1 = positions.get(v1);
+                    final Point2D p2 = positions.get(v2);
+                    if (p1 == null || p2 == null) {
+                        return (p1 == null ? 1 : 0) - (p2 == null ? 1 : 0);
+                    }
+                    return Double.compare(p1.getX(), p2.getX());
+                }
+            });
+        }
+        final Map<V, Integer> index = new HashMap<V, Integer>();
+        updateIndex(layers, index);
+        for (int s = 0; s < SWEEPS; s++) {
+            if (s % 2 == 0) {
+                for (int l = 1; l < layers.size(); l++) {
+                    sortByBarycenter(layers.get(l), predecessors, index);
+                    updateIndex(layers, index);
+                }
+            } else {
+                for (int l = layers.size() - 2; l >= 0; l--) {
+                    sortByBarycenter(layers.get(l), successors, index);
+                    updateIndex(layers, index);
+                }
+            }
+        }
+        return layers;
+    }
+
+    /**
+     * Returns layer for every vertex, that is the longest path from a source.
+     * Edges that close a cycle are ignored.
+     */
+    private Map<V, Integer> assignLayers(final List<V> component) {
+        final Set<V> inComponent = new HashSet<V>(component);
+        /* cycle breaking: edges to vertices on the dfs stack are ignored */
+        final Map<V, List<V>> dag = new HashMap<V, List<V>>();
+        final Map<V, Integer> inDegree = new HashMap<V, Integer>();
+        for (final V v : component) {
+            inDegree.put(v, 0);
+        }
+        final Set<V> visited = new HashSet<V>();
+        final Set<V> onStack = new HashSet<V>();
+        for (final V root : component) {
+            if (visited.contains(root)) {
+                continue;
+            }
+            final List<V> stack = new ArrayList<V>();
+            final List<Integer> next = new ArrayList<Integer>();
+            stack.add(root);
+            next.add(0);
+            visited.add(root);
+            onStack.add(root);
+            while (!stack.isEmpty()) {
+                final int top = stack.size() - 1;
+                final V v = stack.get(top);
+                final List<V> succ = successors.get(v);
+                final int i = next.get(top);
+                if (succ == null || i >= succ.size()) {
+                    onStack.remove(v);
+                    stack.remove(top);
+                    next.remove(top);
+                    continue;
+                }
+                next.set(top, i + 1);
+                final V w = succ.get(i);
+                if (!inComponent.contains(w) || onStack.contains(w)) {
+                    continue;
+                }
+                getList(dag, v).add(w);
+                inDegree.put(w, inDegree.get(w) + 1);
+                if (visited.add(w)) {
+                    onStack.add(w);
+                    stack.add(w);
+                    next.add(0);
+                }
+            }
+        }
+        /* longest path layering in topological order */
+        final Map<V, Integer> layerOf = new HashMap<V, Integer>();
+        final List<V> queue = new ArrayList<V>();
+        for (final V v : component) {
+            layerOf.put(v, 0);
+            if (inDegree.get(v) == 0) {
+                queue.add(v);
+            }
+        }
+        for (int q = 0; q < queue.size(); q++) {
+            final V v = queue.get(q);
+            final List<V> succ = dag.get(v);
+            if (succ == null) {
+                continue;
+            }
+            for (final V w : succ) {
+                if (layerOf.get(v) + 1 > layerOf.get(w)) {
+                    layerOf.put(w, layerOf.get(v) + 1);
+                }
+                final int d = inDegree.get(w) - 1;
+                inDegree.put(w, d);
+                if (d == 0) {
+                    queue.add(w);
+                }
+            }
+        }
+        return layerOf;
+    }
+
+    /**
+     * Sorts the layer by the barycenter of the neighbours in the adjacent
+     * layer. Vertices without neighbours keep their index.
+     */
+    private void sortByBarycenter(final List<V> layer,
+                                  final Map<V, List<V>> neighbours,
+                                  final Map<V, Integer> index) {
+        final Map<V, Double> barycenter = new HashMap<V, Double>();
+        for (final V v : layer) {
+            final List<V> ns = neighbours.get(v);
+            double sum = 0;
+            int count = 0;
+            if (ns != null) {
+                for (final V n : ns) {
+                    final Integer i = index.get(n);
+                    if (i != null) {
+                        sum += i;
+                        count++;
+                    }
+                }
+            }
+            if (count == 0) {
+                barycenter.put(v, (double) index.get(v));
+            } else {
+                barycenter.put(v, sum / count);
+            }
+        }
+        Collections.sort(layer, new Comparator<V>() {
+            @Override
+            public int compare(final V v1, final V v2) {
+                return Double.compare(barycenter.get(v1), barycenter.get(v2));
+            }
+        });
+    }
+
+    /** Updates the index of every vertex in its layer. */
+    private void updateIndex(final List<List<V>> layers,
+                             final Map<V, Integer> index) {
+        for (final List<V> layer : layers) {
+            int i = 0;
+            for (final V v : layer) {
+                index.put(v, i);
+                i++;
+            }
+        }
+    }
+
+    /** Returns the list for the key, creates it if it does not exist. */
+    private List<V> getList(final Map<V, List<V>> map, final V key) {
+        List<V> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<V>();
+            map.put(key, list);
+        }
+        return list;
+    }
+}
@@ -29,6 +29,7 @@ import lcmc.data.AccessMode;
 import lcmc.AddHostDialog;
 import lcmc.AddClusterDialog;
 import lcmc.gui.dialog.About;
+import lcmc.gui.dialog.host.AddHosts;
 
 import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
@@ -93,6 +94,15 @@ public final class MainMenu extends JPanel implements ActionListener {
                                                HOST_ICON);
         Tools.getGUIData().registerAddHostButton(hostItem);
 
+        final JMenuItem hostsItem = addMenuItem(
+                                            Tools.getString("MainMenu.Hosts"),
+                                            menuNew,
+                                            0,
+                                            0,
+                                            newHostsActionListener(),
+                                            HOST_ICON);
+        Tools.getGUIData().registerAddHostButton(hostsItem);
+
         final JMenuItem cmi = addMenuItem(Tools.getString("MainMenu.Cluster"),
                                           menuNew,
                                           0,
@@ -255,6 +265,28 @@ public final class MainMenu extends JPanel implements ActionListener {
         };
     }
 
+    /** Add many new hosts action listener. */
+    private ActionListener newHostsActionListener() {
+        return new ActionListener() {
+             @Override
+             public void actionPerformed(final ActionEvent e) {
+                 if (turnOff) {
+                     return;
+                 }
+                 final Thread t = new Thread(new Runnable() {
+                     @Override
+                     public void run() {
+                         Tools.getGUIData().enableAddHostButtons(false);
+                         final AddHosts h = new AddHosts();
+                         h.showDialog();
+                         Tools.getGUIData().enableAddHostButtons(true);
+                     }
+                 });
+                 t.start();
+             }
+        };
+    }
+
     /** Load from file action listener. */
     private ActionListener loadActionListener() {
         return new ActionListener() {
@@ -24,7 +24,6 @@ package lcmc.gui;
 
 import lcmc.utilities.Tools;
 import lcmc.gui.resources.Info;
-import lcmc.utilities.MyMenuItem;
 import lcmc.data.Host;
 import lcmc.data.Subtext;
 
@@ -44,6 +43,11 @@ import edu.uci.ics.jung.visualization.picking.PickedState;
 import edu.uci.ics.jung.visualization.control.GraphMouseListener;
 
 import edu.uci.ics.jung.visualization.renderers.BasicVertexRenderer;
+import edu.uci.ics.jung.visualization.renderers.BasicRenderer;
+import edu.uci.ics.jung.visualization.transform.shape.GraphicsDecorator;
+import edu.uci.ics.jung.visualization.MultiLayerTransformer;
+import edu.uci.ics.jung.visualization.transform.MutableTransformer;
+import edu.uci.ics.jung.algorithms.layout.Layout;
 import edu.uci.ics.jung.visualization.VisualizationViewer;
 import edu.uci.ics.jung.visualization.VisualizationServer;
 import edu.uci.ics.jung.visualization.picking.ShapePickSupport;
@@ -65,17 +69,26 @@ import java.awt.Shape;
 import java.awt.Color;
 import java.awt.geom.Point2D;
 import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
 import java.awt.geom.Rectangle2D;
+import java.awt.Rectangle;
+import java.util.ConcurrentModificationException;
 import java.awt.GradientPaint;
 import java.awt.event.MouseWheelListener;
 import java.awt.event.MouseWheelEvent;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Set;
+import java.util.LinkedHashSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ConcurrentHashMap;
 import java.awt.Dimension;
 
 import javax.swing.JPanel;
@@ -115,6 +128,9 @@ public abstract class ResourceGraph {
     /** Pluggable renderer. */
     private final MyPluggableRenderer<Vertex, Edge> pr =
                                       new MyPluggableRenderer<Vertex, Edge>();
+    /** Graph renderer that draws only the visible part of the graph. */
+    private final MyRenderer<Vertex, Edge> renderer =
+                                               new MyRenderer<Vertex, Edge>();
     /** Vertex to resource info object map. */
     private final Map<Vertex, Info> vertexToInfoMap =
                                         new LinkedHashMap<Vertex, Info>();
@@ -124,12 +140,6 @@ public abstract class ResourceGraph {
     /** Edge to popup menu map. */
     private final Map<Edge, JPopupMenu> edgeToPopupMap =
                                          new LinkedHashMap<Edge, JPopupMenu>();
-    /** Vertex to menus map. */
-    private final Map<Vertex, List<MyMenuItem>> vertexToMenus =
-                                new LinkedHashMap<Vertex, List<MyMenuItem>>();
-    /** Edge to menus map. */
-    private final Map<Edge, List<MyMenuItem>> edgeToMenus =
-                                new LinkedHashMap<Edge, List<MyMenuItem>>();
     /** Empty shape for arrows. (to not show an arrow). */
     private static final Area EMPTY_SHAPE = new Area();
     /** Graph lock. */
@@ -158,10 +168,20 @@ public abstract class ResourceGraph {
                                                    new ArrayList<JComponent>();
     /** This mutex is for protecting the test animation list. */
     private final Lock mTestAnimationListLock = new ReentrantLock();
-    /** Animation thread. */
-    private volatile Thread animationThread = null;
-    /** This mutex is for protecting the animation thread. */
-    private final Lock mAnimationThreadLock = new ReentrantLock();
+    /** Whether the animation is registered in the animation clock.
+     * Protected by the animation list lock. */
+    private boolean animationRunning = false;
+    /** Screen area of the animated vertices from the last tick. Accessed
+     * only in the swing thread. */
+    private Rectangle lastAnimationBounds = null;
+    /** Animation of the vertices that are being updated. */
+    private final AnimationClock.Animation animation =
+                                        new AnimationClock.Animation() {
+        @Override
+        public void tick() {
+            animationTick();
+        }
+    };
     /** Map from vertex to its width. */
     private final Map<Vertex, Integer> vertexWidth =
                                                new HashMap<Vertex, Integer>();
@@ -175,18 +195,31 @@ public abstract class ResourceGraph {
     private volatile boolean testOnlyFlag = false;
     /** This mutex is for protecting the testOnlyFlag. */
     private final Lock mTestOnlyFlag = new ReentrantLock();
-    /** Test animation thread. */
-    private volatile Thread testAnimationThread = null;
-    /** This mutex is for protecting the test animation thread. */
-    private final Lock mTestAnimationThreadLock = new ReentrantLock();
+    /** Whether the test animation is registered in the animation clock.
+     * Protected by the test animation list lock. */
+    private boolean testAnimationRunning = false;
+    /** Test animation starts, after this latch is released. */
+    private volatile CountDownLatch testAnimationLatch = null;
+    /** When the test only flag flips next time. Accessed only in the swing
+     * thread. */
+    private long nextTestFlip = 0;
+    /** The test only flag that was painted last time. Accessed only in the
+     * swing thread. */
+    private boolean lastTestOnlyFlag = false;
+    /** Animation that switches between the test and the real view. */
+    private final AnimationClock.Animation testAnimation =
+                                        new AnimationClock.Animation() {
+        @Override
+        public void tick() {
+            testAnimationTick();
+        }
+    };
     /** List of edges that are made only during test. */
     private volatile Edge testEdge = null;
     /** List of edges that are being tested during test. */
     private volatile Edge existingTestEdge = null;
     /** Lock for test edge list. */
     private final Lock mTestEdgeLock = new ReentrantLock();
-    private final int animInterval =
-                             (int) (1000 / Tools.getConfigData().getAnimFPS());
     /** Singleton instance of the Line2D edge shape. */
     private static final Line2D INSTANCE =
                                     new Line2D.Float(0.0f, 0.0f, 1.0f, 0.0f);
@@ -198,9 +231,35 @@ public abstract class ResourceGraph {
     /** Edge picked paint. */
     private static final Paint EDGE_PICKED_PAINT =
                 (Paint) Tools.getDefaultColor("ResourceGraph.EdgePickedPaint");
-    /** Cache for text layouts. */
-    final private Map<String, TextLayout> textLayoutCache =
-                                            new HashMap<String, TextLayout>();
+    /** Border of the vertices that match the search. */
+    private static final Paint SEARCH_MATCH_PAINT =
+                (Paint) Tools.getDefaultColor("ResourceGraph.SearchMatch");
+    /** Fill of the vertices that don't match the search. */
+    private static final Paint SEARCH_NO_MATCH_PAINT =
+                (Paint) Tools.getDefaultColor("ResourceGraph.SearchNoMatch");
+    /** Maximum number of text layouts that are kept in the cache. */
+    private static final int TEXT_LAYOUT_CACHE_SIZE = 2000;
+    /** LRU cache for text layouts. Accessed only in the paint thread. */
+    private final Map<String, TextLayout> textLayoutCache =
+        new LinkedHashMap<String, TextLayout>(TEXT_LAYOUT_CACHE_SIZE / 4,
+                                              0.75f,
+                                              true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                                final Map.Entry<String, TextLayout> eldest) {
+                return size() > TEXT_LAYOUT_CACHE_SIZE;
+            }
+        };
+    /**
+     * Map from vertex to its render model. Vertices that are not in this map
+     * are dirty and their render model will be recomputed on the next paint.
+     */
+    private final Map<Vertex, VertexRenderModel> renderModels =
+                    new ConcurrentHashMap<Vertex, VertexRenderModel>();
+    /** Infos that match the search, null if nothing is searched. */
+    private volatile Set<Info> searchMatches = null;
 
     static {
         final float d = 0.05f;
@@ -212,6 +271,33 @@ public abstract class ResourceGraph {
     }
     /** How much was it scaled so far. */
     private double scaledSoFar = 1.0;
+    /** Below this scale the graph is drawn without texts, icons and arrows.
+     */
+    private static final double LOD_SCALE = 0.5;
+    /** How far outside of the visible area the vertices and edges are still
+     * drawn, so that the arrows and labels are not cut off. */
+    private static final int CULLING_MARGIN = 50;
+    /** Vertical distance between two layers of the automatic layout. */
+    private static final int LAYOUT_LAYER_STEP = 80;
+    /** Horizontal gap between two vertices of the automatic layout. */
+    private static final int LAYOUT_GAP_X = 30;
+    /** Left border of the automatic layout. */
+    private static final int LAYOUT_MIN_X = 15;
+    /** Top border of the automatic layout. */
+    private static final int LAYOUT_MIN_Y = 20;
+    /**
+     * Vertices that are placed by the automatic layout, with the flag
+     * whether they were placed already. Vertices that have saved position or
+     * were moved by the user are not here.
+     */
+    private final Map<Vertex, Boolean> autoLayoutVertices =
+                                new ConcurrentHashMap<Vertex, Boolean>();
+    /** Vertices whose components should be laid out. */
+    private final Set<Vertex> layoutRequests = new LinkedHashSet<Vertex>();
+    /** This mutex is for protecting the layout requests and thread. */
+    private final Lock mLayoutLock = new ReentrantLock();
+    /** Layout thread. */
+    private Thread layoutThread = null;
 
     /** Prepares a new <code>ResourceGraph</code> object. */
     ResourceGraph(final ClusterBrowser clusterBrowser) {
@@ -222,43 +308,16 @@ public abstract class ResourceGraph {
     /** Starts the animation if vertex is being updated. */
     public final void startAnimation(final Info info) {
         mAnimationListLock.lock();
-        if (animationList.isEmpty()) {
-            /* start animation thread */
-            mAnimationThreadLock.lock();
-            if (animationThread == null) {
-                animationThread = new Thread(new Runnable() {
-                    @Override
-                    public void run() {
-                        while (true) {
-                            try {
-                                Thread.sleep(animInterval);
-                            } catch (InterruptedException ex) {
-                                Thread.currentThread().interrupt();
-                            }
-
-                            mAnimationListLock.lock();
-                            if (animationList.isEmpty()) {
-                                mAnimationListLock.unlock();
-                                repaint();
-                                mAnimationThreadLock.lock();
-                                animationThread = null;
-                                mAnimationThreadLock.unlock();
-                                break;
-                            }
-                            for (final Info info : animationList) {
-                                info.incAnimationIndex();
-                            }
-                            mAnimationListLock.unlock();
-                            repaint();
-                        }
-                    }
-                });
-                animationThread.start();
+        try {
+            animationList.add(info);
+            if (!animationRunning) {
+                animationRunning = true;
+                AnimationClock.register(animation);
             }
-            mAnimationThreadLock.unlock();
+        } finally {
+            mAnimationListLock.unlock();
         }
-        animationList.add(info);
-        mAnimationListLock.unlock();
+        markDirty(info);
     }
 
     /** Stops the animation. */
@@ -269,78 +328,178 @@ public abstract class ResourceGraph {
         } finally {
             mAnimationListLock.unlock();
         }
+        markDirty(info);
+    }
+
+    /**
+     * Moves the animation of the updated vertices one step further and
+     * repaints only their area. The animation is paused, while the graph is
+     * not showing.
+     */
+    private void animationTick() {
+        final List<Info> infos;
+        mAnimationListLock.lock();
+        try {
+            if (animationList.isEmpty() || !vv.isShowing()) {
+                animationRunning = false;
+                AnimationClock.unregister(animation);
+                infos = null;
+            } else {
+                for (final Info info : animationList) {
+                    info.incAnimationIndex();
+                }
+                infos = new ArrayList<Info>(animationList);
+            }
+        } finally {
+            mAnimationListLock.unlock();
+        }
+        Rectangle bounds = null;
+        if (infos != null) {
+            for (final Info info : infos) {
+                final Vertex v = getVertex(info);
+                if (v == null) {
+                    continue;
+                }
+                final Rectangle b = getVertexScreenBounds(v);
+                if (b == null) {
+                    continue;
+                }
+                if (bounds == null) {
+                    bounds = b;
+                } else {
+                    bounds.add(b);
+                }
+            }
+        }
+        /* repaint also the last area, to remove the stopped animations */
+        Rectangle repaintBounds = lastAnimationBounds;
+        if (repaintBounds == null) {
+            repaintBounds = bounds;
+        } else if (bounds != null) {
+            repaintBounds = repaintBounds.union(bounds);
+        }
+        lastAnimationBounds = bounds;
+        if (repaintBounds != null) {
+            vv.repaint(repaintBounds);
+        }
+    }
+
+    /** Resumes the animation, after the graph is showing again. */
+    private void resumeAnimation() {
+        mAnimationListLock.lock();
+        try {
+            if (!animationList.isEmpty() && !animationRunning) {
+                animationRunning = true;
+                AnimationClock.register(animation);
+            }
+        } finally {
+            mAnimationListLock.unlock();
+        }
+    }
+
+    /** Returns area of the vertex on the screen or null. */
+    private Rectangle getVertexScreenBounds(final Vertex v) {
+        final Point2D pos = layout.transform(v);
+        if (pos == null) {
+            return null;
+        }
+        final MultiLayerTransformer mlt =
+                                vv.getRenderContext().getMultiLayerTransformer();
+        final Point2D p = mlt.transform(Layer.LAYOUT, pos);
+        final double w = getVertexWidth(v);
+        final double h = getVertexHeight(v);
+        final Rectangle bounds = mlt.transform(
+                         Layer.VIEW,
+                         new Rectangle2D.Double(p.getX() - w / 2,
+                                                p.getY() - h / 2,
+                                                w,
+                                                h)).getBounds();
+        bounds.grow(2, 2);
+        return bounds;
     }
 
     /** Starts the animation if vertex is being tested. */
     public final void startTestAnimation(final JComponent component,
                                          final CountDownLatch startTestLatch) {
         mTestAnimationListLock.lock();
-        mTestOnlyFlag.lock();
-        testOnlyFlag = false;
-        mTestOnlyFlag.unlock();
-        SwingUtilities.invokeLater(new Runnable() {
-            public void run() {
-                Tools.setMenuOpaque(component, false);
-            }
-        });
-        if (testAnimationList.isEmpty()) {
-            mTestAnimationThreadLock.lock();
-            if (testAnimationThread == null) {
-                /* start test animation thread */
-                testAnimationThread = new Thread(new Runnable() {
-                    @Override
+        try {
+            mTestOnlyFlag.lock();
+            testOnlyFlag = false;
+            mTestOnlyFlag.unlock();
+            SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    Tools.setMenuOpaque(component, false);
+                }
+            });
+            testAnimationList.add(component);
+            if (!testAnimationRunning) {
+                testAnimationRunning = true;
+                testAnimationLatch = startTestLatch;
+                SwingUtilities.invokeLater(new Runnable() {
                     public void run() {
-                        FOREVER: while (true) {
-                            try {
-                                startTestLatch.await();
-                            } catch (InterruptedException ignored) {
-                                Thread.currentThread().interrupt();
-                            }
-                            mTestOnlyFlag.lock();
-                            testOnlyFlag = !testOnlyFlag;
-                            final boolean testOnlyFlagLast = testOnlyFlag;
-                            mTestOnlyFlag.unlock();
-                            repaint();
-                            int sleep = 300;
-                            if (testOnlyFlag) {
-                                sleep = 1200;
-                            }
-                            for (int s = 0; s < sleep; s += animInterval) {
-                                mTestOnlyFlag.lock();
-                                if (testOnlyFlag == testOnlyFlagLast) {
-                                    mTestOnlyFlag.unlock();
-                                } else {
-                                    mTestOnlyFlag.unlock();
-                                    repaint();
-                                }
-                                if (!component.isShowing()) {
-                                    stopTestAnimation(component);
-                                }
-                                mTestAnimationListLock.lock();
-
-                                if (testAnimationList.isEmpty()) {
-                                    mTestAnimationListLock.unlock();
-                                    mTestOnlyFlag.lock();
-                                    testOnlyFlag = false;
-                                    mTestOnlyFlag.unlock();
-                                    repaint();
-                                    mTestAnimationThreadLock.lock();
-                                    testAnimationThread = null;
-                                    mTestAnimationThreadLock.unlock();
-                                    break FOREVER;
-                                }
-                                mTestAnimationListLock.unlock();
-                                Tools.sleep(animInterval);
-                            }
-                        }
+                        nextTestFlip = 0;
                     }
                 });
-                testAnimationThread.start();
+                AnimationClock.register(testAnimation);
             }
-            mTestAnimationThreadLock.unlock();
+        } finally {
+            mTestAnimationListLock.unlock();
+        }
+    }
+
+    /**
+     * Switches between the test and the real view, after the test latch was
+     * released. It stops, when no component, that started the test, is
+     * showing.
+     */
+    private void testAnimationTick() {
+        final List<JComponent> components;
+        mTestAnimationListLock.lock();
+        try {
+            components = new ArrayList<JComponent>(testAnimationList);
+        } finally {
+            mTestAnimationListLock.unlock();
+        }
+        for (final JComponent component : components) {
+            if (!component.isShowing()) {
+                stopTestAnimation(component);
+            }
+        }
+        mTestAnimationListLock.lock();
+        try {
+            if (testAnimationList.isEmpty()) {
+                testAnimationRunning = false;
+                AnimationClock.unregister(testAnimation);
+                mTestOnlyFlag.lock();
+                testOnlyFlag = false;
+                mTestOnlyFlag.unlock();
+                lastTestOnlyFlag = false;
+                repaint();
+                return;
+            }
+        } finally {
+            mTestAnimationListLock.unlock();
+        }
+        final CountDownLatch latch = testAnimationLatch;
+        if (latch != null && latch.getCount() > 0) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        if (now >= nextTestFlip) {
+            mTestOnlyFlag.lock();
+            testOnlyFlag = !testOnlyFlag;
+            lastTestOnlyFlag = testOnlyFlag;
+            mTestOnlyFlag.unlock();
+            if (lastTestOnlyFlag) {
+                nextTestFlip = now + 1200;
+            } else {
+                nextTestFlip = now + 300;
+            }
+            repaint();
+        } else if (isTestOnly() != lastTestOnlyFlag) {
+            lastTestOnlyFlag = !lastTestOnlyFlag;
+            repaint();
         }
-        testAnimationList.add(component);
-        mTestAnimationListLock.unlock();
     }
 
     /** Stops the test animation. */
@@ -401,6 +560,15 @@ public abstract class ResourceGraph {
             }
         };
         vv = new VisualizationViewer<Vertex, Edge>(layout);
+        vv.addHierarchyListener(new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(final HierarchyEvent e) {
+                if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0
+                    && vv.isShowing()) {
+                    resumeAnimation();
+                }
+            }
+        });
         vv.getRenderContext().setEdgeArrowTransformer(
                                      new MyEdgeArrowFunction<Vertex, Edge>());
         vv.getRenderContext().setEdgeLabelClosenessTransformer(
@@ -415,7 +583,8 @@ public abstract class ResourceGraph {
                 new MyPickableVertexPaintFunction<Vertex>(
                                                     vv.getPickedVertexState(),
                                                     true));
-        vv.getRenderer().setVertexRenderer(pr);
+        renderer.setVertexRenderer(pr);
+        vv.setRenderer(renderer);
 
         vv.getRenderContext().setEdgeLabelTransformer(
                                                 new ToStringLabeller<Edge>());
@@ -447,23 +616,25 @@ public abstract class ResourceGraph {
         /* overwriting scaler so that zooming starts from point (0, 0) */
         myScaler = getScalingControl();
 
-        /* picking and popups */
-        /* overwriting loadPlugins method only to set scaler */
-        final DefaultModalGraphMouse<Vertex, Edge> graphMouse =
-            new DefaultModalGraphMouse<Vertex, Edge>() {
-                protected void loadPlugins() {
-                    super.loadPlugins();
-                    ((ScalingGraphMousePlugin) scalingPlugin).setScaler(
+        /* picking and popups, there is no mouse without a display */
+        if (!GraphicsEnvironment.isHeadless()) {
+            /* overwriting loadPlugins method only to set scaler */
+            final DefaultModalGraphMouse<Vertex, Edge> graphMouse =
+                new DefaultModalGraphMouse<Vertex, Edge>() {
+                    protected void loadPlugins() {
+                        super.loadPlugins();
+                        ((ScalingGraphMousePlugin) scalingPlugin).setScaler(
                                                                     myScaler);
-                    remove(animatedPickingPlugin);
-                    animatedPickingPlugin = null;
-                }
-        };
-        vv.setGraphMouse(graphMouse);
-        graphMouse.add(new MyPopupGraphMousePlugin<Vertex, Edge>());
+                        remove(animatedPickingPlugin);
+                        animatedPickingPlugin = null;
+                    }
+            };
+            vv.setGraphMouse(graphMouse);
+            graphMouse.add(new MyPopupGraphMousePlugin<Vertex, Edge>());
+            graphMouse.setMode(ModalGraphMouse.Mode.PICKING);
+        }
         vv.addGraphMouseListener(new MyGraphMouseListener<Vertex>());
         vv.setPickSupport(new ShapePickSupport<Vertex, Edge>(vv, 50));
-        graphMouse.setMode(ModalGraphMouse.Mode.PICKING);
         layout.initialize();
         scrollPane = new GraphZoomScrollPane(vv);
         final JScrollBar vScrollBar = scrollPane.getVerticalScrollBar();
@@ -483,8 +654,108 @@ public abstract class ResourceGraph {
             });
     }
 
-    /** Repaints the graph. */
+    /** Repaints the graph, the render models of all vertices are
+     * recomputed. It is meant for the changes of the graph structure, the
+     * status updates should use markChangedDirty() and repaintDirty(). */
     public final void repaint() {
+        markAllDirty();
+        vv.repaint();
+    }
+
+    /** Repaints the graph, only the vertices marked as dirty are
+     * recomputed. */
+    public final void repaintDirty() {
+        vv.repaint();
+    }
+
+    /**
+     * Marks the vertex of the specified info as dirty. Its texts and icons
+     * will be recomputed on the next paint.
+     */
+    public final void markDirty(final Info info) {
+        final Vertex v = getVertex(info);
+        if (v != null) {
+            renderModels.remove(v);
+        }
+    }
+
+    /** Marks all vertices as dirty. */
+    public final void markAllDirty() {
+        renderModels.clear();
+    }
+
+    /**
+     * Marks the vertex of the specified info as dirty, if its texts or icons
+     * are not the same, as when its render model was computed.
+     */
+    public final void markDirtyIfChanged(final Info info) {
+        final Vertex v = getVertex(info);
+        if (v != null) {
+            markDirtyIfChanged(v);
+        }
+    }
+
+    /**
+     * Marks the vertices as dirty, whose texts or icons changed since their
+     * render models were computed.
+     */
+    public final void markChangedDirty() {
+        for (final Vertex v : renderModels.keySet()) {
+            markDirtyIfChanged(v);
+        }
+    }
+
+    /** Marks the vertex as dirty, if its texts or icons changed. */
+    private void markDirtyIfChanged(final Vertex v) {
+        final VertexRenderModel cached = renderModels.get(v);
+        if (cached != null
+            && !cached.key.equals(getRenderKey(v, cached.testOnly))) {
+            renderModels.remove(v);
+        }
+    }
+
+    /**
+     * Returns the texts, colors and icons of the vertex, that its render
+     * model is computed from.
+     */
+    private List<Object> getRenderKey(final Vertex v, final boolean testOnly) {
+        final List<Object> key = new ArrayList<Object>();
+        key.add(getDefaultVertexWidth(v));
+        key.add(getDefaultVertexHeight(v));
+        key.add(getIconsForVertex(v, testOnly));
+        key.add(getMainText(v, testOnly));
+        key.add(getIconText(v, testOnly));
+        addSubtextKey(key, getRightCornerText(v, testOnly));
+        final Subtext[] subtexts = getSubtexts(v, testOnly);
+        if (subtexts == null) {
+            key.add(null);
+        } else {
+            key.add(subtexts.length);
+            for (final Subtext subtext : subtexts) {
+                addSubtextKey(key, subtext);
+            }
+        }
+        return key;
+    }
+
+    /** Adds the text and the colors of the subtext to the render key. */
+    private static void addSubtextKey(final List<Object> key,
+                                      final Subtext subtext) {
+        if (subtext == null) {
+            key.add(null);
+        } else {
+            key.add(subtext.getSubtext());
+            key.add(subtext.getColor());
+            key.add(subtext.getTextColor());
+        }
+    }
+
+    /**
+     * Sets the infos that match the search, the other vertices are dimmed.
+     * Null clears the search.
+     */
+    public final void setSearchMatches(final Set<Info> matches) {
+        searchMatches = matches;
         vv.repaint();
     }
 
@@ -515,11 +786,6 @@ public abstract class ResourceGraph {
         return vv;
     }
 
-    /** Returns the hash with vertex to menus map. */
-    protected final Map<Vertex, List<MyMenuItem>> getVertexToMenus() {
-        return vertexToMenus;
-    }
-
     /** Returns the vertex that represents the specified resource. */
     public Vertex getVertex(final Info i) {
         return infoToVertexMap.get(i);
@@ -527,7 +793,11 @@ public abstract class ResourceGraph {
 
     /** Removes the vertex that represents the specified resource. */
     protected final void removeVertex(final Info i) {
-        infoToVertexMap.remove(i);
+        final Vertex v = infoToVertexMap.remove(i);
+        if (v != null) {
+            renderModels.remove(v);
+            autoLayoutVertices.remove(v);
+        }
     }
 
     /** Inserts the hash that maps resource info to its vertex. */
@@ -853,16 +1123,6 @@ public abstract class ResourceGraph {
                                                     final List<Vertex> pickedV,
                                                     final Point2D p);
 
-    /** Adds popup menu item for vertex. */
-    final void addPopupItem(final Vertex v, final MyMenuItem item) {
-        vertexToMenus.get(v).add(item);
-    }
-
-    /** Adds popup menu item for edge. */
-    final void addPopupItem(final Edge e, final MyMenuItem item) {
-        edgeToMenus.get(e).add(item);
-    }
-
     /** Handles right click on the edge. */
     protected abstract JPopupMenu handlePopupEdge(final Edge edge);
 
@@ -871,32 +1131,6 @@ public abstract class ResourceGraph {
         return null;
     }
 
-    /** Updates all popup menus. */
-    public final void updatePopupMenus() {
-        mGraphLock.lock();
-        try {
-            for (final Vertex v : graph.getVertices()) {
-                vertexToMenus.remove(v);
-            }
-            for (final Edge e : graph.getEdges()) {
-                edgeToMenus.remove(e);
-                updatePopupEdge(e);
-            }
-        } finally {
-            mGraphLock.unlock();
-        }
-    }
-
-    /** Updates edge popup. */
-    protected final void updatePopupEdge(final Edge edge) {
-        final List<MyMenuItem> menus = edgeToMenus.get(edge);
-        if (menus != null) {
-            for (final MyMenuItem menu : menus) {
-                menu.update();
-            }
-        }
-    }
-
     /** This class handles popup menus in the graph. */
     class MyPopupGraphMousePlugin<V, E>
                                   extends AbstractPopupGraphMousePlugin
@@ -1046,14 +1280,164 @@ public abstract class ResourceGraph {
 
     /** Removes info from the graph. */
     protected void removeInfo(final Info i) {
+        final Vertex v = getVertex(i);
+        final List<Vertex> neighbors = new ArrayList<Vertex>();
+        mGraphLock.lock();
+        try {
+            if (v != null && graph.containsVertex(v)) {
+                neighbors.addAll(graph.getNeighbors(v));
+            }
+            graph.removeVertex(v);
+        } finally {
+            mGraphLock.unlock();
+        }
+        markDirty(i);
+        if (v != null) {
+            autoLayoutVertices.remove(v);
+        }
+        requestLayout(neighbors);
+    }
+
+    /**
+     * Marks the vertex to be placed by the automatic layout. It should be
+     * called for new vertices without saved position.
+     */
+    protected final void setAutoLayout(final Vertex v) {
+        autoLayoutVertices.put(v, false);
+        requestLayout(Collections.singletonList(v));
+    }
+
+    /** The vertex will not be moved by the automatic layout anymore. */
+    protected final void setManualLayout(final Vertex v) {
+        autoLayoutVertices.remove(v);
+    }
+
+    /**
+     * Requests the automatic layout of the components that contain the
+     * specified vertices. It runs in its own thread, the requests that come
+     * while it is running are done together in the next run.
+     */
+    protected final void requestLayout(final Collection<Vertex> vertices) {
+        mLayoutLock.lock();
+        try {
+            for (final Vertex v : vertices) {
+                if (autoLayoutVertices.containsKey(v)) {
+                    layoutRequests.add(v);
+                }
+            }
+            if (layoutRequests.isEmpty() || layoutThread != null) {
+                return;
+            }
+            layoutThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (true) {
+                        final List<Vertex> affected;
+                        mLayoutLock.lock();
+                        try {
+                            if (layoutRequests.isEmpty()) {
+                                layoutThread = null;
+                                break;
+                            }
+                            affected = new ArrayList<Vertex>(layoutRequests);
+                            layoutRequests.clear();
+                        } finally {
+                            mLayoutLock.unlock();
+                        }
+                        applyLayout(computeLayout(affected));
+                    }
+                }
+            });
+            layoutThread.start();
+        } finally {
+            mLayoutLock.unlock();
+        }
+    }
+
+    /**
+     * Computes new positions of the auto layout vertices in the components of
+     * the affected vertices. The graph is copied, so that it is not locked,
+     * while the layout is computed.
+     */
+    private Map<Vertex, Point2D> computeLayout(final List<Vertex> affected) {
+        final List<Vertex> vertices = new ArrayList<Vertex>();
+        final List<Pair<Vertex>> edges = new ArrayList<Pair<Vertex>>();
         mGraphLock.lock();
         try {
-            graph.removeVertex(getVertex(i));
+            vertices.addAll(graph.getVertices());
+            for (final Edge e : graph.getEdges()) {
+                final Pair<Vertex> ends = graph.getEndpoints(e);
+                if (ends != null) {
+                    edges.add(ends);
+                }
+            }
         } finally {
             mGraphLock.unlock();
         }
+        final Map<Vertex, Point2D> positions = new HashMap<Vertex, Point2D>();
+        final Map<Vertex, Point2D> vl = getVertexLocations();
+        try {
+            for (final Vertex v : vertices) {
+                final Point2D p = vl.get(v);
+                if (p != null) {
+                    positions.put(v, (Point2D) p.clone());
+                }
+            }
+        } finally {
+            putVertexLocations();
+        }
+        final LayeredLayout<Vertex> ll =
+                      new LayeredLayout<Vertex>(LAYOUT_LAYER_STEP,
+                                                LAYOUT_GAP_X);
+        for (final Vertex v : vertices) {
+            final Point2D p = positions.get(v);
+            final Boolean placed = autoLayoutVertices.get(v);
+            if (placed == null) {
+                if (p != null) {
+                    ll.addFixedVertex(v, getVertexWidth(v), p);
+                }
+            } else if (placed) {
+                ll.addVertex(v, getVertexWidth(v), p);
+            } else {
+                ll.addVertex(v, getVertexWidth(v), null);
+            }
+        }
+        for (final Pair<Vertex> ends : edges) {
+            ll.addEdge(ends.getFirst(), ends.getSecond());
+        }
+        return ll.layout(affected, LAYOUT_MIN_X, LAYOUT_MIN_Y);
+    }
+
+    /** Sets the new positions of the vertices in the swing thread. */
+    private void applyLayout(final Map<Vertex, Point2D> positions) {
+        if (positions.isEmpty()) {
+            return;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                final Map<Vertex, Point2D> vl = getVertexLocations();
+                try {
+                    for (final Map.Entry<Vertex, Point2D> entry
+                                                    : positions.entrySet()) {
+                        final Vertex v = entry.getKey();
+                        if (!autoLayoutVertices.containsKey(v)) {
+                            /* moved by the user in the meantime */
+                            continue;
+                        }
+                        autoLayoutVertices.put(v, true);
+                        vl.put(v, entry.getValue());
+                        layout.setLocation(v, entry.getValue());
+                    }
+                } finally {
+                    putVertexLocations();
+                }
+                scale();
+            }
+        });
     }
 
+
     /** Picks and highlights vertex with Info i in the graph. */
     void pickInfo(final Info i) {
         mGraphLock.lock();
@@ -1237,6 +1621,16 @@ public abstract class ResourceGraph {
         /** Returns paint color for border of vertex v. */
         @Override
         public Paint transform(final V v) {
+            final Set<Info> matches = searchMatches;
+            if (matches != null && !isPicked(v)) {
+                if (!matches.contains(getInfo((Vertex) v))) {
+                    if (!draw) {
+                        return SEARCH_NO_MATCH_PAINT;
+                    }
+                } else if (draw) {
+                    return SEARCH_MATCH_PAINT;
+                }
+            }
             if (draw && isPicked(v)) {
                 return getVertexDrawPaint((Vertex) v);
             } else {
@@ -1416,6 +1810,271 @@ public abstract class ResourceGraph {
                                        final double y,
                                        final Shape shape);
 
+    /**
+     * Render model of a vertex. It holds texts, icons and text layouts, that
+     * are otherwise expensive to obtain on every paint. It is recomputed only
+     * after the vertex was marked as dirty.
+     */
+    private static final class VertexRenderModel {
+        /** Whether it was computed in test only mode. */
+        private final boolean testOnly;
+        /** Whether it was computed while the test animation was running. */
+        private final boolean testAnimation;
+        /** Texts, colors and icons, that it was computed from. */
+        private List<Object> key;
+        /** Icons. */
+        private List<ImageIcon> icons;
+        /** Main text layout. */
+        private TextLayout mainTextLayout;
+        /** Icon text layout. */
+        private TextLayout iconTextLayout;
+        /** Right corner text. */
+        private Subtext rightCornerText;
+        /** Right corner text layout. */
+        private TextLayout rightCornerTextLayout;
+        /** Subtexts. */
+        private Subtext[] subtexts;
+        /** Subtext layouts. */
+        private TextLayout[] subtextLayouts;
+        /** Width of the vertex that is needed for the texts. */
+        private int shapeWidth;
+        /** Height of the vertex that is needed for the texts. */
+        private int shapeHeight;
+
+        /** Prepares a new <code>VertexRenderModel</code> object. */
+        VertexRenderModel(final boolean testOnly,
+                          final boolean testAnimation) {
+            this.testOnly = testOnly;
+            this.testAnimation = testAnimation;
+        }
+
+        /** Returns whether the model is valid for the current mode. */
+        boolean isValidFor(final boolean testOnlyNow,
+                           final boolean testAnimationNow) {
+            return testOnly == testOnlyNow && testAnimation == testAnimationNow;
+        }
+    }
+
+    /** Returns render model of the vertex, computes it, if it is dirty. */
+    private VertexRenderModel getRenderModel(final Graphics2D g2d,
+                                             final Vertex v) {
+        final boolean testOnly = isTestOnly();
+        final boolean testAnimation = isTestOnlyAnimation();
+        final VertexRenderModel cached = renderModels.get(v);
+        if (cached != null && cached.isValidFor(testOnly, testAnimation)) {
+            return cached;
+        }
+        final VertexRenderModel m = new VertexRenderModel(testOnly,
+                                                          testAnimation);
+        m.key = getRenderKey(v, testOnly);
+        int shapeWidth = getDefaultVertexWidth(v);
+        int shapeHeight = getDefaultVertexHeight(v);
+
+        /* icons */
+        m.icons = getIconsForVertex(v, testOnly);
+        /* main text */
+        final String mainText = getMainText(v, testOnly);
+        if (mainText != null && !mainText.equals("")) {
+            m.mainTextLayout = getVertexTextLayout(g2d, mainText, 1);
+            int iconWidth = 64;
+            if (m.icons == null) {
+                iconWidth = 4;
+            }
+            final int mainTextWidth =
+                     (int) m.mainTextLayout.getBounds().getWidth() + iconWidth;
+            if (mainTextWidth > shapeWidth) {
+                shapeWidth = mainTextWidth;
+            }
+        }
+
+        /* icon text */
+        final String iconText = getIconText(v, testOnly);
+        int iconTextWidth = 0;
+        if (iconText != null && !iconText.equals("")) {
+            m.iconTextLayout = getVertexTextLayout(g2d, iconText, 0.8);
+            iconTextWidth = (int) m.iconTextLayout.getBounds().getWidth();
+        }
+
+        /* right corner text */
+        final Subtext rightCornerText = getRightCornerText(v, testOnly);
+        if (rightCornerText != null && !rightCornerText.equals("")) {
+            m.rightCornerText = rightCornerText;
+            m.rightCornerTextLayout = getVertexTextLayout(
+                                                 g2d,
+                                                 rightCornerText.getSubtext(),
+                                                 0.8);
+            final int rightCornerTextWidth =
+                           (int) m.rightCornerTextLayout.getBounds().getWidth();
+
+            if (iconTextWidth + rightCornerTextWidth + 10 > shapeWidth) {
+                shapeWidth = iconTextWidth + rightCornerTextWidth + 10;
+            }
+        }
+
+        /* subtext */
+        final Subtext[] subtexts = getSubtexts(v, testOnly);
+        if (subtexts != null) {
+            m.subtexts = subtexts;
+            m.subtextLayouts = new TextLayout[subtexts.length];
+            int i = 0;
+            for (final Subtext subtext : subtexts) {
+                m.subtextLayouts[i] = getVertexTextLayout(g2d,
+                                                          subtext.getSubtext(),
+                                                          0.8);
+                final int subtextWidth =
+                              (int) m.subtextLayouts[i].getBounds().getWidth();
+                if (subtextWidth + 10 > shapeWidth) {
+                    shapeWidth = subtextWidth + 10;
+                }
+                i++;
+            }
+            if (i > 1) {
+                shapeHeight += (i - 1) * 8;
+            }
+            shapeHeight += 3;
+        }
+        m.shapeWidth = shapeWidth;
+        m.shapeHeight = shapeHeight;
+        renderModels.put(v, m);
+        return m;
+    }
+
+    /**
+     * This class renders the graph. Vertices and edges that are outside of
+     * the visible area are skipped before their shapes and labels are
+     * computed. If the graph is zoomed out below LOD_SCALE, the vertices are
+     * drawn as plain boxes and all edges as one path.
+     */
+    class MyRenderer<V, E> extends BasicRenderer<V, E> {
+        /** Renders the graph. */
+        @Override
+        public void render(final RenderContext<V, E> rc,
+                           final Layout<V, E> l) {
+            final JComponent screen = rc.getScreenDevice();
+            if (screen == null) {
+                super.render(rc, l);
+                return;
+            }
+            final MultiLayerTransformer mlt = rc.getMultiLayerTransformer();
+            /* the culling is done in the screen coordinates */
+            final Rectangle2D visible = new Rectangle2D.Double(
+                                -CULLING_MARGIN,
+                                -CULLING_MARGIN,
+                                screen.getWidth() + 2 * CULLING_MARGIN,
+                                screen.getHeight() + 2 * CULLING_MARGIN);
+            final MutableTransformer view = mlt.getTransformer(Layer.VIEW);
+            final double viewScale = view.getScale();
+            final double s = viewScale
+                             * mlt.getTransformer(Layer.LAYOUT).getScale();
+            final boolean lod = s < LOD_SCALE;
+            final Path2D edgePath = new Path2D.Float();
+            try {
+                for (final E e : l.getGraph().getEdges()) {
+                    final Pair<V> ends = l.getGraph().getEndpoints(e);
+                    if (ends == null) {
+                        continue;
+                    }
+                    final Point2D p1 = getPosition(mlt, l, ends.getFirst());
+                    final Point2D p2 = getPosition(mlt, l, ends.getSecond());
+                    if (p1 == null || p2 == null) {
+                        continue;
+                    }
+                    final Point2D sp1 = view.transform(p1);
+                    final Point2D sp2 = view.transform(p2);
+                    if (!visible.intersectsLine(sp1.getX(),
+                                                sp1.getY(),
+                                                sp2.getX(),
+                                                sp2.getY())) {
+                        continue;
+                    }
+                    if (lod) {
+                        edgePath.moveTo(p1.getX(), p1.getY());
+                        edgePath.lineTo(p2.getX(), p2.getY());
+                    } else {
+                        renderEdge(rc, l, e);
+                        renderEdgeLabel(rc, l, e);
+                    }
+                }
+            } catch (ConcurrentModificationException cme) {
+                screen.repaint();
+            }
+            final GraphicsDecorator g = rc.getGraphicsContext();
+            if (lod) {
+                final Paint oldPaint = g.getPaint();
+                g.setPaint(EDGE_DRAW_PAINT);
+                g.draw(edgePath);
+                g.setPaint(oldPaint);
+            }
+            try {
+                for (final V v : l.getGraph().getVertices()) {
+                    final Point2D p = getPosition(mlt, l, v);
+                    if (p == null) {
+                        continue;
+                    }
+                    final double w = getVertexWidth((ResourceGraph.Vertex) v);
+                    final double h = getVertexHeight((ResourceGraph.Vertex) v);
+                    final Point2D sp = view.transform(p);
+                    final double sw = w * viewScale;
+                    final double sh = h * viewScale;
+                    if (!visible.intersects(sp.getX() - sw / 2,
+                                            sp.getY() - sh / 2,
+                                            sw,
+                                            sh)) {
+                        continue;
+                    }
+                    if (lod) {
+                        paintVertexBox(rc, g, v, p, w, h);
+                    } else {
+                        renderVertex(rc, l, v);
+                        renderVertexLabel(rc, l, v);
+                    }
+                }
+            } catch (ConcurrentModificationException cme) {
+                screen.repaint();
+            }
+        }
+
+        /**
+         * Returns position of the vertex in the layout coordinates, the view
+         * transformation is applied by the graphics context.
+         */
+        private Point2D getPosition(final MultiLayerTransformer mlt,
+                                    final Layout<V, E> l,
+                                    final V v) {
+            final Point2D p = l.transform(v);
+            if (p == null) {
+                return null;
+            }
+            return mlt.transform(Layer.LAYOUT, p);
+        }
+
+        /** Draws the vertex as a box without any texts and icons. */
+        private void paintVertexBox(final RenderContext<V, E> rc,
+                                    final GraphicsDecorator g,
+                                    final V v,
+                                    final Point2D p,
+                                    final double w,
+                                    final double h) {
+            final Rectangle2D box = new Rectangle2D.Double(p.getX() - w / 2,
+                                                           p.getY() - h / 2,
+                                                           w,
+                                                           h);
+            final Paint oldPaint = g.getPaint();
+            final Color fillColor = getVertexFillColor((ResourceGraph.Vertex) v);
+            if (fillColor != null) {
+                g.setPaint(fillColor);
+                g.fill(box);
+            }
+            final Paint drawPaint =
+                              rc.getVertexDrawPaintTransformer().transform(v);
+            if (drawPaint != null) {
+                g.setPaint(drawPaint);
+                g.draw(box);
+            }
+            g.setPaint(oldPaint);
+        }
+    }
+
     /** This class is for rendering of the vertices. */
     class MyPluggableRenderer<V, E> extends BasicVertexRenderer<V, E> {
         /**
@@ -1427,81 +2086,21 @@ public abstract class ResourceGraph {
                                                  final V v,
                                                  final Shape shape) {
             final Graphics2D g2d = rc.getGraphicsContext().getDelegate();
-            int shapeWidth = getDefaultVertexWidth((Vertex) v);
-            int shapeHeight = getDefaultVertexHeight((Vertex) v);
-
-            /* icons */
-            final List<ImageIcon> icons =
-                                   getIconsForVertex((Vertex) v, isTestOnly());
-            /* main text */
-            final String mainText = getMainText((Vertex) v, isTestOnly());
-            TextLayout mainTextLayout = null;
-            if (mainText != null && !mainText.equals("")) {
-                mainTextLayout = getVertexTextLayout(g2d, mainText, 1);
-                int iconWidth = 64;
-                if (icons == null) {
-                    iconWidth = 4;
-                }
-                final int mainTextWidth =
-                       (int) mainTextLayout.getBounds().getWidth() + iconWidth;
-                if (mainTextWidth > shapeWidth) {
-                    shapeWidth = mainTextWidth;
-                }
-            }
-
-            /* icon text */
-            final String iconText = getIconText((Vertex) v, isTestOnly());
-            int iconTextWidth = 0;
-            TextLayout iconTextLayout = null;
-            if (iconText != null && !iconText.equals("")) {
-                iconTextLayout = getVertexTextLayout(g2d, iconText, 0.8);
-                iconTextWidth =
-                            (int) iconTextLayout.getBounds().getWidth();
-            }
-
-            /* right corner text */
-            final Subtext rightCornerText = getRightCornerText((Vertex) v,
-                                                               isTestOnly());
-            TextLayout rightCornerTextLayout = null;
-            if (rightCornerText != null && !rightCornerText.equals("")) {
-                rightCornerTextLayout = getVertexTextLayout(
-                               g2d,
-                               rightCornerText.getSubtext(),
-                               0.8);
-                final int rightCornerTextWidth =
-                        (int) rightCornerTextLayout.getBounds().getWidth();
+            final VertexRenderModel model = getRenderModel(g2d, (Vertex) v);
+            int shapeWidth = model.shapeWidth;
+            int shapeHeight = model.shapeHeight;
+            final List<ImageIcon> icons = model.icons;
+            final TextLayout mainTextLayout = model.mainTextLayout;
+            final TextLayout iconTextLayout = model.iconTextLayout;
+            final Subtext rightCornerText = model.rightCornerText;
+            final TextLayout rightCornerTextLayout =
+                                                 model.rightCornerTextLayout;
+            final Subtext[] subtexts = model.subtexts;
+            final TextLayout[] subtextLayouts = model.subtextLayouts;
 
-                if (iconTextWidth + rightCornerTextWidth + 10 > shapeWidth) {
-                    shapeWidth = iconTextWidth + rightCornerTextWidth + 10;
-                }
-            }
-
-            /* subtext */
-            final Subtext[] subtexts = getSubtexts((Vertex) v, isTestOnly());
-            TextLayout[] subtextLayouts = null;
-            if (subtexts != null) {
-                subtextLayouts = new TextLayout[subtexts.length];
-                int i = 0;
-                for (final Subtext subtext : subtexts) {
-                    subtextLayouts[i] =
-                           getVertexTextLayout(g2d,
-                                               subtext.getSubtext(),
-                                               0.8);
-                    final int subtextWidth =
-                                (int) subtextLayouts[i].getBounds().getWidth();
-                    if (subtextWidth + 10 > shapeWidth) {
-                        shapeWidth = subtextWidth + 10;
-                    }
-                    i++;
-                }
-                if (i > 1) {
-                    shapeHeight += (i - 1) * 8;
-                }
-                shapeHeight += 3;
-            }
             final int oldShapeWidth = getVertexWidth((Vertex) v);
             final int oldShapeHeight = getVertexHeight((Vertex) v);
-            if (isTestOnlyAnimation()) {
+            if (model.testAnimation) {
                 if (oldShapeWidth > shapeWidth) {
                     shapeWidth = oldShapeWidth;
                 }
@@ -77,6 +77,11 @@ public final class SSHGui {
     /** Displays Confirm Dialog whith Yes, No, Cancel options. */
     public int getConfirmDialogChoice(final String message) {
         Tools.debug(this, "get confirm dialog");
+        if (Tools.getConfigData().isHeadless()) {
+            /* nobody to ask, unknown host keys are rejected */
+            Tools.appWarning(message);
+            return JOptionPane.CANCEL_OPTION;
+        }
         return JOptionPane.showConfirmDialog(rootPane, message);
     }
 
@@ -96,6 +101,11 @@ public final class SSHGui {
                                        final String underText,
                                        final String defaultValue,
                                        final boolean isPassword) {
+        if (Tools.getConfigData().isHeadless()) {
+            /* no passwords without the GUI, they can come only from the
+               --auto options. */
+            return defaultValue;
+        }
         EnterSomethingDialog esd;
         if (rootPane instanceof JDialog) {
             esd = new EnterSomethingDialog((JDialog) rootPane, title,
@@ -89,6 +89,7 @@ public class ViewPanel extends JPanel {
     final JTree getTree(final Browser browser) {
         final JTree tree = new JTree(browser.getTreeModel());
         browser.setTree(tree);
+        browser.setViewPanel(this);
         tree.setOpaque(true);
         tree.setBackground(Tools.getDefaultColor("ViewPanel.Background"));
         tree.setToggleClickCount(2);
@@ -160,15 +161,8 @@ public class ViewPanel extends JPanel {
             new TreeModelListener() {
                 @Override
                 public void treeNodesChanged(final TreeModelEvent e) {
-                    if (!disabledDuringLoad) {
-                        final Object[] selected = e.getChildren();
-                        if (selected != null && selected.length > 0) {
-                            final Object o =
-                                ((DefaultMutableTreeNode) selected[0])
-                                                             .getUserObject();
-                            setRightComponentInView(browser, (Info) o);
-                        }
-                    }
+                    /* the changed labels don't change the info panel, see
+                     * Browser.nodeChanged */
                 }
 
                 @Override
@@ -183,23 +177,30 @@ public class ViewPanel extends JPanel {
 
                 @Override
                 public void treeStructureChanged(final TreeModelEvent e) {
-                    final Object[] path = e.getPath();
-                    if (!disabledDuringLoad) {
-                        final TreePath tp = new TreePath(path);
-                        SwingUtilities.invokeLater(new Runnable() {
-                            @Override
-                            public void run() {
-                                tree.expandPath(tp);
-                                tree.setSelectionPath(tp);
-                            }
-                        });
-                    }
+                    final TreePath tp = new TreePath(e.getPath());
+                    SwingUtilities.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            selectPath(tree, tp);
+                        }
+                    });
                 }
             }
         );
         return tree;
     }
 
+    /**
+     * Expands and selects the path in the tree, unless it is disabled
+     * during the initial load. Must be called from the swing thread.
+     */
+    final void selectPath(final JTree tree, final TreePath path) {
+        if (!disabledDuringLoad) {
+            tree.expandPath(path);
+            tree.setSelectionPath(path);
+        }
+    }
+
     /** Returns whether expanding of paths is disabled during the initial load.
      */
     final boolean isDisabledDuringLoad() {
@@ -26,8 +26,8 @@ package lcmc.gui.dialog;
 import lcmc.utilities.Tools;
 import lcmc.data.Host;
 import lcmc.utilities.ExecCallback;
+import lcmc.utilities.StreamingOutputCallback;
 import lcmc.utilities.MyButton;
-import lcmc.gui.ProgressBar;
 import lcmc.gui.resources.Info;
 
 import javax.swing.JPanel;
@@ -45,6 +45,7 @@ import java.util.Comparator;
 import java.util.Arrays;
 import java.util.Set;
 import java.util.HashSet;
+import java.nio.CharBuffer;
 
 import java.awt.event.ItemListener;
 import java.awt.event.ItemEvent;
@@ -164,7 +165,7 @@ class Logs extends ConfigDialog {
         enableAllComponents(false);
         final Host[] hosts = getHosts();
         Thread[] threads = new Thread[hosts.length];
-        final String[] texts = new String[hosts.length];
+        final StringBuilder[] texts = new StringBuilder[hosts.length];
 
         final Map<String, String> replaceHash = new HashMap<String, String>();
         replaceHash.put("@GREPPATTERN@", grepPattern());
@@ -175,38 +176,47 @@ class Logs extends ConfigDialog {
             final int index = i;
             final String command = host.getDistCommand(logFileCommand(),
                                                        replaceHash);
-            threads[index] = host.execCommandRaw(command,
-                         (ProgressBar) null,
+            texts[index] = new StringBuilder();
+            /* the logs are collected once, not in the output and again in
+               the answer. */
+            threads[index] = host.execCommandStreaming(command,
                          new ExecCallback() {
                              @Override
                              public void done(final String ans) {
-                                 texts[index] = ans;
+                                 /* already streamed */
                              }
                              @Override
                              public void doneError(final String ans,
                                                    final int exitCode) {
-                                 texts[index] = host.getName()
-                                                + ": "
-                                                + ans + "\n";
+                                 texts[index].setLength(0);
+                                 texts[index].append(host.getName());
+                                 texts[index].append(": ");
+                                 texts[index].append(ans);
+                                 texts[index].append('\n');
                                  Tools.sshError(host,
                                                 command,
                                                 ans,
                                                 stacktrace,
                                                 exitCode);
                              }
+                         },
+                         new StreamingOutputCallback() {
+                             @Override
+                             public void output(final CharBuffer output) {
+                                 texts[index].append(output);
+                             }
                          }, false, false, 30000);
             i++;
         }
-        i = 0;
         final StringBuilder ans = new StringBuilder("");
-        for (Thread t : threads) {
+        for (int j = 0; j < threads.length; j++) {
             try {
-                t.join();
+                threads[j].join();
             } catch (java.lang.InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
-            ans.append(texts[i]);
-            i++;
+            ans.append(texts[j]);
+            texts[j] = null;
         }
         final String[] output = ans.toString().split("\r\n");
         final String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun",
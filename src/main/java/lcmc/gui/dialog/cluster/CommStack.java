@@ -23,13 +23,11 @@
 package lcmc.gui.dialog.cluster;
 
 import lcmc.data.Host;
+import lcmc.data.InstallationState;
 import lcmc.data.Cluster;
 import lcmc.data.ConfigData;
 import lcmc.data.AccessMode;
 import lcmc.utilities.Tools;
-import lcmc.utilities.ExecCallback;
-import lcmc.utilities.SSH.ExecCommandThread;
-import lcmc.utilities.SSH;
 import lcmc.gui.widget.Widget;
 import lcmc.gui.widget.WidgetFactory;
 import lcmc.gui.dialog.WizardDialog;
@@ -100,43 +98,8 @@ final class CommStack extends DialogCluster {
     @Override
     protected void initDialogAfterVisible() {
         final Host[] hosts = getCluster().getHostsArray();
-        final ExecCommandThread[] infoThreads =
-                                        new ExecCommandThread[hosts.length];
-        int i = 0;
         getProgressBar().start(10000);
-        for (final Host host : hosts) {
-            infoThreads[i] = host.execCommand(
-                             "Cluster.Init.getInstallationInfo",
-                             getProgressBar(),
-                             new ExecCallback() {
-                                 @Override
-                                 public void done(final String ans) {
-                                     //drbdLoaded[index] = true;
-                                     for (final String line
-                                                    : ans.split("\\r?\\n")) {
-                                         host.parseInstallationInfo(line);
-                                     }
-                                 }
-                                 @Override
-                                 public void doneError(final String ans,
-                                                       final int exitCode) {
-                                     Tools.appWarning(
-                                                "could not get install info");
-                                 }
-                             },
-                             null,   /* ConvertCmdCallback */
-                             false,  /* outputVisible */
-                             SSH.DEFAULT_COMMAND_TIMEOUT);
-            i++;
-        }
-        for (final ExecCommandThread t : infoThreads) {
-            /* wait for all of them */
-            try {
-                t.join();
-            } catch (java.lang.InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
+        InstallationState.refresh(hosts, getProgressBar());
         progressBarDone();
         boolean aisIsPossible = true;
         boolean hbIsPossible = true;
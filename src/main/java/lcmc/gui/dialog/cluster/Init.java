@@ -24,6 +24,7 @@
 package lcmc.gui.dialog.cluster;
 
 import lcmc.data.Host;
+import lcmc.data.InstallationState;
 import lcmc.data.Cluster;
 import lcmc.data.ConfigData;
 import lcmc.data.AccessMode;
@@ -32,12 +33,8 @@ import lcmc.utilities.DRBD;
 import lcmc.utilities.Heartbeat;
 import lcmc.utilities.Openais;
 import lcmc.utilities.Corosync;
-import lcmc.utilities.SSH.ExecCommandThread;
 import lcmc.utilities.MyButton;
-import lcmc.utilities.SSH;
 import lcmc.gui.SpringUtilities;
-import lcmc.utilities.ExecCallback;
-import lcmc.gui.ProgressBar;
 import lcmc.gui.widget.Widget;
 import lcmc.gui.widget.WidgetFactory;
 import lcmc.gui.dialog.WizardDialog;
@@ -46,6 +43,8 @@ import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.swing.JPanel;
 import javax.swing.SpringLayout;
 import javax.swing.JLabel;
@@ -106,14 +105,20 @@ public class Init extends DialogCluster {
     /** Last value of heartbeat-is-configured check. */
     private Boolean[] lastHbConf;
 
-    /** Cluster check thread. */
-    private Thread checkClusterThread = null;
+    /** Lock, so that only one check of the cluster runs at a time. */
+    private final Lock mCheckClusterLock = new ReentrantLock();
+    /** Checks the cluster, whenever the installation of a host changes. */
+    private final InstallationState.Listener installationListener =
+        new InstallationState.Listener() {
+            @Override
+            public void installationChanged(final Host host) {
+                checkCluster(true);
+            }
+        };
     /** Button that acts as a finish button. This is used by methods that
      * override this one and use different finish/next button.
      */
     private String button = null;
-    /** Interval between checks. */
-    private static final int CHECK_INTERVAL = 1000;
     /** Switch to Heartbeat button text. */
     private static final String HB_BUTTON_SWITCH =
                         Tools.getString("Dialog.Cluster.Init.HbButtonSwitch");
@@ -154,6 +159,9 @@ public class Init extends DialogCluster {
     /** Stops the checks and waits for them to stop. */
     private void stopCheckCluster() {
         checkClusterStopped = true;
+        for (final Host host : getCluster().getHostsArray()) {
+            host.getInstallationState().removeListener(installationListener);
+        }
     }
 
     /**
@@ -213,68 +221,44 @@ public class Init extends DialogCluster {
         lastHbStarted = null;
         lastHbRc = null;
         checkClusterStopped = false;
-        checkClusterThread = new Thread(
-            new Runnable() {
-                @Override
-                public void run() {
-                    while (!checkClusterStopped) {
-                        checkCluster(true);
-                        if (!checkClusterStopped) {
-                            try {
-                                Thread.sleep(CHECK_INTERVAL);
-                            } catch (InterruptedException ex) {
-                                Thread.currentThread().interrupt();
-                            }
-                        }
-                    }
-                    checkClusterThread = null;
-                }
-            });
-        checkClusterThread.start();
+        for (final Host host : getCluster().getHostsArray()) {
+            host.getInstallationState().addListener(installationListener);
+        }
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                refreshCluster();
+            }
+        });
+        thread.start();
     }
 
-    /** Checks drbds and heartbeats on all nodes of the cluster. */
+    /** Probes all the hosts now and checks the cluster. */
+    private void refreshCluster() {
+        InstallationState.refresh(getCluster().getHostsArray(), null);
+        checkCluster(false);
+    }
+
+    /**
+     * Checks drbds and heartbeats on all nodes of the cluster, unless the
+     * checks were stopped.
+     */
     private void checkCluster(final boolean periodic) {
-        /* check if modules are loaded. */
-        final Host[] hosts = getCluster().getHostsArray();
-        final ExecCommandThread[] infoThreads =
-                                        new ExecCommandThread[hosts.length];
-        int i = 0;
-        for (final Host h : hosts) {
-            infoThreads[i] = h.execCommand("Cluster.Init.getInstallationInfo",
-                             (ProgressBar) null,
-                             new ExecCallback() {
-                                 @Override
-                                 public void done(final String ans) {
-                                     //drbdLoaded[index] = true;
-                                     for (final String line
-                                                    : ans.split("\\r?\\n")) {
-                                         h.parseInstallationInfo(line);
-                                     }
-                                 }
-                                 @Override
-                                 public void doneError(final String ans,
-                                                       final int exitCode) {
-                                     Tools.appWarning(
-                                                "could not get install info");
-                                 }
-                             },
-                             null,   /* ConvertCmdCallback */
-                             false,  /* outputVisible */
-                             SSH.DEFAULT_COMMAND_TIMEOUT);
-            i++;
-        }
-        for (final ExecCommandThread t : infoThreads) {
-            /* wait for all of them */
-            try {
-                t.join();
-            } catch (java.lang.InterruptedException e) {
-                Thread.currentThread().interrupt();
+        mCheckClusterLock.lock();
+        try {
+            if (!checkClusterStopped) {
+                updateCluster(periodic);
             }
+        } finally {
+            mCheckClusterLock.unlock();
         }
+    }
 
+    /** Shows the last installation state of all nodes of the cluster. */
+    private void updateCluster(final boolean periodic) {
+        final Host[] hosts = getCluster().getHostsArray();
         /* DRBD */
-        i = 0;
+        int i = 0;
         boolean oneFailed = false;
         boolean oneChanged = false;
         final boolean lastDrbdLoadedExists = (lastDrbdLoaded != null);
@@ -605,16 +589,11 @@ public class Init extends DialogCluster {
      */
     @Override
     protected final JComponent getInputPane() {
-        /* Waiting for check cluster thread to finish. To avoid all races. This
-         * can happen after clicking the back button from the next dialog. */
-        final Thread t = checkClusterThread;
-        if (t != null) {
-            try {
-                t.join();
-            } catch (java.lang.InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        }
+        /* Waiting for the running check of the cluster to finish. To avoid
+         * all races. This can happen after clicking the back button from the
+         * next dialog. */
+        mCheckClusterLock.lock();
+        mCheckClusterLock.unlock();
         drbdLoadedInfos = new ArrayList<JLabel>();
         drbdLoadButtons = new ArrayList<MyButton>();
 
@@ -675,7 +654,7 @@ public class Init extends DialogCluster {
                                                     null,
                                                     testOnly);
                                     }
-                                    checkCluster(false);
+                                    refreshCluster();
                                 }
                             }
                         );
@@ -741,7 +720,7 @@ public class Init extends DialogCluster {
                                             Heartbeat.startHeartbeatRc(host);
                                         }
                                     }
-                                    checkCluster(false);
+                                    refreshCluster();
                                 }
                             }
                         );
@@ -809,7 +788,7 @@ public class Init extends DialogCluster {
                                             }
                                         }
                                     }
-                                    checkCluster(false);
+                                    refreshCluster();
                                 }
                             }
                         );
@@ -844,6 +823,23 @@ public class Init extends DialogCluster {
         useOpenaisButton.setBackgroundColor(Color.WHITE);
         useOpenaisButton.setMaximumSize(useOpenaisButton.getMinimumSize());
         p.add(useOpenaisButton);
+        final MyButton refreshButton = new MyButton(
+                         Tools.getString("Dialog.Cluster.Init.RefreshButton"));
+        refreshButton.setBackgroundColor(
+                               Tools.getDefaultColor("ConfigDialog.Button"));
+        refreshButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                final Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        refreshCluster();
+                    }
+                });
+                thread.start();
+            }
+        });
+        p.add(refreshButton);
         p.add(s);
         return p;
     }
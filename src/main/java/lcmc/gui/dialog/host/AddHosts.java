@@ -0,0 +1,281 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.gui.dialog.host;
+
+import lcmc.data.Host;
+import lcmc.data.HostOnboarding;
+import lcmc.data.ConfigData;
+import lcmc.data.AccessMode;
+import lcmc.utilities.Tools;
+import lcmc.utilities.MyButton;
+import lcmc.gui.SpringUtilities;
+import lcmc.gui.TerminalPanel;
+import lcmc.gui.widget.Widget;
+import lcmc.gui.widget.WidgetFactory;
+import lcmc.gui.dialog.ConfigDialog;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JComponent;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.SpringLayout;
+import javax.swing.BoxLayout;
+import javax.swing.SwingUtilities;
+import java.awt.Component;
+import java.awt.event.ActionListener;
+import java.awt.event.ActionEvent;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.HashSet;
+
+/**
+ * An implementation of a dialog where user can enter many hosts at once.
+ * All of them are connected with the same username and password or key and
+ * the info about them is collected in parallel.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class AddHosts extends ConfigDialog {
+    /** Serial version UID. */
+    private static final long serialVersionUID = 1L;
+    /** Hostnames or ips, one per line. */
+    private final JTextArea hostsArea = new JTextArea(8, 30);
+    /** User name field. */
+    private Widget usernameField;
+    /** SSH Port field. */
+    private Widget sshPortField;
+    /** Whether sudo should be used. */
+    private Widget useSudoField;
+    /** Add button. */
+    private final MyButton addButton =
+                new MyButton(Tools.getString("Dialog.Host.AddHosts.AddButton"));
+    /** Default ssh user. */
+    private static final String SSH_ROOT_USER = Tools.getDefault("SSH.User");
+    /** Default ssh port. */
+    private static final String SSH_PORT = Tools.getDefault("SSH.Port");
+    /** Width of the fields. */
+    private static final int FIELD_WIDTH = 120;
+
+    /** Inits the dialog after it becomes visible. */
+    @Override
+    protected void initDialogAfterVisible() {
+        enableComponents();
+    }
+
+    /** Returns the title of the dialog. */
+    @Override
+    protected String getDialogTitle() {
+        return Tools.getString("Dialog.Host.AddHosts.Title");
+    }
+
+    /** Returns the description of the dialog. */
+    @Override
+    protected String getDescription() {
+        return Tools.getString("Dialog.Host.AddHosts.Description");
+    }
+
+    /** Adds the hosts, that were entered, and shows the results. */
+    private void addHosts() {
+        final String username = usernameField.getStringValue().trim();
+        final String sshPort = sshPortField.getStringValue().trim();
+        final boolean useSudo =
+                      "true".equals(useSudoField.getStringValue().trim());
+        Tools.getConfigData().setLastEnteredUser(username);
+        Tools.getConfigData().setLastEnteredSSHPort(sshPort);
+        Tools.getConfigData().setLastEnteredUseSudo(useSudo);
+        final Set<String> existing = new HashSet<String>();
+        for (final Host host
+                : Tools.getConfigData().getHosts().getHostsArray()) {
+            existing.add(host.getHostnameEntered());
+        }
+        final List<Host> hosts = new ArrayList<Host>();
+        for (final String hostname : hostsArea.getText().split("\\s+")) {
+            if ("".equals(hostname) || !existing.add(hostname)) {
+                continue;
+            }
+            final Host host = new Host();
+            host.setHostnameEntered(hostname);
+            host.setUsername(username);
+            host.setSSHPort(sshPort);
+            host.setUseSudo(useSudo);
+            Tools.getConfigData().addHostToHosts(host);
+            Tools.getGUIData().setTerminalPanel(new TerminalPanel(host));
+            hosts.add(host);
+        }
+        if (hosts.isEmpty()) {
+            return;
+        }
+        answerPaneSetText(Tools.getString("Dialog.Host.AddHosts.Adding"));
+        final boolean done =
+                       new HostOnboarding(hosts).onboard(getDialogPanel());
+        answerPaneSetText("");
+        if (!done) {
+            answerPaneAddTextError(
+                          Tools.getString("Dialog.Host.AddHosts.Canceled"));
+        }
+        final StringBuilder failed = new StringBuilder();
+        for (final Host host : hosts) {
+            if (done && HostOnboarding.isOnboarded(host)) {
+                answerPaneAddText(host.getName() + ": "
+                                  + host.getDetectedInfo()
+                                  + ", " + host.getKernelVersion()
+                                  + ", " + host.getArch()
+                                  + versionText(" drbd ",
+                                                host.getDrbdVersion())
+                                  + versionText(" pacemaker ",
+                                                host.getPacemakerVersion())
+                                  + versionText(" corosync ",
+                                                host.getCorosyncVersion())
+                                  + versionText(" heartbeat ",
+                                                host.getHeartbeatVersion()));
+            } else {
+                host.disconnect();
+                Tools.getConfigData().removeHostFromHosts(host);
+                if (done) {
+                    answerPaneAddTextError(host.getHostnameEntered()
+                          + Tools.getString("Dialog.Host.AddHosts.Failed"));
+                }
+                failed.append(host.getHostnameEntered()).append('\n');
+            }
+        }
+        final String failedHosts = failed.toString();
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                hostsArea.setText(failedHosts);
+            }
+        });
+        Tools.getGUIData().allHostsUpdate();
+        Tools.getGUIData().checkAddClusterButtons();
+    }
+
+    /** Returns the version with the name, or empty string. */
+    private static String versionText(final String name,
+                                      final String version) {
+        if (version == null || "".equals(version)) {
+            return "";
+        }
+        return name + version;
+    }
+
+    /** Returns a new field with the label in the pane. */
+    private Widget addField(final JPanel pane,
+                            final String label,
+                            final String value,
+                            final Object[] items,
+                            final String regexp,
+                            final int width) {
+        final JLabel l = new JLabel(label);
+        pane.add(l);
+        final Widget field = WidgetFactory.createInstance(
+                                    Widget.GUESS_TYPE,
+                                    value,
+                                    items,
+                                    regexp,
+                                    width,
+                                    Widget.NO_ABBRV,
+                                    new AccessMode(ConfigData.AccessType.RO,
+                                                   !AccessMode.ADVANCED),
+                                    Widget.NO_BUTTON);
+        l.setLabelFor(field);
+        pane.add(field);
+        return field;
+    }
+
+    /** Returns the input pane with the hosts and the ssh options. */
+    @Override
+    protected JComponent getInputPane() {
+        final JPanel p = new JPanel();
+        p.setLayout(new BoxLayout(p, BoxLayout.Y_AXIS));
+        final JPanel inputPane = new JPanel(new SpringLayout());
+        inputPane.setBackground(Tools.getDefaultColor(
+                                            "ConfigDialog.Background.Light"));
+        inputPane.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        final JLabel hostsLabel = new JLabel(
+                        Tools.getString("Dialog.Host.AddHosts.EnterHosts"));
+        inputPane.add(hostsLabel);
+        hostsLabel.setLabelFor(hostsArea);
+        inputPane.add(new JScrollPane(hostsArea));
+
+        String sshPort = Tools.getConfigData().getLastEnteredSSHPort();
+        if (sshPort == null) {
+            sshPort = SSH_PORT;
+        }
+        sshPortField = addField(inputPane,
+                                Tools.getString("Dialog.Host.NewHost.SSHPort"),
+                                sshPort,
+                                Widget.NO_ITEMS,
+                                "^\\d+$",
+                                50);
+        String userName = Tools.getConfigData().getLastEnteredUser();
+        if (userName == null) {
+            userName = SSH_ROOT_USER;
+        }
+        usernameField = addField(
+                        inputPane,
+                        Tools.getString("Dialog.Host.NewHost.EnterUsername"),
+                        userName,
+                        Widget.NO_ITEMS,
+                        "^[\\w.-]+$",
+                        FIELD_WIDTH);
+        usernameField.setEditable(true);
+        Boolean useSudo = Tools.getConfigData().getLastEnteredUseSudo();
+        if (useSudo == null) {
+            useSudo = false;
+        }
+        useSudoField = addField(inputPane,
+                                Tools.getString("Dialog.Host.NewHost.UseSudo"),
+                                useSudo.toString(),
+                                new String[]{"true", "false"},
+                                Widget.NO_REGEXP,
+                                50);
+        SpringUtilities.makeCompactGrid(inputPane, 4, 2,  // rows, cols
+                                                   1, 1,  // initX, initY
+                                                   1, 1); // xPad, yPad
+        p.add(inputPane);
+
+        addButton.setBackgroundColor(
+                               Tools.getDefaultColor("ConfigDialog.Button"));
+        addButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent e) {
+                final Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        disableComponents(new JComponent[]{addButton});
+                        addHosts();
+                        enableComponents();
+                    }
+                });
+                thread.start();
+            }
+        });
+        p.add(addButton);
+        p.add(getAnswerPane(""));
+        return p;
+    }
+}
@@ -46,6 +46,7 @@ import java.awt.event.ActionEvent;
 import java.awt.Color;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * An implementation of a dialog where
@@ -341,9 +342,8 @@ final class CheckInstallation extends DialogHost {
         getHost().setHeartbeatVersion(null);
         getHost().setCorosyncVersion(null);
         if (!"".equals(ans) && !"\n".equals(ans)) {
-            for (final String line : ans.split("\n")) {
-                getHost().parseInstallationInfo(line);
-            }
+            getHost().getInstallationState().update(
+                                              Arrays.asList(ans.split("\n")));
         }
         final String aisVersion = getHost().getOpenaisVersion();
         final String corosyncVersion = getHost().getCorosyncVersion();
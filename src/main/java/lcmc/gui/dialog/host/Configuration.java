@@ -39,8 +39,6 @@ import javax.swing.JComponent;
 import javax.swing.SwingUtilities;
 import java.awt.Component;
 
-import java.net.UnknownHostException;
-import java.net.InetAddress;
 
 /**
  * An implementation of a dialog where entered ip or the host is looked up
@@ -139,50 +137,12 @@ final class Configuration extends DialogHost {
      * This assumes that getHost().hostnameEntered was set.
      */
     protected boolean checkDNS(final int hop, final String hostnameEntered) {
-        InetAddress[] addresses = null;
-        try {
-            addresses = InetAddress.getAllByName(hostnameEntered);
-        } catch (UnknownHostException e) {
+        final String[] hostnameIp = getHost().lookupHop(hop, hostnameEntered);
+        if (hostnameIp == null) {
             return false;
         }
-        String hostname = null;
-        String ip = null;
-        Tools.debug(this, "addresses.length: " + addresses.length + " a: "
-                          + addresses[0].getHostAddress(), 2);
-        if (addresses.length == 0) {
-            Tools.debug(this, "lookup failed");
-            // lookup failed;
-            return false;
-        } else if (addresses.length == 1) {
-            ip = addresses[0].getHostAddress();
-            /* if user entered ip, reverse lookup is needed.
-             * Making reverse lookup even if user entered a some of the
-             * hostnames since it can be different than canonical name.
-             */
-            try {
-                hostname = InetAddress.getByName(ip).getHostName();
-            } catch (UnknownHostException e) {
-                Tools.appError("Host.Configuration.Unknown.Host", "", e);
-                return false;
-            }
-        } else {
-            // user entered hostname that has many addresses
-            hostname = hostnameEntered;
-            ip = getHost().getIp(hop);
-            if (ip == null) {
-                ip = addresses[0].getHostAddress();
-            }
-        }
-        String[] items = new String[addresses.length];
-        for (int i = 0; i < addresses.length; i++) {
-            items[i] = addresses[i].getHostAddress();
-        }
-        //getHost().setIp(ip);
-        getHost().setIps(hop, items);
-        hostnames[hop] = hostname;
-
-        hostnameField[hop].setValue(hostname);
-        Tools.debug(this, "got " + hostname + " (" + ip + ")", 1);
+        hostnames[hop] = hostnameIp[0];
+        hostnameField[hop].setValue(hostnameIp[0]);
         return true;
     }
 
@@ -23,7 +23,7 @@ package lcmc.gui.resources;
 
 import lcmc.gui.Browser;
 import lcmc.gui.ClusterBrowser;
-import lcmc.utilities.MyButton;
+import lcmc.utilities.ButtonCell;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Locale;
@@ -49,7 +49,8 @@ public final class AvailableServicesInfo extends HbCategoryInfo {
         final List<Object[]> rows = new ArrayList<Object[]>();
         /** Get classes */
         for (final String cl : ClusterBrowser.HB_CLASSES) {
-            final MyButton className = new MyButton(cl.toUpperCase(Locale.US));
+            final ButtonCell className =
+                                    new ButtonCell(cl.toUpperCase(Locale.US));
             rows.add(new Object[]{className,
                                   ClusterBrowser.HB_CLASS_MENU.get(cl)});
         }
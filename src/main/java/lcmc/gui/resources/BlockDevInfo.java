@@ -1149,6 +1149,16 @@ public final class BlockDevInfo extends EditableInfo {
         return infoPanel == null;
     }
 
+    /** Drops the info panel, it will be created again. */
+    @Override
+    boolean dropInfoPanel() {
+        if (infoPanel == null || getBlockDevice().isNew()) {
+            return false;
+        }
+        infoPanel = null;
+        return true;
+    }
+
     /** Sets drbd resource for this block device. */
     void setDrbdVolumeInfo(final DrbdVolumeInfo drbdVolumeInfo) {
         this.drbdVolumeInfo = drbdVolumeInfo;
@@ -483,7 +483,7 @@ final class CloneInfo extends ServiceInfo {
     @Override
     boolean isStarted(final boolean testOnly) {
         final Host dcHost = getBrowser().getDCHost();
-        if (Tools.versionBeforePacemaker(dcHost)) {
+        if (dcHost.getCapabilities().isBeforePacemaker()) {
             return super.isStarted(testOnly);
         } else {
             final ServiceInfo cs = containedService;
@@ -498,7 +498,7 @@ final class CloneInfo extends ServiceInfo {
     @Override
     public boolean isEnslaved(final boolean testOnly) {
         final Host dcHost = getBrowser().getDCHost();
-        if (Tools.versionBeforePacemaker(dcHost)) {
+        if (dcHost.getCapabilities().isBeforePacemaker()) {
             return super.isEnslaved(testOnly);
         } else {
             final ServiceInfo cs = containedService;
@@ -514,7 +514,7 @@ final class CloneInfo extends ServiceInfo {
     @Override
     public boolean isStopped(final boolean testOnly) {
         final Host dcHost = getBrowser().getDCHost();
-        if (Tools.versionBeforePacemaker(dcHost)) {
+        if (dcHost.getCapabilities().isBeforePacemaker()) {
             return super.isStopped(testOnly);
         } else {
             final ServiceInfo cs = containedService;
@@ -529,7 +529,7 @@ final class CloneInfo extends ServiceInfo {
     @Override
     public boolean isManaged(final boolean testOnly) {
         final Host dcHost = getBrowser().getDCHost();
-        if (Tools.versionBeforePacemaker(dcHost)) {
+        if (dcHost.getCapabilities().isBeforePacemaker()) {
             return super.isManaged(testOnly);
         } else {
             final ServiceInfo cs = containedService;
@@ -548,7 +548,7 @@ final class CloneInfo extends ServiceInfo {
         }
         final ServiceInfo cs = containedService;
         if (cs != null) {
-            if (Tools.versionBeforePacemaker(dcHost)) {
+            if (dcHost.getCapabilities().isBeforePacemaker()) {
                 for (int i = 0;
                      i < getBrowser().getClusterHosts().length; i++) {
                     CRM.cleanupResource(dcHost,
@@ -569,7 +569,7 @@ final class CloneInfo extends ServiceInfo {
         if (!testOnly) {
             setUpdated(true);
         }
-        if (Tools.versionBeforePacemaker(dcHost)) {
+        if (dcHost.getCapabilities().isBeforePacemaker()) {
             super.startResource(dcHost, testOnly);
         } else {
             final ServiceInfo cs = containedService;
@@ -685,7 +685,7 @@ final class CloneInfo extends ServiceInfo {
         if (!testOnly) {
             setUpdated(true);
         }
-        if (Tools.versionBeforePacemaker(dcHost)) {
+        if (dcHost.getCapabilities().isBeforePacemaker()) {
             super.stopResource(dcHost, testOnly);
         } else {
             final ServiceInfo cs = containedService;
@@ -737,7 +737,7 @@ final class CloneInfo extends ServiceInfo {
         if (!testOnly) {
             setUpdated(true);
         }
-        if (Tools.versionBeforePacemaker(dcHost)) {
+        if (dcHost.getCapabilities().isBeforePacemaker()) {
             super.setManaged(isManaged, dcHost, testOnly);
         } else {
             final ServiceInfo cs = containedService;
@@ -833,6 +833,12 @@ final class CloneInfo extends ServiceInfo {
         return false;
     }
 
+    /** The panel contains the panels of the other services, keep it. */
+    @Override
+    boolean dropInfoPanel() {
+        return false;
+    }
+
     /** Update menus with positions and calles their update methods. */
     @Override
     void updateMenus(final Point2D pos) {
@@ -25,7 +25,7 @@ import lcmc.gui.Browser;
 import lcmc.gui.HostBrowser;
 import lcmc.gui.ClusterBrowser;
 import lcmc.data.Host;
-import lcmc.utilities.MyButton;
+import lcmc.utilities.ButtonCell;
 import java.util.List;
 import java.util.ArrayList;
 import java.awt.Color;
@@ -56,7 +56,7 @@ public final class ClusterHostsInfo extends CategoryInfo {
     protected Object[][] getTableData(final String tableName) {
         final List<Object[]> rows = new ArrayList<Object[]>();
         for (final Host host : getBrowser().getClusterHosts()) {
-            final MyButton hostLabel = new MyButton(
+            final ButtonCell hostLabel = new ButtonCell(
                                                 host.getName(),
                                                 HostBrowser.HOST_ICON_LARGE);
             hostLabel.setOpaque(true);
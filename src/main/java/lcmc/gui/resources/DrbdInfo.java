@@ -33,6 +33,7 @@ import lcmc.data.DRBDtestData;
 import lcmc.utilities.Tools;
 import lcmc.utilities.ButtonCallback;
 import lcmc.utilities.DRBD;
+import lcmc.utilities.ConfigDeployer;
 
 import java.awt.Component;
 import java.awt.Dimension;
@@ -42,6 +43,7 @@ import java.awt.event.ActionEvent;
 import java.util.Set;
 import java.util.Map;
 import java.util.List;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.concurrent.CountDownLatch;
@@ -144,6 +146,7 @@ public final class DrbdInfo extends DrbdGuiInfo {
                throws Exceptions.DrbdConfigException {
         /* resources */
         final Host[] hosts = getBrowser().getCluster().getHostsArray();
+        final List<ConfigDeployer> deployers = new ArrayList<ConfigDeployer>();
         for (Host host : hosts) {
             final StringBuilder globalConfig = new StringBuilder(160);
             globalConfig.append("## generated by drbd-gui\n\n");
@@ -241,39 +244,31 @@ public final class DrbdInfo extends DrbdGuiInfo {
                         "cp -r /etc/drbd.d{,.bak.`date +'%s'`} 2>/dev/null";
                 }
             }
+            final ConfigDeployer deployer = new ConfigDeployer(host, "0600");
             if (bigDRBDConf) {
                 /* one big drbd.conf */
-                host.getSSH().createConfig(globalConfig.toString()
-                                           + commonSectionConfig
-                                           + "\n\n"
-                                           + Tools.join("\n",
-                                                        resConfigs.values()),
-                                           configName,
-                                           dir,
-                                           "0600",
-                                           makeBackup,
-                                           preCommand,
-                                           null);
+                deployer.addFile(dir + configName,
+                                 globalConfig.toString()
+                                 + commonSectionConfig
+                                 + "\n\n"
+                                 + Tools.join("\n", resConfigs.values()),
+                                 makeBackup);
+                deployer.setPreCommand(preCommand);
             } else {
+                /* the new config is written into the copy of drbd.d, only
+                 * the changed files are shipped */
+                deployer.setStagingDir(dir + "drbd.d.temp/", dir + "drbd.d/");
+                deployer.setPreCommand(preCommand);
                 /* global */
-                host.getSSH().createConfig(globalConfig.toString()
-                                           + commonSectionConfig,
-                                           "global_common.conf",
-                                           dir + "drbd.d.temp/",
-                                           "0600",
-                                           false,
-                                           preCommand,
-                                           null);
+                deployer.addFile(dir + "drbd.d.temp/global_common.conf",
+                                 globalConfig.toString() + commonSectionConfig,
+                                 false);
                 /* *.res */
                 for (final String resConfigName : resConfigs.keySet()) {
-                    host.getSSH().createConfig(
-                                   resConfigs.get(resConfigName).toString(),
-                                   resConfigName + ".res",
-                                   dir + "drbd.d.temp/",
-                                   "0600",
-                                   false,
-                                   null,
-                                   null);
+                    deployer.addFile(
+                                 dir + "drbd.d.temp/" + resConfigName + ".res",
+                                 resConfigs.get(resConfigName),
+                                 false);
                 }
                 /* drbd.conf */
                 final StringBuilder tempDRBDConf = new StringBuilder(200);
@@ -281,32 +276,37 @@ public final class DrbdInfo extends DrbdGuiInfo {
                 tempDRBDConf.append("## generated by drbd-gui\n\n");
                 tempDRBDConf.append("include \"drbd.d/global_common.conf\";\n");
                 tempDRBDConf.append("include \"drbd.d/*.res\";");
-                host.getSSH().createConfig(tempDRBDConf.toString(),
-                                           configName + ".temp",
-                                           dir,
-                                           "0600",
-                                           false,
-                                           null,
-                                           null);
+                deployer.addFile(dir + configName + ".temp",
+                                 tempDRBDConf.toString(),
+                                 false);
                 final StringBuilder drbdConf = new StringBuilder(200);
                 /* drbd.conf -> drbd.d.temp/ (new config) */
                 drbdConf.append("## generated by drbd-gui\n\n");
                 drbdConf.append(
                             "include \"drbd.d.temp/global_common.conf\";\n");
                 drbdConf.append("include \"drbd.d.temp/*.res\";");
-                host.getSSH().createConfig(
-                               drbdConf.toString(),
-                               configName,
-                               dir,
-                               "0600",
-                               makeBackup,
-                               null,
-                               "rm -rf /etc/drbd.d 2>/dev/null; "
-                               + "cp -r /etc/drbd.d{.temp,} && "
-                               + "mv /etc/drbd.conf{.temp,} && "
-                               + "rm -rf /etc/drbd.d.temp/");
-                               /* all this is to stay atomic. */
+                deployer.addFile(dir + configName,
+                                 drbdConf.toString(),
+                                 makeBackup);
+                /* all this is to stay atomic: the new drbd.d is staged
+                   next to the old one and swapped in with renames, the
+                   old one is kept, till the swap succeeded. drbd.conf
+                   points to drbd.d.temp during the swap. */
+                deployer.setPostCommand(
+                    "rm -rf /etc/drbd.d.new /etc/drbd.d.old"
+                    + " && cp -a /etc/drbd.d.temp /etc/drbd.d.new"
+                    + " && { [ ! -e /etc/drbd.d ]"
+                    + " || mv /etc/drbd.d /etc/drbd.d.old; }"
+                    + " && { mv /etc/drbd.d.new /etc/drbd.d"
+                    + " || { mv /etc/drbd.d.old /etc/drbd.d; false; }; }"
+                    + " && mv /etc/drbd.conf{.temp,}"
+                    + " && rm -rf /etc/drbd.d.old /etc/drbd.d.temp/");
             }
+            deployers.add(deployer);
+        }
+        if (!ConfigDeployer.deployAll(deployers)) {
+            throw new Exceptions.DrbdConfigException(
+                                        "could not deploy the drbd config");
         }
     }
 
@@ -386,7 +386,7 @@ public final class DrbdInfo extends DrbdGuiInfo {
                 if (dcHost == null) {
                     return false;
                 }
-                if (Tools.versionBeforePacemaker(dcHost)) {
+                if (dcHost.getCapabilities().isBeforePacemaker()) {
                     return false;
                 }
                 return true;
@@ -1231,7 +1231,7 @@ public final class DrbdMultiSelectionInfo extends EditableInfo {
                 if (dcHost == null) {
                     return false;
                 }
-                if (Tools.versionBeforePacemaker(dcHost)) {
+                if (dcHost.getCapabilities().isBeforePacemaker()) {
                     return false;
                 }
                 return true;
@@ -1132,7 +1132,7 @@ public final class DrbdResourceInfo extends DrbdGuiInfo {
             }
             final Widget comboBox = wi;
             final Widget realComboBox = rwi;
-            comboBox.addListeners(new WidgetListener() {
+            comboBox.addListeners(new WidgetListener(getValidationExecutor()) {
                                 @Override
                                 public void check(final Object value) {
                                     checkParameterFields(comboBox,
@@ -1154,7 +1154,7 @@ public final class DrbdResourceInfo extends DrbdGuiInfo {
         }
         final Widget comboBox = pwi;
         final Widget realComboBox = prwi;
-        pwi.addListeners(new WidgetListener() {
+        pwi.addListeners(new WidgetListener(getValidationExecutor()) {
                                 @Override
                                 public void check(final Object value) {
                                     checkParameterFields(comboBox,
@@ -333,6 +333,16 @@ public final class DrbdVolumeInfo extends EditableInfo
         return infoPanel;
     }
 
+    /** Drops the info panel, it will be created again. */
+    @Override
+    boolean dropInfoPanel() {
+        if (infoPanel == null || getResource().isNew()) {
+            return false;
+        }
+        infoPanel = null;
+        return true;
+    }
+
     /** Return the first block devices. */
     public BlockDevInfo getFirstBlockDevInfo() {
         if (!blockDevInfos.isEmpty()) {
@@ -726,7 +736,6 @@ public final class DrbdVolumeInfo extends EditableInfo
         }
         cb.getDrbdGraph().getDrbdInfo().setSelectedNode(null);
         cb.getDrbdGraph().getDrbdInfo().selectMyself();
-        cb.getDrbdGraph().updatePopupMenus();
         cb.resetFilesystems();
 
         final DrbdXML dxml = new DrbdXML(hosts.toArray(new Host[hosts.size()]),
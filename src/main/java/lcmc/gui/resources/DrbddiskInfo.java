@@ -102,7 +102,7 @@ final class DrbddiskInfo extends ServiceInfo {
             final Thread t = new Thread(new Runnable() {
                 @Override
                 public void run() {
-                    dri.updateMenus(null);
+                    dri.updateVisibleMenus();
                 }
             });
             t.start();
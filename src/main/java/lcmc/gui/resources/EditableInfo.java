@@ -30,6 +30,7 @@ import lcmc.utilities.MyButton;
 import lcmc.utilities.Tools;
 import lcmc.utilities.Unit;
 import lcmc.utilities.WidgetListener;
+import lcmc.utilities.ValidationExecutor;
 import lcmc.data.CRMXML;
 import lcmc.data.ConfigData;
 import lcmc.data.AccessMode;
@@ -122,6 +123,9 @@ public abstract class EditableInfo extends Info {
     private MyButton applyButton;
     /** Revert button. */
     private MyButton revertButton;
+    /** Runs the checks of the widgets of this object, one at a time. */
+    private final ValidationExecutor validationExecutor =
+                new ValidationExecutor(ValidationExecutor.DEFAULT_DELAY);
     /** Is counted down, first time the info panel is initialized. */
     private final CountDownLatch infoPanelLatch = new CountDownLatch(1);
     /** List of advanced panels. */
@@ -436,7 +440,8 @@ public abstract class EditableInfo extends Info {
             SwingUtilities.invokeLater(new Runnable() {
                 @Override
                 public void run() {
-                    paramWi.addListeners(new WidgetListener() {
+                    paramWi.addListeners(
+                            new WidgetListener(validationExecutor) {
                                 @Override
                                 public void check(final Object value) {
                                     checkParameterFields(paramWi,
@@ -550,71 +555,74 @@ public abstract class EditableInfo extends Info {
         return moreOptionsPanel;
     }
 
-    /** Checks ands sets paramter fields. */
+    /**
+     * Checks ands sets paramter fields. It is called from the widget
+     * listeners, that run in the validation executor of this object, the
+     * buttons are set only if no newer check is waiting.
+     */
     public void checkParameterFields(final Widget paramWi,
                                      final Widget realParamWi,
                                      final String param,
                                      final String[] params,
                                      final MyButton thisApplyButton) {
-        final EditableInfo thisClass = this;
-        final Thread thread = new Thread(new Runnable() {
+        final long generation = validationExecutor.getGeneration();
+        boolean c;
+        boolean ch = false;
+        if (realParamWi == null) {
+            Tools.waitForSwing();
+            ch = checkResourceFieldsChanged(param, params);
+            c = checkResourceFieldsCorrect(param, params);
+        } else {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    if (paramWi.getValue() == null
+                        || paramWi.getValue() == Widget.NOTHING_SELECTED) {
+                        realParamWi.setValueAndWait(null);
+                    } else {
+                        final Object value = paramWi.getStringValue();
+                        realParamWi.setValueAndWait(value);
+                    }
+                }
+            });
+            Tools.waitForSwing();
+            c = checkResourceFieldsCorrect(param, params);
+        }
+        final boolean check = c;
+        final boolean changed = ch;
+        SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
-                //SwingUtilities.invokeLater(new Runnable() {
-                //    @Override
-                //    public void run() {
-                //        paramWi.setEditable();
-                //    }
-                //});
-                boolean c;
-                boolean ch = false;
-                if (realParamWi == null) {
-                    Tools.waitForSwing();
-                    ch = checkResourceFieldsChanged(param, params);
-                    c = checkResourceFieldsCorrect(param, params);
+                paramWi.setToolTipText(getToolTipText(param));
+                if (realParamWi != null) {
+                    realParamWi.setToolTipText(getToolTipText(param));
+                }
+                if (!validationExecutor.isCurrent(generation)) {
+                    /* superseded by a newer check */
+                    return;
+                }
+                if (thisApplyButton == applyButton) {
+                    thisApplyButton.setEnabled(
+                          !isDialogStarted()
+                          && check
+                          && (changed || getResource().isNew()));
                 } else {
-                    SwingUtilities.invokeLater(new Runnable() {
-                        @Override
-                        public void run() {
-                            if (paramWi.getValue() == null
-                                || paramWi.getValue() == Widget.NOTHING_SELECTED) {
-                                realParamWi.setValueAndWait(null);
-                            } else {
-                                final Object value = paramWi.getStringValue();
-                                realParamWi.setValueAndWait(value);
-                            }
-                        }
-                    });
-                    Tools.waitForSwing();
-                    c = checkResourceFieldsCorrect(param, params);
+                    /* wizard button */
+                    thisApplyButton.setEnabled(check);
+                }
+                if (revertButton != null) {
+                    revertButton.setEnabled(changed);
                 }
-                final boolean check = c;
-                final boolean changed = ch;
-                SwingUtilities.invokeLater(new Runnable() {
-                    @Override
-                    public void run() {
-                        if (thisApplyButton == applyButton) {
-                            thisApplyButton.setEnabled(
-                                  !isDialogStarted()
-                                  && check
-                                  && (changed || getResource().isNew()));
-                        } else {
-                            /* wizard button */
-                            thisApplyButton.setEnabled(check);
-                        }
-                        if (revertButton != null) {
-                            revertButton.setEnabled(changed);
-                        }
-                        paramWi.setToolTipText(
-                                getToolTipText(param));
-                        if (realParamWi != null) {
-                            realParamWi.setToolTipText(getToolTipText(param));
-                        }
-                    }
-                });
             }
         });
-        thread.start();
+    }
+
+    /**
+     * Returns the executor, that runs the checks of the widgets of this
+     * object one at a time.
+     */
+    protected final ValidationExecutor getValidationExecutor() {
+        return validationExecutor;
     }
 
     /** Get stored value in the combo box. */
@@ -1132,7 +1140,40 @@ public abstract class EditableInfo extends Info {
     /** Cleanup. */
     final void cleanup() {
         super.cleanup();
+        validationExecutor.cancel();
+        clearPanelLists();
+        InfoPanelCache.remove(this);
+    }
+
+    /**
+     * Releases the info panel and its widgets, if there are no changes that
+     * were not applied and no wizard uses the widgets. The panel will be
+     * created again from the saved values. Returns whether it was released.
+     */
+    final boolean releaseInfoPanel() {
+        final MyButton ab = getApplyButton();
+        if ((ab != null && ab.isEnabled())
+            || isDialogStarted()
+            || widgetHasPrefixed()) {
+            return false;
+        }
+        if (!dropInfoPanel()) {
+            return false;
+        }
+        widgetClear();
         clearPanelLists();
+        /* the rebuilt panel gets new buttons, so that the listeners of the
+           old panel don't pile up on them. */
+        oldApplyButton = null;
+        return true;
+    }
+
+    /**
+     * Forgets the cached info panel, so that it is created again, when it is
+     * needed. Returns false if the panel cannot be dropped.
+     */
+    boolean dropInfoPanel() {
+        return false;
     }
 
     /** Reload combo boxes. */
@@ -364,7 +364,7 @@ final class FilesystemInfo extends ServiceInfo {
             final Thread t = new Thread(new Runnable() {
                 @Override
                 public void run() {
-                    oldDvi.updateMenus(null);
+                    oldDvi.updateVisibleMenus();
                 }
             });
             t.start();
@@ -407,7 +407,7 @@ final class FilesystemInfo extends ServiceInfo {
             final Thread t = new Thread(new Runnable() {
                 @Override
                 public void run() {
-                    oldDvi.updateMenus(null);
+                    oldDvi.updateVisibleMenus();
                 }
             });
             t.start();
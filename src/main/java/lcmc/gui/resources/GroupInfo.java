@@ -1425,4 +1425,10 @@ public final class GroupInfo extends ServiceInfo {
             /* do nothing */
         }
     }
+
+    /** The panel contains the panels of the other services, keep it. */
+    @Override
+    boolean dropInfoPanel() {
+        return false;
+    }
 }
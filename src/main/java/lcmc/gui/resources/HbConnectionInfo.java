@@ -369,7 +369,7 @@ public class HbConnectionInfo extends EditableInfo {
                 if (dcHost == null) {
                     return false;
                 }
-                if (Tools.versionBeforePacemaker(dcHost)) {
+                if (dcHost.getCapabilities().isBeforePacemaker()) {
                     return false;
                 }
                 return true;
@@ -32,7 +32,6 @@ import lcmc.data.resources.Service;
 import lcmc.data.ConfigData;
 import lcmc.utilities.CRM;
 import lcmc.utilities.Tools;
-import lcmc.Exceptions;
 
 import java.util.Map;
 import java.util.HashMap;
@@ -441,15 +440,9 @@ final class HbOrderInfo extends EditableInfo
     @Override
     protected String isEnabled(final String param) {
         if (CRMXML.REQUIRE_ALL_ATTR.equals(param)) {
-            final String pmV = getBrowser().getDCHost().getPacemakerVersion();
-            try {
-                //TODO: get this from constraints-.rng files
-                if (pmV == null || Tools.compareVersions(pmV, "1.1.7") <= 0) {
-                    return NOT_AVAIL_FOR_PCMK_VERSION;
-                }
-            } catch (Exceptions.IllegalVersionException e) {
-                Tools.appWarning("unkonwn version: " + pmV);
-                /* enable it, if version check doesn't work */
+            //TODO: get this from constraints-.rng files
+            if (!getBrowser().getDCHost().getCapabilities().hasRequireAll()) {
+                return NOT_AVAIL_FOR_PCMK_VERSION;
             }
         }
         return null;
@@ -258,6 +258,18 @@ public final class HostInfo extends Info {
                 crmInfo = false;
                 crmConfigureShowButton.setEnabled(false);
                 crmConfigureCommitButton.setEnabled(false);
+                final ClusterStatus clStatus =
+                            getBrowser().getClusterBrowser().getClusterStatus();
+                if (clStatus != null) {
+                    /* rendered from the last cib, if it has only the
+                       elements, that are rendered, the crm shell is used
+                       otherwise */
+                    final String config = clStatus.getCrmConfigureShow();
+                    if (config != null) {
+                        execCallback.done(config);
+                        return;
+                    }
+                }
                 host.execCommand("HostBrowser.getCrmConfigureShow",
                                  execCallback,
                                  null,  /* ConvertCmdCallback */
@@ -295,7 +307,7 @@ public final class HostInfo extends Info {
              */
             @Override
             public boolean isEnabled() {
-                if (Tools.versionBeforePacemaker(host)) {
+                if (host.getCapabilities().isBeforePacemaker()) {
                     return false;
                 }
                 return true;
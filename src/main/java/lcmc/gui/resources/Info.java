@@ -33,6 +33,7 @@ import lcmc.utilities.UpdatableItem;
 import lcmc.utilities.MyCellRenderer;
 import lcmc.utilities.MyButtonCellRenderer;
 import lcmc.utilities.MyButton;
+import lcmc.utilities.KeyedTableModel;
 
 import javax.swing.ImageIcon;
 import javax.swing.JEditorPane;
@@ -74,7 +75,11 @@ import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Collections;
-import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.Lock;
 
@@ -93,6 +98,19 @@ public class Info implements Comparable<Info> {
     private Resource resource;
     /** Amount of frames per second. */
     private static final float FPS = Tools.getConfigData().getAnimFPS();
+    /** Number of threads that update the menu items. */
+    private static final int MENU_UPDATE_THREADS = 8;
+    /** Executor that evaluates the predicates of the menu items, when a
+     * menu is opened. */
+    private static final ExecutorService MENU_UPDATE_EXECUTOR =
+        Executors.newFixedThreadPool(MENU_UPDATE_THREADS, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread t = new Thread(r, "menu-update");
+                t.setDaemon(true);
+                return t;
+            }
+        });
     /** TODL: Checking for leak. */
     private int maxMenuList = 0;
 
@@ -108,6 +126,9 @@ public class Info implements Comparable<Info> {
     private JPopupMenu popup;
     /** Popup object lock. */
     private final Lock mPopupLock = new ReentrantLock();
+    /** Whether the popup is showing, it is set by its popup menu listener in
+     * the EDT. */
+    private volatile boolean popupShowing = false;
     /** menu of this object. */
     private JMenu menu;
     /** Menu list lock. */
@@ -125,8 +146,8 @@ public class Info implements Comparable<Info> {
     /** Table. */
     private final Map<String, JTable> tables = new HashMap<String, JTable>();
     /** Table models. */
-    private final Map<String, DefaultTableModel> tableModels =
-                                    new HashMap<String, DefaultTableModel>();
+    private final Map<String, KeyedTableModel> tableModels =
+                                      new HashMap<String, KeyedTableModel>();
     /** Log file icon. */
     public static final ImageIcon LOGFILE_ICON = Tools.createImageIcon(
                                   Tools.getDefault("Info.LogIcon"));
@@ -226,6 +247,18 @@ public class Info implements Comparable<Info> {
         }
     }
 
+    /** Returns whether there are widgets with a prefix, like in wizards. */
+    protected final boolean widgetHasPrefixed() {
+        synchronized (widgetHash) {
+            for (final String param : widgetHash.keySet()) {
+                if (param.indexOf(':') >= 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /** Clears the whole widget hash. */
     protected final void widgetClear() {
         for (final String param : widgetHash.keySet()) {
@@ -522,78 +555,58 @@ public class Info implements Comparable<Info> {
      * items.
      */
     public final JPopupMenu getPopup() {
-        mPopupLock.lock();
-        if (popup == null) {
-            final List<UpdatableItem> items = createPopup();
-            if (items != null) {
-                registerAllMenuItems(items);
-                try {
-                    SwingUtilities.invokeAndWait(new Runnable() {
-                        @Override
-                        public void run() {
-                            popup = new JPopupMenu();
-                        }
-                    });
-                } catch (final InterruptedException ix) {
-                    Thread.currentThread().interrupt();
-                } catch (final InvocationTargetException x) {
-                    Tools.printStackTrace();
-                }
-                SwingUtilities.invokeLater(new Runnable() {
-                    @Override
-                    public void run() {
-                        for (final UpdatableItem u : items) {
-                            popup.add((JMenuItem) u);
-                        }
-                    }
-                });
-            }
-        }
-        final JPopupMenu popup0 = popup;
-        mPopupLock.unlock();
-        if (popup0 != null) {
-            updateMenus(null);
-        }
-        return popup0;
+        return getPopup(null);
     }
 
-    /** Returns popup on the spefified position. */
+    /**
+     * Returns popup on the spefified position. The menu items are updated
+     * only now, that the menu is going to be shown.
+     */
     public final JPopupMenu getPopup(final Point2D pos) {
         mPopupLock.lock();
-        if (popup == null) {
-            final List<UpdatableItem> items = createPopup();
-            if (items != null) {
-                registerAllMenuItems(items);
-                try {
-                    SwingUtilities.invokeAndWait(new Runnable() {
-                        @Override
-                        public void run() {
-                            popup = new JPopupMenu();
-                        }
-                    });
-                } catch (final InterruptedException ix) {
-                    Thread.currentThread().interrupt();
-                } catch (final InvocationTargetException x) {
-                    Tools.printStackTrace();
-                }
-                for (final UpdatableItem u : items) {
-                    SwingUtilities.invokeLater(new Runnable() {
-                        @Override
-                        public void run() {
-                            popup.add((JMenuItem) u);
-                        }
-                    });
+        try {
+            if (popup == null) {
+                final List<UpdatableItem> items = createPopup();
+                if (items != null) {
+                    registerAllMenuItems(items);
+                    /* the popup is not realized yet, it is created in
+                     * this thread like its items */
+                    final JPopupMenu newPopup = new JPopupMenu();
+                    for (final UpdatableItem u : items) {
+                        newPopup.add((JMenuItem) u);
+                    }
+                    addPopupShowingListener(newPopup);
+                    popup = newPopup;
                 }
             }
+        } finally {
+            mPopupLock.unlock();
         }
         final JPopupMenu popup0 = popup;
-        mPopupLock.unlock();
         if (popup0 != null) {
             updateMenus(pos);
         }
         return popup0;
     }
 
+    /** Adds listener that tracks, whether the popup menu is showing. */
+    private void addPopupShowingListener(final JPopupMenu pm) {
+        pm.addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuCanceled(final PopupMenuEvent e) {
+                popupShowing = false;
+            }
+            @Override
+            public void popupMenuWillBecomeInvisible(final PopupMenuEvent e) {
+                popupShowing = false;
+            }
+            @Override
+            public void popupMenuWillBecomeVisible(final PopupMenuEvent e) {
+                popupShowing = true;
+            }
+        });
+    }
+
     /** Adds listener that deselects the toggle button, when the popup menu
         closes. */
     private void addPopupMenuListener(final JPopupMenu pm,
@@ -689,7 +702,12 @@ public class Info implements Comparable<Info> {
         mPopupLock.unlock();
     }
 
-    /** Update menus with positions and calles their update methods. */
+    /**
+     * Update menus with positions and calles their update methods. The items
+     * are updated in parallel and this method returns, after all of them
+     * are done. The items query the current cluster and drbd status, not a
+     * copy of it, so they may see a status update that comes in meanwhile.
+     */
     void updateMenus(final Point2D pos) {
         mMenuListLock.lock();
         if (menuList == null) {
@@ -698,9 +716,25 @@ public class Info implements Comparable<Info> {
             final List<UpdatableItem> menuListCopy =
                                        new ArrayList<UpdatableItem>(menuList);
             mMenuListLock.unlock();
+            final List<Future<?>> updates = new ArrayList<Future<?>>();
             for (final UpdatableItem i : menuListCopy) {
-                i.setPos(pos);
-                i.update();
+                updates.add(MENU_UPDATE_EXECUTOR.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        i.setPos(pos);
+                        i.update();
+                    }
+                }));
+            }
+            for (final Future<?> update : updates) {
+                try {
+                    update.get();
+                } catch (final InterruptedException ix) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (final ExecutionException ex) {
+                    Tools.appError("menu update failed", ex);
+                }
             }
             final int size = menuListCopy.size();
             if (size > maxMenuList) {
@@ -710,6 +744,24 @@ public class Info implements Comparable<Info> {
         }
     }
 
+    /**
+     * Updates the menu items after a status change, but only if the menu is
+     * showing. Menus that are not showing are updated, when they are opened.
+     */
+    public final void updateVisibleMenus() {
+        if (isMenuShowing()) {
+            updateMenus(null);
+        }
+    }
+
+    /**
+     * Returns whether the popup of this object is showing. It does not touch
+     * the swing components, so that it can be called from any thread.
+     */
+    private boolean isMenuShowing() {
+        return popupShowing;
+    }
+
     /** Registers all menu items. */
     final void registerAllMenuItems(
                                final List<UpdatableItem> allItemsAndSubitems) {
@@ -826,15 +878,8 @@ public class Info implements Comparable<Info> {
         final String[] colNames = getColumnNames(tableName);
         if (colNames != null && colNames.length > 0) {
             final Object[][] data = getTableData(tableName);
-            final DefaultTableModel tableModel =
-                new DefaultTableModel(data, colNames) {
-                    /** Serial version uid. */
-                    private static final long serialVersionUID = 1L;
-                    public final boolean isCellEditable(final int r,
-                                                        final int c) {
-                        return false;
-                    }
-                };
+            final KeyedTableModel tableModel =
+                                         new KeyedTableModel(data, colNames);
             tableModels.put(tableName, tableModel);
             final MyButtonCellRenderer bcr = new MyButtonCellRenderer() {
                          /** Serial version uid. */
@@ -1072,27 +1117,40 @@ public class Info implements Comparable<Info> {
         return new String[]{};
     }
 
-    /** Returns data for the table. */
+    /**
+     * Returns data for the table. It can be called outside of the swing
+     * thread, so the buttons are returned as ButtonCell objects, that the
+     * table model turns into the buttons.
+     */
     protected Object[][] getTableData(final String tableName) {
         return new Object[][]{};
     }
 
-    /** Updates data in the table. */
+    /**
+     * Updates data in the table. The data are collected in this thread and
+     * only the changed rows are updated and their buttons created in the
+     * swing thread.
+     */
     public final void updateTable(final String tableName) {
         Tools.debug(this, "update table: " + tableName, 2);
         final JTable table = tables.get(tableName);
-        final DefaultTableModel tableModel = tableModels.get(tableName);
+        final KeyedTableModel tableModel = tableModels.get(tableName);
         if (tableModel != null) {
             final String[] colNames = getColumnNames(tableName);
             if (colNames != null && colNames.length > 0) {
+                final Object[][] data = getTableData(tableName);
                 SwingUtilities.invokeLater(new Runnable() {
                     @Override
                     public void run() {
-                        final Object[][] data = getTableData(tableName);
                         Tools.debug(this, "update table in: " + getName(), 1);
-                        tableModel.setDataVector(data, colNames);
-                        tableModel.fireTableDataChanged();
-                        Tools.resizeTable(table, getDefaultWidths(tableName));
+                        if (tableModel.updateRows(data, colNames)) {
+                            Tools.resizeTable(table,
+                                              getDefaultWidths(tableName));
+                        }
+                        if (table != null) {
+                            /* row colors can change without the data */
+                            table.repaint();
+                        }
                     }
                 });
             }
@@ -0,0 +1,164 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+package lcmc.gui.resources;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.swing.SwingUtilities;
+import lcmc.gui.Browser;
+
+/**
+ * Keeps the info panels only for the infos that were viewed recently. When
+ * there are more than the maximum number of viewed infos, the panels and
+ * widgets of the least recently viewed ones are released and the panels
+ * are created again from the saved values, when they are viewed next time.
+ * Panels with changes that were not applied yet are never released, these
+ * infos are only forgotten, so that the cache doesn't hold them.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class InfoPanelCache {
+    /** Number of info panels that are kept. */
+    static final int MAX_PANELS = 30;
+    /** Number of the most recently viewed panels, that are never released. */
+    private static final int ALWAYS_KEPT = 10;
+    /** Viewed infos in the order of access, the last one is the newest. */
+    private static final Map<EditableInfo, Boolean> VIEWED =
+                    new LinkedHashMap<EditableInfo, Boolean>(16, 0.75f, true);
+    /** Viewed infos lock. */
+    private static final Lock M_VIEWED_LOCK = new ReentrantLock();
+
+    /** Private constructor, cannot be instantiated. */
+    private InfoPanelCache() {
+        /* no instantiation possible. */
+    }
+
+    /**
+     * Marks the info panel as viewed and releases the panels that were not
+     * viewed recently.
+     */
+    public static void viewed(final Info info) {
+        if (!(info instanceof EditableInfo)) {
+            return;
+        }
+        M_VIEWED_LOCK.lock();
+        try {
+            VIEWED.put((EditableInfo) info, Boolean.TRUE);
+            if (VIEWED.size() <= MAX_PANELS) {
+                return;
+            }
+        } finally {
+            M_VIEWED_LOCK.unlock();
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                releaseOldPanels();
+            }
+        });
+    }
+
+    /** Forgets the info, that was removed. */
+    static void remove(final EditableInfo info) {
+        M_VIEWED_LOCK.lock();
+        try {
+            VIEWED.remove(info);
+        } finally {
+            M_VIEWED_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Forgets all infos of the browser, that was closed, so that the cache
+     * doesn't keep the browser.
+     */
+    public static void removeBrowser(final Browser browser) {
+        if (browser == null) {
+            return;
+        }
+        M_VIEWED_LOCK.lock();
+        try {
+            final Iterator<EditableInfo> it = VIEWED.keySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().getBrowser() == browser) {
+                    it.remove();
+                }
+            }
+        } finally {
+            M_VIEWED_LOCK.unlock();
+        }
+    }
+
+    /** Returns whether the info is in the cache. */
+    static boolean contains(final EditableInfo info) {
+        M_VIEWED_LOCK.lock();
+        try {
+            return VIEWED.containsKey(info);
+        } finally {
+            M_VIEWED_LOCK.unlock();
+        }
+    }
+
+    /** Returns number of the infos, that have their panels cached. */
+    static int size() {
+        M_VIEWED_LOCK.lock();
+        try {
+            return VIEWED.size();
+        } finally {
+            M_VIEWED_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Releases the panels of the least recently viewed infos, that are over
+     * the limit. Infos that cannot release their panels keep them, but they
+     * are forgotten as well, otherwise the cache would keep them forever.
+     * The recently viewed ones are always kept. It must be called in the
+     * swing thread.
+     */
+    static void releaseOldPanels() {
+        final List<EditableInfo> oldest;
+        int over;
+        M_VIEWED_LOCK.lock();
+        try {
+            over = VIEWED.size() - MAX_PANELS;
+            oldest = new ArrayList<EditableInfo>(VIEWED.keySet());
+        } finally {
+            M_VIEWED_LOCK.unlock();
+        }
+        final int candidates = oldest.size() - ALWAYS_KEPT;
+        for (int i = 0; i < candidates && over > 0; i++) {
+            final EditableInfo ei = oldest.get(i);
+            ei.releaseInfoPanel();
+            remove(ei);
+            over--;
+        }
+    }
+}
@@ -1417,7 +1417,7 @@ public final class PcmkMultiSelectionInfo extends EditableInfo {
                 if (dcHost == null) {
                     return false;
                 }
-                if (Tools.versionBeforePacemaker(dcHost)) {
+                if (dcHost.getCapabilities().isBeforePacemaker()) {
                     return false;
                 }
                 return true;
@@ -26,6 +26,7 @@ import lcmc.gui.ClusterBrowser;
 import lcmc.data.ResourceAgent;
 import lcmc.utilities.Tools;
 import lcmc.utilities.MyButton;
+import lcmc.utilities.ButtonCell;
 import javax.swing.ImageIcon;
 import javax.swing.JPanel;
 import javax.swing.JComponent;
@@ -72,7 +73,7 @@ public final class ResourceAgentClassInfo extends HbCategoryInfo {
         /** Get classes */
         for (final ResourceAgent ra : getBrowser().getCRMXML().getServices(
                                                                   getName())) {
-            final MyButton nameLabel = new MyButton(ra.getName());
+            final ButtonCell nameLabel = new ButtonCell(ra.getName());
             rows.add(new Object[]{nameLabel,
                                   ra.getProvider()});
         }
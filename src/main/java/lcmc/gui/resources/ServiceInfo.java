@@ -278,6 +278,9 @@ public class ServiceInfo extends EditableInfo {
         } else {
             setResource(new Service(name));
         }
+        if (resourceAgent != null) {
+            getService().setParamSchema(resourceAgent.getParamSchema());
+        }
         getService().setNew(true);
     }
 
@@ -929,7 +932,7 @@ public class ServiceInfo extends EditableInfo {
         final String hbV = dcHost.getHeartbeatVersion();
         final String pmV = dcHost.getPacemakerVersion();
         String targetRoleString = "target-role";
-        if (Tools.versionBeforePacemaker(dcHost)) {
+        if (dcHost.getCapabilities().isBeforePacemaker()) {
             targetRoleString = "target_role";
         }
         String crmId = getHeartbeatId(testOnly);
@@ -952,7 +955,7 @@ public class ServiceInfo extends EditableInfo {
     public boolean isEnslaved(final boolean testOnly) {
         final Host dcHost = getBrowser().getDCHost();
         String targetRoleString = "target-role";
-        if (Tools.versionBeforePacemaker(dcHost)) {
+        if (dcHost.getCapabilities().isBeforePacemaker()) {
             targetRoleString = "target_role";
         }
         String crmId = getHeartbeatId(testOnly);
@@ -975,7 +978,7 @@ public class ServiceInfo extends EditableInfo {
     public boolean isStopped(final boolean testOnly) {
         final Host dcHost = getBrowser().getDCHost();
         String targetRoleString = "target-role";
-        if (Tools.versionBeforePacemaker(dcHost)) {
+        if (dcHost.getCapabilities().isBeforePacemaker()) {
             targetRoleString = "target_role";
         }
         String crmId = getHeartbeatId(testOnly);
@@ -1829,7 +1832,8 @@ public class ServiceInfo extends EditableInfo {
                               META_ATTRS_DEFAULT_VALUES,
                               getBrowser()));
         final Host dcHost = getBrowser().getDCHost();
-        if (isMetaAttrReferenced() || Tools.versionBeforePacemaker(dcHost)) {
+        if (isMetaAttrReferenced()
+            || dcHost.getCapabilities().isBeforePacemaker()) {
             return sl.toArray(new Info[sl.size()]);
         }
         getBrowser().lockNameToServiceInfo();
@@ -1886,7 +1890,8 @@ public class ServiceInfo extends EditableInfo {
         final Host dcHost = getBrowser().getDCHost();
         final String pmV = dcHost.getPacemakerVersion();
         final String hbV = dcHost.getHeartbeatVersion();
-        if (isOperationReferenced() || Tools.versionBeforePacemaker(dcHost)) {
+        if (isOperationReferenced()
+            || dcHost.getCapabilities().isBeforePacemaker()) {
             return sl.toArray(new Info[sl.size()]);
         }
         getBrowser().lockNameToServiceInfo();
@@ -2124,7 +2129,7 @@ public class ServiceInfo extends EditableInfo {
             sameAsOperationsWi.setValue(OPERATIONS_DEFAULT_VALUES_TEXT);
         }
         sameAsOperationsWi.addListeners(
-                        new WidgetListener() {
+                        new WidgetListener(getValidationExecutor()) {
                             @Override
                             public void check(final Object value) {
                                 final Info info = sameAsOperationsWiValue();
@@ -2508,7 +2513,7 @@ public class ServiceInfo extends EditableInfo {
         for (Host host : getBrowser().getClusterHosts()) {
             final HostInfo hi = host.getBrowser().getHostInfo();
             final Widget wi = scoreComboBoxHash.get(hi);
-            wi.addListeners(new WidgetListener() {
+            wi.addListeners(new WidgetListener(getValidationExecutor()) {
                                 @Override
                                 public void check(final Object value) {
                                     setApplyButtons(CACHED_FIELD, params);
@@ -2522,7 +2527,7 @@ public class ServiceInfo extends EditableInfo {
                                 }
                             });
         }
-        pingComboBox.addListeners(new WidgetListener() {
+        pingComboBox.addListeners(new WidgetListener(getValidationExecutor()) {
                                       @Override
                                       public void check(final Object value) {
                                           setApplyButtons(CACHED_FIELD, params);
@@ -2540,7 +2545,7 @@ public class ServiceInfo extends EditableInfo {
         final Widget wi = operationsComboBoxHash.get(op, param);
         mOperationsComboBoxHashReadLock.unlock();
         final String[] params = getParametersFromXML();
-        wi.addListeners(new WidgetListener() {
+        wi.addListeners(new WidgetListener(getValidationExecutor()) {
                             @Override
                             public void check(final Object value) {
                                 setApplyButtons(CACHED_FIELD, params);
@@ -2572,7 +2577,8 @@ public class ServiceInfo extends EditableInfo {
         sameAsMetaAttrsWi.setToolTipText(defaultMAIdRef);
         final Map<String, Widget> sameAsFields = new HashMap<String, Widget>();
         sameAsFields.put("Meta Attributes", sameAsMetaAttrsWi);
-        sameAsMetaAttrsWi.addListeners(new WidgetListener() {
+        sameAsMetaAttrsWi.addListeners(
+                        new WidgetListener(getValidationExecutor()) {
                             @Override
                             public void check(final Object value) {
                                 Info i = null;
@@ -2636,7 +2642,7 @@ public class ServiceInfo extends EditableInfo {
                 if (dcHost == null) {
                     return false;
                 }
-                if (Tools.versionBeforePacemaker(dcHost)) {
+                if (dcHost.getCapabilities().isBeforePacemaker()) {
                     return false;
                 }
                 return true;
@@ -2872,6 +2878,26 @@ public class ServiceInfo extends EditableInfo {
         return infoPanel;
     }
 
+    /** Drops the info panel and the widgets, that belong to it. */
+    @Override
+    boolean dropInfoPanel() {
+        if (infoPanel == null
+            || getService().isNew()
+            || getCloneInfo() != null
+            || groupInfo != null) {
+            return false;
+        }
+        infoPanel = null;
+        scoreComboBoxHash.clear();
+        mOperationsComboBoxHashWriteLock.lock();
+        try {
+            operationsComboBoxHash.clear();
+        } finally {
+            mOperationsComboBoxHashWriteLock.unlock();
+        }
+        return true;
+    }
+
     /** Clears the info panel cache, forcing it to reload. */
     @Override
     boolean selectAutomaticallyInTreeMenu() {
@@ -44,7 +44,6 @@ import lcmc.utilities.MyMenu;
 import lcmc.utilities.MyMenuItem;
 import lcmc.utilities.MyList;
 import lcmc.utilities.MyListModel;
-import lcmc.Exceptions;
 
 import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
@@ -373,7 +372,7 @@ public final class ServicesInfo extends EditableInfo {
             newCi.setParameters(resourceNode);
             if (!testOnly) {
                 newCi.setUpdated(false);
-                hg.repaint();
+                hg.repaintDirty();
             }
         }
         newCi.getService().setNew(false);
@@ -412,7 +411,7 @@ public final class ServicesInfo extends EditableInfo {
             newGi.setParameters(resourceNode);
             if (!testOnly) {
                 newGi.setUpdated(false);
-                hg.repaint();
+                hg.repaintDirty();
             }
         }
         newGi.getService().setNew(false);
@@ -580,6 +579,7 @@ public final class ServicesInfo extends EditableInfo {
             if (!testOnly) {
                 newSi.setUpdated(false);
             }
+            hg.markDirtyIfChanged(newSi);
         }
         if (newService) {
             SwingUtilities.invokeLater(new Runnable() {
@@ -589,7 +589,7 @@ public final class ServicesInfo extends EditableInfo {
                 }
             });
         }
-        hg.repaint();
+        hg.repaintDirty();
     }
 
     /**
@@ -889,11 +889,11 @@ public final class ServicesInfo extends EditableInfo {
                            that does not exist anymore. */
                         s.removeInfo();
                     } else if (!testOnly) {
-                        s.updateMenus(null);
+                        s.updateVisibleMenus();
                     }
                 }
             }
-            g.updateMenus(null);
+            g.updateVisibleMenus();
         }
         hg.setServiceIsPresentList(serviceIsPresent);
         /** Set placeholders to "new", if they have no connections. */
@@ -912,6 +912,7 @@ public final class ServicesInfo extends EditableInfo {
                     }
                 }
                 hg.killRemovedVertices();
+                hg.markChangedDirty();
                 hg.scale();
             }
         });
@@ -987,7 +988,7 @@ public final class ServicesInfo extends EditableInfo {
                 if (dcHost == null) {
                     return false;
                 }
-                if (Tools.versionBeforePacemaker(dcHost)) {
+                if (dcHost.getCapabilities().isBeforePacemaker()) {
                     return false;
                 }
                 return true;
@@ -1602,17 +1603,10 @@ public final class ServicesInfo extends EditableInfo {
 
                 @Override
                 public String enablePredicate() {
-                    final String pmV =
-                                getBrowser().getDCHost().getPacemakerVersion();
-                    try {
-                        //TODO: get this from constraints-.rng files
-                        if (pmV == null
-                            || Tools.compareVersions(pmV, "1.1.7") <= 0) {
-                            return HbOrderInfo.NOT_AVAIL_FOR_PCMK_VERSION;
-                        }
-                    } catch (Exceptions.IllegalVersionException e) {
-                        Tools.appWarning("unkonwn version: " + pmV);
-                        /* enable it, if version check doesn't work */
+                    //TODO: get this from constraints-.rng files
+                    if (!getBrowser().getDCHost().getCapabilities()
+                                                 .hasRequireAll()) {
+                        return HbOrderInfo.NOT_AVAIL_FOR_PCMK_VERSION;
                     }
                     if (getBrowser().clStatusFailed()) {
                         return ClusterBrowser.UNKNOWN_CLUSTER_STATUS_STRING;
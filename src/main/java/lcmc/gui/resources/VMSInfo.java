@@ -31,6 +31,7 @@ import lcmc.data.ConfigData;
 import lcmc.data.AccessMode;
 import lcmc.utilities.Tools;
 import lcmc.utilities.MyButton;
+import lcmc.utilities.ButtonCell;
 import lcmc.utilities.MyMenuItem;
 import lcmc.utilities.UpdatableItem;
 
@@ -119,9 +120,9 @@ public final class VMSInfo extends CategoryInfo {
                         getBrowser().findVMSVirtualDomainInfo(domainName);
             if (vmsvdi != null) {
                 dti.put(domainName, vmsvdi);
-                final MyButton domainNameLabel = new MyButton(domainName,
-                                                              hostIcon);
-                final MyButton removeDomain = new MyButton(
+                final ButtonCell domainNameLabel = new ButtonCell(domainName,
+                                                                  hostIcon);
+                final ButtonCell removeDomain = new ButtonCell(
                                                "Remove",
                                                ClusterBrowser.REMOVE_ICON_SMALL,
                                                "Remove " + domainName
@@ -48,6 +48,7 @@ import lcmc.utilities.MyMenuItem;
 import lcmc.utilities.VIRSH;
 import lcmc.utilities.Unit;
 import lcmc.utilities.MyButton;
+import lcmc.utilities.ButtonCell;
 import lcmc.utilities.WidgetListener;
 import lcmc.Exceptions;
 
@@ -2008,7 +2009,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
                 });
             }
             wi.addListeners(
-                        new WidgetListener() {
+                        new WidgetListener(getValidationExecutor()) {
                             @Override
                             public void check(final Object value) {
                                 checkParameterFields(wi,
@@ -2197,6 +2198,16 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
         return infoPanel;
     }
 
+    /** Drops the info panel, it will be created again. */
+    @Override
+    boolean dropInfoPanel() {
+        if (infoPanel == null || getResource().isNew()) {
+            return false;
+        }
+        infoPanel = null;
+        return true;
+    }
+
     /** Starts the domain. */
     void start(final Host host) {
         final boolean ret = VIRSH.start(host,
@@ -4009,9 +4020,10 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
         }
         rowColor = newColor;
         if (domainName != null) {
-            final MyButton domainNameLabel = new MyButton(domainName, hostIcon);
+            final ButtonCell domainNameLabel = new ButtonCell(domainName,
+                                                              hostIcon);
             domainNameLabel.setOpaque(true);
-            final MyButton removeDomain = new MyButton(
+            final ButtonCell removeDomain = new ButtonCell(
                                                "Remove",
                                                ClusterBrowser.REMOVE_ICON_SMALL,
                                                "Remove " + domainName
@@ -4047,7 +4059,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
         if (disks == null) {
             return new Object[0];
         }
-        final MyButton removeBtn = new MyButton(
+        final ButtonCell removeBtn = new ButtonCell(
                                            "Remove",
                                            ClusterBrowser.REMOVE_ICON_SMALL,
                                            "Remove " + targetDev);
@@ -4068,7 +4080,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
             mDiskToInfoLock.unlock();
             dkti.put(target.toString(), vdi);
         }
-        final MyButton targetDevLabel = new MyButton(
+        final ButtonCell targetDevLabel = new ButtonCell(
                                     target.toString(),
                                     BlockDevInfo.HARDDISK_ICON_LARGE);
         targetDevLabel.setOpaque(opaque);
@@ -4149,7 +4161,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
         if (filesystems == null) {
             return new Object[0];
         }
-        final MyButton removeBtn = new MyButton(
+        final ButtonCell removeBtn = new ButtonCell(
                                            "Remove",
                                            ClusterBrowser.REMOVE_ICON_SMALL,
                                            "Remove " + targetDev);
@@ -4168,7 +4180,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
             mFilesystemToInfoLock.unlock();
             dkti.put(target.toString(), vdi);
         }
-        final MyButton targetDevLabel = new MyButton(
+        final ButtonCell targetDevLabel = new ButtonCell(
                                     target.toString(),
                                     BlockDevInfo.HARDDISK_ICON_LARGE);
         targetDevLabel.setOpaque(opaque);
@@ -4215,7 +4227,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
         if (interfaces == null) {
             return new Object[0];
         }
-        final MyButton removeBtn = new MyButton(
+        final ButtonCell removeBtn = new ButtonCell(
                                            "Remove",
                                            ClusterBrowser.REMOVE_ICON_SMALL,
                                            "Remove " + mac);
@@ -4235,8 +4247,8 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
             final VMSInterfaceInfo vii = interfaceToInfo.get(mac);
             iToInfo.put(interf.toString(), vii);
         }
-        final MyButton iLabel = new MyButton(interf.toString(),
-                                             NetInfo.NET_I_ICON_LARGE);
+        final ButtonCell iLabel = new ButtonCell(interf.toString(),
+                                                 NetInfo.NET_I_ICON_LARGE);
         iLabel.setOpaque(opaque);
         final StringBuilder source = new StringBuilder(20);
         final String type = interfaceData.getType();
@@ -4263,7 +4275,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
         if (inputDevs == null) {
             return new Object[0];
         }
-        final MyButton removeBtn = new MyButton(
+        final ButtonCell removeBtn = new ButtonCell(
                                            "Remove",
                                            ClusterBrowser.REMOVE_ICON_SMALL,
                                            "Remove " + index);
@@ -4276,7 +4288,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
             final VMSInputDevInfo vidi = inputDevToInfo.get(index);
             iToInfo.put(index, vidi);
         }
-        final MyButton iLabel = new MyButton(index, null);
+        final ButtonCell iLabel = new ButtonCell(index, null);
         iLabel.setOpaque(opaque);
         return new Object[]{iLabel, removeBtn};
     }
@@ -4290,7 +4302,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
         if (graphicDisplays == null) {
             return new Object[0];
         }
-        final MyButton removeBtn = new MyButton(
+        final ButtonCell removeBtn = new ButtonCell(
                                            "Remove",
                                            ClusterBrowser.REMOVE_ICON_SMALL,
                                            "Remove " + index);
@@ -4304,7 +4316,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
             final VMSGraphicsInfo vidi = graphicsToInfo.get(index);
             iToInfo.put(index, vidi);
         }
-        final MyButton iLabel = new MyButton(index, VNC_ICON);
+        final ButtonCell iLabel = new ButtonCell(index, VNC_ICON);
         iLabel.setOpaque(opaque);
         return new Object[]{iLabel, removeBtn};
     }
@@ -4318,7 +4330,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
         if (sounds == null) {
             return new Object[0];
         }
-        final MyButton removeBtn = new MyButton(
+        final ButtonCell removeBtn = new ButtonCell(
                                            "Remove",
                                            ClusterBrowser.REMOVE_ICON_SMALL,
                                            "Remove " + index);
@@ -4332,7 +4344,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
             final VMSSoundInfo vidi = soundToInfo.get(index);
             iToInfo.put(index, vidi);
         }
-        final MyButton iLabel = new MyButton(model, null);
+        final ButtonCell iLabel = new ButtonCell(model, null);
         iLabel.setOpaque(opaque);
         return new Object[]{iLabel, removeBtn};
     }
@@ -4346,7 +4358,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
         if (serials == null) {
             return new Object[0];
         }
-        final MyButton removeBtn = new MyButton(
+        final ButtonCell removeBtn = new ButtonCell(
                                            "Remove",
                                            ClusterBrowser.REMOVE_ICON_SMALL,
                                            "Remove " + index);
@@ -4360,7 +4372,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
             final VMSSerialInfo vidi = serialToInfo.get(index);
             iToInfo.put(index, vidi);
         }
-        final MyButton iLabel = new MyButton(index, null);
+        final ButtonCell iLabel = new ButtonCell(index, null);
         iLabel.setOpaque(opaque);
         return new Object[]{iLabel, removeBtn};
     }
@@ -4374,7 +4386,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
         if (parallels == null) {
             return new Object[0];
         }
-        final MyButton removeBtn = new MyButton(
+        final ButtonCell removeBtn = new ButtonCell(
                                            "Remove",
                                            ClusterBrowser.REMOVE_ICON_SMALL,
                                            "Remove " + index);
@@ -4388,7 +4400,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
             final VMSParallelInfo vidi = parallelToInfo.get(index);
             iToInfo.put(index, vidi);
         }
-        final MyButton iLabel = new MyButton(index, null);
+        final ButtonCell iLabel = new ButtonCell(index, null);
         iLabel.setOpaque(opaque);
         return new Object[]{iLabel, removeBtn};
     }
@@ -4402,7 +4414,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
         if (videos == null) {
             return new Object[0];
         }
-        final MyButton removeBtn = new MyButton(
+        final ButtonCell removeBtn = new ButtonCell(
                                            "Remove",
                                            ClusterBrowser.REMOVE_ICON_SMALL,
                                            "Remove " + index);
@@ -4416,7 +4428,7 @@ public final class VMSVirtualDomainInfo extends EditableInfo {
             final VMSVideoInfo vidi = videoToInfo.get(index);
             iToInfo.put(index, vidi);
         }
-        final MyButton iLabel = new MyButton(modelType, null);
+        final ButtonCell iLabel = new ButtonCell(modelType, null);
         iLabel.setOpaque(opaque);
         return new Object[]{iLabel, removeBtn};
     }
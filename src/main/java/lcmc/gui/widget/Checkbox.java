@@ -180,14 +180,7 @@ public class Checkbox extends Widget {
             @Override
             public void itemStateChanged(final ItemEvent e) {
                 if (wl.isEnabled()) {
-                    final Object value = e.getItem();
-                    final Thread t = new Thread(new Runnable() {
-                        @Override
-                        public void run() {
-                            wl.check(value);
-                        }
-                    });
-                    t.start();
+                    wl.checkLater(e.getItem());
                 }
             }
         };
@@ -442,14 +442,7 @@ public abstract class Widget extends JPanel {
                             try {
                                 final String text =
                                    e.getDocument().getText(0, doc.getLength());
-
-                                final Thread t = new Thread(new Runnable() {
-                                    @Override
-                                    public void run() {
-                                        wl.check(text);
-                                    }
-                                });
-                                t.start();
+                                wl.checkLater(text);
                             } catch (BadLocationException ble) {
                                 Tools.appWarning("document listener error");
                             }
@@ -481,14 +474,7 @@ public abstract class Widget extends JPanel {
             public void itemStateChanged(final ItemEvent e) {
                 if (wl.isEnabled()
                     && e.getStateChange() == ItemEvent.SELECTED) {
-                    final Object value = e.getItem();
-                    final Thread t = new Thread(new Runnable() {
-                        @Override
-                        public void run() {
-                            wl.check(value);
-                        }
-                    });
-                    t.start();
+                    wl.checkLater(e.getItem());
                 }
             }
         };
@@ -0,0 +1,115 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.utilities;
+
+import javax.swing.ImageIcon;
+
+/**
+ * Description of a button in a table cell. The table data can be collected
+ * outside of the swing thread, the button itself is created from it by the
+ * table model in the swing thread, and only if the cell has changed.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class ButtonCell {
+    /** Text of the button, the key of the row in the first column. */
+    private final String text;
+    /** Icon of the button. */
+    private final ImageIcon icon;
+    /** Tooltip of the button. */
+    private final String toolTipText;
+    /** Whether it is a mini button. */
+    private boolean mini = false;
+    /** Whether the button is opaque, null for the default. */
+    private Boolean opaque = null;
+
+    /** Prepares a new <code>ButtonCell</code> object. */
+    public ButtonCell(final String text) {
+        this(text, null, null);
+    }
+
+    /** Prepares a new <code>ButtonCell</code> object. */
+    public ButtonCell(final String text, final ImageIcon icon) {
+        this(text, icon, null);
+    }
+
+    /** Prepares a new <code>ButtonCell</code> object. */
+    public ButtonCell(final String text,
+                      final ImageIcon icon,
+                      final String toolTipText) {
+        this.text = text;
+        this.icon = icon;
+        this.toolTipText = toolTipText;
+    }
+
+    /** Makes it a mini button. */
+    public void miniButton() {
+        mini = true;
+    }
+
+    /** Sets whether the button is opaque. */
+    public void setOpaque(final boolean opaque) {
+        this.opaque = opaque;
+    }
+
+    /** Returns text of the button. */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns whether the button shows this cell. The mini and opaque
+     * properties are taken from the same code, so they are not compared.
+     */
+    boolean isShownBy(final MyButton button) {
+        return equals(text, button.getText())
+               && icon == button.getIcon()
+               && equals(toolTipText, button.getToolTipText());
+    }
+
+    /** Creates the button. Must be called in the swing thread. */
+    MyButton createButton() {
+        final MyButton button;
+        if (toolTipText == null) {
+            button = new MyButton(text, icon);
+        } else {
+            button = new MyButton(text, icon, toolTipText);
+        }
+        if (mini) {
+            button.miniButton();
+        }
+        if (opaque != null) {
+            button.setOpaque(opaque);
+        }
+        return button;
+    }
+
+    /** Compares two strings that can be null. */
+    private static boolean equals(final String a, final String b) {
+        if (a == null) {
+            return b == null;
+        }
+        return a.equals(b);
+    }
+}
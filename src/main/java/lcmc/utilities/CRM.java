@@ -191,7 +191,7 @@ public final class CRM {
                 xml.append("<instance_attributes id=\"");
                 xml.append(instanceAttrId);
                 xml.append("\">");
-                if (Tools.versionBeforePacemaker(host)) {
+                if (host.getCapabilities().isBeforePacemaker()) {
                     /* 2.1.4 */
                     xml.append("<attributes>");
                 }
@@ -224,7 +224,7 @@ public final class CRM {
                     xml.append(value);
                     xml.append("\"/>");
                 }
-                if (Tools.versionBeforePacemaker(host)) {
+                if (host.getCapabilities().isBeforePacemaker()) {
                     /* 2.1.4 */
                     xml.append("</attributes>");
                 }
@@ -238,7 +238,7 @@ public final class CRM {
             xml.append("\"/>");
         } else if (pacemakerOps != null && !pacemakerOps.isEmpty()) {
             //TODO: not "else if" but update the referred service.
-            if (Tools.versionBeforePacemaker(host)) {
+            if (host.getCapabilities().isBeforePacemaker()) {
                 xml.append("<operations>");
             } else {
                 /* 2.1.4 does not have the id. */
@@ -302,7 +302,7 @@ public final class CRM {
         xml.append('\'');
         if (cloneId != null) {
             if (master) {
-                if (Tools.versionBeforePacemaker(host)) {
+                if (host.getCapabilities().isBeforePacemaker()) {
                     xml.append("<master_slave id=\"");
                 } else {
                     xml.append("<master id=\"");
@@ -349,7 +349,7 @@ public final class CRM {
         }
         if (cloneId != null) {
             if (master) {
-                if (Tools.versionBeforePacemaker(host)) {
+                if (host.getCapabilities().isBeforePacemaker()) {
                     xml.append("</master_slave>");
                 } else {
                     xml.append("</master>");
@@ -396,7 +396,7 @@ public final class CRM {
         xml.append('\'');
         if (cloneId != null) {
             if (master) {
-                if (Tools.versionBeforePacemaker(host)) {
+                if (host.getCapabilities().isBeforePacemaker()) {
                     xml.append("<master_slave id=\"");
                 } else {
                     xml.append("<master id=\"");
@@ -437,7 +437,7 @@ public final class CRM {
         xml.append("</group>");
         if (cloneId != null) {
             if (master) {
-                if (Tools.versionBeforePacemaker(host)) {
+                if (host.getCapabilities().isBeforePacemaker()) {
                     xml.append("</master_slave>");
                 } else {
                     xml.append("</master>");
@@ -833,7 +833,7 @@ public final class CRM {
         xml.append('\'');
         if (cloneId != null) {
             if (master) {
-                if (Tools.versionBeforePacemaker(host)) {
+                if (host.getCapabilities().isBeforePacemaker()) {
                     xml.append("<master_slave id=\"");
                 } else {
                     xml.append("<master id=\"");
@@ -861,7 +861,7 @@ public final class CRM {
         }
         if (cloneId != null) {
             if (master) {
-                if (Tools.versionBeforePacemaker(host)) {
+                if (host.getCapabilities().isBeforePacemaker()) {
                     xml.append("</master_slave>");
                 } else {
                     xml.append("</master>");
@@ -907,7 +907,7 @@ public final class CRM {
                                         final String resId,
                                         final boolean testOnly) {
         String cmd = "CRM.startResource";
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             cmd = "CRM.2.1.4.startResource";
         }
         final Map<String, String> replaceHash = new HashMap<String, String>();
@@ -924,7 +924,7 @@ public final class CRM {
                                            final String metaAttrsRefId) {
         final StringBuilder xml = new StringBuilder(360);
         String idPostfix = "-meta_attributes";
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             idPostfix = "-meta-options";
         }
         if (metaAttrsRefId == null) {
@@ -933,7 +933,7 @@ public final class CRM {
             xml.append(idPostfix);
             xml.append("\">");
 
-            if (Tools.versionBeforePacemaker(host)) {
+            if (host.getCapabilities().isBeforePacemaker()) {
                 /* 2.1.4 */
                 xml.append("<attributes>");
             }
@@ -950,7 +950,7 @@ public final class CRM {
                 xml.append("\"/>");
             }
 
-            if (Tools.versionBeforePacemaker(host)) {
+            if (host.getCapabilities().isBeforePacemaker()) {
                 /* 2.1.4 */
                 xml.append("</attributes>");
             }
@@ -975,7 +975,7 @@ public final class CRM {
             string = ".isManagedOff";
         }
         String cmd = "CRM" + string;
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             cmd = "CRM.2.1.4" + string;
         }
         final Map<String, String> replaceHash = new HashMap<String, String>();
@@ -994,7 +994,7 @@ public final class CRM {
             return false;
         }
         String cmd = "CRM.stopResource";
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             cmd = "CRM.2.1.4.stopResource";
         }
         final Map<String, String> replaceHash = new HashMap<String, String>();
@@ -1071,7 +1071,7 @@ public final class CRM {
         final StringBuilder xml = new StringBuilder(360);
         xml.append(
             "'<crm_config><cluster_property_set id=\"cib-bootstrap-options\">");
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             /* 2.1.4 */
             xml.append("<attributes>");
         }
@@ -1085,7 +1085,7 @@ public final class CRM {
             xml.append(args.get(arg));
             xml.append("\"/>");
         }
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             /* 2.1.4 */
             xml.append("</attributes>");
         }
@@ -1095,7 +1095,7 @@ public final class CRM {
                                                                "crm_config",
                                                                xml.toString()));
         if (rdiMetaArgs != null
-            && !Tools.versionBeforePacemaker(host)) {
+            && !host.getCapabilities().isBeforePacemaker()) {
             String updateOrReplace = "-R";
             if (rscDefaultsId == null) {
                 rscDefaultsId = "rsc-options";
@@ -1174,7 +1174,7 @@ public final class CRM {
         xml.append("'<rsc_colocation id=\"");
         xml.append(colocationId);
         final Map<String, String> convertHash = new HashMap<String, String>();
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             /* <= 2.1.4 */
             convertHash.put("rsc", "from");
             convertHash.put("with-rsc", "to");
@@ -1240,7 +1240,7 @@ public final class CRM {
         attrs.put("first", parentHbId);
         attrs.put("then", resId);
         final Map<String, String> convertHash = new HashMap<String, String>();
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             /* <= 2.1.4 */
             convertHash.put("first", "to");
             convertHash.put("then", "from");
@@ -1271,7 +1271,7 @@ public final class CRM {
                                     final Host standByHost,
                                     final boolean testOnly) {
         String cmd = "CRM.standByOn";
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             cmd = "CRM.2.1.4.standByOn";
         }
         final Map<String, String> replaceHash = new HashMap<String, String>();
@@ -1287,7 +1287,7 @@ public final class CRM {
                                      final boolean testOnly) {
         final Map<String, String> replaceHash = new HashMap<String, String>();
         String cmd = "CRM.standByOff";
-        if (Tools.versionBeforePacemaker(host)) {
+        if (host.getCapabilities().isBeforePacemaker()) {
             cmd = "CRM.2.1.4.standByOff";
         }
         replaceHash.put("@HOST@", standByHost.getName());
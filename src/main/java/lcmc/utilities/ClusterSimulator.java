@@ -0,0 +1,821 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+package lcmc.utilities;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Simulated cluster, that answers the lcmc-gui-helper commands of its
+ * nodes in-process, instead of the real hosts. It generates N nodes with
+ * M Dummy resources, DRBD volumes and VMs and changes their state with
+ * the configured event rate. The cluster, drbd and hw info streams have
+ * the same frames as the helper, so that the whole client pipeline can be
+ * load tested without real Pacemaker, DRBD and libvirt hosts.
+ *
+ * It is plugged in with SSH.setSimulator, or with the --simulate command
+ * line option. The other commands succeed with an empty output.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class ClusterSimulator {
+    /** Prefix of the node names. */
+    public static final String NODE_PREFIX = "sim-node-";
+    /** Prefix of the node ips. */
+    private static final String IP_PREFIX = "10.200.";
+    /** Size of the output chunks, like it comes from the ssh channel. */
+    private static final int CHUNK_SIZE = 8192;
+    /** How many drbd events are remembered for the streams. */
+    private static final int MAX_DRBD_EVENTS = 10000;
+    /** Helper command with its arguments. */
+    private static final Pattern HELPER_COMMAND =
+                      Pattern.compile("lcmc-gui-helper\\S*\\s+(\\S+)(.*)");
+    /** Number of nodes. */
+    private final int nodeCount;
+    /** Number of resources. */
+    private final int resourceCount;
+    /** Number of drbd volumes. */
+    private final int drbdCount;
+    /** Number of vms. */
+    private final int vmCount;
+    /** Events per second, 0 for no events. */
+    private final double eventsPerSecond;
+    /** Interval of the timeout resets and hw info in the streams. */
+    private volatile long interval = 10000;
+    /** Random generator for the events. */
+    private final Random random;
+    /** Node, where the resource runs, -1 if it is stopped. */
+    private final int[] resourceNode;
+    /** Whether the drbd volume is syncing. */
+    private final boolean[] drbdSyncing;
+    /** Whether the vm is running. */
+    private final boolean[] vmRunning;
+    /** Version of the cluster state. */
+    private long clusterVersion = 0;
+    /** Version of the vm state. */
+    private long vmVersion = 0;
+    /** Sequence number of the last drbd event. */
+    private long drbdEventSeq = 0;
+    /** Last drbd events, sequence number and volume. */
+    private final Deque<long[]> drbdEvents = new ArrayDeque<long[]>();
+    /** Cluster info for the clusterInfoVersion. */
+    private String clusterInfo = null;
+    /** Version of the cached cluster info. */
+    private long clusterInfoVersion = -1;
+    /** State lock. */
+    private final Lock mStateLock = new ReentrantLock();
+    /** Signaled, when the state changes. */
+    private final Condition stateChanged = mStateLock.newCondition();
+    /** Thread that generates the events. */
+    private volatile Thread eventThread = null;
+
+    /** Prepares a new <code>ClusterSimulator</code> object. */
+    public ClusterSimulator(final int nodeCount,
+                            final int resourceCount,
+                            final int drbdCount,
+                            final int vmCount,
+                            final double eventsPerSecond) {
+        this.nodeCount = nodeCount;
+        this.resourceCount = resourceCount;
+        this.drbdCount = drbdCount;
+        this.vmCount = vmCount;
+        this.eventsPerSecond = eventsPerSecond;
+        random = new Random(nodeCount * 31L + resourceCount);
+        resourceNode = new int[resourceCount];
+        for (int i = 0; i < resourceCount; i++) {
+            resourceNode[i] = i % nodeCount;
+        }
+        drbdSyncing = new boolean[drbdCount];
+        vmRunning = new boolean[vmCount];
+        for (int i = 0; i < vmCount; i++) {
+            vmRunning[i] = true;
+        }
+    }
+
+    /**
+     * Creates the simulator from the nodes:resources:drbd:vms:events
+     * specification, the missing parts are 0. Returns null if the
+     * specification cannot be parsed.
+     */
+    public static ClusterSimulator parse(final String spec) {
+        final String[] parts = spec.split(":");
+        if (parts.length > 5) {
+            return null;
+        }
+        final double[] values = new double[5];
+        try {
+            for (int i = 0; i < parts.length; i++) {
+                values[i] = Double.parseDouble(parts[i]);
+                if (values[i] < 0) {
+                    return null;
+                }
+            }
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+        if (values[0] < 1) {
+            return null;
+        }
+        return new ClusterSimulator((int) values[0],
+                                    (int) values[1],
+                                    (int) values[2],
+                                    (int) values[3],
+                                    values[4]);
+    }
+
+    /** Sets the interval of the timeout resets and hw info in ms. */
+    void setInterval(final long interval) {
+        this.interval = interval;
+    }
+
+    /** Returns the node names. */
+    public String[] getNodeNames() {
+        final String[] names = new String[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            names[i] = getNodeName(i);
+        }
+        return names;
+    }
+
+    /** Returns name of the node. */
+    private String getNodeName(final int node) {
+        return NODE_PREFIX + (node + 1);
+    }
+
+    /** Returns ip of the node. */
+    private String getNodeIp(final int node) {
+        return IP_PREFIX + ((node + 1) / 250) + "." + ((node + 1) % 250 + 1);
+    }
+
+    /** Returns ip of the simulated node, or null. */
+    public String getIp(final String name) {
+        final int node = getNode(name, null);
+        if (node < 0) {
+            return null;
+        }
+        return getNodeIp(node);
+    }
+
+    /**
+     * Returns the index of the simulated node with this ip or name, or -1
+     * if it is not simulated.
+     */
+    public int getNode(final String name, final String ip) {
+        for (int i = 0; i < nodeCount; i++) {
+            if ((ip != null && ip.equals(getNodeIp(i)))
+                || (name != null && name.equals(getNodeName(i)))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Starts the thread that generates the events. */
+    public void start() {
+        if (eventsPerSecond <= 0 || eventThread != null) {
+            return;
+        }
+        final long pause = (long) (1000 / eventsPerSecond);
+        final Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (eventThread == Thread.currentThread()) {
+                    event();
+                    if (pause > 0) {
+                        Tools.sleep(pause);
+                    }
+                }
+            }
+        });
+        eventThread = t;
+        t.start();
+    }
+
+    /** Stops the thread that generates the events. */
+    public void stop() {
+        eventThread = null;
+    }
+
+    /**
+     * Changes state of one random resource, drbd volume or vm, with the
+     * 7:2:1 odds.
+     */
+    void event() {
+        mStateLock.lock();
+        try {
+            final int r = random.nextInt(10);
+            if ((r < 7 || (drbdCount == 0 && vmCount == 0))
+                && resourceCount > 0) {
+                final int res = random.nextInt(resourceCount);
+                if (resourceNode[res] < 0) {
+                    resourceNode[res] = random.nextInt(nodeCount);
+                } else if (random.nextBoolean()) {
+                    resourceNode[res] = -1;
+                } else {
+                    resourceNode[res] = random.nextInt(nodeCount);
+                }
+                clusterVersion++;
+            } else if ((r < 9 || vmCount == 0) && drbdCount > 0) {
+                final int vol = random.nextInt(drbdCount);
+                drbdSyncing[vol] = !drbdSyncing[vol];
+                drbdEventSeq++;
+                drbdEvents.addLast(new long[]{drbdEventSeq, vol});
+                if (drbdEvents.size() > MAX_DRBD_EVENTS) {
+                    drbdEvents.removeFirst();
+                }
+            } else if (vmCount > 0) {
+                final int vm = random.nextInt(vmCount);
+                vmRunning[vm] = !vmRunning[vm];
+                vmVersion++;
+            } else {
+                return;
+            }
+            stateChanged.signalAll();
+        } finally {
+            mStateLock.unlock();
+        }
+    }
+
+    /**
+     * Executes the command on the simulated node. The streaming commands
+     * send the output to the callback, till the thread is interrupted.
+     */
+    public SSH.SSHOutput exec(final int node,
+                              final String command,
+                              final NewOutputCallback outputCallback) {
+        final Matcher m = HELPER_COMMAND.matcher(command);
+        if (!m.find()) {
+            return new SSH.SSHOutput("", 0);
+        }
+        final String option = m.group(1);
+        final String[] args = m.group(2).trim().split("\\s+");
+        final String output;
+        if ("all".equals(option)
+            || "hw-info".equals(option)
+            || "hw-info-lazy".equals(option)) {
+            output = getHwInfo(node);
+        } else if ("installation-info".equals(option)) {
+            output = getInstallationInfo(node);
+        } else if ("get-cluster-versions".equals(option)) {
+            output = getClusterVersions();
+        } else if ("get-vm-info".equals(option)) {
+            output = getVmInfo(node);
+        } else if ("get-drbd-info".equals(option)) {
+            output = "--drbd-info-start--" + timestamp() + "\n"
+                     + getDrbdXml() + "--drbd-info-end--\n";
+        } else if ("get-resource-agents".equals(option)) {
+            output = getResourceAgents(arg(args, 0));
+        } else if ("get-cluster-metadata".equals(option)) {
+            output = "<metadata>\n</metadata>\n";
+        } else if ("hw-info-daemon".equals(option)) {
+            hwInfoDaemon(node,
+                         arg(args, 0),
+                         arg(args, 1),
+                         arg(args, 2),
+                         outputCallback);
+            return new SSH.SSHOutput("", 130);
+        } else if ("get-cluster-events".equals(option)) {
+            clusterEvents(arg(args, 0), outputCallback);
+            return new SSH.SSHOutput("", 130);
+        } else if ("get-drbd-events".equals(option)) {
+            drbdEvents(node, arg(args, 0), outputCallback);
+            return new SSH.SSHOutput("", 130);
+        } else {
+            output = "";
+        }
+        if (outputCallback != null) {
+            send(outputCallback, output);
+            return new SSH.SSHOutput("", 0);
+        }
+        return new SSH.SSHOutput(pty(output), 0);
+    }
+
+    /** Returns argument or null. */
+    private static String arg(final String[] args, final int i) {
+        if (i < args.length && !"".equals(args[i])) {
+            return args[i];
+        }
+        return null;
+    }
+
+    /** Converts the line endings like the pty does. */
+    private static String pty(final String output) {
+        return output.replace("\n", "\r\n");
+    }
+
+    /** Sends the output in chunks, like they come from the ssh channel. */
+    private static void send(final NewOutputCallback outputCallback,
+                             final String output) {
+        final String out = pty(output);
+        for (int i = 0; i < out.length(); i += CHUNK_SIZE) {
+            outputCallback.output(
+                    out.substring(i, Math.min(out.length(), i + CHUNK_SIZE)));
+        }
+    }
+
+    /**
+     * Waits till the state changes or the interval passes. Returns false if
+     * the thread was interrupted. Must be called with the state lock.
+     */
+    private boolean await(final long nanos) {
+        try {
+            if (nanos > 0) {
+                stateChanged.awaitNanos(nanos);
+            }
+            return !Thread.currentThread().isInterrupted();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Streams the cluster info, like get-cluster-events of the helper.
+     * Every change is sent as a new ---start--- frame.
+     */
+    private void clusterEvents(final String knownHash,
+                               final NewOutputCallback outputCallback) {
+        long seen;
+        String info;
+        mStateLock.lock();
+        try {
+            seen = clusterVersion;
+            info = getClusterInfo();
+        } finally {
+            mStateLock.unlock();
+        }
+        final String hash = md5(info);
+        if (hash.equals(knownHash)) {
+            send(outputCallback, "---unchanged---\n");
+        } else {
+            send(outputCallback,
+                 "---start---" + hash + "\n" + info + "---done---\n");
+        }
+        while (true) {
+            info = null;
+            mStateLock.lock();
+            try {
+                final long deadline = System.nanoTime()
+                                  + TimeUnit.MILLISECONDS.toNanos(interval);
+                while (seen == clusterVersion) {
+                    final long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        break;
+                    }
+                    if (!await(left)) {
+                        return;
+                    }
+                }
+                if (seen != clusterVersion) {
+                    seen = clusterVersion;
+                    info = getClusterInfo();
+                }
+            } finally {
+                mStateLock.unlock();
+            }
+            if (info == null) {
+                send(outputCallback, "---reset---\n");
+            } else {
+                send(outputCallback,
+                     "---start---" + md5(info) + "\n" + info
+                     + "---done---\n");
+            }
+        }
+    }
+
+    /**
+     * Streams the drbd events of the node, like get-drbd-events of the
+     * helper.
+     */
+    private void drbdEvents(final int node,
+                            final String knownHash,
+                            final NewOutputCallback outputCallback) {
+        final String drbdXml = getDrbdXml();
+        if (drbdCount == 0) {
+            send(outputCallback, "--nm--\n");
+        } else if (!md5(drbdXml).equals(knownHash)) {
+            send(outputCallback, infoFrame("drbd", drbdXml));
+        }
+        long seen;
+        mStateLock.lock();
+        try {
+            seen = drbdEventSeq;
+        } finally {
+            mStateLock.unlock();
+        }
+        int counter = 0;
+        while (true) {
+            final StringBuilder out = new StringBuilder();
+            mStateLock.lock();
+            try {
+                if (seen == drbdEventSeq && !await(
+                                 TimeUnit.MILLISECONDS.toNanos(interval))) {
+                    return;
+                }
+                for (final long[] event : drbdEvents) {
+                    if (event[0] <= seen) {
+                        continue;
+                    }
+                    final int vol = (int) event[1];
+                    if (isDrbdNode(vol, node)) {
+                        counter++;
+                        out.append("--event-info-start--");
+                        out.append(timestamp());
+                        out.append('\n');
+                        out.append(getDrbdEvent(counter, vol, node));
+                        out.append("--event-info-end--\n");
+                    }
+                }
+                seen = drbdEventSeq;
+            } finally {
+                mStateLock.unlock();
+            }
+            if (out.length() == 0) {
+                send(outputCallback, "\n");
+            } else {
+                send(outputCallback, out.toString());
+            }
+        }
+    }
+
+    /**
+     * Streams the hw, vm and drbd info, like hw-info-daemon of the helper.
+     * The info is sent only if it differs from the previous one and from
+     * the known hash.
+     */
+    private void hwInfoDaemon(final int node,
+                              final String hwHash,
+                              final String vmHash,
+                              final String drbdHash,
+                              final NewOutputCallback outputCallback) {
+        final String hwInfo = getHwInfo(node);
+        String prevVmInfo = null;
+        boolean first = true;
+        while (true) {
+            final StringBuilder out = new StringBuilder("\n");
+            final String vmInfo = getVmInfo(node);
+            if (first) {
+                if (!md5(hwInfo).equals(hwHash)) {
+                    out.append(infoFrame("hw", hwInfo));
+                }
+                if (!md5(vmInfo).equals(vmHash)) {
+                    out.append(infoFrame("vm", vmInfo));
+                }
+                final String drbdXml = getDrbdXml();
+                if (!md5(drbdXml).equals(drbdHash)) {
+                    out.append(infoFrame("drbd", drbdXml));
+                }
+                first = false;
+            } else if (!vmInfo.equals(prevVmInfo)) {
+                out.append(infoFrame("vm", vmInfo));
+            }
+            prevVmInfo = vmInfo;
+            send(outputCallback, out.toString());
+            mStateLock.lock();
+            try {
+                if (!await(TimeUnit.MILLISECONDS.toNanos(interval))) {
+                    return;
+                }
+            } finally {
+                mStateLock.unlock();
+            }
+        }
+    }
+
+    /** Returns the info frame, like print_info in the helper. */
+    private static String infoFrame(final String type, final String info) {
+        return "--" + type + "-info-start--" + timestamp() + " " + md5(info)
+               + "\n" + info + "--" + type + "-info-end--\n";
+    }
+
+    /** Returns the timestamp in nanoseconds, like date +%s%N. */
+    private static String timestamp() {
+        return Long.toString(System.currentTimeMillis() * 1000000L);
+    }
+
+    /** Returns md5 hex of the string, like md5_hex in the helper. */
+    static String md5(final String s) {
+        try {
+            final MessageDigest md = MessageDigest.getInstance("MD5");
+            final byte[] digest = md.digest(s.getBytes("UTF-8"));
+            final StringBuilder hex = new StringBuilder(32);
+            for (final byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16));
+                hex.append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Returns the first node of the drbd volume. */
+    private int getDrbdNode(final int vol) {
+        return (2 * vol) % nodeCount;
+    }
+
+    /** Returns the second node of the drbd volume. */
+    private int getDrbdPeer(final int vol) {
+        return (2 * vol + 1) % nodeCount;
+    }
+
+    /** Returns whether the drbd volume is on the node. */
+    private boolean isDrbdNode(final int vol, final int node) {
+        return getDrbdNode(vol) == node || getDrbdPeer(vol) == node;
+    }
+
+    /** Returns the drbd event line. Must be called with the state lock. */
+    private String getDrbdEvent(final int counter,
+                                final int vol,
+                                final int node) {
+        final boolean primary = getDrbdNode(vol) == node;
+        final String cs;
+        if (drbdSyncing[vol]) {
+            cs = primary ? "SyncSource" : "SyncTarget";
+        } else {
+            cs = "Connected";
+        }
+        final String ro = primary ? "Primary/Secondary" : "Secondary/Primary";
+        return counter + " ST " + vol + ",r" + vol + "[0] { cs:" + cs
+               + " ro:" + ro + " ds:UpToDate/UpToDate r----- }\n";
+    }
+
+    /** Returns the drbd config, like drbdadm dump-xml. */
+    private String getDrbdXml() {
+        if (drbdCount == 0) {
+            return "";
+        }
+        final StringBuilder out = new StringBuilder();
+        out.append("<config file=\"/etc/drbd.conf\">\n<common>\n</common>\n");
+        for (int vol = 0; vol < drbdCount; vol++) {
+            out.append("<resource name=\"r").append(vol).append("\">\n");
+            for (final int node : new int[]{getDrbdNode(vol),
+                                            getDrbdPeer(vol)}) {
+                out.append("  <host name=\"").append(getNodeName(node));
+                out.append("\">\n    <volume vnr=\"0\">\n");
+                out.append("      <device minor=\"").append(vol);
+                out.append("\">/dev/drbd").append(vol).append("</device>\n");
+                out.append("      <disk>/dev/vg0/lv").append(vol);
+                out.append("</disk>\n");
+                out.append("      <meta-disk>internal</meta-disk>\n");
+                out.append("    </volume>\n");
+                out.append("    <address family=\"ipv4\" port=\"");
+                out.append(7788 + vol).append("\">").append(getNodeIp(node));
+                out.append("</address>\n  </host>\n");
+            }
+            out.append("</resource>\n");
+        }
+        out.append("</config>\n");
+        return out.toString();
+    }
+
+    /** Returns the hw info of the node, like hw-info. */
+    private String getHwInfo(final int node) {
+        final StringBuilder out = new StringBuilder();
+        out.append("net-info\neth0 ").append(getNodeIp(node));
+        out.append(String.format(" 52:54:00:00:%02x:%02x",
+                                 (node >> 8) & 0xff,
+                                 node & 0xff));
+        out.append(" 255.255.0.0\n");
+        out.append("disk-info\n/dev/sda1 rl:/dev/sda1 size:20971520 mp:/"
+                   + " fs:ext4\n");
+        for (int vol = 0; vol < drbdCount; vol++) {
+            if (isDrbdNode(vol, node)) {
+                out.append("/dev/vg0/lv").append(vol);
+                out.append(" rl:/dev/dm-").append(vol);
+                out.append(" size:1048576 lv:lv").append(vol);
+                out.append(" vg:vg0\n");
+                out.append("/dev/drbd").append(vol);
+                out.append(" rl:/dev/drbd").append(vol);
+                out.append(" size:1048544\n");
+            }
+        }
+        out.append("vg-info\nvg0 104857600\n");
+        out.append("filesystems-info\next3\next4\nxfs\n");
+        out.append("crypto-info\nmd5\nsha1\n");
+        out.append("qemu-keymaps-info\nen-us\n");
+        out.append("cpu-map-model-info\nqemu64\n");
+        out.append("cpu-map-vendor-info\nIntel\n");
+        out.append("mount-points-info\n/mnt\n");
+        out.append("installation-info\n").append(getInstallationInfo(node));
+        out.append("version-info\nLinux\nx86_64\n3.2.0-4-amd64\n7.0\n"
+                   + "debian\n");
+        return out.toString();
+    }
+
+    /** Returns the installation info of the node. */
+    private String getInstallationInfo(final int node) {
+        return getClusterVersions() + "hn:" + getNodeName(node) + "\n";
+    }
+
+    /** Returns the versions of the cluster software. */
+    private String getClusterVersions() {
+        return "hb:\npm:1.1.7\ncs:1.4.2\nais:\nhb-rc:\nais-rc:\ncs-rc:on\n"
+               + "pcmk-rc:\nhb-running:\ncs-running:on\nais-running:\n"
+               + "pcmk-running:\nhb-init:\ncs-init:on\nais-init:\n"
+               + "pcmk-init:\npcmk-svc-ver:0\nhb-conf:\ncs-ais-conf:on\n"
+               + "drbd:8.4.2\ndrbd-mod:8.4.2\ndrbd-loaded:on\n"
+               + "hb-lib-path:/usr/lib/heartbeat\n";
+    }
+
+    /** Returns the resource agents, only the Dummy agent is simulated. */
+    private String getResourceAgents(final String type) {
+        if ("quick".equals(type)) {
+            return "class:ocf\nprovider:heartbeat\nra:Dummy\nmaster:\n"
+                   + "class:stonith\n";
+        }
+        return "class:ocf\nprovider:heartbeat\nmaster:\n"
+               + "<?xml version=\"1.0\"?>\n"
+               + "<resource-agent name=\"Dummy\" version=\"0.9\">\n"
+               + "<version>1.0</version>\n"
+               + "<shortdesc lang=\"en\">Example stateless resource agent"
+               + "</shortdesc>\n"
+               + "<parameters>\n"
+               + "<parameter name=\"state\" unique=\"1\">\n"
+               + "<shortdesc lang=\"en\">State file</shortdesc>\n"
+               + "<content type=\"string\" default=\"\" />\n"
+               + "</parameter>\n"
+               + "</parameters>\n"
+               + "<actions>\n"
+               + "<action name=\"start\" timeout=\"20\" />\n"
+               + "<action name=\"stop\" timeout=\"20\" />\n"
+               + "<action name=\"monitor\" timeout=\"20\" interval=\"10\""
+               + " depth=\"0\" />\n"
+               + "<action name=\"meta-data\" timeout=\"5\" />\n"
+               + "</actions>\n"
+               + "</resource-agent>\n"
+               + "class:stonith\n";
+    }
+
+    /** Returns the vm info of the node, like get-vm-info. */
+    private String getVmInfo(final int node) {
+        final StringBuilder out = new StringBuilder();
+        out.append("<version>0.9.12</version>\n");
+        mStateLock.lock();
+        try {
+            for (int vm = 0; vm < vmCount; vm++) {
+                final boolean running =
+                                    vmRunning[vm] && vm % nodeCount == node;
+                out.append("<vm name=\"vm").append(vm);
+                out.append("\" autostart=\"False\">\n<info>\nState: ");
+                out.append(running ? "running" : "shut off");
+                out.append("\n</info>\n<vncdisplay>");
+                if (running) {
+                    out.append(':').append(vm);
+                }
+                out.append("</vncdisplay>\n<config>\n");
+                out.append("<domain type='kvm'>\n  <name>vm").append(vm);
+                out.append("</name>\n  <memory>524288</memory>\n"
+                           + "  <currentMemory>524288</currentMemory>\n"
+                           + "  <vcpu>1</vcpu>\n"
+                           + "  <os>\n"
+                           + "    <type arch='x86_64' machine='pc'>hvm</type>\n"
+                           + "    <boot dev='hd'/>\n"
+                           + "  </os>\n"
+                           + "  <devices>\n"
+                           + "    <emulator>/usr/bin/kvm</emulator>\n"
+                           + "    <disk type='file' device='disk'>\n"
+                           + "      <source file='/var/lib/libvirt/images/vm");
+                out.append(vm);
+                out.append(".img'/>\n"
+                           + "      <target dev='vda' bus='virtio'/>\n"
+                           + "    </disk>\n"
+                           + "    <graphics type='vnc' port='-1'"
+                           + " autoport='yes'/>\n"
+                           + "  </devices>\n"
+                           + "</domain>\n</config>\n</vm>\n");
+            }
+        } finally {
+            mStateLock.unlock();
+        }
+        final String vms = out.toString();
+        return "<vms md5=\"" + md5(vms) + "\">\n" + vms + "</vms>\n";
+    }
+
+    /**
+     * Returns the cluster info, like get_cluster_info in the helper. It is
+     * cached for the current version. Must be called with the state lock.
+     */
+    private String getClusterInfo() {
+        if (clusterInfoVersion == clusterVersion) {
+            return clusterInfo;
+        }
+        final StringBuilder out = new StringBuilder(resourceCount * 600);
+        out.append("res_status\nok\n<resource_status>\n");
+        for (int res = 0; res < resourceCount; res++) {
+            final int node = resourceNode[res];
+            out.append("  <resource id=\"res_Dummy_").append(res);
+            out.append("\" running=\"");
+            out.append(node < 0 ? "stopped" : "running");
+            out.append("\" managed=\"managed\">\n");
+            if (node >= 0) {
+                out.append("    <Started>").append(getNodeName(node));
+                out.append("</Started>\n");
+            }
+            out.append("  </resource>\n");
+        }
+        out.append("</resource_status>\n\n>>>res_status\n");
+        out.append("cibadmin\nok\n<pcmk>\n");
+        out.append("<cib epoch=\"").append(clusterVersion + 1);
+        out.append("\" num_updates=\"0\" admin_epoch=\"0\""
+                   + " validate-with=\"pacemaker-1.2\" have-quorum=\"1\""
+                   + " dc-uuid=\"").append(getNodeName(0)).append("\">\n");
+        out.append("  <configuration>\n    <crm_config>\n"
+                   + "      <cluster_property_set id=\"cib-bootstrap-options\">"
+                   + "\n        <nvpair id=\"cib-bootstrap-options-"
+                   + "stonith-enabled\" name=\"stonith-enabled\""
+                   + " value=\"false\"/>\n"
+                   + "      </cluster_property_set>\n    </crm_config>\n"
+                   + "    <nodes>\n");
+        for (int node = 0; node < nodeCount; node++) {
+            out.append("      <node id=\"").append(getNodeName(node));
+            out.append("\" uname=\"").append(getNodeName(node));
+            out.append("\" type=\"normal\"/>\n");
+        }
+        out.append("    </nodes>\n    <resources>\n");
+        for (int res = 0; res < resourceCount; res++) {
+            final String id = "res_Dummy_" + res;
+            out.append("      <primitive class=\"ocf\" id=\"").append(id);
+            out.append("\" provider=\"heartbeat\" type=\"Dummy\">\n");
+            out.append("        <operations>\n");
+            out.append("          <op id=\"").append(id);
+            out.append("-monitor-10\" interval=\"10\" name=\"monitor\""
+                       + " timeout=\"20\"/>\n");
+            out.append("        </operations>\n      </primitive>\n");
+        }
+        out.append("    </resources>\n    <constraints/>\n"
+                   + "  </configuration>\n  <status>\n");
+        final List<List<Integer>> running = new ArrayList<List<Integer>>();
+        for (int node = 0; node < nodeCount; node++) {
+            running.add(new ArrayList<Integer>());
+        }
+        for (int res = 0; res < resourceCount; res++) {
+            if (resourceNode[res] >= 0) {
+                running.get(resourceNode[res]).add(res);
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            final String name = getNodeName(node);
+            out.append("    <node_state id=\"").append(name);
+            out.append("\" uname=\"").append(name);
+            out.append("\" ha=\"active\" in_ccm=\"true\" crmd=\"online\""
+                       + " join=\"member\" expected=\"member\">\n");
+            out.append("      <lrm id=\"").append(name);
+            out.append("\">\n        <lrm_resources>\n");
+            for (final int res : running.get(node)) {
+                final String id = "res_Dummy_" + res;
+                out.append("          <lrm_resource id=\"").append(id);
+                out.append("\" type=\"Dummy\" class=\"ocf\""
+                           + " provider=\"heartbeat\">\n");
+                out.append("            <lrm_rsc_op id=\"").append(id);
+                out.append("_last_0\" operation=\"start\" call-id=\"");
+                out.append(res + 1);
+                out.append("\" rc-code=\"0\" op-status=\"0\""
+                           + " interval=\"0\"/>\n");
+                out.append("          </lrm_resource>\n");
+            }
+            out.append("        </lrm_resources>\n      </lrm>\n"
+                       + "    </node_state>\n");
+        }
+        out.append("  </status>\n</cib>\n</pcmk>\n>>>cibadmin\n");
+        clusterInfo = out.toString();
+        clusterInfoVersion = clusterVersion;
+        return clusterInfo;
+    }
+}
@@ -0,0 +1,417 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.utilities;
+
+import lcmc.data.Host;
+import lcmc.configs.DistResource;
+
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import ch.ethz.ssh2.crypto.Base64;
+
+/**
+ * Deploys a set of config files on one host. All files are shipped in one
+ * command, base64 encoded, instead of one command per file. The hashes of
+ * the deployed files are remembered and the files, that did not change
+ * since the last deployment, are not shipped again, they are only verified
+ * on the host. If the verification fails, everything is shipped again.
+ *
+ * Optionally the files are first written into a staging directory, that
+ * is a copy of the current directory, e.g. /etc/drbd.d.temp/, so that the
+ * post command can swap it in at once.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class ConfigDeployer {
+    /** Maximum length of one command, bigger deployments are split. Command
+     * line argument on Linux can have at most 128KB. */
+    private static final int MAX_SCRIPT_LENGTH = 64 * 1024;
+    /** Exit code, if a file that was not shipped has a wrong hash. */
+    private static final int EXIT_MISSING = 64;
+    /** Timeout of one command. */
+    private static final int TIMEOUT = 30000;
+    /** Hashes of the deployed files by host and file path. */
+    private static final Map<Host, Map<String, String>> DEPLOYED_HASHES =
+                                new WeakHashMap<Host, Map<String, String>>();
+    /** The host. */
+    private final Host host;
+    /** Mode of the config files, e.g. "0600". */
+    private final String mode;
+    /** Config files by their path. */
+    private final Map<String, String> files =
+                                          new LinkedHashMap<String, String>();
+    /** Paths of the files that should be backed up. */
+    private final List<String> backups = new ArrayList<String>();
+    /** Staging directory or null. */
+    private String stagingDir = null;
+    /** Directory that is copied into the staging directory. */
+    private String stagingSource = null;
+    /** Command that runs before the files are written. */
+    private String preCommand = null;
+    /** Command that runs after all files were written and verified. */
+    private String postCommand = null;
+
+    /** Prepares deployment of files with specified mode on the host. */
+    public ConfigDeployer(final Host host, final String mode) {
+        this.host = host;
+        this.mode = mode;
+    }
+
+    /** Adds config file with the full path. */
+    public void addFile(final String path,
+                        final String config,
+                        final boolean makeBackup) {
+        /* the file ends with new line like it did with the echo */
+        files.put(path, config + "\n");
+        if (makeBackup) {
+            backups.add(path);
+        }
+    }
+
+    /**
+     * Sets staging directory. It is created as a copy of the source
+     * directory and the files in it, that were not added, are removed.
+     */
+    public void setStagingDir(final String dir, final String source) {
+        stagingDir = dir;
+        stagingSource = source;
+    }
+
+    /** Sets command that runs before the files are written. */
+    public void setPreCommand(final String preCommand) {
+        this.preCommand = preCommand;
+    }
+
+    /** Sets command that runs after the files were written. */
+    public void setPostCommand(final String postCommand) {
+        this.postCommand = postCommand;
+    }
+
+    /**
+     * Deploys the configs on all hosts in parallel and waits for them.
+     * Returns whether it was successful on all hosts.
+     */
+    public static boolean deployAll(final List<ConfigDeployer> deployers) {
+        final List<Thread> threads = new ArrayList<Thread>();
+        final List<ConfigDeployer> failed =
+              Collections.synchronizedList(new ArrayList<ConfigDeployer>());
+        for (final ConfigDeployer deployer : deployers) {
+            final Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    if (!deployer.deploy()) {
+                        failed.add(deployer);
+                    }
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        for (final Thread t : threads) {
+            try {
+                t.join();
+            } catch (java.lang.InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return failed.isEmpty();
+    }
+
+    /**
+     * Deploys the configs, returns whether it was successful. The failure
+     * is reported.
+     */
+    public boolean deploy() {
+        final boolean ok = deployFiles();
+        if (!ok) {
+            reportFailure();
+        }
+        return ok;
+    }
+
+    /** Deploys the configs, returns whether it was successful. */
+    private boolean deployFiles() {
+        if (!host.getSSH().isConnected()) {
+            return false;
+        }
+        final Map<String, String> hashes = new LinkedHashMap<String, String>();
+        for (final Map.Entry<String, String> file : files.entrySet()) {
+            hashes.put(file.getKey(), md5(file.getValue()));
+        }
+        Map<String, String> deployed;
+        synchronized (DEPLOYED_HASHES) {
+            deployed = DEPLOYED_HASHES.get(host);
+            if (deployed == null) {
+                deployed = new HashMap<String, String>();
+            } else {
+                deployed = new HashMap<String, String>(deployed);
+            }
+        }
+        int exitCode = deploy(hashes, deployed);
+        if (exitCode == EXIT_MISSING) {
+            Tools.debug(this, host.getName() + ": configs changed on the host,"
+                              + " deploying all of them", 1);
+            exitCode = deploy(hashes, new HashMap<String, String>());
+        }
+        synchronized (DEPLOYED_HASHES) {
+            Map<String, String> hostHashes = DEPLOYED_HASHES.get(host);
+            if (hostHashes == null) {
+                hostHashes = new HashMap<String, String>();
+                DEPLOYED_HASHES.put(host, hostHashes);
+            }
+            for (final String path : hashes.keySet()) {
+                if (exitCode == 0 && canSkip(path)) {
+                    hostHashes.put(path, hashes.get(path));
+                } else {
+                    hostHashes.remove(path);
+                }
+            }
+        }
+        return exitCode == 0;
+    }
+
+    /**
+     * Ships the files that are not in the deployed hashes, verifies the
+     * others and returns the exit code.
+     */
+    private int deploy(final Map<String, String> hashes,
+                       final Map<String, String> deployed) {
+        final List<String> parts = new ArrayList<String>();
+        final StringBuilder verify = new StringBuilder(100);
+        for (final String path : files.keySet()) {
+            final String hash = hashes.get(path);
+            if (canSkip(path) && hash.equals(deployed.get(path))) {
+                verify.append("[ \"`md5sum < '");
+                verify.append(path);
+                verify.append("' 2>/dev/null`\" = '");
+                verify.append(hash);
+                verify.append("  -' ] || { echo 'missing: ");
+                verify.append(path);
+                verify.append("'; err=");
+                verify.append(EXIT_MISSING);
+                verify.append("; };\n");
+            } else {
+                parts.add(writeFileCommand(path));
+            }
+        }
+        final StringBuilder last = new StringBuilder(verify);
+        last.append("if [ $err = 0 ]; then ");
+        if (postCommand == null) {
+            last.append("true");
+        } else {
+            last.append(postCommand);
+        }
+        last.append(" || err=1; fi;\n");
+
+        final List<String> scripts = new ArrayList<String>();
+        StringBuilder script = new StringBuilder(getHeader());
+        for (final String part : parts) {
+            if (script.length() + part.length() > MAX_SCRIPT_LENGTH) {
+                scripts.add(script.toString());
+                script = new StringBuilder("err=0;\n");
+            }
+            script.append("[ $err = 0 ] && { ");
+            script.append(part);
+            script.append(" || err=1; };\n");
+        }
+        script.append(last);
+        scripts.add(script.toString());
+
+        for (final String s : scripts) {
+            final SSH.SSHOutput out = host.getSSH().execCommandAndWait(
+                            DistResource.SUDO + "bash -c \""
+                            + Tools.escapeQuotes(s + "exit $err", 1)
+                            + "\"",
+                            false,
+                            false,
+                            TIMEOUT);
+            final int exitCode = out.getExitCode();
+            if (exitCode != 0) {
+                if (exitCode != EXIT_MISSING) {
+                    reportErrors(out.getOutput());
+                }
+                return exitCode;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns start of the script, with the pre command and the staging
+     * directory.
+     */
+    private String getHeader() {
+        final StringBuilder header = new StringBuilder(200);
+        header.append("err=0;\n");
+        if (preCommand != null) {
+            header.append(preCommand);
+            header.append(";\n");
+        }
+        if (stagingDir != null) {
+            header.append("rm -rf ");
+            header.append(stagingDir);
+            header.append("; mkdir -p ");
+            header.append(stagingDir);
+            header.append(" && cp -a ");
+            header.append(stagingSource);
+            header.append(". ");
+            header.append(stagingDir);
+            header.append(" 2>/dev/null;\n");
+            /* remove files, that are not part of the config anymore */
+            header.append("for f in ");
+            header.append(stagingDir);
+            header.append("*; do case \"$f\" in ");
+            for (final String path : files.keySet()) {
+                if (path.startsWith(stagingDir)) {
+                    header.append('\'');
+                    header.append(path);
+                    header.append("') ;; ");
+                }
+            }
+            header.append("*) rm -f \"$f\";; esac; done;\n");
+        }
+        return header.toString();
+    }
+
+    /** Returns command that writes the file with its backup. */
+    private String writeFileCommand(final String path) {
+        final StringBuilder cmd = new StringBuilder(200);
+        final int index = path.lastIndexOf('/');
+        if (index > 0) {
+            cmd.append("mkdir -p '");
+            cmd.append(path.substring(0, index + 1));
+            cmd.append("' && ");
+        }
+        final boolean makeBackup = backups.contains(path);
+        if (makeBackup) {
+            cmd.append("{ cp '");
+            cmd.append(path);
+            cmd.append("'{,.bak} 2>/dev/null; true; } && ");
+        }
+        cmd.append("echo '");
+        try {
+            cmd.append(Base64.encode(files.get(path).getBytes("UTF-8")));
+        } catch (UnsupportedEncodingException e) {
+            Tools.appError("unsupported encoding", e);
+        }
+        cmd.append("' | base64 -d > '");
+        cmd.append(path);
+        cmd.append(".new'");
+        if (mode != null) {
+            cmd.append(" && chmod ");
+            cmd.append(mode);
+            cmd.append(" '");
+            cmd.append(path);
+            cmd.append(".new'");
+        }
+        cmd.append(" && mv '");
+        cmd.append(path);
+        cmd.append("'{.new,}");
+        if (makeBackup) {
+            cmd.append(" && { if ! diff '");
+            cmd.append(path);
+            cmd.append("'{,.bak} >/dev/null 2>&1; then mv '");
+            cmd.append(path);
+            cmd.append("'{.bak,.`date +'%s'`} 2>/dev/null; true;");
+            cmd.append(" else rm -f '");
+            cmd.append(path);
+            cmd.append(".bak'; fi; }");
+        }
+        return cmd.toString();
+    }
+
+    /**
+     * Returns whether the file can be skipped, if it did not change. Files
+     * outside of the staging directory can be changed by the post command.
+     */
+    private boolean canSkip(final String path) {
+        if (stagingDir != null && path.startsWith(stagingDir)) {
+            return true;
+        }
+        return postCommand == null;
+    }
+
+    /** Reports that the deployment on this host failed. */
+    private void reportFailure() {
+        Tools.appWarning(host.getName() + ": deploying of "
+                         + files.keySet() + " failed");
+        final Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Tools.progressIndicatorFailed(
+                                    host.getName(),
+                                    Tools.getString("ConfigDeployer.Failed"),
+                                    3000);
+            }
+        });
+        t.start();
+    }
+
+    /** Shows the error lines from the output of the deployment. */
+    private void reportErrors(final String ans) {
+        if (ans == null) {
+            return;
+        }
+        for (final String line : ans.split("\n")) {
+            if (line.indexOf("error:") != 0) {
+                continue;
+            }
+            final Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Tools.progressIndicatorFailed(host.getName(), line, 3000);
+                }
+            });
+            t.start();
+        }
+    }
+
+    /** Returns md5 hash of the string in hex. */
+    private static String md5(final String s) {
+        try {
+            final MessageDigest md = MessageDigest.getInstance("MD5");
+            final byte[] digest = md.digest(s.getBytes("UTF-8"));
+            final StringBuilder hex = new StringBuilder(32);
+            for (final byte b : digest) {
+                hex.append(String.format("%02x", b & 0xff));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            Tools.appError("md5 not available", e);
+        } catch (UnsupportedEncodingException e) {
+            Tools.appError("unsupported encoding", e);
+        }
+        return "";
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+package lcmc.utilities;
+
+import javax.swing.table.DefaultTableModel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Vector;
+
+/**
+ * Table model, whose rows are identified by the key in the first column,
+ * the text of the button there. The new data are compared with the rows
+ * in the model and only the inserted, deleted and changed rows are
+ * reported to the table, so that the sorting, selection and the scroll
+ * position survive the update.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public class KeyedTableModel extends DefaultTableModel {
+    /** Serial version uid. */
+    private static final long serialVersionUID = 1L;
+
+    /** Prepares a new <code>KeyedTableModel</code> object. */
+    public KeyedTableModel(final Object[][] data, final Object[] colNames) {
+        super(createButtons(data), colNames);
+    }
+
+    /** Cells in the table are not editable. */
+    @Override
+    public boolean isCellEditable(final int r, final int c) {
+        return false;
+    }
+
+    /** Returns key of the row, from its first cell. */
+    static String getKey(final Object o) {
+        if (o instanceof MyButton) {
+            return ((MyButton) o).getText();
+        } else if (o instanceof ButtonCell) {
+            return ((ButtonCell) o).getText();
+        }
+        return String.valueOf(o);
+    }
+
+    /**
+     * Updates the rows in the model with the new data. Returns whether
+     * something has changed. Must be called in the swing thread, the
+     * buttons for the changed button cells are created here.
+     */
+    @SuppressWarnings("unchecked")
+    public final boolean updateRows(final Object[][] data,
+                                    final Object[] colNames) {
+        if (colNames.length != getColumnCount()) {
+            setDataVector(createButtons(data), colNames);
+            return true;
+        }
+        final Vector<Vector<Object>> rows = getDataVector();
+        final Map<String, Integer> newIndex = new HashMap<String, Integer>();
+        for (int i = 0; i < data.length; i++) {
+            final Object[] row = data[i];
+            if (row.length != colNames.length || row.length == 0
+                || newIndex.put(getKey(row[0]), i) != null) {
+                /* malformed data or duplicate keys, cannot diff */
+                setDataVector(createButtons(data), colNames);
+                return true;
+            }
+        }
+        boolean changed = false;
+        /* deleted rows */
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            if (!newIndex.containsKey(getKey(rows.get(i).get(0)))) {
+                removeRow(i);
+                changed = true;
+            }
+        }
+        /* moved rows, the old row objects keep the state of their buttons */
+        final int[] positions = new int[rows.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = newIndex.get(getKey(rows.get(i).get(0)));
+        }
+        final boolean[] kept = keptInOrder(positions);
+        final Map<String, Vector<Object>> moved =
+                                        new HashMap<String, Vector<Object>>();
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            if (!kept[i]) {
+                final Vector<Object> row = rows.get(i);
+                moved.put(getKey(row.get(0)), row);
+                removeRow(i);
+                changed = true;
+            }
+        }
+        /* the rows that are left are in the same order as in the data */
+        for (int i = 0; i < data.length; i++) {
+            final String key = getKey(data[i][0]);
+            if (i < rows.size() && key.equals(getKey(rows.get(i).get(0)))) {
+                if (updateCells(rows.get(i), data[i])) {
+                    fireTableRowsUpdated(i, i);
+                    changed = true;
+                }
+                continue;
+            }
+            final Vector<Object> oldRow = moved.get(key);
+            if (oldRow == null) {
+                insertRow(i, createButtons(data[i]));
+            } else {
+                updateCells(oldRow, data[i]);
+                insertRow(i, oldRow);
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Returns which positions form the longest increasing sequence, these
+     * rows can stay, where they are.
+     */
+    private static boolean[] keptInOrder(final int[] positions) {
+        final int size = positions.length;
+        final int[] tails = new int[size];
+        final int[] previous = new int[size];
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            final int p = positions[i];
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                final int mid = (lo + hi) >>> 1;
+                if (positions[tails[mid]] < p) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            previous[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == length) {
+                length++;
+            }
+        }
+        final boolean[] kept = new boolean[size];
+        int i = length > 0 ? tails[length - 1] : -1;
+        while (i >= 0) {
+            kept[i] = true;
+            i = previous[i];
+        }
+        return kept;
+    }
+
+    /**
+     * Replaces the cells of the row that are different. Returns whether
+     * something has changed.
+     */
+    private static boolean updateCells(final Vector<Object> row,
+                                       final Object[] newRow) {
+        boolean changed = false;
+        for (int c = 0; c < newRow.length; c++) {
+            final Object cell = newRow[c];
+            final Object oldCell = row.get(c);
+            if (cell instanceof ButtonCell) {
+                if (!(oldCell instanceof MyButton)
+                    || !((ButtonCell) cell).isShownBy((MyButton) oldCell)) {
+                    row.set(c, ((ButtonCell) cell).createButton());
+                    changed = true;
+                }
+            } else if (!cellEquals(oldCell, cell)) {
+                row.set(c, cell);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /** Returns the rows with the buttons created from the button cells. */
+    private static Object[][] createButtons(final Object[][] data) {
+        if (data == null) {
+            return null;
+        }
+        final Object[][] rows = new Object[data.length][];
+        for (int i = 0; i < data.length; i++) {
+            rows[i] = createButtons(data[i]);
+        }
+        return rows;
+    }
+
+    /** Returns the row with the buttons created from the button cells. */
+    private static Object[] createButtons(final Object[] data) {
+        final Object[] row = new Object[data.length];
+        for (int c = 0; c < data.length; c++) {
+            if (data[c] instanceof ButtonCell) {
+                row[c] = ((ButtonCell) data[c]).createButton();
+            } else {
+                row[c] = data[c];
+            }
+        }
+        return row;
+    }
+
+    /** Returns whether the cells show the same value. */
+    static boolean cellEquals(final Object a, final Object b) {
+        if (a == b) {
+            return true;
+        }
+        if (a == null || b == null) {
+            return false;
+        }
+        if (a instanceof MyButton && b instanceof MyButton) {
+            final MyButton ba = (MyButton) a;
+            final MyButton bb = (MyButton) b;
+            return equals(ba.getText(), bb.getText())
+                   && ba.getIcon() == bb.getIcon()
+                   && equals(ba.getToolTipText(), bb.getToolTipText());
+        }
+        if (a instanceof Object[] && b instanceof Object[]) {
+            return Arrays.equals((Object[]) a, (Object[]) b);
+        }
+        return a.equals(b);
+    }
+
+    /** Compares two strings that can be null. */
+    private static boolean equals(final String a, final String b) {
+        if (a == null) {
+            return b == null;
+        }
+        return a.equals(b);
+    }
+}
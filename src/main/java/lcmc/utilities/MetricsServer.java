@@ -0,0 +1,135 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+package lcmc.utilities;
+
+import lcmc.data.ClusterMonitor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the states of the monitored clusters and the timings of their
+ * status pipelines on http://ADDRESS:PORT/metrics in the Prometheus text
+ * format. The metrics are collected on every request, there is no other
+ * copy of the states.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class MetricsServer {
+    /** Path of the metrics. */
+    public static final String METRICS_PATH = "/metrics";
+    /** Http OK. */
+    private static final int HTTP_OK = 200;
+    /** Http not found. */
+    private static final int HTTP_NOT_FOUND = 404;
+    /** Monitored clusters. */
+    private final List<ClusterMonitor> monitors;
+    /** Http server. */
+    private final HttpServer server;
+
+    /**
+     * Prepares a new <code>MetricsServer</code> object, that listens on the
+     * address and port. The metrics reveal the cluster layout, so only
+     * the loopback address should be used without a firewall.
+     */
+    public MetricsServer(final String address,
+                         final int port,
+                         final List<ClusterMonitor> monitors)
+    throws IOException {
+        this.monitors = monitors;
+        server = HttpServer.create(new InetSocketAddress(address, port), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange)
+            throws IOException {
+                handleRequest(exchange);
+            }
+        });
+    }
+
+    /** Starts the server in the background. */
+    public void start() {
+        server.start();
+        Tools.info("serving metrics on "
+                   + getAddress().getHostAddress()
+                   + ":"
+                   + server.getAddress().getPort()
+                   + METRICS_PATH);
+    }
+
+    /** Stops the server. */
+    public void stop() {
+        server.stop(0);
+    }
+
+    /** Returns the port, that the server listens on. */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Returns the address, that the server listens on. */
+    InetAddress getAddress() {
+        return server.getAddress().getAddress();
+    }
+
+    /** Returns all metrics in the text format. */
+    public String getMetrics() {
+        final PrometheusMetrics metrics = new PrometheusMetrics();
+        for (final ClusterMonitor monitor : monitors) {
+            monitor.collect(metrics);
+        }
+        final Runtime runtime = Runtime.getRuntime();
+        metrics.gauge("lcmc_heap_used_bytes",
+                      "Used heap of the monitor.",
+                      runtime.totalMemory() - runtime.freeMemory());
+        return metrics.toString();
+    }
+
+    /** Sends the metrics or 404. */
+    private void handleRequest(final HttpExchange exchange)
+    throws IOException {
+        try {
+            if (!METRICS_PATH.equals(exchange.getRequestURI().getPath())) {
+                exchange.sendResponseHeaders(HTTP_NOT_FOUND, -1);
+                return;
+            }
+            final byte[] body = getMetrics().getBytes("UTF-8");
+            exchange.getResponseHeaders().set("Content-Type",
+                                              PrometheusMetrics.CONTENT_TYPE);
+            exchange.sendResponseHeaders(HTTP_OK, body.length);
+            final OutputStream out = exchange.getResponseBody();
+            out.write(body);
+            out.close();
+        } finally {
+            exchange.close();
+        }
+    }
+}
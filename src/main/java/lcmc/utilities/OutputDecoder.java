@@ -0,0 +1,99 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Reads the output of a command and decodes it with one decoder and the
+ * same buffers for every read. The bytes of a character that was split
+ * between two reads are kept till the next read.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+final class OutputDecoder {
+    /** Charset of the output of commads. */
+    private static final Charset OUTPUT_CHARSET = Charset.forName("UTF-8");
+    /** Decoder, invalid characters are replaced. */
+    private final CharsetDecoder decoder =
+                        OUTPUT_CHARSET.newDecoder()
+                             .onMalformedInput(CodingErrorAction.REPLACE)
+                             .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    /** Bytes that were read and not decoded yet. */
+    private final ByteBuffer bytes;
+    /** Decoded characters, utf-8 never has more chars than bytes. */
+    private final CharBuffer chars;
+
+    /** Prepares a new <code>OutputDecoder</code> object. */
+    OutputDecoder(final int size) {
+        bytes = ByteBuffer.allocate(size);
+        chars = CharBuffer.allocate(size);
+    }
+
+    /** Prepares the decoder for the output of the next command. */
+    void reset() {
+        decoder.reset();
+        bytes.clear();
+    }
+
+    /**
+     * Reads the available bytes without blocking. Returns number of bytes
+     * that were read.
+     */
+    int read(final InputStream in) throws IOException {
+        if (in.available() == 0 || !bytes.hasRemaining()) {
+            return 0;
+        }
+        final int len = in.read(bytes.array(),
+                                bytes.arrayOffset() + bytes.position(),
+                                bytes.remaining());
+        if (len > 0) {
+            bytes.position(bytes.position() + len);
+            return len;
+        }
+        return 0;
+    }
+
+    /**
+     * Decodes the bytes that were read. The returned buffer is reused by the
+     * next call.
+     */
+    CharBuffer decode(final boolean endOfInput) {
+        bytes.flip();
+        chars.clear();
+        decoder.decode(bytes, chars, endOfInput);
+        if (endOfInput) {
+            decoder.flush(chars);
+        }
+        bytes.compact();
+        chars.flip();
+        return chars;
+    }
+}
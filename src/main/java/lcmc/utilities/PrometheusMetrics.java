@@ -0,0 +1,169 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+package lcmc.utilities;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects metric samples and writes them in the Prometheus text exposition
+ * format. Samples of one family are written together under one HELP and
+ * TYPE line, in the order in which the families were first added.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class PrometheusMetrics {
+    /** Gauge metric type. */
+    public static final String GAUGE = "gauge";
+    /** Counter metric type. */
+    public static final String COUNTER = "counter";
+    /** Summary metric type, with _sum and _count samples. */
+    public static final String SUMMARY = "summary";
+    /** Content type of the text format. */
+    public static final String CONTENT_TYPE =
+                               "text/plain; version=0.0.4; charset=utf-8";
+    /** Metric families by name. */
+    private final Map<String, Family> families =
+                                        new LinkedHashMap<String, Family>();
+
+    /**
+     * Adds a sample. Labels are name, value pairs. Suffix is appended to the
+     * family name, e.g. "_sum" for summaries, it can be empty.
+     */
+    public void add(final String family,
+                    final String type,
+                    final String help,
+                    final String suffix,
+                    final double value,
+                    final String... labels) {
+        Family f = families.get(family);
+        if (f == null) {
+            f = new Family(type, help);
+            families.put(family, f);
+        }
+        final StringBuilder sample = new StringBuilder(80);
+        sample.append(family);
+        sample.append(suffix);
+        if (labels.length > 1) {
+            sample.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (i > 0) {
+                    sample.append(',');
+                }
+                sample.append(labels[i]);
+                sample.append("=\"");
+                appendEscaped(sample, labels[i + 1]);
+                sample.append('"');
+            }
+            sample.append('}');
+        }
+        sample.append(' ');
+        sample.append(formatValue(value));
+        f.samples.add(sample.toString());
+    }
+
+    /** Adds a gauge sample. */
+    public void gauge(final String family,
+                      final String help,
+                      final double value,
+                      final String... labels) {
+        add(family, GAUGE, help, "", value, labels);
+    }
+
+    /** Returns the metrics in the text format. */
+    @Override
+    public String toString() {
+        final StringBuilder out = new StringBuilder(4096);
+        for (final Map.Entry<String, Family> e : families.entrySet()) {
+            final Family f = e.getValue();
+            out.append("# HELP ");
+            out.append(e.getKey());
+            out.append(' ');
+            out.append(f.help.replace("\\", "\\\\").replace("\n", "\\n"));
+            out.append('\n');
+            out.append("# TYPE ");
+            out.append(e.getKey());
+            out.append(' ');
+            out.append(f.type);
+            out.append('\n');
+            for (final String sample : f.samples) {
+                out.append(sample);
+                out.append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    /** Appends the label value with escaped backslash, quote and new line. */
+    private static void appendEscaped(final StringBuilder sb,
+                                      final String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\\') {
+                sb.append("\\\\");
+            } else if (c == '"') {
+                sb.append("\\\"");
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    /** Returns the value as integer if it has no fraction. */
+    private static String formatValue(final double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        } else if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        } else if (value == Math.rint(value)
+                   && Math.abs(value) < Long.MAX_VALUE) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /** One metric family. */
+    private static final class Family {
+        /** Metric type. */
+        private final String type;
+        /** Help text. */
+        private final String help;
+        /** Formatted samples. */
+        private final List<String> samples = new ArrayList<String>();
+
+        /** Prepares a new <code>Family</code> object. */
+        Family(final String type, final String help) {
+            this.type = type;
+            this.help = help;
+        }
+    }
+}
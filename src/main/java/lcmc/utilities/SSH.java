@@ -25,6 +25,7 @@ package lcmc.utilities;
 import lcmc.data.Host;
 import lcmc.gui.SSHGui;
 import lcmc.gui.ProgressBar;
+import lcmc.gui.TerminalPanel;
 import lcmc.configs.DistResource;
 
 import javax.swing.SwingUtilities;
@@ -32,6 +33,7 @@ import javax.swing.SwingUtilities;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.CharBuffer;
 
 import ch.ethz.ssh2.Connection;
 import ch.ethz.ssh2.ServerHostKeyVerifier;
@@ -39,6 +41,7 @@ import ch.ethz.ssh2.InteractiveCallback;
 import ch.ethz.ssh2.Session;
 import ch.ethz.ssh2.ChannelCondition;
 import ch.ethz.ssh2.KnownHosts;
+import ch.ethz.ssh2.KeepAliveMonitor;
 import ch.ethz.ssh2.LocalPortForwarder;
 import ch.ethz.ssh2.SCPClient;
 import ch.ethz.ssh2.channel.ChannelManager;
@@ -74,6 +77,11 @@ public final class SSH {
     private static final int ERROR_EXIT_CODE = 255;
     /** Size of the buffer for output of commads. */
     private static final int EXEC_OUTPUT_BUFFER_SIZE = 8192;
+    /**
+     * How much of the output is kept for the exec callback, if it's
+     * streamed.
+     */
+    private static final int STREAMING_KEPT_OUTPUT = 4096;
     /** Last successful password. */
     private String lastPassword = null;
     /** Last successful rsa key. */
@@ -96,9 +104,52 @@ public final class SSH {
     public static final int NO_COMMAND_TIMEOUT = 0;
     /** Sudo prompt. */
     public static final String SUDO_PROMPT = "DRBD MC sudo pwd: ";
+    /** Simulated cluster, that answers the commands of its nodes. */
+    private static volatile ClusterSimulator simulator = null;
+
+    /**
+     * Sets the simulated cluster, that answers the commands of its nodes
+     * instead of the real hosts, null switches it off.
+     */
+    public static void setSimulator(final ClusterSimulator simulator) {
+        SSH.simulator = simulator;
+    }
+
+    /** Returns index of the string in the chars or -1. */
+    static int indexOf(final CharSequence chars, final String s) {
+        final int last = chars.length() - s.length();
+        for (int i = 0; i <= last; i++) {
+            int j = 0;
+            while (j < s.length() && chars.charAt(i + j) == s.charAt(j)) {
+                j++;
+            }
+            if (j == s.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Returns the simulated cluster or null. */
+    public static ClusterSimulator getSimulator() {
+        return simulator;
+    }
+
+    /** Returns the simulated node of this host, or -1. */
+    private int getSimulatedNode() {
+        final ClusterSimulator sim = simulator;
+        final Host h = host;
+        if (sim == null || h == null) {
+            return -1;
+        }
+        return sim.getNode(h.getName(), h.getIp());
+    }
 
     /** Reconnect. */
     boolean reconnect() {
+        if (getSimulatedNode() >= 0) {
+            return true;
+        }
         mConnectionThreadLock.lock();
         if (connectionThread == null) {
             mConnectionThreadLock.unlock();
@@ -124,7 +175,7 @@ public final class SSH {
             this.sshGui = new SSHGui(Tools.getGUIData().getMainFrame(),
                                      host,
                                      null);
-            host.getTerminalPanel().addCommand("ssh " + host.getUserAtHost());
+            terminalCommand("ssh " + host.getUserAtHost());
             final ConnectionThread ct = new ConnectionThread();
             mConnectionThreadLock.lock();
             connectionThread = ct;
@@ -142,6 +193,14 @@ public final class SSH {
         this.callback = callback;
         this.host = host;
         connectionFailed = false;
+        if (getSimulatedNode() >= 0) {
+            disconnectForGood = false;
+            terminalCommand("ssh " + host.getUserAtHost());
+            if (callback != null) {
+                callback.done(0);
+            }
+            return;
+        }
         if (connection != null) {
             // already connected
             if (callback != null) {
@@ -150,7 +209,7 @@ public final class SSH {
             return;
         }
 
-        host.getTerminalPanel().addCommand("ssh " + host.getUserAtHost());
+        terminalCommand("ssh " + host.getUserAtHost());
         final ConnectionThread ct = new ConnectionThread();
         mConnectionThreadLock.lock();
         connectionThread = ct;
@@ -226,8 +285,7 @@ public final class SSH {
         Tools.debug(this, "SSH cancel", 1);
         final String message = "canceled";
         Tools.debug(this, message, 1);
-        host.getTerminalPanel().addCommandOutput(message + "\n");
-        host.getTerminalPanel().nextCommand();
+        terminalOutput(message + "\n");
         connectionFailed = true;
         if (callback != null) {
               callback.doneError(message);
@@ -246,8 +304,7 @@ public final class SSH {
         Tools.debug(this, message, 1);
         //sess.close();
         //sess = null;
-        host.getTerminalPanel().addCommandOutput("\n");
-        host.getTerminalPanel().nextCommand();
+        terminalOutput("\n");
     }
 
     /** Disconnects this host if it has been connected. */
@@ -261,8 +318,8 @@ public final class SSH {
             connection = null;
             mConnectionLock.unlock();
             Tools.debug(this, "disconnecting: " + host.getName(), 0);
-            host.getTerminalPanel().addCommand("logout");
-            host.getTerminalPanel().nextCommand();
+            terminalCommand("logout");
+            terminalNextCommand();
         }
     }
 
@@ -284,8 +341,8 @@ public final class SSH {
             connection = null;
             mConnectionLock.unlock();
             Tools.debug(this, "force reconnecting: " + host.getName(), 0);
-            host.getTerminalPanel().addCommand("logout");
-            host.getTerminalPanel().nextCommand();
+            terminalCommand("logout");
+            terminalNextCommand();
         }
     }
 
@@ -299,13 +356,57 @@ public final class SSH {
             connection = null;
             mConnectionLock.unlock();
             Tools.debug(this, "force disconnecting: " + host.getName(), 0);
-            host.getTerminalPanel().addCommand("logout");
-            host.getTerminalPanel().nextCommand();
+            terminalCommand("logout");
+            terminalNextCommand();
+        }
+    }
+
+    /**
+     * Adds command to the terminal panel. There is no terminal panel in the
+     * headless mode.
+     */
+    private void terminalCommand(final String command) {
+        final TerminalPanel tp = host.getTerminalPanel();
+        if (tp != null) {
+            tp.addCommand(command);
+        }
+    }
+
+    /** Adds the command output to the terminal panel and ends the command. */
+    private void terminalOutput(final String output) {
+        final TerminalPanel tp = host.getTerminalPanel();
+        if (tp != null) {
+            tp.addCommandOutput(output);
+            tp.nextCommand();
+        }
+    }
+
+    /** Starts the next command in the terminal panel. */
+    private void terminalNextCommand() {
+        final TerminalPanel tp = host.getTerminalPanel();
+        if (tp != null) {
+            tp.nextCommand();
+        }
+    }
+
+    /** Adds the output or error output to the terminal panel. */
+    private void terminalContent(final String content, final boolean err) {
+        final TerminalPanel tp = host.getTerminalPanel();
+        if (tp == null) {
+            return;
+        }
+        if (err) {
+            tp.addContentErr(content);
+        } else {
+            tp.addContent(content);
         }
     }
 
     /** Returns true if connection is established. */
     public boolean isConnected() {
+        if (getSimulatedNode() >= 0) {
+            return true;
+        }
         mConnectionLock.lock();
         final boolean ret = connection != null;
         mConnectionLock.unlock();
@@ -325,6 +426,14 @@ public final class SSH {
         private final ExecCallback execCallback;
         /** After a new output is available callback. */
         private final NewOutputCallback newOutputCallback;
+        /** Callback that gets the output as it is read, it is not kept. */
+        private final StreamingOutputCallback streamingOutputCallback;
+        /** Decoder of stdout, it keeps the split characters till next read. */
+        private final OutputDecoder stdoutDecoder =
+                                   new OutputDecoder(EXEC_OUTPUT_BUFFER_SIZE);
+        /** Decoder of stderr. */
+        private final OutputDecoder stderrDecoder =
+                                   new OutputDecoder(EXEC_OUTPUT_BUFFER_SIZE);
         /** Cancel the execution flag. */
         private volatile boolean cancelIt = false;
         /** Whether the output should be visible in the terminal area. */
@@ -337,6 +446,8 @@ public final class SSH {
         private Session sess = null;
         /** Timeout for ssh command. */
         private final int sshCommandTimeout;
+        /** Whether the command runs on the simulated node. */
+        private volatile boolean simulated = false;
 
        /**
         * Executes command on the host.
@@ -397,11 +508,12 @@ public final class SSH {
                 final InputStream stdout = thisSession.getStdout();
                 final java.io.OutputStream stdin = thisSession.getStdin();
                 final InputStream stderr = thisSession.getStderr();
-                //byte[] buff = new byte[8192];
-                final byte[] buff = new byte[EXEC_OUTPUT_BUFFER_SIZE];
+                stdoutDecoder.reset();
+                stderrDecoder.reset();
                 String sudoPwd = host.getSudoPassword();
                 boolean skipNextLine = false;
-                while (true) {
+                boolean eof = false;
+                while (!eof) {
                     if ((stdout.available() == 0)
                         && (stderr.available() == 0)) {
                         /* Even though currently there is no data available,
@@ -446,7 +558,7 @@ public final class SSH {
                             /* The remote side won't send us further data... */
                             /* ... and we have consumed all data in the
                              * ... local arrival window. */
-                            break;
+                            eof = true;
                         }
 
                         /* OK, either STDOUT_DATA or STDERR_DATA (or both) */
@@ -454,6 +566,42 @@ public final class SSH {
 
                     }
 
+                    if (streamingOutputCallback != null) {
+                        /* one read at a time, the channel window fills up,
+                           while the consumer is busy. */
+                        final int len = stdoutDecoder.read(stdout);
+                        if (len > 0 || eof) {
+                            final CharBuffer output =
+                                                 stdoutDecoder.decode(eof);
+                            if (indexOf(output, SUDO_PROMPT) >= 0) {
+                                if (sudoPwd == null) {
+                                    enterSudoPassword();
+                                }
+                                final String pwd =
+                                             host.getSudoPassword() + "\n";
+                                sudoPwd = null;
+                                stdin.write(pwd.getBytes());
+                                skipNextLine = true;
+                                continue;
+                            } else if (skipNextLine) {
+                                /* this is the "enter" after pwd */
+                                skipNextLine = false;
+                                continue;
+                            }
+                            streamOutput(output, res, false);
+                        }
+                        final int errLen = stderrDecoder.read(stderr);
+                        if (errLen > 0 || eof) {
+                            streamOutput(stderrDecoder.decode(eof),
+                                         res,
+                                         true);
+                        }
+                        if (cancelIt) {
+                            return new SSHOutput("", 130);
+                        }
+                        continue;
+                    }
+
                     /* If you below replace "while" with "if", then the way
                      * the output appears on the local stdout and stder streams
                      * is more "balanced". Addtionally reducing the buffer size
@@ -464,18 +612,20 @@ public final class SSH {
 
                     /* stdout */
                     final StringBuilder output = new StringBuilder("");
-                    while (stdout.available() > 0 && !cancelIt) {
-                        final int len = stdout.read(buff);
-
-                        if (len > 0) {
+                    while ((stdout.available() > 0 || eof) && !cancelIt) {
+                        final int len = stdoutDecoder.read(stdout);
+                        if (len > 0 || eof) {
                             final String buffString =
-                                            new String(buff, 0, len, "UTF-8");
+                                        stdoutDecoder.decode(eof).toString();
                             output.append(buffString);
 
                             if (outputVisible) {
-                                host.getTerminalPanel().addContent(buffString);
+                                terminalContent(buffString, false);
                             }
                         }
+                        if (eof) {
+                            break;
+                        }
                     }
                     final int index = output.indexOf(SUDO_PROMPT);
                     if (index >= 0) {
@@ -497,26 +647,28 @@ public final class SSH {
                     }
 
                     /* stderr */
-                    final StringBuilder errOutput = new StringBuilder("");
-                    while (stderr.available() > 0 && !cancelIt) {
+                    while ((stderr.available() > 0 || eof) && !cancelIt) {
                         // this is unreachable.
                         // stdout and stderr are mixed in the stdout
                         // if pty is requested.
-                        final int len = stderr.read(buff);
-                        if (len > 0) {
+                        final int len = stderrDecoder.read(stderr);
+                        if (len > 0 || eof) {
                             final String buffString =
-                                            new String(buff, 0, len, "UTF-8");
+                                        stderrDecoder.decode(eof).toString();
                             output.append(buffString);
 
                             if (outputVisible) {
-                                host.getTerminalPanel().addContentErr(
-                                                                   buffString);
+                                terminalContent(buffString, true);
                             }
                         }
+                        if (eof) {
+                            break;
+                        }
                     }
-                    res.append(errOutput);
 
-                    if (newOutputCallback != null && !cancelIt) {
+                    if (newOutputCallback != null
+                        && !cancelIt
+                        && (!eof || output.length() > 0)) {
                         Tools.debug(this, "output" + exitCode + ": "
                                           + host.getName()
                                           + ": "
@@ -535,7 +687,7 @@ public final class SSH {
                 }
 
                 if (outputVisible) {
-                    host.getTerminalPanel().nextCommand();
+                    terminalNextCommand();
                 }
                 thisSession.waitForCondition(ChannelCondition.EXIT_STATUS,
                                              10000);
@@ -561,9 +713,33 @@ public final class SSH {
             return new SSHOutput(outputString, exitCode);
         }
 
+        /**
+         * Hands the output over to the streaming callback and keeps only the
+         * end of it.
+         */
+        private void streamOutput(final CharBuffer output,
+                                  final StringBuilder kept,
+                                  final boolean stderr) {
+            if (!output.hasRemaining() || cancelIt) {
+                return;
+            }
+            if (outputVisible) {
+                terminalContent(output.toString(), stderr);
+            }
+            kept.append(output.duplicate());
+            if (kept.length() > STREAMING_KEPT_OUTPUT) {
+                kept.delete(0, kept.length() - STREAMING_KEPT_OUTPUT);
+            }
+            streamingOutputCallback.output(output.asReadOnlyBuffer());
+        }
+
         /** Cancel the session. */
         public void cancel() {
             cancelIt = true;
+            if (simulated) {
+                /* stops the simulated stream */
+                interrupt();
+            }
             mSessionLock.lock();
             final Session thisSession = sess;
             sess = null;
@@ -580,12 +756,36 @@ public final class SSH {
                           final boolean outputVisible,
                           final boolean commandVisible,
                           final int sshCommandTimeout)
+        throws java.io.IOException {
+            this(command,
+                 execCallback,
+                 newOutputCallback,
+                 null,
+                 outputVisible,
+                 commandVisible,
+                 sshCommandTimeout);
+        }
+
+        /**
+         * Executes a command in a thread. If the streaming output callback is
+         * not null, only the end of the output is passed to the exec
+         * callback.
+         */
+        ExecCommandThread(
+                    final String command,
+                    final ExecCallback execCallback,
+                    final NewOutputCallback newOutputCallback,
+                    final StreamingOutputCallback streamingOutputCallback,
+                    final boolean outputVisible,
+                    final boolean commandVisible,
+                    final int sshCommandTimeout)
         throws java.io.IOException {
             super();
             this.command = command;
             Tools.debug(this, "command: " + command, 1);
             this.execCallback = execCallback;
             this.newOutputCallback = newOutputCallback;
+            this.streamingOutputCallback = streamingOutputCallback;
             this.outputVisible = outputVisible;
             this.commandVisible = commandVisible;
             this.sshCommandTimeout = sshCommandTimeout;
@@ -609,6 +809,15 @@ public final class SSH {
          */
         @Override
         public void run() {
+            final ClusterSimulator sim = simulator;
+            if (sim != null) {
+                final int node = sim.getNode(host.getName(), host.getIp());
+                if (node >= 0) {
+                    simulated = true;
+                    execSimulated(sim, node);
+                    return;
+                }
+            }
             if (reconnect()) {
                 mConnectionLock.lock();
                 if (connection == null) {
@@ -624,6 +833,42 @@ public final class SSH {
             }
         }
 
+        /** Executes the command on the simulated node. */
+        private void execSimulated(final ClusterSimulator sim,
+                                   final int node) {
+            final String[] commands = command.split(";;;");
+            final StringBuilder ans = new StringBuilder("");
+            for (final String c : commands) {
+                if (cancelIt) {
+                    return;
+                }
+                Tools.debug(this, "simulate command: " + host.getName()
+                                  + ": " + c, 2);
+                NewOutputCallback outputCallback = newOutputCallback;
+                if (streamingOutputCallback != null) {
+                    outputCallback = new NewOutputCallback() {
+                        @Override
+                        public void output(final String output) {
+                            streamingOutputCallback.output(
+                                                   CharBuffer.wrap(output));
+                        }
+                    };
+                }
+                final SSHOutput ret = sim.exec(node, c, outputCallback);
+                ans.append(ret.getOutput());
+                if (ret.getExitCode() != 0) {
+                    if (execCallback != null && !cancelIt) {
+                        execCallback.doneError(ans.toString(),
+                                               ret.getExitCode());
+                    }
+                    return;
+                }
+            }
+            if (execCallback != null) {
+                execCallback.done(ans.toString());
+            }
+        }
+
         /** Executes the command. */
         private void exec(final MyConnection conn) {
             // ;;; separates commands, that are to be executed one after one,
@@ -673,7 +918,7 @@ public final class SSH {
                 if (commandVisible && outputVisible) {
                     final String consoleCommand = host.replaceVars(commands[i],
                                                                    true);
-                    host.getTerminalPanel().addCommand(
+                    terminalCommand(
                             consoleCommand.replaceAll(DistResource.SUDO, " "));
                 }
                 final SSHOutput ret = execOneCommand(commands[i],
@@ -832,6 +1077,49 @@ public final class SSH {
         return execCommandThread;
     }
 
+    /**
+     * Executes command, the output is handed over to the streaming callback
+     * as it is read from the host, and only the end of the output is passed
+     * to the exec callback, so that big outputs are not kept in the memory.
+     *
+     * @param command
+     *          command that is to be executed.
+     * @param execCallback
+     *          callback that implements ExecCallback interface.
+     * @param streamingOutputCallback
+     *          callback that gets the output as it is read
+     * @param outputVisible
+     *          whether the output of the command should be visible
+     * @param commandVisible
+     *          whether the command should be visible
+     *
+     * @return thread
+     */
+    public ExecCommandThread execCommandStreaming(
+                   final String command,
+                   final ExecCallback execCallback,
+                   final StreamingOutputCallback streamingOutputCallback,
+                   final boolean outputVisible,
+                   final boolean commandVisible,
+                   final int sshCommandTimeout) {
+        final String realCommand = host.replaceVars(command);
+        ExecCommandThread execCommandThread;
+        try {
+            execCommandThread = new ExecCommandThread(realCommand,
+                                                      execCallback,
+                                                      null,
+                                                      streamingOutputCallback,
+                                                      outputVisible,
+                                                      commandVisible,
+                                                      sshCommandTimeout);
+        } catch (java.io.IOException e) {
+            Tools.appError("Can not execute command: " + realCommand, "", e);
+            return null;
+        }
+        execCommandThread.start();
+        return execCommandThread;
+    }
+
     /**
      * Executes command and manages a progress bar. Command is executed in a
      * new thread, after command is finished execCallback.done function will
@@ -1122,16 +1410,38 @@ public final class SSH {
                                         ? connectTimeout : kexTimeout;
                     progressBar.start(timeout);
                 }
-                /* ConnectionMonitor does not work if we lost a connection */
-                //final ConnectionMonitor connectionMonitor =
-                //                               new ConnectionMonitor() {
-                //    public void connectionLost(java.lang.Throwable reason) {
-                //        if (!disconnectForGood) {
-                //            connection = null;
-                //        }
-                //    }
-                //};
-                //conn.addConnectionMonitor(connectionMonitor);
+                /* the connection is closed by the keepalive if the host
+                   stops answering. */
+                conn.setKeepAlive(
+                            Tools.getDefaultInt("SSH.KeepAlive.Interval"),
+                            Tools.getDefaultInt("SSH.KeepAlive.MaxMissed"));
+                conn.addConnectionMonitor(new KeepAliveMonitor() {
+                    @Override
+                    public void keepAliveReply(final long rttMillis) {
+                        host.setKeepAliveReply(rttMillis);
+                    }
+
+                    @Override
+                    public void connectionLost(final Throwable reason) {
+                        if (connection != conn) {
+                            return;
+                        }
+                        host.setKeepAliveLost();
+                        if (disconnectForGood) {
+                            return;
+                        }
+                        Tools.debug(this, "connection lost on "
+                                          + host.getName() + ": " + reason, 1);
+                        final Thread t = new Thread(new Runnable() {
+                            @Override
+                            public void run() {
+                                forceReconnect();
+                                host.setConnected();
+                            }
+                        });
+                        t.start();
+                    }
+                });
                 conn.connect(new AdvancedVerifier(),
                              connectTimeout,
                              kexTimeout);
@@ -1383,7 +1693,7 @@ public final class SSH {
                     SwingUtilities.invokeLater(new Runnable() {
                         @Override
                         public void run() {
-                            host.getTerminalPanel().nextCommand();
+                            terminalNextCommand();
                         }
                     });
                     mConnectionThreadLock.lock();
@@ -1401,9 +1711,7 @@ public final class SSH {
                 Tools.debug(this, "connecting: " + e.getMessage(), 1);
                 connectionFailed = true;
                 if (!cancelIt) {
-                    host.getTerminalPanel().addCommandOutput(e.getMessage()
-                                                             + "\n");
-                    host.getTerminalPanel().nextCommand();
+                    terminalOutput(e.getMessage() + "\n");
                     if (callback != null) {
                         callback.doneError(e.getMessage());
                     }
@@ -1500,13 +1808,11 @@ public final class SSH {
                              final boolean makeBackup,
                              final String preCommand,
                              final String postCommand) {
-        scp(config,
-            dir + fileName,
-            mode,
-            makeBackup,
-            null, /* install command */
-            preCommand,
-            postCommand);
+        final ConfigDeployer deployer = new ConfigDeployer(host, mode);
+        deployer.addFile(dir + fileName, config, makeBackup);
+        deployer.setPreCommand(preCommand);
+        deployer.setPostCommand(postCommand);
+        deployer.deploy();
     }
 
     /**
@@ -0,0 +1,239 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental decoder of the lcmc-gui-helper output. The output comes in
+ * chunks of arbitrary size; every character is scanned only once and
+ * complete frames are returned as soon as their end arrives. The frames
+ * are:
+ *
+ *   --TYPE-info-start--TIMESTAMP HASH
+ *   ...
+ *   --TYPE-info-end--
+ *
+ * for hw, vm, drbd and event info,
+ *
+ *   ---start---HASH
+ *   ...
+ *   ---done---
+ *
+ * for cluster status and ---unchanged--- if the cluster status didn't
+ * change since the last time. ---reset--- strings, that are printed
+ * by the other helper process to reset the timeout, are removed even if
+ * they appear in the middle of a line. Everything else between the frames
+ * is ignored.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class StatusFrameDecoder {
+    /** Type of the cluster status frame. */
+    public static final String CLUSTER = "cluster";
+    /** Type of the frame that says, that cluster status is unchanged. */
+    public static final String UNCHANGED = "unchanged";
+    /** Start of the info frame, the type is before. */
+    private static final String INFO_START = "-info-start--";
+    /** End of the info frame, the type is before. */
+    private static final String INFO_END = "-info-end--";
+    /** Start of the cluster status frame, the hash follows. */
+    private static final String CLUSTER_START = "---start---";
+    /** End of the cluster status frame. */
+    private static final String CLUSTER_END = "---done---";
+    /** Unchanged cluster status. */
+    private static final String CLUSTER_UNCHANGED = "---unchanged---";
+    /** Timeout reset from the helper. */
+    private static final String RESET = "---reset---";
+
+    /** Incomplete line from the last chunk. */
+    private final StringBuilder line = new StringBuilder(300);
+    /** Type of the frame that is being decoded or null between frames. */
+    private String type = null;
+    /** Header of the frame that is being decoded. */
+    private String header = null;
+    /** End marker of the info frame that is being decoded. */
+    private String infoEnd = null;
+    /** Content of the info frame that is being decoded. */
+    private StringBuilder content = null;
+    /** Lines of the cluster status frame that is being decoded. */
+    private List<String> lines = null;
+
+    /** Decodes the next chunk and returns frames that were completed. */
+    public List<Frame> decode(final CharSequence chunk) {
+        final List<Frame> frames = new ArrayList<Frame>();
+        final int len = chunk.length();
+        int start = 0;
+        for (int i = 0; i < len; i++) {
+            if (chunk.charAt(i) == '\n') {
+                line.append(chunk, start, i + 1);
+                start = i + 1;
+                processLine(frames);
+            }
+        }
+        line.append(chunk, start, len);
+        return frames;
+    }
+
+    /**
+     * Decodes the whole output of a command, the last line doesn't have to
+     * end with a new line.
+     */
+    public List<Frame> decodeAll(final CharSequence output) {
+        final List<Frame> frames = decode(output);
+        if (line.length() > 0) {
+            line.append('\n');
+            processLine(frames);
+        }
+        return frames;
+    }
+
+    /** Returns the incomplete line, that was not decoded yet. */
+    String getPending() {
+        return line.toString();
+    }
+
+    /** Processes one complete line including the new line. */
+    private void processLine(final List<Frame> frames) {
+        int end = line.length() - 1;
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            end--;
+        }
+        final int resetStart = end - RESET.length();
+        if (resetStart >= 0
+            && line.indexOf(RESET, resetStart) == resetStart) {
+            /* the line continues after the reset string */
+            line.setLength(resetStart);
+            return;
+        }
+        final String text = line.substring(0, end);
+        if (type == null) {
+            final int s = text.indexOf(INFO_START);
+            if (text.startsWith("--") && s > 2) {
+                type = text.substring(2, s);
+                header = text.substring(s + INFO_START.length());
+                infoEnd = "--" + type + INFO_END;
+                content = new StringBuilder();
+            } else if (text.startsWith(CLUSTER_START)) {
+                type = CLUSTER;
+                header = text.substring(CLUSTER_START.length()).trim();
+                lines = new ArrayList<String>();
+            } else if (CLUSTER_UNCHANGED.equals(text.trim())) {
+                frames.add(new Frame(UNCHANGED, "", null, null));
+            }
+        } else if (CLUSTER.equals(type)) {
+            lines.add(text);
+            if (CLUSTER_END.equals(text.trim())) {
+                frames.add(new Frame(CLUSTER, header, null, lines));
+                endFrame();
+            }
+        } else {
+            final int e = text.indexOf(infoEnd);
+            if (e >= 0) {
+                content.append(text, 0, e);
+                frames.add(new Frame(type, header, content.toString(), null));
+                endFrame();
+            } else {
+                content.append(line);
+            }
+        }
+        line.setLength(0);
+    }
+
+    /** Clears the decoded frame. */
+    private void endFrame() {
+        type = null;
+        header = null;
+        infoEnd = null;
+        content = null;
+        lines = null;
+    }
+
+    /** One complete frame. */
+    public static final class Frame {
+        /** Type: hw, vm, drbd, event, cluster or unchanged. */
+        private final String type;
+        /** Time stamp from the header or null. */
+        private final Double timestamp;
+        /** Hash from the header or null. */
+        private final String hash;
+        /** Content of the info frame. */
+        private final String content;
+        /** Lines of the cluster status including the ---done---. */
+        private final List<String> lines;
+
+        /** Prepares a new <code>Frame</code> object. */
+        Frame(final String type,
+              final String header,
+              final String content,
+              final List<String> lines) {
+            this.type = type;
+            this.content = content;
+            this.lines = lines;
+            if (CLUSTER.equals(type)) {
+                timestamp = null;
+                hash = "".equals(header) ? null : header;
+            } else {
+                final String[] tsHash = header.split(" ");
+                Double ts = null;
+                try {
+                    ts = Double.parseDouble(tsHash[0]);
+                }  catch (final NumberFormatException nfe) {
+                    if (!UNCHANGED.equals(type)) {
+                        Tools.debug(this, "could not parse: " + header + " "
+                                          + nfe);
+                    }
+                }
+                timestamp = ts;
+                hash = tsHash.length > 1 ? tsHash[1] : null;
+            }
+        }
+
+        /** Returns type of the frame. */
+        public String getType() {
+            return type;
+        }
+
+        /** Returns time stamp of the info frame or null. */
+        public Double getTimestamp() {
+            return timestamp;
+        }
+
+        /** Returns hash of the content or null if the helper didn't send it. */
+        public String getHash() {
+            return hash;
+        }
+
+        /** Returns content of the info frame. */
+        public String getContent() {
+            return content;
+        }
+
+        /** Returns lines of the cluster status frame. */
+        public List<String> getLines() {
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.utilities;
+
+import java.nio.CharBuffer;
+
+/**
+ * Callbacks to the execCommandStreaming function implement this interface.
+ * The output is handed over in the pieces as they are read from the host.
+ * The command doesn't read more from the host, till the callback returns,
+ * so that a slow consumer doesn't make the output pile up in the memory.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public interface StreamingOutputCallback {
+    /**
+     * This is called, when new output is available. The buffer is reused
+     * for the next output, it must be copied, if it's needed later.
+     *
+     * @param output
+     *          decoded output of the command
+     */
+    void output(CharBuffer output);
+}
@@ -34,6 +34,7 @@ import lcmc.gui.resources.Info;
 import lcmc.gui.resources.ServiceInfo;
 import lcmc.gui.ClusterBrowser;
 import lcmc.gui.GUIData;
+import lcmc.gui.ProgressIndicatorPanel;
 import lcmc.gui.dialog.ConfirmDialog;
 import lcmc.Exceptions;
 
@@ -380,13 +381,17 @@ public final class Tools {
     }
 
     /**
-     * Shows error message dialog and prints error to the stdout.
+     * Shows error message dialog and prints error to the stdout. Without
+     * GUI it is only printed.
      *
      * @param msg
      *          error message
      */
     public static void error(final String msg) {
         System.out.println(ERROR_STRING + getErrorString(msg));
+        if (configData != null && configData.isHeadless()) {
+            return;
+        }
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
@@ -669,7 +674,8 @@ public final class Tools {
 
 
         System.out.println(APPERROR_STRING + errorString);
-        if (!appError) {
+        if (!appError
+            || (configData != null && configData.isHeadless())) {
             return;
         }
 
@@ -878,6 +884,10 @@ public final class Tools {
                         ip = addresses[0].getHostAddress();
                     }
                 }
+                final ClusterSimulator simulator = SSH.getSimulator();
+                if (ip == null && simulator != null) {
+                    ip = simulator.getIp(hostnameEntered);
+                }
                 if (ip == null) {
                     return hostnameEntered;
                 }
@@ -946,6 +956,7 @@ public final class Tools {
                     final ClusterBrowser cb = cluster.getBrowser();
                     if (cb != null) {
                         cb.saveGraphPositions();
+                        cb.saveClusterState(filename);
                     }
                 }
             }
@@ -1481,7 +1492,12 @@ public final class Tools {
 
     /** Starts progress indicator with specified text. */
     public static void startProgressIndicator(final String text) {
-        getGUIData().getMainGlassPane().start(text, null);
+        final ProgressIndicatorPanel pip = getGUIData().getMainGlassPane();
+        if (pip == null) {
+            debug(null, text, 1);
+            return;
+        }
+        pip.start(text, null);
     }
 
     /** Starts progress indicator for host or cluster command. */
@@ -1492,7 +1508,12 @@ public final class Tools {
 
     /** Stops progress indicator with specified text. */
     public static void stopProgressIndicator(final String text) {
-        getGUIData().getMainGlassPane().stop(text);
+        final ProgressIndicatorPanel pip = getGUIData().getMainGlassPane();
+        if (pip == null) {
+            debug(null, text, 1);
+            return;
+        }
+        pip.stop(text);
     }
 
     /** Stops progress indicator for host or cluster command. */
@@ -1503,7 +1524,12 @@ public final class Tools {
 
     /** Progress indicator with failure message. */
     public static void progressIndicatorFailed(final String text) {
-        getGUIData().getMainGlassPane().failure(text);
+        final ProgressIndicatorPanel pip = getGUIData().getMainGlassPane();
+        if (pip == null) {
+            debug(null, text, 1);
+            return;
+        }
+        pip.failure(text);
     }
 
     /** Progress indicator with failure message for host or cluster command. */
@@ -1514,7 +1540,12 @@ public final class Tools {
 
     /** Progress indicator with failure message that shows for n seconds. */
     public static void progressIndicatorFailed(final String text, final int n) {
-        getGUIData().getMainGlassPane().failure(text, n);
+        final ProgressIndicatorPanel pip = getGUIData().getMainGlassPane();
+        if (pip == null) {
+            debug(null, text, 1);
+            return;
+        }
+        pip.failure(text, n);
     }
 
     /**
@@ -1548,86 +1579,8 @@ public final class Tools {
         if (version1 == null || version2 == null) {
             throw new Exceptions.IllegalVersionException(version1, version2);
         }
-        final Pattern p = Pattern.compile("(.*\\d+)rc(\\d+)$");
-        final Matcher m1 = p.matcher(version1);
-        String version1a;
-        int rc1 = Integer.MAX_VALUE;
-        if (m1.matches()) {
-            version1a = m1.group(1);
-            try {
-                rc1 = Integer.parseInt(m1.group(2));
-            } catch (java.lang.NumberFormatException e) {
-                e.printStackTrace();
-            }
-        } else {
-            version1a = version1;
-        }
-        int index = version1a.indexOf("-");
-        if (index < 0) {
-            index = version1a.indexOf("_");
-        }
-        if (index >= 0) {
-            version1a = version1a.substring(0, index);
-        }
-
-        final Matcher m2 = p.matcher(version2);
-        String version2a;
-        int rc2 = Integer.MAX_VALUE;
-        if (m2.matches()) {
-            version2a = m2.group(1);
-            try {
-                rc2 = Integer.parseInt(m2.group(2));
-            } catch (java.lang.NumberFormatException e) {
-                e.printStackTrace();
-            }
-        } else {
-            version2a = version2;
-        }
-        final String[] v1a = version1a.split("\\.");
-        final String[] v2a = version2a.split("\\.");
-        if (v1a.length < 1 || v2a.length < 1) {
-            throw new Exceptions.IllegalVersionException(version1, version2);
-        }
-        int i = 0;
-        while (true) {
-            if (i >= v1a.length && i >= v2a.length) {
-                break;
-            } else if (i >= v1a.length || i >= v2a.length) {
-                return 0;
-            }
-            int v1i = 0;
-            if (i < v1a.length) {
-                final String v1 = v1a[i];
-                try {
-                    v1i = Integer.parseInt(v1);
-                } catch (java.lang.NumberFormatException e) {
-                    throw new Exceptions.IllegalVersionException(version1);
-                }
-            }
-
-            int v2i = 0;
-            if (i < v2a.length) {
-                final String v2 = v2a[i];
-                try {
-                    v2i = Integer.parseInt(v2);
-                } catch (java.lang.NumberFormatException e) {
-                    throw new Exceptions.IllegalVersionException(version2);
-                }
-            }
-
-            if (v1i < v2i) {
-                return -1;
-            } else if (v1i > v2i) {
-                return 1;
-            }
-            i++;
-        }
-        if (rc1 < rc2) {
-            return -1;
-        } else if (rc1 > rc2) {
-            return 1;
-        }
-        return 0;
+        return Version.parse(version1).compareLoosely(
+                                                    Version.parse(version2));
     }
 
     /** Returns number of characters 'c' in a string 's'. */
@@ -1646,7 +1599,7 @@ public final class Tools {
 
     /**
      * Creates config on all hosts with specified name in the specified
-     * directory.
+     * directory. The hosts are done in parallel.
      *
      * @param config
      *          config content as a string
@@ -1665,15 +1618,13 @@ public final class Tools {
                                               final String dir,
                                               final String mode,
                                               final boolean makeBackup) {
+        final List<ConfigDeployer> deployers = new ArrayList<ConfigDeployer>();
         for (Host host : hosts) {
-            host.getSSH().createConfig(config,
-                                       fileName,
-                                       dir,
-                                       mode,
-                                       makeBackup,
-                                       null,
-                                       null);
+            final ConfigDeployer deployer = new ConfigDeployer(host, mode);
+            deployer.addFile(dir + fileName, config, makeBackup);
+            deployers.add(deployer);
         }
+        ConfigDeployer.deployAll(deployers);
     }
 
     /** Returns border with title. */
@@ -2795,16 +2746,7 @@ public final class Tools {
      * Heartbeat 2.1.4.
      */
     public static boolean versionBeforePacemaker(final Host host) {
-        final String hbV = host.getHeartbeatVersion();
-        final String pcmkV = host.getPacemakerVersion();
-        try {
-            return pcmkV == null
-                   && hbV != null
-                   && Tools.compareVersions(hbV, "2.99.0") < 0;
-        } catch (Exceptions.IllegalVersionException e) {
-            Tools.appWarning(e.getMessage(), e);
-            return false;
-        }
+        return host.getCapabilities().isBeforePacemaker();
     }
 
     /** Makes the buttons font smaller. */
@@ -0,0 +1,179 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+package lcmc.utilities;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the checks of the widgets one after another, after the events stop
+ * for a while. Checks with the same key, that are still waiting, are
+ * replaced by the newer ones, so that fast typing runs only the last check.
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class ValidationExecutor {
+    /** How long to wait for more events in milliseconds. */
+    public static final long DEFAULT_DELAY = 100;
+    /** Number of threads that run the checks of all executors. */
+    private static final int THREADS = 2;
+    /** Threads that run the checks. */
+    private static final ScheduledExecutorService SCHEDULER =
+        Executors.newScheduledThreadPool(THREADS, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread t = new Thread(r, "validation");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    /** How long to wait for more events in milliseconds. */
+    private final long delay;
+    /** Checks that wait to be run, by key. */
+    private final Map<Object, Runnable> pending =
+                                         new LinkedHashMap<Object, Runnable>();
+    /** Pending, running and scheduled lock. */
+    private final Lock mPendingLock = new ReentrantLock();
+    /** Scheduled drain of the pending checks. */
+    private ScheduledFuture<?> scheduled = null;
+    /** Whether the checks are running now. */
+    private boolean running = false;
+    /** Incremented with every submitted check. */
+    private volatile long generation = 0;
+
+    /** Prepares a new <code>ValidationExecutor</code> object. */
+    public ValidationExecutor(final long delay) {
+        this.delay = delay;
+    }
+
+    /**
+     * Submits the check. It replaces the waiting check with the same key and
+     * postpones all the waiting checks.
+     */
+    public void submit(final Object key, final Runnable check) {
+        mPendingLock.lock();
+        try {
+            generation++;
+            pending.remove(key);
+            pending.put(key, check);
+            if (!running) {
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                }
+                scheduled = schedule();
+            }
+        } finally {
+            mPendingLock.unlock();
+        }
+    }
+
+    /** Drops the waiting checks. */
+    public void cancel() {
+        mPendingLock.lock();
+        try {
+            generation++;
+            pending.clear();
+            if (scheduled != null) {
+                scheduled.cancel(false);
+                scheduled = null;
+            }
+        } finally {
+            mPendingLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the generation, that can be compared with the later one, to
+     * find out if some newer check was submitted in the meantime.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /** Returns whether no check was submitted since the generation. */
+    public boolean isCurrent(final long gen) {
+        return generation == gen;
+    }
+
+    /**
+     * Runs the pending checks, one after another. Checks submitted in the
+     * meantime are run after the delay again.
+     */
+    private void drain() {
+        final List<Runnable> checks;
+        mPendingLock.lock();
+        try {
+            if (running) {
+                /* the running drain schedules it again */
+                return;
+            }
+            checks = new ArrayList<Runnable>(pending.values());
+            pending.clear();
+            running = true;
+            scheduled = null;
+        } finally {
+            mPendingLock.unlock();
+        }
+        for (final Runnable check : checks) {
+            try {
+                check.run();
+            } catch (RuntimeException e) {
+                Tools.appWarning("validation failed", e);
+            }
+        }
+        mPendingLock.lock();
+        try {
+            running = false;
+            if (!pending.isEmpty()) {
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                }
+                scheduled = schedule();
+            }
+        } finally {
+            mPendingLock.unlock();
+        }
+    }
+
+    /** Schedules the drain of the pending checks after the delay. */
+    private ScheduledFuture<?> schedule() {
+        return SCHEDULER.schedule(new Runnable() {
+                                      @Override
+                                      public void run() {
+                                          drain();
+                                      }
+                                  },
+                                  delay,
+                                  TimeUnit.MILLISECONDS);
+    }
+}
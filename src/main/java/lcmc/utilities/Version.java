@@ -0,0 +1,183 @@
+/*
+ * This file is part of Linux Cluster Management Console
+ * written by Rasto Levrinc.
+ *
+ * Copyright (C) 2012, Rastislav Levrinc
+ *
+ * LCMC is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as published
+ * by the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * LCMC is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with LCMC; see the file COPYING.  If not, write to
+ * the Free Software Foundation, 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+
+
+package lcmc.utilities;
+
+import lcmc.Exceptions;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed version like "8.3.11", "1.1.7-ee19d8e" or "2.0.0rc3". Everything
+ * after '-' or '_' is ignored, a version without rc is bigger than the
+ * same version with rc. The natural order is total, the version checks in
+ * the GUI use compareLoosely, where "8.3" matches "8.3.11".
+ *
+ * @author Rasto Levrinc
+ * @version $Id$
+ *
+ */
+public final class Version implements Comparable<Version> {
+    /** Version with rc at the end. */
+    private static final Pattern RC_PATTERN =
+                                    Pattern.compile("(.*\\d+)rc(\\d+)$");
+    /** The original string. */
+    private final String version;
+    /** Numbers of the version. */
+    private final int[] numbers;
+    /** Rc number or max int if it is not a rc version. */
+    private final int rc;
+
+    /** Prepares a new <code>Version</code> object. */
+    private Version(final String version, final int[] numbers, final int rc) {
+        this.version = version;
+        this.numbers = numbers;
+        this.rc = rc;
+    }
+
+    /** Parses the version. */
+    public static Version parse(final String version)
+    throws Exceptions.IllegalVersionException {
+        if (version == null) {
+            throw new Exceptions.IllegalVersionException(version);
+        }
+        final Matcher m = RC_PATTERN.matcher(version);
+        String v;
+        int rc = Integer.MAX_VALUE;
+        if (m.matches()) {
+            v = m.group(1);
+            try {
+                rc = Integer.parseInt(m.group(2));
+            } catch (java.lang.NumberFormatException e) {
+                Tools.appWarning("cannot parse rc: " + version);
+            }
+        } else {
+            v = version;
+        }
+        int index = v.indexOf('-');
+        if (index < 0) {
+            index = v.indexOf('_');
+        }
+        if (index >= 0) {
+            v = v.substring(0, index);
+        }
+        final String[] parts = v.split("\\.");
+        final int[] numbers = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                numbers[i] = Integer.parseInt(parts[i]);
+            } catch (java.lang.NumberFormatException e) {
+                throw new Exceptions.IllegalVersionException(version);
+            }
+        }
+        return new Version(version, numbers, rc);
+    }
+
+    /**
+     * Returns -1 if this version is smaller than the other version, 0 if
+     * they are equal and 1 if this version is bigger. A version is smaller
+     * than the longer versions, that start with it, so that the order is
+     * consistent with equals.
+     */
+    @Override
+    public int compareTo(final Version other) {
+        final int c = compareNumbers(other);
+        if (c != 0) {
+            return c;
+        }
+        if (numbers.length < other.numbers.length) {
+            return -1;
+        } else if (numbers.length > other.numbers.length) {
+            return 1;
+        }
+        return compareRc(other);
+    }
+
+    /**
+     * Compares the versions like the version checks in the GUI expect. If
+     * one version is the prefix of the other, they are equal, so that "8.3"
+     * matches "8.3.11". This is not a total order, don't use it for
+     * sorting.
+     */
+    public int compareLoosely(final Version other) {
+        final int c = compareNumbers(other);
+        if (c != 0 || numbers.length != other.numbers.length) {
+            return c;
+        }
+        return compareRc(other);
+    }
+
+    /** Compares the numbers, that both versions have. */
+    private int compareNumbers(final Version other) {
+        final int length = Math.min(numbers.length, other.numbers.length);
+        for (int i = 0; i < length; i++) {
+            if (numbers[i] < other.numbers[i]) {
+                return -1;
+            } else if (numbers[i] > other.numbers[i]) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    /** Compares the rc numbers, a version without rc is bigger. */
+    private int compareRc(final Version other) {
+        if (rc < other.rc) {
+            return -1;
+        } else if (rc > other.rc) {
+            return 1;
+        }
+        return 0;
+    }
+
+    /** Returns whether this version is the same or bigger, loosely. */
+    public boolean isAtLeast(final Version other) {
+        return compareLoosely(other) >= 0;
+    }
+
+    /** Returns whether this version is smaller, loosely. */
+    public boolean isBefore(final Version other) {
+        return compareLoosely(other) < 0;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (!(o instanceof Version)) {
+            return false;
+        }
+        final Version other = (Version) o;
+        return rc == other.rc && Arrays.equals(numbers, other.numbers);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(numbers) + rc;
+    }
+
+    /** Returns the original version string. */
+    @Override
+    public String toString() {
+        return version;
+    }
+}
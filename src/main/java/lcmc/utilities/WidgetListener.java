@@ -25,6 +25,21 @@ public abstract class WidgetListener {
     private static final long serialVersionUID = 1L;
     /** Whether it is enabled or not. */
     private boolean enabled = true;
+    /** Executor that runs the checks. */
+    private final ValidationExecutor validationExecutor;
+
+    /** Prepares a new listener, that runs its own checks one at a time. */
+    public WidgetListener() {
+        this(new ValidationExecutor(ValidationExecutor.DEFAULT_DELAY));
+    }
+
+    /**
+     * Prepares a new listener, that runs the checks in the executor shared
+     * with the other widgets of the same object.
+     */
+    public WidgetListener(final ValidationExecutor validationExecutor) {
+        this.validationExecutor = validationExecutor;
+    }
 
     public boolean isEnabled() {
         return enabled;
@@ -35,4 +50,17 @@ public abstract class WidgetListener {
     }
 
     public abstract void check(final Object value);
+
+    /**
+     * Checks the value in the background, after the events stop for a
+     * while. The older value that was not checked yet is dropped.
+     */
+    public final void checkLater(final Object value) {
+        validationExecutor.submit(this, new Runnable() {
+            @Override
+            public void run() {
+                check(value);
+            }
+        });
+    }
 }
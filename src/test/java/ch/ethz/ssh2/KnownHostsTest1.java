@@ -0,0 +1,69 @@
+package ch.ethz.ssh2;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.io.IOException;
+import java.math.BigInteger;
+import ch.ethz.ssh2.signature.RSAPublicKey;
+import ch.ethz.ssh2.signature.RSASHA1Verify;
+
+/**
+ * Checks the lookup of the host keys with and without resolving of the
+ * host names.
+ */
+public final class KnownHostsTest1 extends TestCase {
+    /** Host key of the server. */
+    private byte[] hostKey;
+    /** Known hosts with the key stored under the IP address. */
+    private KnownHosts knownHosts;
+
+    @Before
+    protected void setUp() throws IOException {
+        hostKey = RSASHA1Verify.encodeSSHRSAPublicKey(
+                        new RSAPublicKey(BigInteger.valueOf(65537),
+                                         new BigInteger("1").shiftLeft(1023)
+                                                  .add(BigInteger.ONE)));
+        knownHosts = new KnownHosts();
+        knownHosts.addHostkey(new String[]{"127.0.0.1"}, "ssh-rsa", hostKey);
+    }
+
+    @After
+    protected void tearDown() {
+        knownHosts = null;
+    }
+
+    /* ---- tests ----- */
+
+    /** The host name is resolved and found by its IP address. */
+    @Test
+    public void testResolveHostnames() throws IOException {
+        assertEquals(KnownHosts.HOSTKEY_IS_OK,
+                     knownHosts.verifyHostkey("127.0.0.1",
+                                              "ssh-rsa",
+                                              hostKey));
+        assertEquals(KnownHosts.HOSTKEY_IS_OK,
+                     knownHosts.verifyHostkey("localhost",
+                                              "ssh-rsa",
+                                              hostKey));
+        assertNotNull(knownHosts.getPreferredServerHostkeyAlgorithmOrder(
+                                                                "localhost"));
+    }
+
+    /** Without resolving only the host name itself is looked up. */
+    @Test
+    public void testDontResolveHostnames() throws IOException {
+        knownHosts.setResolveHostnames(false);
+        assertEquals(KnownHosts.HOSTKEY_IS_OK,
+                     knownHosts.verifyHostkey("127.0.0.1",
+                                              "ssh-rsa",
+                                              hostKey));
+        assertEquals(KnownHosts.HOSTKEY_IS_NEW,
+                     knownHosts.verifyHostkey("localhost",
+                                              "ssh-rsa",
+                                              hostKey));
+        assertNull(knownHosts.getPreferredServerHostkeyAlgorithmOrder(
+                                                                "localhost"));
+    }
+}
@@ -0,0 +1,175 @@
+package ch.ethz.ssh2.transport;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.SecureRandom;
+import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import ch.ethz.ssh2.KeepAliveMonitor;
+import ch.ethz.ssh2.packets.Packets;
+import ch.ethz.ssh2.packets.TypesReader;
+import ch.ethz.ssh2.packets.TypesWriter;
+
+/**
+ * Sends global requests through the transport manager to a fake peer, that
+ * answers them, and checks that the replies are matched to the requests.
+ */
+public final class TransportManagerTest1 extends TestCase {
+    /** How long to wait for the replies in seconds. */
+    private static final int TIMEOUT = 10;
+    /** Transport manager, that is tested. */
+    private TransportManager tm;
+    /** Transport connection of the fake peer. */
+    private TransportConnection peer;
+    /** Socket of the client. */
+    private Socket clientSocket;
+    /** Socket of the fake peer. */
+    private Socket peerSocket;
+    /** Replies to the keepalive requests. */
+    private CountDownLatch keepAliveReplies;
+    /** Reason of the lost connection. */
+    private volatile Throwable lost;
+    /** Counted down, when the connection is lost. */
+    private CountDownLatch lostLatch;
+
+    @Before
+    protected void setUp() throws IOException {
+        final ServerSocket server =
+                   new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"));
+        clientSocket = new Socket(server.getInetAddress(),
+                                  server.getLocalPort());
+        peerSocket = server.accept();
+        server.close();
+        final SecureRandom rnd = new SecureRandom();
+        tm = new TransportManager("localhost", 22);
+        tm.tc = new TransportConnection(clientSocket.getInputStream(),
+                                        clientSocket.getOutputStream(),
+                                        rnd);
+        peer = new TransportConnection(peerSocket.getInputStream(),
+                                       peerSocket.getOutputStream(),
+                                       rnd);
+        keepAliveReplies = new CountDownLatch(3);
+        lost = null;
+        lostLatch = new CountDownLatch(1);
+        final Vector<Object> monitors = new Vector<Object>();
+        monitors.add(new KeepAliveMonitor() {
+            @Override
+            public void keepAliveReply(final long rttMillis) {
+                keepAliveReplies.countDown();
+            }
+
+            @Override
+            public void connectionLost(final Throwable reason) {
+                lost = reason;
+                lostLatch.countDown();
+            }
+        });
+        tm.setConnectionMonitors(monitors);
+        final Thread receiver = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    tm.receiveLoop();
+                } catch (IOException e) {
+                    tm.close(e, false);
+                }
+            }
+        });
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @After
+    protected void tearDown() throws IOException {
+        tm.setKeepAlive(0, 0);
+        tm.close(new IOException("done"), false);
+        clientSocket.close();
+        peerSocket.close();
+    }
+
+    /* ---- tests ----- */
+
+    /** The keepalive replies reach the monitor and keep the connection. */
+    @Test
+    public void testKeepAlive() throws Exception {
+        startPeer(Packets.SSH_MSG_REQUEST_FAILURE);
+        tm.setKeepAlive(20, 2);
+        assertTrue(keepAliveReplies.await(TIMEOUT, TimeUnit.SECONDS));
+        assertNull(lost);
+        assertNull(tm.getReasonClosedCause());
+    }
+
+    /** Replies to other global requests reach the message handler. */
+    @Test
+    public void testOtherGlobalRequest() throws Exception {
+        final AtomicInteger handled = new AtomicInteger(0);
+        final CountDownLatch reply = new CountDownLatch(1);
+        tm.registerMessageHandler(new MessageHandler() {
+            @Override
+            public void handleMessage(final byte[] msg, final int msglen) {
+                if (msg != null) {
+                    handled.incrementAndGet();
+                    reply.countDown();
+                }
+            }
+        }, Packets.SSH_MSG_REQUEST_SUCCESS, Packets.SSH_MSG_REQUEST_FAILURE);
+        startPeer(Packets.SSH_MSG_REQUEST_SUCCESS);
+        tm.setKeepAlive(20, 2);
+        assertTrue(keepAliveReplies.await(TIMEOUT, TimeUnit.SECONDS));
+        final TypesWriter tw = new TypesWriter();
+        tw.writeByte(Packets.SSH_MSG_GLOBAL_REQUEST);
+        tw.writeString("tcpip-forward");
+        tw.writeBoolean(true);
+        tw.writeString("localhost");
+        tw.writeUINT32(8080);
+        tm.sendMessage(tw.getBytes());
+        assertTrue(reply.await(TIMEOUT, TimeUnit.SECONDS));
+        tm.setKeepAlive(0, 0);
+        assertEquals(1, handled.get());
+        assertNull(lost);
+    }
+
+    /** The connection is closed, if the peer doesn't answer. */
+    @Test
+    public void testMissedKeepAlives() throws Exception {
+        tm.setKeepAlive(20, 2);
+        assertTrue(lostLatch.await(TIMEOUT, TimeUnit.SECONDS));
+        assertNotNull(tm.getReasonClosedCause());
+        assertNotNull(lost);
+    }
+
+    /** Starts the peer, that answers every global request with the reply. */
+    private void startPeer(final int reply) {
+        final Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final byte[] msg = new byte[35000];
+                try {
+                    while (true) {
+                        final int len = peer.receiveMessage(msg, 0, msg.length);
+                        final TypesReader tr = new TypesReader(msg, 0, len);
+                        if (tr.readByte() != Packets.SSH_MSG_GLOBAL_REQUEST) {
+                            continue;
+                        }
+                        tr.readString();
+                        if (tr.readBoolean()) {
+                            peer.sendMessage(new byte[]{(byte) reply});
+                        }
+                    }
+                } catch (IOException e) {
+                    /* closed */
+                }
+            }
+        });
+        t.setDaemon(true);
+        t.start();
+    }
+}
@@ -0,0 +1,152 @@
+package lcmc.data;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import lcmc.utilities.Tools;
+
+public final class ClusterStateTest1 extends TestCase {
+    /** Output of drbdadm dump-xml with the shared secrets. */
+    private static final String DRBD_DUMP_XML =
+        "<config file=\"/etc/drbd.conf\">\n"
+        + "<common>\n"
+        + "    <section name=\"net\">\n"
+        + "        <option name=\"cram-hmac-alg\" value=\"sha1\"/>\n"
+        + "        <option name=\"shared-secret\" value=\"FooFunFactory\"/>\n"
+        + "    </section>\n"
+        + "</common>\n"
+        + "<resource name=\"r0\">\n"
+        + "    <host name=\"node1\">\n"
+        + "        <volume vnr=\"0\">\n"
+        + "            <device minor=\"0\">/dev/drbd0</device>\n"
+        + "            <disk>/dev/sda7</disk>\n"
+        + "            <meta-disk>internal</meta-disk>\n"
+        + "        </volume>\n"
+        + "        <address family=\"ipv4\" port=\"7789\">10.1.1.31</address>\n"
+        + "    </host>\n"
+        + "    <host name=\"node2\">\n"
+        + "        <volume vnr=\"0\">\n"
+        + "            <device minor=\"0\">/dev/drbd0</device>\n"
+        + "            <disk>/dev/sda7</disk>\n"
+        + "            <meta-disk>internal</meta-disk>\n"
+        + "        </volume>\n"
+        + "        <address family=\"ipv4\" port=\"7789\">10.1.1.32</address>\n"
+        + "    </host>\n"
+        + "    <section name=\"net\">\n"
+        + "        <option name=\"shared-secret\" value=\"r0-secret\"/>\n"
+        + "    </section>\n"
+        + "</resource>\n"
+        + "</config>\n";
+    /** Save file, the state is saved next to it. */
+    private File saveFile;
+
+    @Before
+    protected void setUp() throws IOException {
+        if (Tools.getConfigData() == null) {
+            Tools.init();
+        }
+        saveFile = File.createTempFile("lcmc-test", ".lcmc");
+    }
+
+    @After
+    protected void tearDown() {
+        ClusterState.getFile(saveFile.getPath(), "cluster 1").delete();
+        saveFile.delete();
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testSaveLoad() {
+        final Host host = new Host();
+        host.setHostname("node1");
+        host.setPacemakerVersion("1.1.7");
+        final File file = ClusterState.getFile(saveFile.getPath(),
+                                               "cluster 1");
+        assertTrue(file.getName().endsWith(".state.cluster_1.xml"));
+        final ClusterState state = new ClusterState();
+        final List<String> status = Arrays.asList("<cib>", "</cib>");
+        state.setClusterStatus(status);
+        state.setRAQuick("ra <quick> & \"more\"");
+        state.setDrbdConfig(null);
+        state.setVMS(host, "<vms/>");
+        state.setVersions(host);
+        state.save(file);
+
+        final ClusterState loaded = ClusterState.load(file);
+        assertNotNull(loaded);
+        assertTrue(loaded.getSavedTime() > 0);
+        assertEquals(status, loaded.getClusterStatus());
+        assertEquals("ra <quick> & \"more\"", loaded.getRAQuick());
+        assertNull(loaded.getDrbdConfig());
+        assertNull(loaded.getRAConfigured());
+        assertEquals("<vms/>", loaded.getVMS(host));
+
+        final Host other = new Host();
+        other.setHostname("node1");
+        loaded.restoreVersions(other);
+        assertEquals("1.1.7", other.getPacemakerVersion());
+    }
+
+    /** State without the cluster status is not used. */
+    @Test
+    public void testLoadEmpty() {
+        final File file = ClusterState.getFile(saveFile.getPath(),
+                                               "cluster 1");
+        assertNull(ClusterState.load(file));
+        new ClusterState().save(file);
+        assertNull(ClusterState.load(file));
+    }
+
+    /** The old state is replaced and no temp files are left. */
+    @Test
+    public void testSaveAgain() {
+        final File file = ClusterState.getFile(saveFile.getPath(),
+                                               "cluster 1");
+        final ClusterState state = new ClusterState();
+        state.setClusterStatus(Arrays.asList("<cib>", "</cib>"));
+        state.save(file);
+        final List<String> status = Arrays.asList("<cib>", "<a/>", "</cib>");
+        state.setClusterStatus(status);
+        state.save(file);
+        assertTrue(file.canRead());
+        assertTrue(file.canWrite());
+        assertEquals(status, ClusterState.load(file).getClusterStatus());
+        for (final File f : file.getParentFile().listFiles()) {
+            assertFalse(f.getName().startsWith(file.getName())
+                        && f.getName().endsWith(".tmp"));
+        }
+    }
+
+    /** Passwords and shared secrets are not saved. */
+    @Test
+    public void testStripSecrets() {
+        final ClusterState state = new ClusterState();
+        state.setClusterStatus(Arrays.asList(
+            "<nvpair id=\"a\" name=\"ip\" value=\"10.0.0.1\"/>",
+            "<nvpair id=\"p\" name=\"passwd\" value=\"x\"/>"
+            + "<nvpair id=\"s\" name=\"Secret_key\" value=\"y\"/>"));
+        state.setDrbdConfig(DRBD_DUMP_XML);
+        assertEquals(
+            Arrays.asList(
+                "<nvpair id=\"a\" name=\"ip\" value=\"10.0.0.1\"/>",
+                "<nvpair id=\"p\" name=\"passwd\" value=\"\"/>"
+                + "<nvpair id=\"s\" name=\"Secret_key\" value=\"\"/>"),
+            state.getClusterStatus());
+        final String drbdConfig = state.getDrbdConfig();
+        assertFalse(drbdConfig.contains("FooFunFactory"));
+        assertFalse(drbdConfig.contains("r0-secret"));
+        assertTrue(drbdConfig.contains(
+                        "<option name=\"shared-secret\" value=\"\"/>"));
+        assertTrue(drbdConfig.contains(
+                        "<option name=\"cram-hmac-alg\" value=\"sha1\"/>"));
+        assertEquals(DRBD_DUMP_XML.replace("FooFunFactory", "")
+                                  .replace("r0-secret", ""),
+                     drbdConfig);
+    }
+}
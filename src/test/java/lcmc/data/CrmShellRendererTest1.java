@@ -0,0 +1,213 @@
+package lcmc.data;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.io.ByteArrayInputStream;
+import javax.xml.parsers.DocumentBuilderFactory;
+import lcmc.utilities.Tools;
+import org.w3c.dom.Document;
+
+public final class CrmShellRendererTest1 extends TestCase {
+    /** Cib of the lcmc-test/test1/test27.crm test. */
+    private static final String CIB_TEST27 =
+        "<configuration>"
+        + "<crm_config>"
+        + "<cluster_property_set id=\"cib-bootstrap-options\">"
+        + "<nvpair id=\"o-1\" name=\"dc-version\" value=\"1.1.7-ee0730e13d\"/>"
+        + "<nvpair id=\"o-2\" name=\"cluster-infrastructure\""
+        + " value=\"openais\"/>"
+        + "<nvpair id=\"o-3\" name=\"expected-quorum-votes\" value=\"2\"/>"
+        + "<nvpair id=\"o-4\" name=\"stonith-enabled\" value=\"false\"/>"
+        + "<nvpair id=\"o-5\" name=\"no-quorum-policy\" value=\"ignore\"/>"
+        + "</cluster_property_set>"
+        + "</crm_config>"
+        + "<nodes>"
+        + "<node id=\"node1\" uname=\"node1\" type=\"normal\">"
+        + "<instance_attributes id=\"nodes-node1\">"
+        + "<nvpair id=\"n-1\" name=\"standby\" value=\"off\"/>"
+        + "</instance_attributes>"
+        + "</node>"
+        + "<node id=\"7e1a1b6e-0c0f\" uname=\"node2\" type=\"normal\"/>"
+        + "</nodes>"
+        + "<resources>"
+        + "<group id=\"grp_1\">"
+        + dummy("res_Dummy_1")
+        + dummy("res_Dummy_2")
+        + dummy("res_Dummy_3")
+        + "</group>"
+        + "<primitive class=\"ocf\" id=\"res_IPaddr2_1\" provider=\"heartbeat\""
+        + " type=\"IPaddr2\">"
+        + "<instance_attributes id=\"res_IPaddr2_1-instance_attributes\">"
+        + "<nvpair id=\"i-1\" name=\"ip\" value=\"192.168.133.100\"/>"
+        + "<nvpair id=\"i-2\" name=\"cidr_netmask\" value=\"24\"/>"
+        + "</instance_attributes>"
+        + operations("res_IPaddr2_1", false)
+        + meta("res_IPaddr2_1")
+        + "</primitive>"
+        + "<master id=\"ms_Stateful_1\">"
+        + "<meta_attributes id=\"ms_Stateful_1-meta_attributes\">"
+        + "<nvpair id=\"m-1\" name=\"clone-max\" value=\"1\"/>"
+        + "<nvpair id=\"m-2\" name=\"notify\" value=\"true\"/>"
+        + "<nvpair id=\"m-3\" name=\"interleave\" value=\"true\"/>"
+        + "</meta_attributes>"
+        + "<primitive class=\"ocf\" id=\"res_Stateful_1\""
+        + " provider=\"heartbeat\" type=\"Stateful\">"
+        + operations("res_Stateful_1", false)
+        + meta("res_Stateful_1")
+        + "</primitive>"
+        + "</master>"
+        + "</resources>"
+        + "<constraints>"
+        + "<rsc_location id=\"cli-standby-grp_1\" rsc=\"grp_1\">"
+        + "<rule id=\"cli-standby-rule-grp_1\" score=\"-INFINITY\""
+        + " boolean-op=\"and\">"
+        + "<expression id=\"cli-standby-expr-grp_1\" attribute=\"#uname\""
+        + " operation=\"eq\" value=\"node2\" type=\"string\"/>"
+        + "</rule>"
+        + "</rsc_location>"
+        + "<rsc_colocation id=\"col_res_IPaddr2_1_grp_1\""
+        + " rsc=\"res_IPaddr2_1\" score=\"INFINITY\" with-rsc=\"grp_1\"/>"
+        + "<rsc_order first=\"grp_1\" id=\"ord_grp_1_res_IPaddr2_1\""
+        + " score=\"INFINITY\" then=\"res_IPaddr2_1\"/>"
+        + "</constraints>"
+        + "</configuration>";
+
+    /** Returns the dummy primitive of the test27. */
+    private static String dummy(final String id) {
+        return "<primitive class=\"ocf\" id=\"" + id + "\""
+               + " provider=\"heartbeat\" type=\"Dummy\">"
+               + operations(id, true)
+               + meta(id)
+               + "</primitive>";
+    }
+
+    /** Returns the operations of the test27. */
+    private static String operations(final String id, final boolean migrate) {
+        final StringBuilder s = new StringBuilder();
+        s.append("<operations id=\"" + id + "-operations\">");
+        s.append("<op id=\"" + id + "-start-0\" interval=\"0\" name=\"start\""
+                 + " timeout=\"200\"/>");
+        s.append("<op id=\"" + id + "-stop-0\" interval=\"0\" name=\"stop\""
+                 + " timeout=\"192\"/>");
+        s.append("<op id=\"" + id + "-monitor-121\" interval=\"121\""
+                 + " name=\"monitor\" start-delay=\"0\" timeout=\"154\"/>");
+        if (migrate) {
+            s.append("<op id=\"" + id + "-migrate_to-0\" interval=\"0\""
+                     + " name=\"migrate_to\" timeout=\"123\"/>");
+            s.append("<op id=\"" + id + "-migrate_from-0\" interval=\"0\""
+                     + " name=\"migrate_from\" timeout=\"122\"/>");
+        }
+        s.append("</operations>");
+        return s.toString();
+    }
+
+    /** Returns the meta attributes of the test27. */
+    private static String meta(final String id) {
+        return "<meta_attributes id=\"" + id + "-meta_attributes\">"
+               + "<nvpair id=\"" + id + "-target-role\" name=\"target-role\""
+               + " value=\"started\"/>"
+               + "<nvpair id=\"" + id + "-is-managed\" name=\"is-managed\""
+               + " value=\"true\"/>"
+               + "</meta_attributes>";
+    }
+
+    @Before
+    protected void setUp() {
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /* ---- tests ----- */
+
+    /**
+     * Compares the output with the output of "crm configure show" saved in
+     * the lcmc-test.
+     */
+    @Test
+    public void testRender() throws Exception {
+        final String expected = Tools.getFile("/lcmc-test/test1/test27.crm");
+        assertNotNull(expected);
+        assertEquals(expected.trim(), normalize(render(CIB_TEST27)));
+    }
+
+    /**
+     * Configurations with elements, that are not rendered, must be shown
+     * by the crm shell, otherwise they would be deleted on commit.
+     */
+    @Test
+    public void testNotRendered() throws Exception {
+        final String[] notRendered = new String[]{
+            "<constraints><rsc_ticket id=\"t\" rsc=\"r\" ticket=\"t1\"/>"
+            + "</constraints>",
+            "<fencing-topology><fencing-level id=\"f\" index=\"1\""
+            + " target=\"node1\" devices=\"st\"/></fencing-topology>",
+            "<resources><template id=\"t\" class=\"ocf\""
+            + " provider=\"heartbeat\" type=\"Dummy\"/></resources>",
+            "<resources><primitive id=\"r\" template=\"t\"/></resources>",
+            "<acls><acl_role id=\"a\"/></acls>",
+            "<tags><tag id=\"t\"><obj_ref id=\"r\"/></tag></tags>",
+            "<constraints><rsc_location id=\"l\" rsc-pattern=\"r.*\""
+            + " node=\"node1\" score=\"1\"/></constraints>",
+            "<constraints><rsc_location id=\"l\" node=\"node1\""
+            + " score=\"1\"><resource_set id=\"s\">"
+            + "<resource_ref id=\"r\"/></resource_set></rsc_location>"
+            + "</constraints>",
+            "<constraints><rsc_location id=\"l\" rsc=\"r\">"
+            + "<rule id=\"ru\" score=\"1\"><date_expression id=\"d\""
+            + " operation=\"gt\" start=\"2012-01-01\"/></rule>"
+            + "</rsc_location></constraints>",
+            "<constraints><rsc_location id=\"l\" rsc=\"r\">"
+            + "<rule id=\"ru\" score=\"1\"><rule id=\"ru2\">"
+            + "<expression id=\"e\" attribute=\"a\" operation=\"defined\"/>"
+            + "</rule></rule></rsc_location></constraints>",
+            "<resources><primitive id=\"r\" class=\"ocf\""
+            + " provider=\"heartbeat\" type=\"Dummy\"><operations>"
+            + "<op id=\"o\" name=\"monitor\" interval=\"10\">"
+            + "<meta_attributes id=\"m\"/></op></operations></primitive>"
+            + "</resources>",
+            "<resources><primitive id=\"r\" class=\"ocf\""
+            + " provider=\"heartbeat\" type=\"Dummy\">"
+            + "<instance_attributes id=\"i1\"/>"
+            + "<instance_attributes id=\"i2\"/></primitive></resources>"};
+        for (final String conf : notRendered) {
+            assertNull(conf,
+                       render("<configuration>" + conf + "</configuration>"));
+        }
+        assertNotNull(render("<configuration><resources/></configuration>"));
+    }
+
+    /** Returns the configuration rendered in the crm shell syntax. */
+    private static String render(final String conf) throws Exception {
+        final Document document =
+              DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(
+                                  new ByteArrayInputStream(conf.getBytes()));
+        return new CrmShellRenderer().render(document.getDocumentElement());
+    }
+
+    /**
+     * Changes the output the same way as the lcmc-gui-helper does, before it
+     * compares it with the saved output of the crm shell.
+     */
+    private static String normalize(final String show) {
+        final StringBuilder s = new StringBuilder();
+        for (final String line : show.split("\n")) {
+            if (line.contains("expected-quorum-votes=\"2\"")
+                || line.contains("dc-version=\"")
+                || line.contains("cluster-infrastructure=\"")
+                || line.contains("last-lrm-refresh=")) {
+                continue;
+            }
+            s.append(line.replaceFirst("\\\\$", ""));
+            s.append('\n');
+        }
+        return s.toString().trim()
+                .replaceAll("(?i)(node1|node2)\\b", "host")
+                .replaceAll("(node)\\s+\\$id=\".*?\"", "$1")
+                .replaceAll("\\s*\n\\s*attributes standby=\"off\"\\s*", "\n")
+                .replaceAll("(?m)^(node host)\\s+$", "$1");
+    }
+}
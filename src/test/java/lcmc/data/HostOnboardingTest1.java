@@ -0,0 +1,64 @@
+package lcmc.data;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.util.ArrayList;
+import java.util.List;
+import lcmc.utilities.ClusterSimulator;
+import lcmc.utilities.SSH;
+import lcmc.utilities.Tools;
+
+public final class HostOnboardingTest1 extends TestCase {
+    /** Simulated cluster, that answers the commands of the hosts. */
+    private ClusterSimulator simulator;
+
+    @Before
+    protected void setUp() {
+        if (Tools.getConfigData() == null) {
+            Tools.init();
+        }
+        simulator = new ClusterSimulator(3, 0, 0, 0, 0);
+        SSH.setSimulator(simulator);
+    }
+
+    @After
+    protected void tearDown() {
+        SSH.setSimulator(null);
+    }
+
+    /* ---- tests ----- */
+
+    /** Only the hostnames are entered, like in the AddHosts dialog. */
+    @Test
+    public void testOnboard() {
+        final String[] names = simulator.getNodeNames();
+        final List<Host> simulated = new ArrayList<Host>();
+        for (final String name : names) {
+            simulated.add(newHost(name));
+        }
+        final Host unknown = newHost("no-such-host.invalid");
+        final List<Host> hosts = new ArrayList<Host>(simulated);
+        hosts.add(1, unknown);
+        assertTrue(new HostOnboarding(hosts).onboard(null));
+        for (int i = 0; i < names.length; i++) {
+            final Host host = simulated.get(i);
+            assertEquals(simulator.getIp(names[i]), host.getIp());
+            assertEquals(names[i], host.getHostname());
+            assertEquals(1, host.getIps(0).length);
+            assertTrue(names[i], HostOnboarding.isOnboarded(host));
+        }
+        assertNull(unknown.getIp());
+        assertNull(unknown.getHostname());
+        assertFalse(HostOnboarding.isOnboarded(unknown));
+    }
+
+    /** Returns a new host, only the hostname was entered. */
+    private static Host newHost(final String hostnameEntered) {
+        final Host host = new Host();
+        host.setHostnameEntered(hostnameEntered);
+        host.setUsername("root");
+        return host;
+    }
+}
@@ -13,6 +13,7 @@ import java.awt.Color;
 import lcmc.utilities.TestSuite1;
 import lcmc.utilities.Tools;
 import lcmc.utilities.SSH;
+import lcmc.utilities.StatusFrameDecoder;
 import lcmc.utilities.ExecCallback;
 import lcmc.utilities.SSH.ExecCommandThread;
 
@@ -433,6 +434,39 @@ public final class HostTest1 extends TestCase {
         }
     }
 
+    @Test
+    public void testGetFrameContent() {
+        for (final Host host : TestSuite1.getHosts()) {
+            final List<StatusFrameDecoder.Frame> frames =
+                new StatusFrameDecoder().decode(
+                                "--test-info-start--1 abcd\r\nx\r\n"
+                                + "--test-info-end--\r\n"
+                                + "--test-info-start--2\r\ny\r\n"
+                                + "--test-info-end--\r\n"
+                                + "--test-info-start--1 efgh\r\nz\r\n"
+                                + "--test-info-end--\r\n");
+            assertEquals(3, frames.size());
+            assertEquals("x\r\n", host.getFrameContent(frames.get(0)));
+            assertEquals("y\r\n", host.getFrameContent(frames.get(1)));
+            /* older time stamp */
+            assertNull(host.getFrameContent(frames.get(2)));
+        }
+    }
+
+    @Test
+    public void testLastClusterStatus() {
+        final List<String> status = Arrays.asList("error", "---done---");
+        for (final Host host : TestSuite1.getHosts()) {
+            host.setLastClusterStatus("abcd", status);
+            assertEquals(status, host.getLastClusterStatus());
+            host.setLastClusterStatus(null, status);
+            assertNull(host.getLastClusterStatus());
+            host.setLastClusterStatus("abcd", status);
+            host.resetInfoHashes();
+            assertNull(host.getLastClusterStatus());
+        }
+    }
+
     @Test
     public void testDisconnect() {
         for (final Host host : TestSuite1.getHosts()) {
@@ -0,0 +1,106 @@
+package lcmc.data;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lcmc.utilities.Tools;
+
+public final class InstallationStateTest1 extends TestCase {
+    @Before
+    protected void setUp() {
+        if (Tools.getConfigData() == null) {
+            Tools.init();
+        }
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testUpdate() {
+        final Host host = new Host();
+        final InstallationState state = host.getInstallationState();
+        /* the host is not connected */
+        state.setProbe(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        final AtomicInteger changes = new AtomicInteger(0);
+        final InstallationState.Listener listener =
+            new InstallationState.Listener() {
+                @Override
+                public void installationChanged(final Host h) {
+                    assertSame(host, h);
+                    changes.incrementAndGet();
+                }
+            };
+        state.addListener(listener);
+        state.update(Arrays.asList("pm:1.1.7", "hb-running:off"));
+        assertEquals(1, changes.get());
+        assertEquals("1.1.7", host.getPacemakerVersion());
+        assertFalse(host.isHeartbeatRunning());
+
+        state.update(Arrays.asList("pm:1.1.7", "hb-running:off"));
+        assertEquals(1, changes.get());
+
+        state.update(Arrays.asList("hb-running:on"));
+        assertEquals(2, changes.get());
+        assertTrue(host.isHeartbeatRunning());
+        assertEquals("1.1.7", host.getPacemakerVersion());
+
+        state.removeListener(listener);
+        state.update(Arrays.asList("hb-running:off"));
+        assertEquals(2, changes.get());
+    }
+
+    @Test
+    public void testProbeWhileListened() throws InterruptedException {
+        final Host host = new Host();
+        final InstallationState state = host.getInstallationState();
+        final CountDownLatch probed = new CountDownLatch(2);
+        state.setProbe(new Runnable() {
+            @Override
+            public void run() {
+                probed.countDown();
+            }
+        });
+        final InstallationState.Listener listener =
+            new InstallationState.Listener() {
+                @Override
+                public void installationChanged(final Host h) {
+                }
+            };
+        state.addListener(listener);
+        assertTrue(probed.await(10, TimeUnit.SECONDS));
+        state.removeListener(listener);
+    }
+
+    @Test
+    public void testBackOff() {
+        final int max = InstallationState.MAX_PROBE_INTERVAL;
+        int interval = InstallationState.PROBE_INTERVAL;
+        interval = InstallationState.nextProbeInterval(interval, true);
+        assertEquals(2 * InstallationState.PROBE_INTERVAL, interval);
+        for (int i = 0; i < 20; i++) {
+            interval = InstallationState.nextProbeInterval(interval, true);
+        }
+        assertEquals(max, interval);
+        assertEquals(InstallationState.PROBE_INTERVAL,
+                     InstallationState.nextProbeInterval(interval, false));
+
+        final InstallationState state = new Host().getInstallationState();
+        assertFalse(state.isProbeFailed());
+        state.probeFailed();
+        state.probeFailed();
+        assertTrue(state.isProbeFailed());
+    }
+}
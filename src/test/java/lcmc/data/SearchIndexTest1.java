@@ -0,0 +1,123 @@
+package lcmc.data;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class SearchIndexTest1 extends TestCase {
+    /** Number of the resources in the large index. */
+    private static final int RESOURCES = 10000;
+
+    @Before
+    protected void setUp() {
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testSearch() {
+        final SearchIndex index = new SearchIndex();
+        final Map<String, List<String>> docs =
+                                        new HashMap<String, List<String>>();
+        docs.put("res_IPaddr2_1",
+                 Arrays.asList("IPaddr2", "heartbeat", "192.168.1.10"));
+        docs.put("res_Filesystem_1",
+                 Arrays.asList("Filesystem", "/dev/drbd0", "node1"));
+        index.update(SearchIndex.RESOURCE, docs);
+        index.put(SearchIndex.VM, "vm-web", Arrays.asList("node2"));
+
+        assertEquals(Arrays.asList("res_IPaddr2_1"),
+                     ids(index.searchPrefix("res_ip"), SearchIndex.RESOURCE));
+        assertNull(index.searchPrefix("addr2").get(SearchIndex.RESOURCE));
+        assertEquals(Arrays.asList("res_IPaddr2_1"),
+                     ids(index.search("ADDR2"), SearchIndex.RESOURCE));
+        assertEquals(Arrays.asList("res_Filesystem_1"),
+                     ids(index.search("drbd"), SearchIndex.RESOURCE));
+        assertEquals(Arrays.asList("vm-web"),
+                     ids(index.search("node2"), SearchIndex.VM));
+        assertEquals(2, index.search("e").get(SearchIndex.RESOURCE).size());
+        assertTrue(index.search("nothing").isEmpty());
+        assertTrue(index.search(" ").isEmpty());
+    }
+
+    @Test
+    public void testUpdate() {
+        final SearchIndex index = new SearchIndex();
+        final Map<String, List<String>> docs =
+                                        new HashMap<String, List<String>>();
+        docs.put("a", Arrays.asList("node1"));
+        docs.put("b", Arrays.asList("node2"));
+        index.update(SearchIndex.RESOURCE, docs);
+        final int terms = index.getTermCount();
+        index.update(SearchIndex.RESOURCE, docs);
+        assertEquals(terms, index.getTermCount());
+
+        docs.remove("b");
+        docs.put("a", Arrays.asList("node3"));
+        index.update(SearchIndex.RESOURCE, docs);
+        assertTrue(index.search("node1").isEmpty());
+        assertTrue(index.search("node2").isEmpty());
+        assertEquals(Arrays.asList("a"),
+                     ids(index.search("node3"), SearchIndex.RESOURCE));
+        assertEquals(2, index.getTermCount());
+
+        /* other kinds are not touched */
+        index.put(SearchIndex.DRBD, "r0", Arrays.asList("node3"));
+        index.update(SearchIndex.RESOURCE,
+                     new HashMap<String, List<String>>());
+        assertNull(index.search("node3").get(SearchIndex.RESOURCE));
+        assertEquals(Arrays.asList("r0"),
+                     ids(index.search("node3"), SearchIndex.DRBD));
+        index.remove(SearchIndex.DRBD, "r0");
+        assertEquals(0, index.getTermCount());
+    }
+
+    @Test
+    public void testLargeIndex() {
+        final SearchIndex index = new SearchIndex();
+        final Map<String, List<String>> docs =
+                                        new HashMap<String, List<String>>();
+        for (int i = 0; i < RESOURCES; i++) {
+            docs.put("res_IPaddr2_" + i,
+                     Arrays.asList("IPaddr2",
+                                   "heartbeat",
+                                   "ocf",
+                                   "10.0." + (i / 256) + "." + (i % 256),
+                                   "node" + (i % 16),
+                                   "col_" + i));
+        }
+        index.update(SearchIndex.RESOURCE, docs);
+        assertEquals(11, index.search("res_ipaddr2_999").get(
+                                            SearchIndex.RESOURCE).size());
+        assertEquals(11, index.searchPrefix("col_999").get(
+                                            SearchIndex.RESOURCE).size());
+        /* short queries don't check all the terms */
+        assertEquals(RESOURCES, index.search("c").get(
+                                            SearchIndex.RESOURCE).size());
+        assertTrue(index.getCandidateCount("c") < index.getTermCount());
+        assertEquals(0, index.getCandidateCount("x"));
+        /* resources, whose number starts with 9 */
+        assertEquals(1 + 10 + 100 + 1000, index.search("_9").get(
+                                            SearchIndex.RESOURCE).size());
+    }
+
+    /** Returns the ids of the kind. */
+    private static List<String> ids(final Map<String, Set<String>> result,
+                                    final String kind) {
+        final Set<String> ids = result.get(kind);
+        if (ids == null) {
+            return null;
+        }
+        return Arrays.asList(ids.toArray(new String[ids.size()]));
+    }
+}
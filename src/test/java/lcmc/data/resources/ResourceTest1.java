@@ -0,0 +1,57 @@
+package lcmc.data.resources;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+
+public final class ResourceTest1 extends TestCase {
+    @Before
+    protected void setUp() {
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testValues() {
+        final Resource r = new Resource("r");
+        assertNull(r.getValue("a"));
+        r.setValue("a", "1");
+        r.setDefaultValue("b", "2");
+        r.setPreferredValue("c", "3");
+        r.setPossibleChoices("a", new Object[]{"x", "y"});
+        assertEquals("1", r.getValue("a"));
+        assertNull(r.getValue("b"));
+        assertEquals("2", r.getDefaultValue("b"));
+        assertEquals("3", r.getPreferredValue("c"));
+        assertEquals(2, r.getPossibleChoices("a").length);
+        assertEquals(0, r.getPossibleChoices("b").length);
+        r.setValue("a", null);
+        assertNull(r.getValue("a"));
+    }
+
+    @Test
+    public void testSharedSchema() {
+        final ParamSchema schema = new ParamSchema();
+        schema.add("ip");
+        final Service s1 = new Service("s1");
+        final Service s2 = new Service("s2");
+        s1.setValue("nic", "eth0");
+        s1.setDefaultValue("ip", "");
+        s1.setParamSchema(schema);
+        s2.setParamSchema(schema);
+        s2.setValue(new String("ip"), "10.0.0.1");
+        assertEquals("eth0", s1.getValue("nic"));
+        assertEquals("", s1.getDefaultValue("ip"));
+        assertNull(s1.getValue("ip"));
+        assertEquals("10.0.0.1", s2.getValue("ip"));
+        assertNull(s2.getValue("nic"));
+        assertEquals(2, schema.size());
+        assertSame("ip", schema.getParam(schema.indexOf("ip")));
+        assertEquals(-1, schema.indexOf("cidr_netmask"));
+    }
+}
@@ -0,0 +1,113 @@
+package lcmc.gui;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import javax.swing.JTree;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.TreePath;
+import lcmc.gui.resources.CategoryInfo;
+import lcmc.utilities.Tools;
+
+public final class BrowserTest1 extends TestCase {
+    /** Tested browser. */
+    private Browser browser;
+    /** Menu tree of the browser. */
+    private JTree tree;
+    /** Top of the menu tree. */
+    private DefaultMutableTreeNode top;
+
+    @Before
+    protected void setUp() {
+        Tools.init();
+        browser = new Browser();
+        browser.setTreeTop(new CategoryInfo("top", browser));
+        top = browser.getTreeTop();
+        final ViewPanel viewPanel = new ViewPanel();
+        Tools.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                tree = viewPanel.getTree(browser);
+            }
+        });
+        viewPanel.setDisabledDuringLoad(false);
+        top.add(node("a"));
+        top.add(node("b"));
+        browser.reloadAndWait(top, false);
+    }
+
+    @After
+    protected void tearDown() {
+        tree = null;
+    }
+
+    /** Returns a new tree node. */
+    private DefaultMutableTreeNode node(final String name) {
+        return new DefaultMutableTreeNode(new CategoryInfo(name, browser));
+    }
+
+    /** Returns the last selected node. */
+    private Object selected() {
+        final TreePath path = tree.getSelectionPath();
+        if (path == null) {
+            return null;
+        }
+        return path.getLastPathComponent();
+    }
+
+    /* ---- tests ----- */
+
+    /** The node is in the tree and selected, when reloadAndWait returns. */
+    @Test
+    public void testReloadAndWaitSelects() {
+        final DefaultMutableTreeNode a = (DefaultMutableTreeNode)
+                                                            top.getChildAt(0);
+        final DefaultMutableTreeNode a1 = node("a1");
+        a.add(a1);
+        browser.reloadAndWait(a1, true);
+        assertSame(a1, selected());
+        assertTrue(tree.isExpanded(new TreePath(a.getPath())));
+    }
+
+    /** Without select the selection stays. */
+    @Test
+    public void testReloadAndWaitKeepsSelection() {
+        final DefaultMutableTreeNode a = (DefaultMutableTreeNode)
+                                                            top.getChildAt(0);
+        browser.reloadAndWait(a, true);
+        assertSame(a, selected());
+        final DefaultMutableTreeNode c = node("c");
+        top.add(c);
+        browser.reloadAndWait(top, false);
+        assertSame(a, selected());
+        assertEquals(3, tree.getRowCount());
+    }
+
+    /** The batched reloads select the last node that asked for it. */
+    @Test
+    public void testReloadSelectsLast() {
+        final DefaultMutableTreeNode a = (DefaultMutableTreeNode)
+                                                            top.getChildAt(0);
+        final DefaultMutableTreeNode b = (DefaultMutableTreeNode)
+                                                            top.getChildAt(1);
+        final DefaultMutableTreeNode b1 = node("b1");
+        b.add(b1);
+        Tools.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                browser.reload(a, true);
+                browser.reload(b1, true);
+                browser.reload(top, false);
+            }
+        });
+        Tools.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                /* wait for the batch */
+            }
+        });
+        assertSame(b1, selected());
+        assertEquals(3, tree.getRowCount());
+    }
+}
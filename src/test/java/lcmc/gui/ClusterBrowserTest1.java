@@ -13,6 +13,7 @@ import java.util.concurrent.CountDownLatch;
 import lcmc.utilities.TestSuite1;
 import lcmc.utilities.Tools;
 import lcmc.utilities.CRM;
+import lcmc.utilities.StatusFrameDecoder;
 import lcmc.data.Host;
 
 public final class ClusterBrowserTest1 extends TestCase {
@@ -34,40 +35,20 @@ public final class ClusterBrowserTest1 extends TestCase {
         for (final Host host : TestSuite1.getHosts()) {
             final ClusterBrowser cb = host.getBrowser().getClusterBrowser();
 
-            StringBuffer buffer = new StringBuffer("cd");
+            /* reset strings are tested in StatusFrameDecoderTest1 */
+            final StatusFrameDecoder decoder = new StatusFrameDecoder();
             cb.processClusterOutput("a---reset---\r\nb",
-                                    buffer,
+                                    decoder,
                                     host,
                                     nolatch,
                                     CRM.LIVE);
-            assertEquals("cdab", buffer.toString());
-
-            buffer = new StringBuffer("");
-            cb.processClusterOutput("a---reset---\r\nb",
-                                    buffer,
-                                    host,
-                                    nolatch,
-                                    CRM.LIVE);
-            assertEquals("ab", buffer.toString());
-
-            buffer = new StringBuffer("cd");
-            cb.processClusterOutput("a---reset---\r\nb",
-                                    buffer,
-                                    host,
-                                    nolatch,
-                                    CRM.LIVE);
-            assertEquals("cdab", buffer.toString());
-
-            buffer = new StringBuffer("cd");
             cb.processClusterOutput("a---reset---\r\nb---reset---\r\nc",
-                                    buffer,
+                                    decoder,
                                     host,
                                     nolatch,
                                     CRM.LIVE);
-            assertEquals("cdabc", buffer.toString());
         }
-                    
-        
+
         if (TestSuite1.QUICK) {
             return;
         }
@@ -153,7 +134,7 @@ public final class ClusterBrowserTest1 extends TestCase {
                 final ClusterBrowser cb = host.getBrowser().getClusterBrowser();
                 cb.getClusterViewPanel().setDisabledDuringLoad(true);
                 cb.processClusterOutput(cib,
-                                        new StringBuffer(""),
+                                        new StatusFrameDecoder(),
                                         host,
                                         firstTime,
                                         testOnly);
@@ -167,7 +148,7 @@ public final class ClusterBrowserTest1 extends TestCase {
                 final ClusterBrowser cb = host.getBrowser().getClusterBrowser();
                 Tools.waitForSwing();
                 cb.processClusterOutput(emptyCib,
-                                        new StringBuffer(""),
+                                        new StatusFrameDecoder(),
                                         host,
                                         firstTime,
                                         testOnly);
@@ -0,0 +1,134 @@
+package lcmc.gui;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+
+public final class DiffTreeModelTest1 extends TestCase {
+    /** Root of the test tree. */
+    private DefaultMutableTreeNode root;
+    /** Tested model. */
+    private DiffTreeModel model;
+    /** Events that were fired, e.g. "inserted [1]". */
+    private final List<String> events = new ArrayList<String>();
+
+    @Before
+    protected void setUp() {
+        root = new DefaultMutableTreeNode("root");
+        for (final String s : new String[]{"a", "b", "c"}) {
+            final DefaultMutableTreeNode n = new DefaultMutableTreeNode(s);
+            n.add(new DefaultMutableTreeNode(s + "1"));
+            root.add(n);
+        }
+        model = new DiffTreeModel(root);
+        events.clear();
+        model.addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(final TreeModelEvent e) {
+                events.add("changed " + e.getTreePath().getLastPathComponent()
+                           + " " + Arrays.toString(e.getChildIndices()));
+            }
+
+            @Override
+            public void treeNodesInserted(final TreeModelEvent e) {
+                events.add("inserted " + e.getTreePath().getLastPathComponent()
+                           + " " + Arrays.toString(e.getChildIndices()));
+            }
+
+            @Override
+            public void treeNodesRemoved(final TreeModelEvent e) {
+                events.add("removed " + e.getTreePath().getLastPathComponent()
+                           + " " + Arrays.toString(e.getChildIndices()));
+            }
+
+            @Override
+            public void treeStructureChanged(final TreeModelEvent e) {
+                events.add("structure "
+                           + e.getTreePath().getLastPathComponent());
+            }
+        });
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /** Returns the child of the root. */
+    private DefaultMutableTreeNode child(final int i) {
+        return (DefaultMutableTreeNode) root.getChildAt(i);
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testUnchanged() {
+        model.update(root);
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testInsertAndRemove() {
+        root.remove(1);
+        root.insert(new DefaultMutableTreeNode("d"), 0);
+        child(2).add(new DefaultMutableTreeNode("c2"));
+        model.update(root);
+        assertEquals(Arrays.asList("removed root [1]",
+                                   "inserted root [0]",
+                                   "inserted c [1]"),
+                     events);
+        events.clear();
+        model.update(root);
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testChangedLabel() {
+        child(1).setUserObject("B");
+        ((DefaultMutableTreeNode) child(2).getChildAt(0)).setUserObject("C1");
+        model.update(root);
+        assertEquals(Arrays.asList("changed root [1]", "changed c [0]"),
+                     events);
+    }
+
+    @Test
+    public void testMoved() {
+        final DefaultMutableTreeNode a = child(0);
+        root.remove(0);
+        root.add(a);
+        model.update(root);
+        assertEquals(Arrays.asList("removed root [0]", "inserted root [2]"),
+                     events);
+    }
+
+    @Test
+    public void testUnknownNode() {
+        final DefaultMutableTreeNode d = new DefaultMutableTreeNode("d");
+        child(0).add(d);
+        model.update(d);
+        assertEquals(Arrays.asList("inserted a [1]"), events);
+    }
+
+    @Test
+    public void testLargeTree() {
+        for (int i = 0; i < 1000; i++) {
+            root.add(new DefaultMutableTreeNode("s" + i));
+        }
+        model.update(root);
+        events.clear();
+        for (int i = 0; i < 100; i++) {
+            child(500).setUserObject("x" + i);
+            model.update(root);
+        }
+        assertEquals(100, events.size());
+        for (final String event : events) {
+            assertEquals("changed root [500]", event);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package lcmc.gui;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.HashMap;
+
+public final class LayeredLayoutTest1 extends TestCase {
+    @Before
+    protected void setUp() {
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testChain() {
+        final LayeredLayout<String> ll = new LayeredLayout<String>(80, 30);
+        for (final String v : new String[]{"a", "b", "c"}) {
+            ll.addVertex(v, 100, null);
+        }
+        ll.addEdge("a", "b");
+        ll.addEdge("b", "c");
+        final Map<String, Point2D> pos =
+                                 ll.layout(Arrays.asList("c"), 15, 20);
+        assertEquals(3, pos.size());
+        assertEquals(20, pos.get("a").getY(), 0.001);
+        assertEquals(100, pos.get("b").getY(), 0.001);
+        assertEquals(180, pos.get("c").getY(), 0.001);
+        assertEquals(65, pos.get("a").getX(), 0.001);
+    }
+
+    @Test
+    public void testCycle() {
+        final LayeredLayout<String> ll = new LayeredLayout<String>(80, 30);
+        for (final String v : new String[]{"a", "b", "c"}) {
+            ll.addVertex(v, 100, null);
+        }
+        ll.addEdge("a", "b");
+        ll.addEdge("b", "c");
+        ll.addEdge("c", "a");
+        final Map<String, Point2D> pos =
+                                 ll.layout(Arrays.asList("a"), 15, 20);
+        assertEquals(3, pos.size());
+    }
+
+    @Test
+    public void testSiblings() {
+        final LayeredLayout<String> ll = new LayeredLayout<String>(80, 30);
+        for (final String v : new String[]{"p", "c1", "c2"}) {
+            ll.addVertex(v, 100, null);
+        }
+        ll.addEdge("p", "c1");
+        ll.addEdge("p", "c2");
+        final Map<String, Point2D> pos =
+                                 ll.layout(Arrays.asList("p"), 15, 20);
+        assertEquals(pos.get("c1").getY(), pos.get("c2").getY(), 0.001);
+        assertTrue(Math.abs(pos.get("c1").getX() - pos.get("c2").getX())
+                   >= 130);
+    }
+
+    /** Vertices in other components must not move. */
+    @Test
+    public void testIncremental() {
+        final LayeredLayout<String> ll = new LayeredLayout<String>(80, 30);
+        ll.addVertex("x", 100, new Point2D.Double(500, 500));
+        ll.addVertex("a", 100, new Point2D.Double(65, 20));
+        ll.addVertex("b", 100, null);
+        ll.addEdge("a", "b");
+        final Map<String, Point2D> pos =
+                                 ll.layout(Arrays.asList("b"), 15, 20);
+        assertFalse(pos.containsKey("x"));
+        assertFalse(pos.containsKey("a"));
+        assertEquals(100, pos.get("b").getY(), 0.001);
+    }
+
+    /** New components are placed under the fixed vertices. */
+    @Test
+    public void testFixed() {
+        final LayeredLayout<String> ll = new LayeredLayout<String>(80, 30);
+        ll.addFixedVertex("host", 100, new Point2D.Double(65, 40));
+        ll.addVertex("a", 100, null);
+        final Map<String, Point2D> pos =
+                                 ll.layout(Arrays.asList("a"), 15, 20);
+        assertEquals(120, pos.get("a").getY(), 0.001);
+    }
+
+    @Test
+    public void testLargeGraph() {
+        final LayeredLayout<Integer> ll = new LayeredLayout<Integer>(80, 30);
+        final List<Integer> all = new ArrayList<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            ll.addVertex(i, 100, null);
+            all.add(i);
+        }
+        for (int i = 1; i < 1000; i++) {
+            if (i % 10 != 0) {
+                ll.addEdge(i - 1, i);
+            }
+            if (i > 10) {
+                ll.addEdge(i - 10, i);
+            }
+        }
+        Collections.shuffle(all);
+        final Map<Integer, Point2D> pos = ll.layout(all, 15, 20);
+        assertEquals(1000, pos.size());
+        /* every edge points down */
+        for (int i = 1; i < 1000; i++) {
+            if (i % 10 != 0) {
+                assertTrue(pos.get(i).getY() > pos.get(i - 1).getY());
+            }
+            if (i > 10) {
+                assertTrue(pos.get(i).getY() > pos.get(i - 10).getY());
+            }
+        }
+        /* vertices in one layer don't overlap */
+        final Map<Double, List<Double>> layers =
+                                        new HashMap<Double, List<Double>>();
+        for (final Point2D p : pos.values()) {
+            List<Double> xs = layers.get(p.getY());
+            if (xs == null) {
+                xs = new ArrayList<Double>();
+                layers.put(p.getY(), xs);
+            }
+            xs.add(p.getX());
+        }
+        for (final List<Double> xs : layers.values()) {
+            Collections.sort(xs);
+            for (int i = 1; i < xs.size(); i++) {
+                assertTrue(xs.get(i) - xs.get(i - 1) >= 130);
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package lcmc.gui;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import javax.swing.ImageIcon;
+import javax.swing.JPopupMenu;
+import lcmc.data.Subtext;
+import lcmc.gui.resources.Info;
+import edu.uci.ics.jung.graph.DirectedSparseGraph;
+import edu.uci.ics.jung.visualization.Layer;
+import edu.uci.ics.jung.visualization.VisualizationViewer;
+
+/**
+ * Checks that the vertices outside of the visible area are not painted, at
+ * the normal zoom, zoomed in and zoomed out.
+ */
+public final class ResourceGraphPaintTest1 extends TestCase {
+    /** Size of the visible area. */
+    private static final int WIDTH = 1024;
+    /** Size of the visible area. */
+    private static final int HEIGHT = 768;
+    /** Number of vertices. */
+    private static final int VERTICES = 1000;
+    /**
+     * Vertices that are this far outside of the visible area must not be
+     * painted.
+     */
+    private static final int MAX_MARGIN = 300;
+
+    @Before
+    protected void setUp() {
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testCulling() {
+        final SyntheticGraph g = paint(1.0);
+        assertFalse(g.getPainted().isEmpty());
+        assertTrue(g.getPainted().size() < VERTICES);
+        checkPainted(g);
+    }
+
+    @Test
+    public void testCullingZoomedIn() {
+        final SyntheticGraph g = paint(2.0);
+        assertFalse(g.getPainted().isEmpty());
+        assertTrue(g.getPainted().size() < VERTICES);
+        checkPainted(g);
+    }
+
+    @Test
+    public void testCullingZoomedOut() {
+        final SyntheticGraph g = paint(0.1);
+        assertEquals(VERTICES, g.getPainted().size());
+    }
+
+    /** Paints the synthetic graph scaled in the view. */
+    private SyntheticGraph paint(final double scale) {
+        final SyntheticGraph g = new SyntheticGraph(VERTICES);
+        final VisualizationViewer<ResourceGraph.Vertex, ResourceGraph.Edge> vv
+                                                 = g.getVisualizationViewer();
+        vv.setSize(WIDTH, HEIGHT);
+        vv.getRenderContext().getMultiLayerTransformer()
+                             .getTransformer(Layer.VIEW)
+                             .setScale(scale, scale, new Point2D.Double(0, 0));
+        final BufferedImage image =
+                new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2d = image.createGraphics();
+        vv.paint(g2d);
+        g2d.dispose();
+        return g;
+    }
+
+    /**
+     * Checks that the vertices with the center on the screen are painted
+     * and the vertices far from the screen are not.
+     */
+    private void checkPainted(final SyntheticGraph g) {
+        final VisualizationViewer<ResourceGraph.Vertex, ResourceGraph.Edge> vv
+                                                 = g.getVisualizationViewer();
+        final Rectangle2D screen = new Rectangle2D.Double(0, 0, WIDTH, HEIGHT);
+        final Rectangle2D far = new Rectangle2D.Double(-MAX_MARGIN,
+                                                       -MAX_MARGIN,
+                                                       WIDTH + 2 * MAX_MARGIN,
+                                                       HEIGHT + 2 * MAX_MARGIN);
+        for (final ResourceGraph.Vertex v : vv.getGraphLayout().getGraph()
+                                                              .getVertices()) {
+            final Point2D p = vv.getRenderContext().getMultiLayerTransformer()
+                                .transform(vv.getGraphLayout().transform(v));
+            if (screen.contains(p)) {
+                assertTrue("not painted: " + p, g.getPainted().contains(v));
+            }
+            if (!far.contains(p)) {
+                assertFalse("painted: " + p, g.getPainted().contains(v));
+            }
+        }
+    }
+
+    /**
+     * Graph with n vertices in a grid, every vertex has constraints to the
+     * next vertex and to the vertex under it. The vertices have no texts, so
+     * that no fonts are needed.
+     */
+    private static final class SyntheticGraph extends ResourceGraph {
+        /** Number of vertices in a row. */
+        private static final int COLUMNS = 20;
+        /** Vertices that were painted. */
+        private final Set<Vertex> painted = new HashSet<Vertex>();
+
+        /** Creates the graph with n vertices. */
+        SyntheticGraph(final int n) {
+            super(null);
+            final List<Vertex> vertices = new ArrayList<Vertex>();
+            for (int i = 0; i < n; i++) {
+                final Vertex v = new Vertex();
+                getVertexLocations().put(
+                            v,
+                            new Point2D.Double(100 + (i % COLUMNS) * 200,
+                                               50 + (i / COLUMNS) * 100));
+                putVertexLocations();
+                getGraph().addVertex(v);
+                vertices.add(v);
+            }
+            for (int i = 0; i < n; i++) {
+                if (i % COLUMNS != COLUMNS - 1 && i + 1 < n) {
+                    getGraph().addEdge(new Edge(vertices.get(i),
+                                                vertices.get(i + 1)),
+                                       vertices.get(i),
+                                       vertices.get(i + 1));
+                }
+                if (i + COLUMNS < n) {
+                    getGraph().addEdge(new Edge(vertices.get(i),
+                                                vertices.get(i + COLUMNS)),
+                                       vertices.get(i),
+                                       vertices.get(i + COLUMNS));
+                }
+            }
+            scale();
+        }
+
+        /** Returns vertices that were painted. */
+        Set<Vertex> getPainted() {
+            return painted;
+        }
+
+        @Override
+        protected Color getVertexFillColor(final Vertex v) {
+            painted.add(v);
+            return Color.GREEN;
+        }
+
+        @Override
+        protected void initGraph() {
+            super.initGraph(new DirectedSparseGraph<Vertex, Edge>());
+        }
+
+        @Override
+        protected String getMainText(final Vertex v, final boolean testOnly) {
+            return null;
+        }
+
+        @Override
+        protected String getLabelForEdgeStringer(final Edge e) {
+            return "order";
+        }
+
+        @Override
+        String getVertexToolTip(final Vertex v) {
+            return null;
+        }
+
+        @Override
+        String getEdgeToolTip(final Edge edge) {
+            return null;
+        }
+
+        @Override
+        protected JPopupMenu handlePopupVertex(final Vertex vertex,
+                                               final List<Vertex> pickedV,
+                                               final Point2D p) {
+            return null;
+        }
+
+        @Override
+        protected JPopupMenu handlePopupEdge(final Edge edge) {
+            return null;
+        }
+
+        @Override
+        protected void vertexReleased(final Vertex v, final Point2D pos) {
+        }
+
+        @Override
+        protected void oneVertexPressed(final Vertex v) {
+        }
+
+        @Override
+        protected void oneEdgePressed(final Edge e) {
+        }
+
+        @Override
+        protected void backgroundClicked() {
+        }
+
+        @Override
+        protected boolean showEdgeArrow(final Edge e) {
+            return true;
+        }
+
+        @Override
+        protected List<ImageIcon> getIconsForVertex(final Vertex v,
+                                                    final boolean testOnly) {
+            return null;
+        }
+
+        @Override
+        protected void drawInside(final Vertex v,
+                                  final Graphics2D g2d,
+                                  final double x,
+                                  final double y,
+                                  final Shape shape) {
+        }
+
+        @Override
+        protected String getIconText(final Vertex v, final boolean testOnly) {
+            return null;
+        }
+
+        @Override
+        protected Subtext getRightCornerText(final Vertex v,
+                                             final boolean testOnly) {
+            return null;
+        }
+
+        @Override
+        protected Subtext[] getSubtexts(final Vertex v,
+                                        final boolean testOnly) {
+            return null;
+        }
+
+        @Override
+        protected String getId(final Info i) {
+            return null;
+        }
+
+        @Override
+        protected void multiSelection() {
+        }
+    }
+}
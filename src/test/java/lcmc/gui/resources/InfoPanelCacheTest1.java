@@ -0,0 +1,207 @@
+package lcmc.gui.resources;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.util.List;
+import java.util.ArrayList;
+import lcmc.data.ConfigData;
+import lcmc.gui.Browser;
+import lcmc.utilities.Tools;
+
+public final class InfoPanelCacheTest1 extends TestCase {
+    /** Infos that were added to the cache. */
+    private final List<PanelInfo> infos = new ArrayList<PanelInfo>();
+
+    @Before
+    protected void setUp() {
+        if (Tools.getConfigData() == null) {
+            Tools.init();
+        }
+    }
+
+    @After
+    protected void tearDown() {
+        for (final PanelInfo pi : infos) {
+            InfoPanelCache.remove(pi);
+        }
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testReleaseOldest() {
+        for (int i = 0; i < InfoPanelCache.MAX_PANELS; i++) {
+            viewed(new PanelInfo("i" + i, true));
+        }
+        /* view the first one again, it's not the oldest anymore */
+        InfoPanelCache.viewed(infos.get(0));
+        for (int i = 0; i < 5; i++) {
+            viewed(new PanelInfo("n" + i, true));
+        }
+        Tools.waitForSwing();
+        assertEquals(InfoPanelCache.MAX_PANELS, InfoPanelCache.size());
+        assertEquals(0, infos.get(0).released);
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(1, infos.get(i).released);
+        }
+        assertEquals(0, infos.get(6).released);
+    }
+
+    @Test
+    public void testKeepUnreleasable() {
+        final int n = InfoPanelCache.MAX_PANELS + 2;
+        for (int i = 0; i < n; i++) {
+            viewed(new PanelInfo("i" + i, i != 0));
+        }
+        Tools.waitForSwing();
+        assertEquals(InfoPanelCache.MAX_PANELS, InfoPanelCache.size());
+        /* the unreleasable one keeps its panel, but is not pinned */
+        assertEquals(0, infos.get(0).released);
+        assertFalse(InfoPanelCache.contains(infos.get(0)));
+        assertEquals(1, infos.get(1).released);
+        assertFalse(InfoPanelCache.contains(infos.get(1)));
+        assertEquals(0, infos.get(2).released);
+        assertTrue(InfoPanelCache.contains(infos.get(2)));
+    }
+
+    @Test
+    public void testRemoveBrowser() {
+        final Browser closed = new Browser();
+        final Browser open = new Browser();
+        for (int i = 0; i < 4; i++) {
+            viewed(new PanelInfo("i" + i, true, i % 2 == 0 ? closed : open));
+        }
+        InfoPanelCache.removeBrowser(closed);
+        assertEquals(2, InfoPanelCache.size());
+        assertFalse(InfoPanelCache.contains(infos.get(0)));
+        assertTrue(InfoPanelCache.contains(infos.get(1)));
+        assertFalse(InfoPanelCache.contains(infos.get(2)));
+        assertTrue(InfoPanelCache.contains(infos.get(3)));
+    }
+
+    /** Marks the info as viewed. */
+    private void viewed(final PanelInfo pi) {
+        infos.add(pi);
+        InfoPanelCache.viewed(pi);
+    }
+
+    /** Info, that counts the released panels. */
+    private static final class PanelInfo extends EditableInfo {
+        /** Whether the panel can be released. */
+        private final boolean releasable;
+        /** How many times was the panel released. */
+        private int released = 0;
+
+        PanelInfo(final String name, final boolean releasable) {
+            this(name, releasable, null);
+        }
+
+        PanelInfo(final String name,
+                  final boolean releasable,
+                  final Browser browser) {
+            super(name, browser);
+            this.releasable = releasable;
+        }
+
+        @Override
+        boolean dropInfoPanel() {
+            if (releasable) {
+                released++;
+            }
+            return releasable;
+        }
+
+        @Override
+        protected String getSection(final String param) {
+            return null;
+        }
+
+        @Override
+        protected boolean isRequired(final String param) {
+            return false;
+        }
+
+        @Override
+        protected boolean isAdvanced(final String param) {
+            return false;
+        }
+
+        @Override
+        protected String isEnabled(final String param) {
+            return null;
+        }
+
+        @Override
+        protected ConfigData.AccessType getAccessType(final String param) {
+            return ConfigData.AccessType.ADMIN;
+        }
+
+        @Override
+        protected boolean isEnabledOnlyInAdvancedMode(final String param) {
+            return false;
+        }
+
+        @Override
+        protected boolean isLabel(final String param) {
+            return false;
+        }
+
+        @Override
+        protected boolean isInteger(final String param) {
+            return false;
+        }
+
+        @Override
+        protected boolean isTimeType(final String param) {
+            return false;
+        }
+
+        @Override
+        protected boolean isCheckBox(final String param) {
+            return false;
+        }
+
+        @Override
+        protected String getParamType(final String param) {
+            return null;
+        }
+
+        @Override
+        protected Object[] getParamPossibleChoices(final String param) {
+            return null;
+        }
+
+        @Override
+        public String[] getParametersFromXML() {
+            return new String[0];
+        }
+
+        @Override
+        protected boolean checkParam(final String param,
+                                     final String newValue) {
+            return true;
+        }
+
+        @Override
+        protected String getParamDefault(final String param) {
+            return null;
+        }
+
+        @Override
+        protected String getParamPreferred(final String param) {
+            return null;
+        }
+
+        @Override
+        protected String getParamShortDesc(final String param) {
+            return param;
+        }
+
+        @Override
+        protected String getParamLongDesc(final String param) {
+            return param;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package lcmc.utilities;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.io.ByteArrayInputStream;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+public final class ClusterSimulatorTest1 extends TestCase {
+    /** Decoded frames of the stream. */
+    private final List<StatusFrameDecoder.Frame> frames =
+        Collections.synchronizedList(new ArrayList<StatusFrameDecoder.Frame>());
+
+    @Before
+    protected void setUp() {
+        frames.clear();
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /** Runs the command in a thread, the frames are collected. */
+    private Thread stream(final ClusterSimulator sim,
+                          final int node,
+                          final String command) {
+        final StatusFrameDecoder decoder = new StatusFrameDecoder();
+        final Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                sim.exec(node, command, new NewOutputCallback() {
+                    @Override
+                    public void output(final String output) {
+                        frames.addAll(decoder.decode(output));
+                    }
+                });
+            }
+        });
+        t.start();
+        return t;
+    }
+
+    /** Waits till there are n frames. */
+    private void waitForFrames(final int n) {
+        for (int i = 0; i < 200 && frames.size() < n; i++) {
+            Tools.sleep(20);
+        }
+        assertTrue("frames: " + frames.size(), frames.size() >= n);
+    }
+
+    /** Stops the stream. */
+    private void stop(final Thread t) throws InterruptedException {
+        t.interrupt();
+        t.join(5000);
+        assertFalse(t.isAlive());
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testParse() {
+        final ClusterSimulator sim = ClusterSimulator.parse("3:10:2");
+        assertEquals(3, sim.getNodeNames().length);
+        assertEquals("sim-node-1", sim.getNodeNames()[0]);
+        assertEquals(1, sim.getNode(null, sim.getIp("sim-node-2")));
+        assertEquals(-1, sim.getNode("other", "10.0.0.1"));
+        assertNull(ClusterSimulator.parse("0:10"));
+        assertNull(ClusterSimulator.parse("a:10"));
+    }
+
+    @Test
+    public void testCommands() throws Exception {
+        final ClusterSimulator sim = new ClusterSimulator(2, 4, 1, 2, 0);
+        final String helper = "@DMCSUDO@/usr/local/bin/lcmc-gui-helper-1.5 ";
+        final SSH.SSHOutput hw = sim.exec(0, helper + "hw-info", null);
+        assertEquals(0, hw.getExitCode());
+        assertTrue(hw.getOutput().contains("hn:sim-node-1\r\n"));
+        assertTrue(hw.getOutput().contains("/dev/drbd0 "));
+        final String vms =
+                   sim.exec(1, helper + "get-vm-info", null).getOutput();
+        parse(vms);
+        assertTrue(vms.contains("<vm name=\"vm1\""));
+        assertEquals("",
+                     sim.exec(0, "@DMCSUDO@/sbin/drbdadm up r0", null)
+                        .getOutput());
+    }
+
+    @Test
+    public void testClusterEvents() throws Exception {
+        final ClusterSimulator sim = new ClusterSimulator(3, 20, 0, 0, 0);
+        sim.setInterval(50);
+        final String command = "lcmc-gui-helper get-cluster-events -";
+        Thread t = stream(sim, 0, command);
+        waitForFrames(1);
+        final StatusFrameDecoder.Frame first = frames.get(0);
+        assertEquals(StatusFrameDecoder.CLUSTER, first.getType());
+        final StringBuilder cib = new StringBuilder();
+        boolean inCib = false;
+        for (final String line : first.getLines()) {
+            if ("<pcmk>".equals(line)) {
+                inCib = true;
+            }
+            if (inCib) {
+                cib.append(line).append('\n');
+            }
+            if ("</pcmk>".equals(line)) {
+                inCib = false;
+            }
+        }
+        parse(cib.toString());
+        sim.event();
+        waitForFrames(2);
+        assertEquals(StatusFrameDecoder.CLUSTER, frames.get(1).getType());
+        assertFalse(first.getHash().equals(frames.get(1).getHash()));
+        stop(t);
+
+        /* reconnect with the known hash */
+        final String hash = frames.get(frames.size() - 1).getHash();
+        frames.clear();
+        t = stream(sim, 1, "lcmc-gui-helper get-cluster-events " + hash);
+        waitForFrames(1);
+        assertEquals(StatusFrameDecoder.UNCHANGED, frames.get(0).getType());
+        stop(t);
+    }
+
+    @Test
+    public void testDrbdEvents() throws Exception {
+        final ClusterSimulator sim = new ClusterSimulator(2, 0, 3, 0, 0);
+        sim.setInterval(50);
+        final Thread t = stream(sim, 0, "lcmc-gui-helper get-drbd-events -");
+        waitForFrames(1);
+        assertEquals("drbd", frames.get(0).getType());
+        for (int i = 0; i < 10; i++) {
+            sim.event();
+        }
+        waitForFrames(11);
+        assertEquals("event", frames.get(1).getType());
+        assertTrue(frames.get(1).getContent().contains(" ST "));
+        stop(t);
+    }
+
+    @Test
+    public void testHwInfoDaemon() throws Exception {
+        final ClusterSimulator sim = new ClusterSimulator(2, 0, 1, 1, 0);
+        sim.setInterval(50);
+        Thread t = stream(sim, 0, "lcmc-gui-helper hw-info-daemon - - -");
+        waitForFrames(3);
+        final String hwHash = frames.get(0).getHash();
+        final String vmHash = frames.get(1).getHash();
+        final String drbdHash = frames.get(2).getHash();
+        assertEquals("hw", frames.get(0).getType());
+        assertEquals("vm", frames.get(1).getType());
+        assertEquals("drbd", frames.get(2).getType());
+        stop(t);
+
+        frames.clear();
+        t = stream(sim, 0, "lcmc-gui-helper hw-info-daemon " + hwHash + " "
+                           + vmHash + " " + drbdHash);
+        Tools.sleep(200);
+        assertEquals(0, frames.size());
+        /* one in ten events changes a vm */
+        for (int i = 0; i < 100; i++) {
+            sim.event();
+        }
+        waitForFrames(1);
+        assertEquals("vm", frames.get(0).getType());
+        stop(t);
+    }
+
+    /** 100 nodes and 5000 resources. */
+    @Test
+    public void testLargeCluster() throws Exception {
+        final ClusterSimulator sim =
+                                new ClusterSimulator(100, 5000, 150, 100, 0);
+        sim.setInterval(50);
+        final Thread t = stream(sim, 0, "lcmc-gui-helper get-cluster-events");
+        waitForFrames(1);
+        for (int i = 0; i < 10; i++) {
+            sim.event();
+        }
+        Tools.sleep(200);
+        stop(t);
+        assertTrue(frames.get(0).getLines().size() > 5000 * 5);
+    }
+
+    /** Parses the xml, fails if it is not well formed. */
+    private static void parse(final String xml) throws Exception {
+        DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(
+                         new ByteArrayInputStream(xml.getBytes("UTF-8")));
+    }
+}
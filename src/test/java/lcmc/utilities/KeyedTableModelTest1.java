@@ -0,0 +1,159 @@
+package lcmc.utilities;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.util.List;
+import java.util.ArrayList;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+public final class KeyedTableModelTest1 extends TestCase {
+    /** Column names. */
+    private static final String[] COLUMNS = {"name", "status"};
+    /** Tested model. */
+    private KeyedTableModel model;
+    /** Events that were fired, e.g. "insert 1-1". */
+    private final List<String> events = new ArrayList<String>();
+
+    @Before
+    protected void setUp() {
+        model = new KeyedTableModel(new Object[][]{{"a", "running"},
+                                                   {"b", "running"},
+                                                   {"c", "stopped"}},
+                                    COLUMNS);
+        events.clear();
+        model.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(final TableModelEvent e) {
+                final String type;
+                if (e.getType() == TableModelEvent.INSERT) {
+                    type = "insert";
+                } else if (e.getType() == TableModelEvent.DELETE) {
+                    type = "delete";
+                } else {
+                    type = "update";
+                }
+                events.add(type + " " + e.getFirstRow() + "-"
+                           + e.getLastRow());
+            }
+        });
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testUnchanged() {
+        assertFalse(model.updateRows(new Object[][]{{"a", "running"},
+                                                    {"b", "running"},
+                                                    {"c", "stopped"}},
+                                     COLUMNS));
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testOneRowChanged() {
+        assertTrue(model.updateRows(new Object[][]{{"a", "running"},
+                                                   {"b", "stopped"},
+                                                   {"c", "stopped"}},
+                                    COLUMNS));
+        assertEquals(1, events.size());
+        assertEquals("update 1-1", events.get(0));
+        assertEquals("stopped", model.getValueAt(1, 1));
+    }
+
+    @Test
+    public void testInsertAndDelete() {
+        model.updateRows(new Object[][]{{"a", "running"},
+                                        {"d", "running"},
+                                        {"c", "stopped"}},
+                         COLUMNS);
+        assertEquals("delete 1-1", events.get(0));
+        assertEquals("insert 1-1", events.get(1));
+        assertEquals(2, events.size());
+        assertEquals("d", model.getValueAt(1, 0));
+        assertEquals(3, model.getRowCount());
+    }
+
+    @Test
+    public void testMoved() {
+        model.updateRows(new Object[][]{{"c", "stopped"},
+                                        {"a", "running"},
+                                        {"b", "running"}},
+                         COLUMNS);
+        assertEquals("c", model.getValueAt(0, 0));
+        assertEquals("a", model.getValueAt(1, 0));
+        assertEquals("b", model.getValueAt(2, 0));
+    }
+
+    @Test
+    public void testButtons() {
+        final MyButton b = new MyButton("a");
+        assertTrue(KeyedTableModel.cellEquals(b, new MyButton("a")));
+        assertFalse(KeyedTableModel.cellEquals(b, new MyButton("b")));
+        assertEquals("a", KeyedTableModel.getKey(b));
+    }
+
+    @Test
+    public void testMovedRowsKeepTheirCells() {
+        final Object a = model.getValueAt(0, 1);
+        model.updateRows(new Object[][]{{"b", "running"},
+                                        {"c", "stopped"},
+                                        {"a", "running"}},
+                         COLUMNS);
+        /* only the one row is moved */
+        assertEquals("delete 0-0", events.get(0));
+        assertEquals("insert 2-2", events.get(1));
+        assertEquals(2, events.size());
+        assertSame(a, model.getValueAt(2, 1));
+    }
+
+    @Test
+    public void testButtonCells() {
+        model.updateRows(new Object[][]{{new ButtonCell("a"), "running"},
+                                        {new ButtonCell("b"), "running"}},
+                         COLUMNS);
+        final Object a = model.getValueAt(0, 0);
+        assertTrue(a instanceof MyButton);
+        assertEquals("a", ((MyButton) a).getText());
+        events.clear();
+        assertFalse(model.updateRows(
+                            new Object[][]{{new ButtonCell("a"), "running"},
+                                           {new ButtonCell("b"), "running"}},
+                            COLUMNS));
+        assertSame(a, model.getValueAt(0, 0));
+        assertTrue(model.updateRows(
+                         new Object[][]{{new ButtonCell("a", null, "tip"),
+                                         "running"},
+                                        {new ButtonCell("b"), "running"}},
+                         COLUMNS));
+        assertEquals("update 0-0", events.get(0));
+        assertEquals("tip", ((MyButton) model.getValueAt(0, 0))
+                                                            .getToolTipText());
+    }
+
+    @Test
+    public void testLargeTable() {
+        final Object[][] data = new Object[1000][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new Object[]{"res" + i, "running"};
+        }
+        model.updateRows(data, COLUMNS);
+        events.clear();
+        for (int i = 0; i < 100; i++) {
+            final Object[][] d = new Object[1000][];
+            for (int j = 0; j < d.length; j++) {
+                d[j] = new Object[]{"res" + j, "running"};
+            }
+            d[500][1] = "stopped" + i;
+            model.updateRows(d, COLUMNS);
+        }
+        assertEquals(100, events.size());
+        assertEquals("update 500-500", events.get(99));
+    }
+}
@@ -0,0 +1,67 @@
+package lcmc.utilities;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import lcmc.data.ClusterMonitor;
+
+public final class MetricsServerTest1 extends TestCase {
+    /** Tested server. */
+    private MetricsServer server;
+
+    @Before
+    protected void setUp() throws IOException {
+        server = new MetricsServer("127.0.0.1",
+                                   0,
+                                   new ArrayList<ClusterMonitor>());
+        server.start();
+    }
+
+    @After
+    protected void tearDown() {
+        server.stop();
+    }
+
+    /** Returns the http code of the request and the body in the builder. */
+    private int get(final String path, final StringBuilder body)
+    throws IOException {
+        final HttpURLConnection conn = (HttpURLConnection) new URL(
+                 "http://127.0.0.1:" + server.getPort() + path)
+                                                            .openConnection();
+        final int code = conn.getResponseCode();
+        if (code == 200) {
+            final BufferedReader in = new BufferedReader(
+                         new InputStreamReader(conn.getInputStream(), "UTF-8"));
+            String line;
+            while ((line = in.readLine()) != null) {
+                body.append(line);
+                body.append('\n');
+            }
+            in.close();
+        }
+        conn.disconnect();
+        return code;
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testMetrics() throws IOException {
+        final StringBuilder body = new StringBuilder();
+        assertEquals(200, get(MetricsServer.METRICS_PATH, body));
+        assertTrue(body.indexOf("lcmc_heap_used_bytes ") >= 0);
+        assertEquals(404, get("/other", new StringBuilder()));
+    }
+
+    @Test
+    public void testLoopback() {
+        assertTrue(server.getAddress().isLoopbackAddress());
+    }
+}
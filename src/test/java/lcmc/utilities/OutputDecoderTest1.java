@@ -0,0 +1,51 @@
+package lcmc.utilities;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.io.ByteArrayInputStream;
+
+public final class OutputDecoderTest1 extends TestCase {
+    @Before
+    protected void setUp() {
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /* ---- tests ----- */
+
+    /** A character split between two reads is decoded in the second one. */
+    @Test
+    public void testSplitCharacter() throws Exception {
+        final byte[] bytes = "ač".getBytes("UTF-8");
+        assertEquals(3, bytes.length);
+        final OutputDecoder decoder = new OutputDecoder(16);
+        decoder.read(new ByteArrayInputStream(bytes, 0, 2));
+        assertEquals("a", decoder.decode(false).toString());
+        decoder.read(new ByteArrayInputStream(bytes, 2, 1));
+        assertEquals("č", decoder.decode(true).toString());
+    }
+
+    /** Only as many bytes are read as fit into the buffer. */
+    @Test
+    public void testFullBuffer() throws Exception {
+        final OutputDecoder decoder = new OutputDecoder(4);
+        final ByteArrayInputStream in =
+                           new ByteArrayInputStream("abcdef".getBytes("UTF-8"));
+        assertEquals(4, decoder.read(in));
+        assertEquals(0, decoder.read(in));
+        assertEquals("abcd", decoder.decode(false).toString());
+        assertEquals(2, decoder.read(in));
+        assertEquals("ef", decoder.decode(true).toString());
+    }
+
+    @Test
+    public void testInvalidInput() throws Exception {
+        final OutputDecoder decoder = new OutputDecoder(16);
+        decoder.read(new ByteArrayInputStream(new byte[]{'a', (byte) 0xff}));
+        assertEquals("a�", decoder.decode(true).toString());
+    }
+}
@@ -0,0 +1,56 @@
+package lcmc.utilities;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+
+public final class PrometheusMetricsTest1 extends TestCase {
+    @Before
+    protected void setUp() {
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testFamilies() {
+        final PrometheusMetrics m = new PrometheusMetrics();
+        m.gauge("a_up", "A is up.", 1, "cluster", "c1");
+        m.gauge("b_bytes", "B bytes.", 1.5);
+        m.gauge("a_up", "A is up.", 0, "cluster", "c2");
+        assertEquals("# HELP a_up A is up.\n"
+                     + "# TYPE a_up gauge\n"
+                     + "a_up{cluster=\"c1\"} 1\n"
+                     + "a_up{cluster=\"c2\"} 0\n"
+                     + "# HELP b_bytes B bytes.\n"
+                     + "# TYPE b_bytes gauge\n"
+                     + "b_bytes 1.5\n",
+                     m.toString());
+    }
+
+    @Test
+    public void testSummary() {
+        final PrometheusMetrics m = new PrometheusMetrics();
+        m.add("t_seconds", PrometheusMetrics.SUMMARY, "T.", "_sum", 0.25,
+              "pipeline", "cluster");
+        m.add("t_seconds", PrometheusMetrics.SUMMARY, "T.", "_count", 3,
+              "pipeline", "cluster");
+        assertEquals("# HELP t_seconds T.\n"
+                     + "# TYPE t_seconds summary\n"
+                     + "t_seconds_sum{pipeline=\"cluster\"} 0.25\n"
+                     + "t_seconds_count{pipeline=\"cluster\"} 3\n",
+                     m.toString());
+    }
+
+    @Test
+    public void testEscape() {
+        final PrometheusMetrics m = new PrometheusMetrics();
+        m.gauge("x", "X.", Double.NaN, "a", "q\"b\\n\n", "b", "");
+        assertTrue(m.toString().endsWith(
+                              "x{a=\"q\\\"b\\\\n\\n\",b=\"\"} NaN\n"));
+    }
+}
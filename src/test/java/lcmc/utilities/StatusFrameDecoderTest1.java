@@ -0,0 +1,117 @@
+package lcmc.utilities;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ArrayList;
+
+public final class StatusFrameDecoderTest1 extends TestCase {
+    @Before
+    protected void setUp() {
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testReset() {
+        StatusFrameDecoder decoder = new StatusFrameDecoder();
+        decoder.decode("cd");
+        assertEquals(0, decoder.decode("a---reset---\r\nb").size());
+        assertEquals("cdab", decoder.getPending());
+
+        decoder = new StatusFrameDecoder();
+        decoder.decode("a---reset---\r\nb");
+        assertEquals("ab", decoder.getPending());
+
+        decoder = new StatusFrameDecoder();
+        decoder.decode("cd");
+        decoder.decode("a---reset---\r\nb---reset---\r\nc");
+        assertEquals("cdabc", decoder.getPending());
+    }
+
+    @Test
+    public void testInfoFrames() {
+        final StatusFrameDecoder decoder = new StatusFrameDecoder();
+        final List<StatusFrameDecoder.Frame> frames =
+                            new ArrayList<StatusFrameDecoder.Frame>();
+        final String output = "\r\n--hw-info-start--12 abcd\r\nnet-info\r\n"
+                              + "eth0\r\n--hw-info-end--\r\n\r\n"
+                              + "--event-info-start--13\r\n1 ST\r\n"
+                              + "--event-info-end--\r\n";
+        /* in small chunks */
+        for (int i = 0; i < output.length(); i += 7) {
+            frames.addAll(decoder.decode(
+                     output.substring(i, Math.min(i + 7, output.length()))));
+        }
+        assertEquals(2, frames.size());
+        assertEquals("hw", frames.get(0).getType());
+        assertEquals("net-info\r\neth0\r\n", frames.get(0).getContent());
+        assertEquals(12.0, frames.get(0).getTimestamp(), 0.001);
+        assertEquals("abcd", frames.get(0).getHash());
+        assertEquals("event", frames.get(1).getType());
+        assertEquals("1 ST\r\n", frames.get(1).getContent());
+        assertNull(frames.get(1).getHash());
+        assertEquals("", decoder.getPending());
+    }
+
+    @Test
+    public void testClusterFrames() {
+        final StatusFrameDecoder decoder = new StatusFrameDecoder();
+        List<StatusFrameDecoder.Frame> frames =
+                        decoder.decode("---start---abcd\r\ncibadmin\r\nok\r\n"
+                                       + "<pcmk>---reset---\r\n</pcmk>\r\n");
+        assertEquals(0, frames.size());
+        frames = decoder.decode(">>>cibadmin\r\n---done---\r\n"
+                                + "---unchanged---\r\n");
+        assertEquals(2, frames.size());
+        assertEquals(StatusFrameDecoder.CLUSTER, frames.get(0).getType());
+        assertEquals("abcd", frames.get(0).getHash());
+        assertEquals(Arrays.asList("cibadmin",
+                                   "ok",
+                                   "<pcmk></pcmk>",
+                                   ">>>cibadmin",
+                                   "---done---"),
+                     frames.get(0).getLines());
+        assertEquals(StatusFrameDecoder.UNCHANGED, frames.get(1).getType());
+    }
+
+    @Test
+    public void testDecodeAll() {
+        final List<StatusFrameDecoder.Frame> frames =
+                  new StatusFrameDecoder().decodeAll(
+                             "--drbd-info-start--12\n<config/>\n"
+                             + "--drbd-info-end--");
+        assertEquals(1, frames.size());
+        assertEquals("<config/>\n", frames.get(0).getContent());
+    }
+
+    /** A big status in small chunks is decoded into one frame. */
+    @Test
+    public void testBigStatus() {
+        final StringBuilder status = new StringBuilder("---start---\r\n");
+        for (int i = 0; i < 20000; i++) {
+            status.append("<primitive id=\"res_" + i + "\"/>\r\n");
+            if (i % 1000 == 0) {
+                status.append("---reset---\r\n");
+            }
+        }
+        status.append("---done---\r\n");
+        final StatusFrameDecoder decoder = new StatusFrameDecoder();
+        final List<StatusFrameDecoder.Frame> frames =
+                            new ArrayList<StatusFrameDecoder.Frame>();
+        for (int i = 0; i < status.length(); i += 30000) {
+            frames.addAll(decoder.decode(status.substring(
+                                i,
+                                Math.min(i + 30000, status.length()))));
+        }
+        assertEquals(1, frames.size());
+        assertEquals(20001, frames.get(0).getLines().size());
+    }
+}
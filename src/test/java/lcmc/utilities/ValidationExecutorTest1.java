@@ -0,0 +1,110 @@
+package lcmc.utilities;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class ValidationExecutorTest1 extends TestCase {
+    /** Values that were checked. */
+    private final List<Object> checked =
+                        Collections.synchronizedList(new ArrayList<Object>());
+
+    @Before
+    protected void setUp() {
+        checked.clear();
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /** Returns listener that records the checked values. */
+    private WidgetListener listener(final ValidationExecutor executor) {
+        return new WidgetListener(executor) {
+            @Override
+            public void check(final Object value) {
+                checked.add(value);
+            }
+        };
+    }
+
+    /* ---- tests ----- */
+
+    /** Only the last value of fast typing is checked. */
+    @Test
+    public void testCoalesce() {
+        final ValidationExecutor executor = new ValidationExecutor(50);
+        final WidgetListener wl = listener(executor);
+        for (final String text : new String[]{"1", "19", "192", "192."}) {
+            wl.checkLater(text);
+        }
+        Tools.sleep(300);
+        assertEquals(Collections.singletonList("192."), checked);
+    }
+
+    /** Different listeners are not dropped and run in order. */
+    @Test
+    public void testKeys() {
+        final ValidationExecutor executor = new ValidationExecutor(50);
+        final WidgetListener wl1 = listener(executor);
+        final WidgetListener wl2 = listener(executor);
+        wl1.checkLater("a");
+        wl2.checkLater("b");
+        wl1.checkLater("c");
+        Tools.sleep(300);
+        assertEquals(2, checked.size());
+        assertEquals("b", checked.get(0));
+        assertEquals("c", checked.get(1));
+    }
+
+    /** Checks of one executor never run at the same time. */
+    @Test
+    public void testSerial() {
+        final ValidationExecutor executor = new ValidationExecutor(1);
+        final AtomicInteger running = new AtomicInteger(0);
+        final AtomicInteger maxRunning = new AtomicInteger(0);
+        final AtomicInteger runs = new AtomicInteger(0);
+        for (int i = 0; i < 20; i++) {
+            executor.submit(i, new Runnable() {
+                @Override
+                public void run() {
+                    final int r = running.incrementAndGet();
+                    if (r > maxRunning.get()) {
+                        maxRunning.set(r);
+                    }
+                    Tools.sleep(5);
+                    running.decrementAndGet();
+                    runs.incrementAndGet();
+                }
+            });
+            Tools.sleep(2);
+        }
+        for (int i = 0; i < 100 && runs.get() < 20; i++) {
+            Tools.sleep(20);
+        }
+        assertEquals(20, runs.get());
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void testGeneration() {
+        final ValidationExecutor executor = new ValidationExecutor(1000);
+        final long gen = executor.getGeneration();
+        assertTrue(executor.isCurrent(gen));
+        executor.submit("a", new Runnable() {
+            @Override
+            public void run() {
+                checked.add("a");
+            }
+        });
+        assertFalse(executor.isCurrent(gen));
+        executor.cancel();
+        Tools.sleep(100);
+        assertTrue(checked.isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package lcmc.utilities;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.junit.After;
+import org.junit.Before;
+import lcmc.Exceptions;
+import lcmc.data.HostCapabilities;
+
+public final class VersionTest1 extends TestCase {
+    @Before
+    protected void setUp() {
+    }
+
+    @After
+    protected void tearDown() {
+    }
+
+    /* ---- tests ----- */
+
+    @Test
+    public void testCompare() throws Exceptions.IllegalVersionException {
+        assertTrue(Version.parse("2.1.3").isBefore(Version.parse("2.1.4")));
+        assertTrue(Version.parse("8.4.0").isAtLeast(Version.parse("8.4")));
+        assertEquals(0, Version.parse("8.3").compareLoosely(
+                                                  Version.parse("8.3.11")));
+        assertEquals(-1, Version.parse("8.3").compareTo(
+                                                  Version.parse("8.3.11")));
+        assertEquals(1, Version.parse("1.1.8-ee19d8e").compareTo(
+                                                  Version.parse("1.1.7")));
+        assertEquals(-1, Version.parse("2.0.0rc3").compareTo(
+                                                  Version.parse("2.0.0")));
+        assertEquals(-1, Version.parse("2.0.0rc3").compareTo(
+                                                  Version.parse("2.0.0rc4")));
+        assertEquals("1.1.7-ee19d8e",
+                     Version.parse("1.1.7-ee19d8e").toString());
+    }
+
+    @Test
+    public void testTotalOrder() throws Exceptions.IllegalVersionException {
+        final String[] sorted = {"8", "8.3", "8.3.0rc1", "8.3.0", "8.3.11",
+                                 "8.4rc2", "8.4"};
+        for (int i = 0; i < sorted.length; i++) {
+            for (int j = 0; j < sorted.length; j++) {
+                final Version a = Version.parse(sorted[i]);
+                final Version b = Version.parse(sorted[j]);
+                assertEquals(sorted[i] + " " + sorted[j],
+                             Integer.signum(Integer.valueOf(i).compareTo(j)),
+                             a.compareTo(b));
+                assertEquals(a.compareTo(b) == 0, a.equals(b));
+            }
+        }
+    }
+
+    @Test
+    public void testIllegal() {
+        for (final String v : new String[]{null, "", "a.b", "1.x.3"}) {
+            try {
+                Version.parse(v);
+                fail(v);
+            } catch (Exceptions.IllegalVersionException e) {
+                /* expected */
+            }
+        }
+    }
+
+    @Test
+    public void testCapabilities() {
+        final HostCapabilities hb =
+                                new HostCapabilities("2.1.3", null, "8.3.11");
+        assertTrue(hb.isBeforePacemaker());
+        assertTrue(hb.hasCrmConfigOptions());
+        assertFalse(hb.hasStickinessMetaAttrs());
+        assertFalse(hb.hasRequireAll());
+        assertFalse(hb.hasDrbdVolumes());
+
+        final HostCapabilities pcmk =
+                                new HostCapabilities("3.0.5", "1.1.8", "8.4.2");
+        assertFalse(pcmk.isBeforePacemaker());
+        assertTrue(pcmk.hasStickinessMetaAttrs());
+        assertTrue(pcmk.hasRequireAll());
+        assertTrue(pcmk.hasDrbdVolumes());
+
+        final HostCapabilities unknown = new HostCapabilities(null, null, null);
+        assertFalse(unknown.isBeforePacemaker());
+        assertFalse(unknown.hasRequireAll());
+        assertTrue(unknown.hasDrbdVolumes());
+    }
+}